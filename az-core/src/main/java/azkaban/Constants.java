@@ -100,6 +100,9 @@ public class Constants {
   // How often executors will poll new executions in Poll Dispatch model
   public static final int DEFAULT_AZKABAN_POLLING_INTERVAL_MS = 1000;
 
+  // How often executors poll as a fallback when the web server notifies them of new executions
+  public static final int DEFAULT_AZKABAN_POLLING_FALLBACK_INTERVAL_MS = 30 * 1000;
+
   // Executors can use cpu load calculated from this period to take/skip polling turns
   public static final int DEFAULT_AZKABAN_POLLING_CRITERIA_CPU_LOAD_PERIOD_SEC = 60;
 
@@ -118,6 +121,48 @@ public class Constants {
   // How often executors will poll ramp status in Poll Dispatch model
   public static final int DEFAULT_AZKABAN_RAMP_STATUS_POLLING_INTERVAL = 10;
 
+  // How often a running flow writes a full flow_data snapshot when delta updates are enabled
+  public static final long DEFAULT_AZKABAN_FLOW_SNAPSHOT_INTERVAL_MS = 60 * 1000;
+
+  // Window within which non-terminal status updates are coalesced by the write-behind buffer
+  public static final long DEFAULT_STATUS_UPDATE_FLUSH_INTERVAL_MS = 500;
+
+  // Connection pool and timeout defaults of the HTTP client used to call executors
+  public static final int DEFAULT_EXECUTOR_CLIENT_MAX_CONNECTIONS = 200;
+  public static final int DEFAULT_EXECUTOR_CLIENT_MAX_CONNECTIONS_PER_ROUTE = 20;
+  public static final int DEFAULT_EXECUTOR_CLIENT_CONNECT_TIMEOUT_MS = 10 * 1000;
+  // Bounds the calls which only read the state of the executor, e.g. status updates and log
+  // fetches or searches. The time budget of a log search is at most 10s.
+  public static final int DEFAULT_EXECUTOR_CLIENT_SOCKET_TIMEOUT_MS = 20 * 1000;
+  // No timeout: the executor answers a dispatch once it has set up the project of the flow, which
+  // downloads and unzips it. A dispatch that times out while the executor is still setting up the
+  // flow would be retried on another executor.
+  public static final int DEFAULT_EXECUTOR_CLIENT_DISPATCH_SOCKET_TIMEOUT_MS = 0;
+  public static final int DEFAULT_EXECUTOR_CLIENT_CONNECTION_REQUEST_TIMEOUT_MS = 10 * 1000;
+  public static final long DEFAULT_EXECUTOR_CLIENT_MAX_IDLE_MS = 30 * 1000;
+
+  // Concurrency and per round deadline of the status updates fetched from executors
+  public static final int DEFAULT_EXECUTOR_UPDATE_THREADS = 10;
+  public static final long DEFAULT_EXECUTOR_UPDATE_TIMEOUT_MS = 30 * 1000;
+
+  // How often the full chunks of the logs of running jobs are uploaded
+  public static final long DEFAULT_JOB_LOG_UPLOAD_INTERVAL_MS = 10 * 1000;
+
+  // Size of the cache of decompressed log chunks read from the log storage
+  public static final int DEFAULT_LOGS_CHUNK_CACHE_SIZE_MB = 64;
+
+  // Number of running executions cached by the web server for the status polling of the UI
+  public static final int DEFAULT_RUNNING_FLOW_CACHE_SIZE = 200;
+
+  // Long polling of the execution pages for status updates
+  public static final long DEFAULT_EXECUTION_UPDATE_WAIT_MAX_MS = 30 * 1000;
+  public static final long DEFAULT_EXECUTION_UPDATE_WAIT_INTERVAL_MS = 1000;
+  // Share of the jetty threads that can be held by long polls, the rest serve the other requests
+  public static final int DEFAULT_EXECUTION_UPDATE_MAX_WAITERS_PERCENT = 50;
+
+  // Max number of project versions of queued executions prefetched by an executor per poll
+  public static final int DEFAULT_PROJECT_PREFETCH_MAX_PROJECTS = 5;
+
   public static class ConfigurationKeys {
 
     public static final String AZKABAN_GLOBAL_PROPERTIES_EXT_PATH = "executor.global.properties";
@@ -126,6 +171,13 @@ public class Constants {
     public static final String AZKABAN_POLL_MODEL = "azkaban.poll.model";
     public static final String AZKABAN_POLLING_INTERVAL_MS = "azkaban.polling.interval.ms";
     public static final String AZKABAN_POLLING_LOCK_ENABLED = "azkaban.polling.lock.enabled";
+    // Max number of executions claimed per poll. Values above 1 enable batch claiming.
+    public static final String AZKABAN_POLLING_BATCH_SIZE = "azkaban.polling.batch.size";
+    // Web server notifies executors of newly queued executions, executors poll only as fallback
+    public static final String AZKABAN_DISPATCH_NOTIFICATION_ENABLED =
+        "azkaban.dispatch.notification.enabled";
+    public static final String AZKABAN_POLLING_FALLBACK_INTERVAL_MS =
+        "azkaban.polling.fallback.interval.ms";
     public static final String AZKABAN_POLLING_CRITERIA_FLOW_THREADS_AVAILABLE =
         "azkaban.polling_criteria.flow_threads_available";
     public static final String AZKABAN_POLLING_CRITERIA_MIN_FREE_MEMORY_GB =
@@ -134,6 +186,11 @@ public class Constants {
         "azkaban.polling_criteria.max_cpu_utilization_pct";
     public static final String AZKABAN_POLLING_CRITERIA_CPU_LOAD_PERIOD_SEC =
         "azkaban.polling_criteria.cpu_load_period_sec";
+    // Executors download the projects of queued executions into the project cache while polling
+    public static final String AZKABAN_PROJECT_PREFETCH_ENABLED =
+        "azkaban.project_prefetch.enabled";
+    public static final String AZKABAN_PROJECT_PREFETCH_MAX_PROJECTS =
+        "azkaban.project_prefetch.max_projects";
 
     // Configures properties for Azkaban executor health check
     public static final String AZKABAN_EXECUTOR_HEALTHCHECK_INTERVAL_MIN = "azkaban.executor.healthcheck.interval.min";
@@ -209,6 +266,29 @@ public class Constants {
     // To set a fixed port for executor-server. Otherwise some available port is used.
     public static final String EXECUTOR_PORT = "executor.port";
 
+    // HTTP client used to call executors. Connections are pooled and kept alive.
+    public static final String EXECUTOR_CLIENT_MAX_CONNECTIONS =
+        "azkaban.executor.client.max.connections";
+    public static final String EXECUTOR_CLIENT_MAX_CONNECTIONS_PER_ROUTE =
+        "azkaban.executor.client.max.connections.per.route";
+    public static final String EXECUTOR_CLIENT_CONNECT_TIMEOUT_MS =
+        "azkaban.executor.client.connect.timeout.ms";
+    public static final String EXECUTOR_CLIENT_SOCKET_TIMEOUT_MS =
+        "azkaban.executor.client.socket.timeout.ms";
+    // Socket timeout of the calls dispatching a flow to an executor, 0 for no timeout
+    public static final String EXECUTOR_CLIENT_DISPATCH_SOCKET_TIMEOUT_MS =
+        "azkaban.executor.client.dispatch.socket.timeout.ms";
+    // Max time to wait for a connection from the pool
+    public static final String EXECUTOR_CLIENT_CONNECTION_REQUEST_TIMEOUT_MS =
+        "azkaban.executor.client.connection.request.timeout.ms";
+    // Idle pooled connections are closed after this time
+    public static final String EXECUTOR_CLIENT_MAX_IDLE_MS = "azkaban.executor.client.max.idle.ms";
+
+    // Number of executors the web server fetches running execution updates from concurrently
+    public static final String EXECUTOR_UPDATE_THREADS = "azkaban.executor.update.threads";
+    // Max time to wait for the execution updates of one executor
+    public static final String EXECUTOR_UPDATE_TIMEOUT_MS = "azkaban.executor.update.timeout.ms";
+
     // Max flow running time in mins, server will kill flows running longer than this setting.
     // if not set or <= 0, then there's no restriction on running time.
     public static final String AZKABAN_MAX_FLOW_RUNNING_MINS = "azkaban.server.flow.max.running.minutes";
@@ -258,6 +338,49 @@ public class Constants {
      **/
     public static final String AZKABAN_STORAGE_ARTIFACT_MAX_RETENTION = "azkaban.storage.artifact.max.retention";
 
+    // Where the execution logs are stored: DATABASE (default), FILESYSTEM or a custom LogStorage
+    // class name.
+    public static final String AZKABAN_LOGS_STORAGE_TYPE = "azkaban.logs.storage.type";
+    // Root of the log segments of the FILESYSTEM log storage, e.g. hdfs://namenode/azkaban/logs
+    public static final String AZKABAN_LOGS_STORAGE_ROOT_URI = "azkaban.logs.storage.root.uri";
+    // Maximum size of the decompressed log chunks cached for reads, 0 disables the cache.
+    public static final String AZKABAN_LOGS_CHUNK_CACHE_SIZE_MB = "azkaban.logs.chunk_cache.size.mb";
+
+    // Encoding type of the stored data, per table: PLAIN, GZIP (default), LZ4 or ZSTD. Rows are
+    // read with the encoding type stored next to them, so the type can be changed at any time.
+    // Flow data of executions (execution_flows and execution_flow_updates)
+    public static final String AZKABAN_FLOW_DATA_ENCODING_TYPE =
+        "azkaban.flow_data.encoding.type";
+    // Whether the flow data of executions is written in the binary format instead of JSON. The
+    // flow data is read in both formats, enable once all the servers can read it.
+    public static final String AZKABAN_FLOW_DATA_BINARY_FORMAT_ENABLED =
+        "azkaban.flow_data.binary_format.enabled";
+    // Log chunks of the DATABASE log storage (execution_logs)
+    public static final String AZKABAN_LOGS_ENCODING_TYPE = "azkaban.logs.encoding.type";
+    // Flows and properties of uploaded projects (project_flows and project_properties)
+    public static final String AZKABAN_PROJECT_FLOW_ENCODING_TYPE =
+        "azkaban.project.flow.encoding.type";
+    // Schedules and other triggers (triggers)
+    public static final String AZKABAN_TRIGGER_ENCODING_TYPE = "azkaban.trigger.encoding.type";
+
+    // Maximum number of running executions the web server keeps in memory for the status
+    // polling of the UI, 0 disables the cache.
+    public static final String AZKABAN_RUNNING_FLOW_CACHE_SIZE = "azkaban.running_flow_cache.size";
+
+    // Number of threads of the jetty server
+    public static final String JETTY_MAX_THREADS = "jetty.maxThreads";
+
+    // Longest time a request of the execution pages is held until the execution changes
+    public static final String AZKABAN_EXECUTION_UPDATE_WAIT_MAX_MS =
+        "azkaban.webserver.execution_update.wait.max.ms";
+    // Interval of the checks for changes of a held request
+    public static final String AZKABAN_EXECUTION_UPDATE_WAIT_INTERVAL_MS =
+        "azkaban.webserver.execution_update.wait.interval.ms";
+    // Maximum number of requests held at once, half of jetty.maxThreads by default. Each of them
+    // holds a jetty thread. Requests above it are answered right away, 0 disables the waits.
+    public static final String AZKABAN_EXECUTION_UPDATE_MAX_WAITERS =
+        "azkaban.webserver.execution_update.max.waiters";
+
     // enable quartz scheduler and flow trigger if true.
     public static final String ENABLE_QUARTZ = "azkaban.server.schedule.enable_quartz";
 
@@ -304,6 +427,14 @@ public class Constants {
     public static final String PROJECT_CACHE_THROTTLE_PERCENTAGE =
         "azkaban.project_cache_throttle_percentage";
 
+    // Executors store the startup dependencies of thin archives once, shared by the project dirs
+    public static final String PROJECT_CACHE_SHARED_DEPENDENCIES_ENABLED =
+        "azkaban.project_cache_shared_dependencies.enabled";
+
+    // Executors extract project zips while downloading them, instead of from a local copy
+    public static final String PROJECT_STREAMING_DOWNLOAD_ENABLED =
+        "azkaban.project_streaming_download.enabled";
+
     // how many older versions of project files are kept in DB before deleting them
     public static final String PROJECT_VERSION_RETENTION = "project.version.retention";
 
@@ -331,6 +462,46 @@ public class Constants {
     public static final String AZKABAN_RAMP_STATUS_POLLING_CPU_MAX = "azkaban.ramp.status.polling.cpu.max";
     public static final String AZKABAN_RAMP_STATUS_POLLING_MEMORY_MIN = "azkaban.ramp.status.polling.memory.min";
 
+    // Persist node status changes of running flows as deltas instead of rewriting flow_data
+    public static final String AZKABAN_FLOW_DELTA_UPDATE_ENABLED =
+        "azkaban.flow.delta_update.enabled";
+    // Interval between full flow_data snapshots of a running flow when delta updates are enabled
+    public static final String AZKABAN_FLOW_SNAPSHOT_INTERVAL_MS =
+        "azkaban.flow.snapshot.interval.ms";
+
+    // Coalesce non-terminal flow and job status updates in an executor-wide write-behind buffer
+    public static final String AZKABAN_STATUS_UPDATE_WRITE_BEHIND_ENABLED =
+        "azkaban.status_update.write_behind.enabled";
+    public static final String AZKABAN_STATUS_UPDATE_FLUSH_INTERVAL_MS =
+        "azkaban.status_update.flush.interval.ms";
+
+    // Start the jobs of a flow with the event driven dag engine instead of rescanning the flow
+    public static final String AZKABAN_FLOW_DAG_ENGINE_ENABLED = "azkaban.flow.dag_engine.enabled";
+
+    // Run the jobs of all flows in an executor-wide pool shared by priority
+    public static final String AZKABAN_JOB_SCHEDULER_ENABLED = "azkaban.job_scheduler.enabled";
+    // Maximum number of jobs running at the same time on the executor
+    public static final String AZKABAN_JOB_SCHEDULER_MAX_RUNNING_JOBS =
+        "azkaban.job_scheduler.max.running.jobs";
+    // Maximum number of jobs of a single flow running at the same time, flow.num.job.threads by
+    // default
+    public static final String AZKABAN_JOB_SCHEDULER_MAX_JOBS_PER_FLOW =
+        "azkaban.job_scheduler.max.jobs.per.flow";
+
+    // Run jobs and read their process output on virtual threads if the JVM supports them
+    public static final String AZKABAN_JOB_VIRTUAL_THREADS_ENABLED =
+        "azkaban.job.virtual_threads.enabled";
+
+    // Read the output of all job processes on a single thread instead of two threads per process
+    public static final String AZKABAN_JOB_OUTPUT_MULTIPLEXER_ENABLED =
+        "azkaban.job.output_multiplexer.enabled";
+
+    // Upload job logs in chunks while the jobs run instead of only when they finish
+    public static final String AZKABAN_JOB_LOG_STREAMING_UPLOAD_ENABLED =
+        "azkaban.job.log.streaming_upload.enabled";
+    public static final String AZKABAN_JOB_LOG_UPLOAD_INTERVAL_MS =
+        "azkaban.job.log.upload.interval.ms";
+
     public static final String EXECUTION_LOGS_RETENTION_MS = "execution.logs.retention.ms";
     public static final String EXECUTION_LOGS_CLEANUP_INTERVAL_SECONDS =
         "execution.logs.cleanup.interval.seconds";
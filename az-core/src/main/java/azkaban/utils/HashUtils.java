@@ -54,7 +54,7 @@ public enum HashUtils {
     return type;
   }
 
-  private MessageDigest getDigest() {
+  public MessageDigest getDigest() {
     MessageDigest digest;
     try {
       digest = MessageDigest.getInstance(getName());
@@ -20,21 +20,23 @@ import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.Reader;
 import java.io.Writer;
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.Map;
-import org.codehaus.jackson.JsonFactory;
-import org.codehaus.jackson.JsonNode;
 import org.codehaus.jackson.JsonParser;
+import org.codehaus.jackson.JsonToken;
 import org.codehaus.jackson.map.ObjectMapper;
 import org.codehaus.jackson.map.ObjectWriter;
 
 public class JSONUtils {
 
+  // Thread safe, and expensive to create
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
   /**
    * The constructor. Cannot construct this class.
    */
@@ -46,14 +48,12 @@ public class JSONUtils {
   }
 
   public static String toJSON(final Object obj, final boolean prettyPrint) {
-    final ObjectMapper mapper = new ObjectMapper();
-
     try {
       if (prettyPrint) {
-        final ObjectWriter writer = mapper.writerWithDefaultPrettyPrinter();
+        final ObjectWriter writer = MAPPER.writerWithDefaultPrettyPrinter();
         return writer.writeValueAsString(obj);
       }
-      return mapper.writeValueAsString(obj);
+      return MAPPER.writeValueAsString(obj);
     } catch (final Exception e) {
       throw new RuntimeException(e);
     }
@@ -63,16 +63,19 @@ public class JSONUtils {
     toJSON(obj, stream, false);
   }
 
+  /**
+   * Writes the JSON to the stream as it is generated, without building the whole String first.
+   * The stream is closed.
+   */
   public static void toJSON(final Object obj, final OutputStream stream,
       final boolean prettyPrint) {
-    final ObjectMapper mapper = new ObjectMapper();
     try {
       if (prettyPrint) {
-        final ObjectWriter writer = mapper.writerWithDefaultPrettyPrinter();
+        final ObjectWriter writer = MAPPER.writerWithDefaultPrettyPrinter();
         writer.writeValue(stream, obj);
         return;
       }
-      mapper.writeValue(stream, obj);
+      MAPPER.writeValue(stream, obj);
     } catch (final Exception e) {
       throw new RuntimeException(e);
     }
@@ -103,70 +106,76 @@ public class JSONUtils {
   }
 
   public static Object parseJSONFromString(final String json) throws IOException {
-    final ObjectMapper mapper = new ObjectMapper();
-    final JsonFactory factory = new JsonFactory();
-    final JsonParser parser = factory.createJsonParser(json);
-    final JsonNode node = mapper.readTree(parser);
-
-    return toObjectFromJSONNode(node);
+    return parseJSON(MAPPER.getJsonFactory().createJsonParser(json));
   }
 
   public static Object parseJSONFromFile(final File file) throws IOException {
-    final ObjectMapper mapper = new ObjectMapper();
-    final JsonFactory factory = new JsonFactory();
-    final JsonParser parser = factory.createJsonParser(file);
-    final JsonNode node = mapper.readTree(parser);
-
-    return toObjectFromJSONNode(node);
+    return parseJSON(MAPPER.getJsonFactory().createJsonParser(file));
   }
 
   public static Object parseJSONFromReader(final Reader reader) throws IOException {
-    final ObjectMapper mapper = new ObjectMapper();
-    final JsonFactory factory = new JsonFactory();
-    final JsonParser parser = factory.createJsonParser(reader);
-    final JsonNode node = mapper.readTree(parser);
+    return parseJSON(MAPPER.getJsonFactory().createJsonParser(reader));
+  }
 
-    return toObjectFromJSONNode(node);
+  /**
+   * Parses UTF-8 JSON as it is read from the stream, e.g. a decompressing stream, without
+   * reading the whole text first. The stream is closed.
+   */
+  public static Object parseJSONFromStream(final InputStream stream) throws IOException {
+    return parseJSON(MAPPER.getJsonFactory().createJsonParser(stream));
   }
 
-  private static Object toObjectFromJSONNode(final JsonNode node) {
-    if (node.isObject()) {
-      final HashMap<String, Object> obj = new HashMap<>();
-      final Iterator<String> iter = node.getFieldNames();
-      while (iter.hasNext()) {
-        final String fieldName = iter.next();
-        final JsonNode subNode = node.get(fieldName);
-        final Object subObj = toObjectFromJSONNode(subNode);
-        obj.put(fieldName, subObj);
+  /**
+   * Builds the maps and lists directly from the tokens, there is no intermediate tree of nodes.
+   */
+  private static Object parseJSON(final JsonParser parser) throws IOException {
+    try {
+      if (parser.nextToken() == null) {
+        return null;
       }
+      return toObjectFromParser(parser);
+    } finally {
+      parser.close();
+    }
+  }
 
-      return obj;
-    } else if (node.isArray()) {
-      final ArrayList<Object> array = new ArrayList<>();
-      final Iterator<JsonNode> iter = node.getElements();
-      while (iter.hasNext()) {
-        final JsonNode element = iter.next();
-        final Object subObject = toObjectFromJSONNode(element);
-        array.add(subObject);
-      }
-      return array;
-    } else if (node.isTextual()) {
-      return node.asText();
-    } else if (node.isNumber()) {
-      if (node.isInt()) {
-        return node.asInt();
-      } else if (node.isLong()) {
-        return node.asLong();
-      } else if (node.isDouble()) {
-        return node.asDouble();
-      } else {
-        System.err.println("ERROR What is this!? " + node.getNumberType());
+  private static Object toObjectFromParser(final JsonParser parser) throws IOException {
+    final JsonToken token = parser.getCurrentToken();
+    switch (token) {
+      case START_OBJECT:
+        final HashMap<String, Object> obj = new HashMap<>();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+          final String fieldName = parser.getCurrentName();
+          parser.nextToken();
+          obj.put(fieldName, toObjectFromParser(parser));
+        }
+        return obj;
+      case START_ARRAY:
+        final ArrayList<Object> array = new ArrayList<>();
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+          array.add(toObjectFromParser(parser));
+        }
+        return array;
+      case VALUE_STRING:
+        return parser.getText();
+      case VALUE_NUMBER_INT:
+        switch (parser.getNumberType()) {
+          case INT:
+            return parser.getIntValue();
+          case LONG:
+            return parser.getLongValue();
+          default:
+            System.err.println("ERROR What is this!? " + parser.getNumberType());
+            return null;
+        }
+      case VALUE_NUMBER_FLOAT:
+        return parser.getDoubleValue();
+      case VALUE_TRUE:
+        return true;
+      case VALUE_FALSE:
+        return false;
+      default:
         return null;
-      }
-    } else if (node.isBoolean()) {
-      return node.asBoolean();
-    } else {
-      return null;
     }
   }
 
@@ -38,6 +38,7 @@ import java.util.Random;
 import java.util.TimeZone;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
 import java.util.zip.ZipOutputStream;
 import org.apache.commons.io.IOUtils;
 import org.apache.log4j.Logger;
@@ -204,12 +205,7 @@ public class Utils {
     final Enumeration<?> entries = source.entries();
     while (entries.hasMoreElements()) {
       final ZipEntry entry = (ZipEntry) entries.nextElement();
-      final File newFile = new File(dest, entry.getName());
-      if (!newFile.getCanonicalPath().startsWith(dest.getCanonicalPath())) {
-        throw new IOException(
-            "Extracting zip entry would have resulted in a file outside the specified destination"
-                + " directory.");
-      }
+      final File newFile = getZipEntryFile(entry, dest);
 
       if (entry.isDirectory()) {
         newFile.mkdirs();
@@ -231,6 +227,36 @@ public class Utils {
     }
   }
 
+  /**
+   * Extracts the entries of a zip stream while it is read, e.g. while the archive is downloaded.
+   * Unlike {@link #unzip(ZipFile, File)}, the archive doesn't need to be stored in a file first.
+   */
+  public static void unzip(final ZipInputStream source, final File dest) throws IOException {
+    ZipEntry entry;
+    while ((entry = source.getNextEntry()) != null) {
+      final File newFile = getZipEntryFile(entry, dest);
+
+      if (entry.isDirectory()) {
+        newFile.mkdirs();
+      } else {
+        newFile.getParentFile().mkdirs();
+        try (final OutputStream output = new BufferedOutputStream(new FileOutputStream(newFile))) {
+          IOUtils.copy(source, output);
+        }
+      }
+    }
+  }
+
+  private static File getZipEntryFile(final ZipEntry entry, final File dest) throws IOException {
+    final File newFile = new File(dest, entry.getName());
+    if (!newFile.getCanonicalPath().startsWith(dest.getCanonicalPath())) {
+      throw new IOException(
+          "Extracting zip entry would have resulted in a file outside the specified destination"
+              + " directory.");
+    }
+    return newFile;
+  }
+
   public static String flattenToString(final Collection<?> collection,
       final String delimiter) {
     final StringBuffer buffer = new StringBuffer();
@@ -15,9 +15,13 @@
  */
 package azkaban.utils;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.StringWriter;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import org.junit.Assert;
 import org.junit.Test;
@@ -68,4 +72,28 @@ public class JSONUtilsTest {
         (Map<String, String>) JSONUtils.parseJSONFromString(jsonStr);
     checkInAndOut(test, result);
   }
+
+  @Test
+  public void parseJSONFromStreamTest() throws IOException {
+    final Map<String, Object> test = new HashMap<>();
+    test.put("int", 1);
+    test.put("long", 5000000000L);
+    test.put("double", 1.5);
+    test.put("bool", true);
+    test.put("null", null);
+    test.put("list", Arrays.asList("a", "b"));
+
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    JSONUtils.toJSON(test, out);
+
+    final Map<String, Object> result = (Map<String, Object>) JSONUtils
+        .parseJSONFromStream(new ByteArrayInputStream(out.toByteArray()));
+    Assert.assertEquals(test, result);
+    Assert.assertTrue(result.get("list") instanceof List);
+  }
+
+  @Test
+  public void parseEmptyJSONFromStreamTest() throws IOException {
+    Assert.assertNull(JSONUtils.parseJSONFromStream(new ByteArrayInputStream(new byte[0])));
+  }
 }
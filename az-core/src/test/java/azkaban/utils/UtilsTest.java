@@ -15,15 +15,21 @@
  */
 package azkaban.utils;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
 import java.util.zip.ZipOutputStream;
+import org.apache.commons.io.FileUtils;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -61,6 +67,46 @@ public class UtilsTest {
     }
   }
 
+  @Test
+  public void testUnzipStream() throws IOException {
+    final ByteArrayOutputStream zipBytes = new ByteArrayOutputStream();
+    try (final ZipOutputStream out = new ZipOutputStream(zipBytes)) {
+      out.putNextEntry(new ZipEntry("dir/"));
+      out.putNextEntry(new ZipEntry("dir/a.txt"));
+      out.write("a".getBytes(StandardCharsets.UTF_8));
+      out.putNextEntry(new ZipEntry("b.txt"));
+      out.write("b".getBytes(StandardCharsets.UTF_8));
+    }
+
+    final File dest = Utils.createTempDir();
+    try {
+      Utils.unzip(new ZipInputStream(new ByteArrayInputStream(zipBytes.toByteArray())), dest);
+      assertThat(new File(dest, "dir/a.txt")).hasContent("a");
+      assertThat(new File(dest, "b.txt")).hasContent("b");
+    } finally {
+      FileUtils.deleteDirectory(dest);
+    }
+  }
+
+  @Test
+  public void testUnzipInsecureStream() throws IOException {
+    final ByteArrayOutputStream zipBytes = new ByteArrayOutputStream();
+    try (final ZipOutputStream out = new ZipOutputStream(zipBytes)) {
+      out.putNextEntry(new ZipEntry("../../../../../evil.txt"));
+    }
+
+    final File dest = Utils.createTempDir();
+    try {
+      assertThatThrownBy(() -> Utils.unzip(
+          new ZipInputStream(new ByteArrayInputStream(zipBytes.toByteArray())), dest))
+          .isInstanceOf(IOException.class)
+          .hasMessageContaining("Extracting zip entry would have resulted in a file outside the "
+              + "specified destination directory.");
+    } finally {
+      FileUtils.deleteDirectory(dest);
+    }
+  }
+
   @Test
   public void testRunProcess() throws IOException, InterruptedException {
     ArrayList<String> result =
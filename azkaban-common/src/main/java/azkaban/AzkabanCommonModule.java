@@ -24,8 +24,10 @@ import azkaban.executor.ExecutorLoader;
 import azkaban.executor.JdbcExecutorLoader;
 import azkaban.project.JdbcProjectImpl;
 import azkaban.project.ProjectLoader;
+import azkaban.spi.LogStorage;
 import azkaban.spi.Storage;
 import azkaban.spi.StorageException;
+import azkaban.storage.LogStorageImplementationType;
 import azkaban.storage.StorageImplementationType;
 import azkaban.trigger.JdbcTriggerImpl;
 import azkaban.trigger.TriggerLoader;
@@ -59,6 +61,7 @@ public class AzkabanCommonModule extends AbstractModule {
   protected void configure() {
     install(new AzkabanCoreModule(this.props));
     bind(Storage.class).to(resolveStorageClassType());
+    bind(LogStorage.class).to(resolveLogStorageClassType());
     bind(AzkabanDataSource.class).to(resolveDataSourceType());
     bind(TriggerLoader.class).to(JdbcTriggerImpl.class);
     bind(ProjectLoader.class).to(JdbcProjectImpl.class);
@@ -95,6 +98,21 @@ public class AzkabanCommonModule extends AbstractModule {
     }
   }
 
+  public Class<? extends LogStorage> resolveLogStorageClassType() {
+    final LogStorageImplementationType type = LogStorageImplementationType
+        .from(this.config.getLogStorageImplementation());
+    if (type != null) {
+      return type.getImplementationClass();
+    } else {
+      try {
+        return (Class<? extends LogStorage>) Class
+            .forName(this.config.getLogStorageImplementation());
+      } catch (final ClassNotFoundException e) {
+        throw new StorageException(e);
+      }
+    }
+  }
+
   private Class<? extends AzkabanDataSource> resolveDataSourceType() {
 
     final String databaseType = this.props.getString("database.type");
@@ -20,6 +20,7 @@ package azkaban;
 import static azkaban.Constants.ConfigurationKeys.*;
 import static azkaban.storage.StorageImplementationType.DATABASE;
 
+import azkaban.storage.LogStorageImplementationType;
 import azkaban.storage.StorageImplementationType;
 import azkaban.utils.Props;
 import javax.inject.Inject;
@@ -36,6 +37,7 @@ public class AzkabanCommonModuleConfig {
   private final URI cacheDependencyRootUri;
   private final URI originDependencyRootUri;
   private final boolean dependencyCachingEnabled;
+  private final URI logStorageRootUri;
   /**
    * Storage Implementation This can be any of the {@link StorageImplementationType} values in which
    * case {@link StorageFactory} will create the appropriate storage instance. Or one can feed in a
@@ -46,6 +48,12 @@ public class AzkabanCommonModuleConfig {
   private String storageImplementation = DATABASE.name();
   private String localStorageBaseDirPath = "./local/storage";
 
+  /**
+   * Log storage implementation. This can be any of the {@link LogStorageImplementationType} values
+   * or the fully qualified name of a custom {@link azkaban.spi.LogStorage} class.
+   */
+  private String logStorageImplementation = LogStorageImplementationType.DATABASE.name();
+
   @Inject
   public AzkabanCommonModuleConfig(final Props props) {
     this.props = props;
@@ -56,6 +64,8 @@ public class AzkabanCommonModuleConfig {
     this.cacheDependencyRootUri = props.getUri(AZKABAN_STORAGE_CACHE_DEPENDENCY_ROOT_URI, null, true);
     this.originDependencyRootUri = props.getUri(AZKABAN_STORAGE_ORIGIN_DEPENDENCY_ROOT_URI, null, true);
     this.dependencyCachingEnabled = props.getBoolean(AZKABAN_STORAGE_CACHE_DEPENDENCY_ENABLED, true);
+    this.logStorageImplementation = props.getString(AZKABAN_LOGS_STORAGE_TYPE, this.logStorageImplementation);
+    this.logStorageRootUri = props.getUri(AZKABAN_LOGS_STORAGE_ROOT_URI, null, true);
   }
 
   public Props getProps() {
@@ -84,4 +94,12 @@ public class AzkabanCommonModuleConfig {
 
   public boolean getDependencyCachingEnabled() {
     return this.dependencyCachingEnabled; }
+
+  public String getLogStorageImplementation() {
+    return this.logStorageImplementation;
+  }
+
+  public URI getLogStorageRootUri() {
+    return this.logStorageRootUri;
+  }
 }
@@ -15,12 +15,18 @@
  */
 package azkaban.executor;
 
+import azkaban.db.EncodingType;
 import azkaban.flow.Flow;
 import azkaban.project.Project;
 import azkaban.sla.SlaOption;
+import azkaban.utils.GZIPUtils;
+import azkaban.utils.JSONUtils;
 import azkaban.utils.Props;
 import azkaban.utils.TypedMapWrapper;
 import com.sun.istack.NotNull;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
@@ -93,6 +99,23 @@ public class ExecutableFlow extends ExecutableFlowBase {
     return exFlow;
   }
 
+  /**
+   * Creates the flow from the stored flow data, which is either JSON or in the binary format of
+   * {@link ExecutableFlowCodec}.
+   */
+  public static ExecutableFlow createExecutableFlow(final byte[] data,
+      final EncodingType encType, final Status status) throws IOException {
+    try (final InputStream decoded = new BufferedInputStream(
+        GZIPUtils.decodeStream(data, encType))) {
+      if (ExecutableFlowCodec.isBinary(decoded)) {
+        final ExecutableFlow exFlow = ExecutableFlowCodec.decode(decoded);
+        exFlow.setStatus(status);
+        return exFlow;
+      }
+      return createExecutableFlow(JSONUtils.parseJSONFromStream(decoded), status);
+    }
+  }
+
   @Override
   public String getId() {
     return getFlowId();
@@ -321,6 +344,68 @@ public class ExecutableFlow extends ExecutableFlowBase {
     this.setFlowLockErrorMessage(flowObj.getString(FLOW_LOCK_ERROR_MESSAGE_PARAM, null));
   }
 
+  /**
+   * The execution and SLA options are small and written once per flow, so they are embedded as
+   * JSON.
+   */
+  @Override
+  void fillBinaryFromExecutable(final ExecutableFlowCodec.Output out) throws IOException {
+    super.fillBinaryFromExecutable(out);
+
+    out.writeInt(this.executionId);
+    out.writeString(this.executionPath);
+    out.writeInt(this.projectId);
+    out.writeString(this.projectName);
+    out.writeInt(this.scheduleId);
+    out.writeString(this.submitUser);
+    out.writeInt(this.version);
+    out.writeLong(this.lastModifiedTimestamp);
+    out.writeString(this.lastModifiedUser);
+    out.writeLong(this.submitTime);
+    out.writeDouble(this.azkabanFlowVersion);
+    out.writeStrings(this.proxyUsers);
+    out.writeBoolean(this.isLocked);
+    out.writeString(this.flowLockErrorMessage);
+
+    final Map<String, Object> options = new HashMap<>();
+    options.put(EXECUTIONOPTIONS_PARAM, this.executionOptions.toObject());
+    final List<Map<String, Object>> slaOptions = new ArrayList<>();
+    if (this.executionOptions.getSlaOptions() != null) {
+      for (final SlaOption slaOption : this.executionOptions.getSlaOptions()) {
+        slaOptions.add(slaOption.toObject());
+      }
+    }
+    options.put(SLAOPTIONS_PARAM, slaOptions);
+    out.writeString(JSONUtils.toJSON(options));
+  }
+
+  @Override
+  void fillExecutableFromBinary(final ExecutableFlowCodec.Input in) throws IOException {
+    super.fillExecutableFromBinary(in);
+
+    this.executionId = in.readInt();
+    this.executionPath = in.readString();
+    this.projectId = in.readInt();
+    this.projectName = in.readString();
+    this.scheduleId = in.readInt();
+    this.submitUser = in.readString();
+    this.version = in.readInt();
+    this.lastModifiedTimestamp = in.readLong();
+    this.lastModifiedUser = in.readString();
+    this.submitTime = in.readLong();
+    this.azkabanFlowVersion = in.readDouble();
+    in.readStrings(this.proxyUsers);
+    this.isLocked = in.readBoolean();
+    this.flowLockErrorMessage = in.readString();
+
+    final TypedMapWrapper<String, Object> options = new TypedMapWrapper<>(
+        (Map<String, Object>) JSONUtils.parseJSONFromString(in.readString()));
+    this.executionOptions = ExecutionOptions.createFromObject(
+        options.getObject(EXECUTIONOPTIONS_PARAM));
+    this.executionOptions.setSlaOptions(options.getList(SLAOPTIONS_PARAM).stream()
+        .map(SlaOption::fromObject).collect(Collectors.toList()));
+  }
+
   @Override
   public Map<String, Object> toUpdateObject(final long lastUpdateTime) {
     final Map<String, Object> updateData = super.toUpdateObject(lastUpdateTime);
@@ -22,6 +22,7 @@ import azkaban.flow.Node;
 import azkaban.flow.SpecialJobTypes;
 import azkaban.project.Project;
 import azkaban.utils.TypedMapWrapper;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
@@ -114,6 +115,10 @@ public class ExecutableFlowBase extends ExecutableNode {
     return this.flowId;
   }
 
+  void setFlowId(final String flowId) {
+    this.flowId = flowId;
+  }
+
   public String getFlowName() {
     return String.format(FLOW_ID_FORMAT_PATTERN, this.getProjectName(), this.getFlowId());
   }
@@ -293,6 +298,48 @@ public class ExecutableFlowBase extends ExecutableNode {
     }
   }
 
+  @Override
+  void fillBinaryFromExecutable(final ExecutableFlowCodec.Output out) throws IOException {
+    super.fillBinaryFromExecutable(out);
+
+    out.writeString(this.flowId);
+
+    out.writeInt(this.executableNodes.size());
+    for (final ExecutableNode node : this.executableNodes.values()) {
+      out.writeBoolean(node instanceof ExecutableFlowBase);
+      node.fillBinaryFromExecutable(out);
+    }
+
+    out.writeInt(this.flowProps.size());
+    for (final FlowProps fprop : this.flowProps.values()) {
+      out.writeString(fprop.getSource());
+      out.writeString(fprop.getInheritedSource());
+    }
+  }
+
+  @Override
+  void fillExecutableFromBinary(final ExecutableFlowCodec.Input in) throws IOException {
+    super.fillExecutableFromBinary(in);
+
+    this.flowId = in.readString();
+
+    final int nodeCount = in.readInt();
+    for (int i = 0; i < nodeCount; i++) {
+      final ExecutableNode node = in.readBoolean() ? new ExecutableFlowBase()
+          : new ExecutableNode();
+      node.fillExecutableFromBinary(in);
+      node.setParentFlow(this);
+      this.executableNodes.put(node.getId(), node);
+    }
+
+    final int propsCount = in.readInt();
+    for (int i = 0; i < propsCount; i++) {
+      final String source = in.readString();
+      final String inheritedSource = in.readString();
+      this.flowProps.put(source, new FlowProps(inheritedSource, source));
+    }
+  }
+
   public Map<String, Object> toUpdateObject(final long lastUpdateTime) {
     final Map<String, Object> updateData = super.toUpdateObject();
 
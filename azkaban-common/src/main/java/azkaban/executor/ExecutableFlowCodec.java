@@ -0,0 +1,322 @@
+/*
+ * Copyright 2020 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package azkaban.executor;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact binary format of {@link ExecutableFlow}, used to persist executions.
+ *
+ * <p>Unlike the JSON format, the flow is written and read field by field, without building the
+ * intermediate tree of maps. Numbers are variable length and repeated strings, such as the node
+ * ids of the in and out nodes or the statuses, are written once and then referenced.
+ *
+ * <p>The data starts with a magic number, which can't be the start of a JSON document, followed
+ * by the version of the format. Both formats can therefore be stored in the same column, see
+ * {@link ExecutableFlow#createExecutableFlow(byte[], azkaban.db.EncodingType, Status)}.
+ */
+public class ExecutableFlowCodec {
+
+  // Current version of the format, increased whenever fields are added
+  public static final int FORMAT_VERSION = 1;
+
+  // 0xAF is never the first byte of UTF-8 text
+  private static final byte[] MAGIC = {(byte) 0xAF, 'A', 'Z', 'F'};
+
+  private ExecutableFlowCodec() {
+  }
+
+  public static byte[] encode(final ExecutableFlow flow) throws IOException {
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream(4096);
+    encode(flow, bytes);
+    return bytes.toByteArray();
+  }
+
+  /**
+   * Writes the flow to the stream, which is flushed but not closed.
+   */
+  public static void encode(final ExecutableFlow flow, final OutputStream stream)
+      throws IOException {
+    final Output out = new Output(new DataOutputStream(stream));
+    stream.write(MAGIC);
+    out.writeInt(FORMAT_VERSION);
+    flow.fillBinaryFromExecutable(out);
+    out.flush();
+  }
+
+  /**
+   * @throws IOException if the data is not in the binary format, or is of a newer version.
+   */
+  public static ExecutableFlow decode(final byte[] data) throws IOException {
+    return decode(new ByteArrayInputStream(data));
+  }
+
+  /**
+   * Reads the flow from the stream, which is not closed.
+   *
+   * @throws IOException if the data is not in the binary format, or is of a newer version.
+   */
+  public static ExecutableFlow decode(final InputStream stream) throws IOException {
+    final DataInputStream dataStream = new DataInputStream(stream);
+    final byte[] magic = new byte[MAGIC.length];
+    try {
+      dataStream.readFully(magic);
+    } catch (final EOFException e) {
+      throw new IOException("Not a binary executable flow.", e);
+    }
+    if (!isBinary(magic)) {
+      throw new IOException("Not a binary executable flow.");
+    }
+    final Input in = new Input(dataStream);
+    final int version = in.readInt();
+    if (version < 1 || version > FORMAT_VERSION) {
+      throw new IOException("Unsupported executable flow format version " + version);
+    }
+    in.version = version;
+
+    final ExecutableFlow flow = new ExecutableFlow();
+    flow.fillExecutableFromBinary(in);
+    return flow;
+  }
+
+  /**
+   * Checks the start of a stream supporting marks, without consuming it.
+   */
+  public static boolean isBinary(final InputStream stream) throws IOException {
+    final byte[] start = new byte[MAGIC.length];
+    stream.mark(MAGIC.length);
+    int read = 0;
+    try {
+      int count;
+      while (read < start.length && (count = stream.read(start, read, start.length - read)) > 0) {
+        read += count;
+      }
+    } finally {
+      stream.reset();
+    }
+    return read == MAGIC.length && isBinary(start);
+  }
+
+  public static boolean isBinary(final byte[] data) {
+    if (data == null || data.length < MAGIC.length) {
+      return false;
+    }
+    for (int i = 0; i < MAGIC.length; i++) {
+      if (data[i] != MAGIC[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Writes the fields of the executables.
+   */
+  static class Output {
+
+    private final DataOutputStream out;
+    private final Map<String, Integer> stringRefs = new HashMap<>();
+
+    Output(final DataOutputStream out) {
+      this.out = out;
+    }
+
+    void writeBoolean(final boolean value) throws IOException {
+      this.out.writeBoolean(value);
+    }
+
+    void writeInt(final int value) throws IOException {
+      writeLong(value);
+    }
+
+    /**
+     * Zigzag variable length encoding, so that small negative values such as -1 are short too.
+     */
+    void writeLong(final long value) throws IOException {
+      writeUnsigned((value << 1) ^ (value >> 63));
+    }
+
+    void writeDouble(final double value) throws IOException {
+      this.out.writeDouble(value);
+    }
+
+    /**
+     * A string is written once, after that only its index is written.
+     */
+    void writeString(final String value) throws IOException {
+      if (value == null) {
+        writeUnsigned(0);
+        return;
+      }
+      final Integer ref = this.stringRefs.get(value);
+      if (ref != null) {
+        writeUnsigned(ref + 2);
+        return;
+      }
+      this.stringRefs.put(value, this.stringRefs.size());
+      final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+      writeUnsigned(1);
+      writeUnsigned(bytes.length);
+      this.out.write(bytes);
+    }
+
+    void writeStrings(final Collection<String> values) throws IOException {
+      if (values == null) {
+        writeInt(-1);
+        return;
+      }
+      writeInt(values.size());
+      for (final String value : values) {
+        writeString(value);
+      }
+    }
+
+    void writeStringMap(final Map<String, String> map) throws IOException {
+      if (map == null) {
+        writeInt(-1);
+        return;
+      }
+      writeInt(map.size());
+      for (final Map.Entry<String, String> entry : map.entrySet()) {
+        writeString(entry.getKey());
+        writeString(entry.getValue());
+      }
+    }
+
+    private void writeUnsigned(long value) throws IOException {
+      while ((value & ~0x7FL) != 0) {
+        this.out.writeByte((int) ((value & 0x7F) | 0x80));
+        value >>>= 7;
+      }
+      this.out.writeByte((int) value);
+    }
+
+    void flush() throws IOException {
+      this.out.flush();
+    }
+  }
+
+  /**
+   * Reads the fields written by {@link Output}, in the same order.
+   */
+  static class Input {
+
+    private final DataInputStream in;
+    private final List<String> strings = new ArrayList<>();
+    private int version;
+
+    Input(final DataInputStream in) {
+      this.in = in;
+    }
+
+    /**
+     * @return the version of the format the flow was written with.
+     */
+    int getVersion() {
+      return this.version;
+    }
+
+    boolean readBoolean() throws IOException {
+      return this.in.readBoolean();
+    }
+
+    int readInt() throws IOException {
+      return (int) readLong();
+    }
+
+    long readLong() throws IOException {
+      final long value = readUnsigned();
+      return (value >>> 1) ^ -(value & 1);
+    }
+
+    double readDouble() throws IOException {
+      return this.in.readDouble();
+    }
+
+    String readString() throws IOException {
+      final long tag = readUnsigned();
+      if (tag == 0) {
+        return null;
+      }
+      if (tag > 1) {
+        final long index = tag - 2;
+        if (index >= this.strings.size()) {
+          throw new IOException("Invalid string reference " + index);
+        }
+        return this.strings.get((int) index);
+      }
+      final int length = (int) readUnsigned();
+      final byte[] bytes = new byte[length];
+      this.in.readFully(bytes);
+      final String value = new String(bytes, StandardCharsets.UTF_8);
+      this.strings.add(value);
+      return value;
+    }
+
+    /**
+     * @return false if no collection was written, i.e. it was null.
+     */
+    boolean readStrings(final Collection<String> values) throws IOException {
+      final int size = readInt();
+      for (int i = 0; i < size; i++) {
+        values.add(readString());
+      }
+      return size >= 0;
+    }
+
+    /**
+     * @return null if no map was written.
+     */
+    Map<String, String> readStringMap() throws IOException {
+      final int size = readInt();
+      if (size < 0) {
+        return null;
+      }
+      final Map<String, String> map = new LinkedHashMap<>();
+      for (int i = 0; i < size; i++) {
+        map.put(readString(), readString());
+      }
+      return map;
+    }
+
+    private long readUnsigned() throws IOException {
+      long value = 0;
+      for (int shift = 0; shift < 64; shift += 7) {
+        final int b = this.in.readUnsignedByte();
+        value |= (long) (b & 0x7F) << shift;
+        if ((b & 0x80) == 0) {
+          return value;
+        }
+      }
+      throw new IOException("Malformed variable length number.");
+    }
+  }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2020 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package azkaban.executor;
+
+import azkaban.db.DatabaseOperator;
+import azkaban.db.EncodingType;
+import azkaban.utils.GZIPUtils;
+import com.google.common.collect.Iterables;
+import java.io.IOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.commons.dbutils.ResultSetHandler;
+
+/**
+ * Reads the deltas of running executions from execution_flow_updates, see {@link
+ * ExecutionFlowDao#appendExecutableFlowUpdate}, and applies them on top of the flow_data
+ * snapshots.
+ *
+ * <p>Every reader which builds executions from flow_data applies the deltas, so that the page of
+ * an execution and the lists of executions show the same node state: the executions and the flow
+ * history fetched by {@link ExecutionFlowDao}, and the unfinished and active flows fetched by
+ * {@link FetchActiveFlowDao}. The summaries built from the columns of execution_flows don't need
+ * them, the flow level columns are written together with every delta.
+ */
+final class ExecutableFlowUpdates {
+
+  // Deltas which are superseded by a snapshot, purged in the transaction writing the snapshot
+  static final String DELETE_EXECUTABLE_FLOW_UPDATES =
+      "DELETE FROM execution_flow_updates WHERE exec_id=? AND update_time<=?";
+
+  private static final String FETCH_EXECUTABLE_FLOW_UPDATES =
+      "SELECT exec_id, update_time, enc_type, update_data FROM execution_flow_updates "
+          + "WHERE exec_id IN (%s) ORDER BY exec_id, update_time ASC";
+
+  // Bounds the number of parameters of a single query
+  private static final int MAX_EXEC_IDS_PER_QUERY = 500;
+
+  private ExecutableFlowUpdates() {
+  }
+
+  /**
+   * Applies to each flow the deltas persisted after its snapshot, in the order they were written.
+   */
+  static void applyUpdates(final DatabaseOperator dbOperator,
+      final Collection<ExecutableFlow> flows) throws SQLException {
+    if (flows.isEmpty()) {
+      return;
+    }
+    final Map<Integer, ExecutableFlow> flowsByExecId = new HashMap<>();
+    final Map<Integer, Long> snapshotTimes = new HashMap<>();
+    for (final ExecutableFlow flow : flows) {
+      flowsByExecId.put(flow.getExecutionId(), flow);
+      snapshotTimes.put(flow.getExecutionId(), flow.getUpdateTime());
+    }
+
+    for (final List<Integer> execIds : Iterables
+        .partition(flowsByExecId.keySet(), MAX_EXEC_IDS_PER_QUERY)) {
+      final String query = String.format(FETCH_EXECUTABLE_FLOW_UPDATES,
+          String.join(",", Collections.nCopies(execIds.size(), "?")));
+      final List<FlowUpdate> updates = dbOperator
+          .query(query, new FetchExecutableFlowUpdates(), execIds.toArray());
+      for (final FlowUpdate update : updates) {
+        // The deltas written before the snapshot are already part of it
+        if (update.updateTime > snapshotTimes.get(update.execId)) {
+          flowsByExecId.get(update.execId).applyUpdateObject(update.data);
+        }
+      }
+    }
+  }
+
+  private static class FlowUpdate {
+
+    private final int execId;
+    private final long updateTime;
+    private final Map<String, Object> data;
+
+    FlowUpdate(final int execId, final long updateTime, final Map<String, Object> data) {
+      this.execId = execId;
+      this.updateTime = updateTime;
+      this.data = data;
+    }
+  }
+
+  /**
+   * JDBC ResultSetHandler to fetch the deltas of running executions
+   */
+  private static class FetchExecutableFlowUpdates implements
+      ResultSetHandler<List<FlowUpdate>> {
+
+    @Override
+    public List<FlowUpdate> handle(final ResultSet rs) throws SQLException {
+      if (!rs.next()) {
+        return Collections.emptyList();
+      }
+
+      final List<FlowUpdate> updates = new ArrayList<>();
+      do {
+        final int execId = rs.getInt(1);
+        final long updateTime = rs.getLong(2);
+        final EncodingType encType = EncodingType.fromInteger(rs.getInt(3));
+        final byte[] data = rs.getBytes(4);
+        if (data != null) {
+          try {
+            updates.add(new FlowUpdate(execId, updateTime,
+                (Map<String, Object>) GZIPUtils.transformBytesToObject(data, encType)));
+          } catch (final IOException e) {
+            throw new SQLException("Error retrieving flow update", e);
+          }
+        }
+      } while (rs.next());
+
+      return updates;
+    }
+  }
+}
@@ -20,6 +20,7 @@ import azkaban.flow.Node;
 import azkaban.utils.Props;
 import azkaban.utils.PropsUtils;
 import azkaban.utils.TypedMapWrapper;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -376,6 +377,85 @@ public class ExecutableNode {
     fillExecutableFromMapObject(wrapper);
   }
 
+  /**
+   * Binary counterpart of {@link #fillMapFromExecutable(Map)}, see {@link ExecutableFlowCodec}.
+   */
+  void fillBinaryFromExecutable(final ExecutableFlowCodec.Output out) throws IOException {
+    out.writeString(this.id);
+    out.writeString(this.status.toString());
+    out.writeLong(this.startTime);
+    out.writeLong(this.endTime);
+    out.writeLong(this.updateTime);
+    out.writeString(this.type);
+    out.writeString(this.condition);
+    out.writeString(this.conditionOnJobStatus == null ? null
+        : this.conditionOnJobStatus.toString());
+    out.writeInt(this.attempt.get());
+    out.writeStrings(this.inNodes);
+    out.writeStrings(this.outNodes);
+    out.writeString(this.propsSource);
+    out.writeString(this.jobSource);
+
+    if (this.outputProps != null && this.outputProps.size() > 0) {
+      out.writeStringMap(PropsUtils.toStringMap(this.outputProps, true));
+    } else {
+      out.writeStringMap(null);
+    }
+
+    if (this.pastAttempts != null) {
+      out.writeInt(this.pastAttempts.size());
+      for (final ExecutionAttempt pastAttempt : this.pastAttempts) {
+        out.writeInt(pastAttempt.getAttempt());
+        out.writeLong(pastAttempt.getStartTime());
+        out.writeLong(pastAttempt.getEndTime());
+        out.writeString(pastAttempt.getStatus().toString());
+      }
+    } else {
+      out.writeInt(-1);
+    }
+  }
+
+  /**
+   * Binary counterpart of {@link #fillExecutableFromMapObject(TypedMapWrapper)}.
+   */
+  void fillExecutableFromBinary(final ExecutableFlowCodec.Input in) throws IOException {
+    this.id = in.readString();
+    this.status = Status.valueOf(in.readString());
+    this.startTime = in.readLong();
+    this.endTime = in.readLong();
+    this.updateTime = in.readLong();
+    this.type = in.readString();
+    this.condition = in.readString();
+    this.conditionOnJobStatus = ConditionOnJobStatus.fromString(in.readString());
+    this.attempt.set(in.readInt());
+
+    this.inNodes = new HashSet<>();
+    in.readStrings(this.inNodes);
+    this.outNodes = new HashSet<>();
+    in.readStrings(this.outNodes);
+
+    this.propsSource = in.readString();
+    this.jobSource = in.readString();
+
+    final Map<String, String> outputProps = in.readStringMap();
+    if (outputProps != null) {
+      this.outputProps = new Props(null, outputProps);
+    }
+
+    final int pastAttemptCount = in.readInt();
+    if (pastAttemptCount >= 0) {
+      final ArrayList<ExecutionAttempt> attempts = new ArrayList<>(pastAttemptCount);
+      for (int i = 0; i < pastAttemptCount; i++) {
+        final int pastAttempt = in.readInt();
+        final long startTime = in.readLong();
+        final long endTime = in.readLong();
+        attempts.add(new ExecutionAttempt(pastAttempt, startTime, endTime,
+            Status.valueOf(in.readString())));
+      }
+      this.pastAttempts = attempts;
+    }
+  }
+
   public Map<String, Object> toUpdateObject() {
     final Map<String, Object> updatedNodeMap = new HashMap<>();
     updatedNodeMap.put(ID_PARAM, getId());
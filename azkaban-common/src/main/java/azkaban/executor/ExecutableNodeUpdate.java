@@ -0,0 +1,87 @@
+/*
+ * Copyright 2020 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package azkaban.executor;
+
+import azkaban.utils.Props;
+
+/**
+ * The state of a job attempt written by {@link ExecutorLoader#updateExecutableNodes}.
+ *
+ * <p>It is captured when the update is made, so that a buffered update writes the state the
+ * node had at that time even if the node changes before the update is flushed. The output props
+ * are kept by reference: they are only set once, when the job ends.
+ */
+public class ExecutableNodeUpdate {
+
+  private final int execId;
+  private final String flowPath;
+  private final String jobId;
+  private final String nestedId;
+  private final int attempt;
+  private final long startTime;
+  private final long endTime;
+  private final Status status;
+  private final Props outputProps;
+
+  public ExecutableNodeUpdate(final ExecutableNode node) {
+    this.execId = node.getExecutableFlow().getExecutionId();
+    this.flowPath = node.getParentFlow().getFlowPath();
+    this.jobId = node.getId();
+    this.nestedId = node.getNestedId();
+    this.attempt = node.getAttempt();
+    this.startTime = node.getStartTime();
+    this.endTime = node.getEndTime();
+    this.status = node.getStatus();
+    this.outputProps = node.getOutputProps();
+  }
+
+  public int getExecId() {
+    return this.execId;
+  }
+
+  public String getFlowPath() {
+    return this.flowPath;
+  }
+
+  public String getJobId() {
+    return this.jobId;
+  }
+
+  public String getNestedId() {
+    return this.nestedId;
+  }
+
+  public int getAttempt() {
+    return this.attempt;
+  }
+
+  public long getStartTime() {
+    return this.startTime;
+  }
+
+  public long getEndTime() {
+    return this.endTime;
+  }
+
+  public Status getStatus() {
+    return this.status;
+  }
+
+  public Props getOutputProps() {
+    return this.outputProps;
+  }
+}
@@ -24,6 +24,7 @@ import azkaban.project.ProjectWhitelist;
 import azkaban.utils.FileIOUtils.LogData;
 import azkaban.utils.Pair;
 import azkaban.utils.Props;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.io.IOException;
 import java.lang.Thread.State;
 import java.time.Duration;
@@ -39,6 +40,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import org.apache.commons.lang.StringUtils;
@@ -63,20 +66,31 @@ public class ExecutionController extends EventHandler implements ExecutorManager
   private final Map<Pair<String, String>, Integer> maxConcurrentRunsPerFlowMap;
   private final CommonMetrics commonMetrics;
   private final Props azkProps;
+  private final RunningFlowCache runningFlowCache;
+  // Notifies executors of newly queued executions. Null if notification is disabled.
+  private final ExecutorService dispatchNotificationService;
 
   @Inject
   ExecutionController(final Props azkProps, final ExecutorLoader executorLoader,
       final CommonMetrics commonMetrics,
       final ExecutorApiGateway apiGateway, final AlerterHolder alerterHolder, final
-  ExecutorHealthChecker executorHealthChecker) {
+  ExecutorHealthChecker executorHealthChecker, final RunningFlowCache runningFlowCache) {
     this.azkProps = azkProps;
     this.executorLoader = executorLoader;
+    this.runningFlowCache = runningFlowCache;
     this.commonMetrics = commonMetrics;
     this.apiGateway = apiGateway;
     this.alerterHolder = alerterHolder;
     this.executorHealthChecker = executorHealthChecker;
     this.maxConcurrentRunsOneFlow = ExecutorUtils.getMaxConcurrentRunsOneFlow(azkProps);
     this.maxConcurrentRunsPerFlowMap = ExecutorUtils.getMaxConcurentRunsPerFlowMap(azkProps);
+    if (azkProps.getBoolean(ConfigurationKeys.AZKABAN_DISPATCH_NOTIFICATION_ENABLED, false)) {
+      this.dispatchNotificationService = Executors.newSingleThreadExecutor(
+          new ThreadFactoryBuilder().setNameFormat("azk-dispatch-notifier").setDaemon(true)
+              .build());
+    } else {
+      this.dispatchNotificationService = null;
+    }
   }
 
   @Override
@@ -254,6 +268,16 @@ public class ExecutionController extends EventHandler implements ExecutorManager
     return this.executorLoader.fetchExecutableFlow(execId);
   }
 
+  /**
+   * Fetch ExecutableFlow from the cache of running executions, which checks with the database
+   * whether it changed. {@inheritDoc}
+   */
+  @Override
+  public ExecutableFlow getCachedExecutableFlow(final int execId)
+      throws ExecutorManagerException {
+    return this.runningFlowCache.get(execId);
+  }
+
   /**
    * Get all running (unfinished) flows from database. {@inheritDoc}
    */
@@ -338,7 +362,7 @@ public class ExecutionController extends EventHandler implements ExecutorManager
   @Override
   public List<ExecutableFlow> getExecutableFlows(final int skip, final int size)
       throws ExecutorManagerException {
-    final List<ExecutableFlow> flows = this.executorLoader.fetchFlowHistory(skip, size);
+    final List<ExecutableFlow> flows = this.executorLoader.fetchFlowHistorySummaries(skip, size);
     return flows;
   }
 
@@ -346,7 +370,7 @@ public class ExecutionController extends EventHandler implements ExecutorManager
   public List<ExecutableFlow> getExecutableFlows(final String flowIdContains,
       final int skip, final int size) throws ExecutorManagerException {
     final List<ExecutableFlow> flows =
-        this.executorLoader.fetchFlowHistory(null, '%' + flowIdContains + '%', null,
+        this.executorLoader.fetchFlowHistorySummaries(null, '%' + flowIdContains + '%', null,
             0, -1, -1, skip, size);
     return flows;
   }
@@ -357,7 +381,7 @@ public class ExecutionController extends EventHandler implements ExecutorManager
       final long end,
       final int skip, final int size) throws ExecutorManagerException {
     final List<ExecutableFlow> flows =
-        this.executorLoader.fetchFlowHistory(projContain, flowContain, userContain,
+        this.executorLoader.fetchFlowHistorySummaries(projContain, flowContain, userContain,
             status, begin, end, skip, size);
     return flows;
   }
@@ -428,6 +452,55 @@ public class ExecutionController extends EventHandler implements ExecutorManager
     }
   }
 
+  @Override
+  public LogData getExecutionJobLogTail(final ExecutableFlow exFlow, final String jobId,
+      final int length, final int attempt) throws ExecutorManagerException {
+    final Pair<ExecutionReference, ExecutableFlow> pair = this.executorLoader
+        .fetchActiveFlowByExecId(exFlow.getExecutionId());
+    if (pair != null) {
+      final Pair<String, String> typeParam = new Pair<>("type", "job");
+      final Pair<String, String> jobIdParam =
+          new Pair<>("jobId", jobId);
+      final Pair<String, String> tailParam = new Pair<>("tail", "true");
+      final Pair<String, String> lengthParam =
+          new Pair<>("length", String.valueOf(length));
+      final Pair<String, String> attemptParam =
+          new Pair<>("attempt", String.valueOf(attempt));
+
+      @SuppressWarnings("unchecked") final Map<String, Object> result =
+          this.apiGateway.callWithReference(pair.getFirst(), ConnectorParams.LOG_ACTION,
+              typeParam, jobIdParam, tailParam, lengthParam, attemptParam);
+      return LogData.createLogDataFromObject(result);
+    } else {
+      return this.executorLoader.fetchLogTail(exFlow.getExecutionId(), jobId, attempt,
+          length);
+    }
+  }
+
+  @Override
+  public LogSearcher.Result searchExecutionJobLog(final ExecutableFlow exFlow,
+      final String jobId, final int attempt, final LogSearcher.Query query)
+      throws ExecutorManagerException {
+    final Pair<ExecutionReference, ExecutableFlow> pair = this.executorLoader
+        .fetchActiveFlowByExecId(exFlow.getExecutionId());
+    if (pair != null) {
+      final List<Pair<String, String>> params = new ArrayList<>(Arrays.asList(query.toParams()));
+      params.add(new Pair<>("jobId", jobId));
+      params.add(new Pair<>("attempt", String.valueOf(attempt)));
+
+      @SuppressWarnings("unchecked") final Map<String, Object> result =
+          this.apiGateway.callWithReference(pair.getFirst(), ConnectorParams.SEARCH_LOG_ACTION,
+              params.toArray(new Pair[params.size()]));
+      if (result.containsKey(ConnectorParams.RESPONSE_ERROR)) {
+        throw new ExecutorManagerException((String) result.get(ConnectorParams.RESPONSE_ERROR));
+      }
+      return LogSearcher.Result.createResultFromObject(result);
+    } else {
+      return LogSearcher.search((offset, length) -> this.executorLoader
+          .fetchLogs(exFlow.getExecutionId(), jobId, attempt, offset, length), query);
+    }
+  }
+
   @Override
   public List<Object> getExecutionJobStats(final ExecutableFlow exFlow, final String jobId,
       final int attempt) throws ExecutorManagerException {
@@ -724,6 +797,7 @@ public class ExecutionController extends EventHandler implements ExecutorManager
       // The exflow id is set by the loader. So it's unavailable until after
       // this call.
       this.executorLoader.uploadExecutableFlow(exflow);
+      notifyWorkAvailable(exflow);
 
       this.commonMetrics.markSubmitFlowSuccess();
       message += "Execution queued successfully with exec id " + exflow.getExecutionId();
@@ -731,6 +805,41 @@ public class ExecutionController extends EventHandler implements ExecutorManager
     }
   }
 
+  /**
+   * Asynchronously nudges the executors that can run the execution to poll for it. Executors that
+   * miss the notification still pick it up on their fallback polling interval.
+   */
+  private void notifyWorkAvailable(final ExecutableFlow exflow) {
+    if (this.dispatchNotificationService == null) {
+      return;
+    }
+    final String useExecutor =
+        exflow.getExecutionOptions().getFlowParameters().get(ExecutionOptions.USE_EXECUTOR);
+    this.dispatchNotificationService.execute(() -> {
+      try {
+        final List<Executor> executors;
+        if (StringUtils.isNotEmpty(useExecutor)) {
+          final Executor executor = this.executorLoader
+              .fetchExecutor(Integer.parseInt(useExecutor));
+          executors = executor == null ? Collections.emptyList()
+              : Collections.singletonList(executor);
+        } else {
+          executors = this.executorLoader.fetchActiveExecutors();
+        }
+        for (final Executor executor : executors) {
+          try {
+            this.apiGateway.notifyWorkAvailable(executor);
+          } catch (final ExecutorManagerException e) {
+            logger.warn("Failed to notify executor " + executor + " of execution "
+                + exflow.getExecutionId(), e);
+          }
+        }
+      } catch (final Exception e) {
+        logger.warn("Failed to notify executors of execution " + exflow.getExecutionId(), e);
+      }
+    });
+  }
+
   @Override
   public Map<String, Object> callExecutorStats(final int executorId, final String action,
       final Pair<String, String>... params) throws IOException, ExecutorManagerException {
@@ -771,6 +880,10 @@ public class ExecutionController extends EventHandler implements ExecutorManager
   @Override
   public void shutdown() {
     this.executorHealthChecker.shutdown();
+    if (this.dispatchNotificationService != null) {
+      this.dispatchNotificationService.shutdownNow();
+    }
+    this.apiGateway.shutdown();
   }
 
   @Override
@@ -778,7 +891,7 @@ public class ExecutionController extends EventHandler implements ExecutorManager
       final int length, final List<ExecutableFlow> outputList)
       throws ExecutorManagerException {
     final List<ExecutableFlow> flows =
-        this.executorLoader.fetchFlowHistory(projectId, flowId, from, length);
+        this.executorLoader.fetchFlowHistorySummaries(projectId, flowId, from, length);
     outputList.addAll(flows);
     return this.executorLoader.fetchNumExecutableFlows(projectId, flowId);
   }
@@ -786,7 +899,7 @@ public class ExecutionController extends EventHandler implements ExecutorManager
   @Override
   public List<ExecutableFlow> getExecutableFlows(final int projectId, final String flowId,
       final int from, final int length, final Status status) throws ExecutorManagerException {
-    return this.executorLoader.fetchFlowHistory(projectId, flowId, from, length,
+    return this.executorLoader.fetchFlowHistorySummaries(projectId, flowId, from, length,
         status);
   }
 
@@ -16,12 +16,14 @@
 
 package azkaban.executor;
 
+import azkaban.Constants.ConfigurationKeys;
 import azkaban.db.DatabaseOperator;
+import azkaban.db.DatabaseTransOperator;
 import azkaban.db.EncodingType;
 import azkaban.db.SQLTransaction;
 import azkaban.utils.GZIPUtils;
-import azkaban.utils.JSONUtils;
 import azkaban.utils.Pair;
+import azkaban.utils.Props;
 import java.io.IOException;
 import java.sql.Connection;
 import java.sql.ResultSet;
@@ -30,6 +32,7 @@ import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.stream.Collectors;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import org.apache.commons.collections.CollectionUtils;
@@ -42,13 +45,22 @@ import org.apache.log4j.Logger;
 public class ExecutionFlowDao {
 
   private static final Logger logger = Logger.getLogger(ExecutionFlowDao.class);
+  private static final String POLLING_LOCK_NAME = "execution_flows_polling";
+  private static final int GET_POLLING_LOCK_TIMEOUT_IN_SECONDS = 5;
   private final DatabaseOperator dbOperator;
   private final MysqlNamedLock mysqlNamedLock;
+  private final EncodingType flowDataEncodingType;
+  private final boolean binaryFlowData;
 
   @Inject
-  public ExecutionFlowDao(final DatabaseOperator dbOperator, final MysqlNamedLock mysqlNamedLock) {
+  public ExecutionFlowDao(final DatabaseOperator dbOperator, final MysqlNamedLock mysqlNamedLock,
+      final Props props) {
     this.dbOperator = dbOperator;
     this.mysqlNamedLock = mysqlNamedLock;
+    this.flowDataEncodingType = EncodingType.fromName(props.getString(
+        ConfigurationKeys.AZKABAN_FLOW_DATA_ENCODING_TYPE, EncodingType.GZIP.name()));
+    this.binaryFlowData = props.getBoolean(
+        ConfigurationKeys.AZKABAN_FLOW_DATA_BINARY_FORMAT_ENABLED, false);
   }
 
   public void uploadExecutableFlow(final ExecutableFlow flow)
@@ -95,8 +107,9 @@ public class ExecutionFlowDao {
   List<ExecutableFlow> fetchFlowHistory(final int skip, final int num)
       throws ExecutorManagerException {
     try {
-      return this.dbOperator.query(FetchExecutableFlows.FETCH_ALL_EXECUTABLE_FLOW_HISTORY,
-          new FetchExecutableFlows(), skip, num);
+      return withUpdates(this.dbOperator
+          .query(FetchExecutableFlows.FETCH_ALL_EXECUTABLE_FLOW_HISTORY,
+              new FetchExecutableFlows(), skip, num));
     } catch (final SQLException e) {
       throw new ExecutorManagerException("Error fetching flow History", e);
     }
@@ -106,8 +119,9 @@ public class ExecutionFlowDao {
       final int skip, final int num)
       throws ExecutorManagerException {
     try {
-      return this.dbOperator.query(FetchExecutableFlows.FETCH_EXECUTABLE_FLOW_HISTORY,
-          new FetchExecutableFlows(), projectId, flowId, skip, num);
+      return withUpdates(this.dbOperator
+          .query(FetchExecutableFlows.FETCH_EXECUTABLE_FLOW_HISTORY,
+              new FetchExecutableFlows(), projectId, flowId, skip, num));
     } catch (final SQLException e) {
       throw new ExecutorManagerException("Error fetching flow history", e);
     }
@@ -116,8 +130,11 @@ public class ExecutionFlowDao {
   public List<Pair<ExecutionReference, ExecutableFlow>> fetchQueuedFlows()
       throws ExecutorManagerException {
     try {
-      return this.dbOperator.query(FetchQueuedExecutableFlows.FETCH_QUEUED_EXECUTABLE_FLOW,
-          new FetchQueuedExecutableFlows());
+      final List<Pair<ExecutionReference, ExecutableFlow>> flows = this.dbOperator
+          .query(FetchQueuedExecutableFlows.FETCH_QUEUED_EXECUTABLE_FLOW,
+              new FetchQueuedExecutableFlows());
+      withUpdates(flows.stream().map(Pair::getSecond).collect(Collectors.toList()));
+      return flows;
     } catch (final SQLException e) {
       throw new ExecutorManagerException("Error fetching active flows", e);
     }
@@ -132,8 +149,9 @@ public class ExecutionFlowDao {
   public List<ExecutableFlow> fetchFlowHistory(final int projectId, final String flowId, final
   long startTime) throws ExecutorManagerException {
     try {
-      return this.dbOperator.query(FetchExecutableFlows.FETCH_EXECUTABLE_FLOW_BY_START_TIME,
-          new FetchExecutableFlows(), projectId, flowId, startTime);
+      return withUpdates(this.dbOperator
+          .query(FetchExecutableFlows.FETCH_EXECUTABLE_FLOW_BY_START_TIME,
+              new FetchExecutableFlows(), projectId, flowId, startTime));
     } catch (final SQLException e) {
       throw new ExecutorManagerException("Error fetching historic flows", e);
     }
@@ -143,8 +161,9 @@ public class ExecutionFlowDao {
       final int skip, final int num, final Status status)
       throws ExecutorManagerException {
     try {
-      return this.dbOperator.query(FetchExecutableFlows.FETCH_EXECUTABLE_FLOW_BY_STATUS,
-          new FetchExecutableFlows(), projectId, flowId, status.getNumVal(), skip, num);
+      return withUpdates(this.dbOperator
+          .query(FetchExecutableFlows.FETCH_EXECUTABLE_FLOW_BY_STATUS,
+              new FetchExecutableFlows(), projectId, flowId, status.getNumVal(), skip, num));
     } catch (final SQLException e) {
       throw new ExecutorManagerException("Error fetching active flows", e);
     }
@@ -153,10 +172,11 @@ public class ExecutionFlowDao {
   List<ExecutableFlow> fetchRecentlyFinishedFlows(final Duration maxAge)
       throws ExecutorManagerException {
     try {
-      return this.dbOperator.query(FetchRecentlyFinishedFlows.FETCH_RECENTLY_FINISHED_FLOW,
-          new FetchRecentlyFinishedFlows(), System.currentTimeMillis() - maxAge.toMillis(),
-          Status.SUCCEEDED.getNumVal(), Status.KILLED.getNumVal(),
-          Status.FAILED.getNumVal());
+      return withUpdates(this.dbOperator
+          .query(FetchRecentlyFinishedFlows.FETCH_RECENTLY_FINISHED_FLOW,
+              new FetchRecentlyFinishedFlows(), System.currentTimeMillis() - maxAge.toMillis(),
+              Status.SUCCEEDED.getNumVal(), Status.KILLED.getNumVal(),
+              Status.FAILED.getNumVal()));
     } catch (final SQLException e) {
       throw new ExecutorManagerException("Error fetching recently finished flows", e);
     }
@@ -166,7 +186,33 @@ public class ExecutionFlowDao {
       final String flowNameContains, final String userNameContains, final int status,
       final long startTime, final long endTime, final int skip, final int num)
       throws ExecutorManagerException {
-    String query = FetchExecutableFlows.FETCH_BASE_EXECUTABLE_FLOW_QUERY;
+    return withUpdates(fetchFlowHistory(FetchExecutableFlows.FETCH_BASE_EXECUTABLE_FLOW_QUERY,
+        new FetchExecutableFlows(), projectNameContains, flowNameContains, userNameContains,
+        status, startTime, endTime, skip, num));
+  }
+
+  /**
+   * Applies the deltas of running executions on top of the flow_data snapshots, so that all the
+   * readers of flow_data see the same node state.
+   *
+   * @return the given flows
+   */
+  private List<ExecutableFlow> withUpdates(final List<ExecutableFlow> flows)
+      throws ExecutorManagerException {
+    try {
+      ExecutableFlowUpdates.applyUpdates(this.dbOperator, flows);
+    } catch (final SQLException e) {
+      throw new ExecutorManagerException("Error fetching the updates of executions", e);
+    }
+    return flows;
+  }
+
+  private List<ExecutableFlow> fetchFlowHistory(final String baseQuery,
+      final ResultSetHandler<List<ExecutableFlow>> handler, final String projectNameContains,
+      final String flowNameContains, final String userNameContains, final int status,
+      final long startTime, final long endTime, final int skip, final int num)
+      throws ExecutorManagerException {
+    String query = baseQuery;
     final List<Object> params = new ArrayList<>();
 
     boolean first = true;
@@ -239,14 +285,59 @@ public class ExecutionFlowDao {
     }
 
     try {
-      return this.dbOperator.query(query, new FetchExecutableFlows(), params.toArray());
+      return this.dbOperator.query(query, handler, params.toArray());
     } catch (final SQLException e) {
       throw new ExecutorManagerException("Error fetching active flows", e);
     }
   }
 
+  /**
+   * Summaries of the executions are read from the columns of execution_flows only, see
+   * {@link FetchExecutableFlowSummaries}.
+   */
+  List<ExecutableFlow> fetchFlowHistorySummaries(final int skip, final int num)
+      throws ExecutorManagerException {
+    try {
+      return this.dbOperator.query(
+          FetchExecutableFlowSummaries.FETCH_ALL_EXECUTABLE_FLOW_SUMMARIES,
+          new FetchExecutableFlowSummaries(), skip, num);
+    } catch (final SQLException e) {
+      throw new ExecutorManagerException("Error fetching flow History", e);
+    }
+  }
+
+  List<ExecutableFlow> fetchFlowHistorySummaries(final int projectId, final String flowId,
+      final int skip, final int num) throws ExecutorManagerException {
+    try {
+      return this.dbOperator.query(FetchExecutableFlowSummaries.FETCH_EXECUTABLE_FLOW_SUMMARIES,
+          new FetchExecutableFlowSummaries(), projectId, flowId, skip, num);
+    } catch (final SQLException e) {
+      throw new ExecutorManagerException("Error fetching flow history", e);
+    }
+  }
+
+  List<ExecutableFlow> fetchFlowHistorySummaries(final int projectId, final String flowId,
+      final int skip, final int num, final Status status) throws ExecutorManagerException {
+    try {
+      return this.dbOperator.query(
+          FetchExecutableFlowSummaries.FETCH_EXECUTABLE_FLOW_SUMMARIES_BY_STATUS,
+          new FetchExecutableFlowSummaries(), projectId, flowId, status.getNumVal(), skip, num);
+    } catch (final SQLException e) {
+      throw new ExecutorManagerException("Error fetching active flows", e);
+    }
+  }
+
+  List<ExecutableFlow> fetchFlowHistorySummaries(final String projectNameContains,
+      final String flowNameContains, final String userNameContains, final int status,
+      final long startTime, final long endTime, final int skip, final int num)
+      throws ExecutorManagerException {
+    return fetchFlowHistory(FetchExecutableFlowSummaries.FETCH_BASE_EXECUTABLE_FLOW_SUMMARY_QUERY,
+        new FetchExecutableFlowSummaries(), projectNameContains, flowNameContains,
+        userNameContains, status, startTime, endTime, skip, num);
+  }
+
   void updateExecutableFlow(final ExecutableFlow flow) throws ExecutorManagerException {
-    updateExecutableFlow(flow, EncodingType.GZIP);
+    updateExecutableFlow(flow, this.flowDataEncodingType);
   }
 
   private void updateExecutableFlow(final ExecutableFlow flow, final EncodingType encType)
@@ -259,13 +350,9 @@ public class ExecutionFlowDao {
     byte[] data = null;
     try {
       // If this action fails, the execution must be failed.
-      final String json = JSONUtils.toJSON(flow.toObject());
-      final byte[] stringData = json.getBytes("UTF-8");
-      data = stringData;
-      // Todo kunkun-tang: use a common method to transform stringData to data.
-      if (encType == EncodingType.GZIP) {
-        data = GZIPUtils.gzipBytes(stringData);
-      }
+      data = this.binaryFlowData
+          ? GZIPUtils.encode(out -> ExecutableFlowCodec.encode(flow, out), encType)
+          : GZIPUtils.encodeJSON(flow.toObject(), encType);
     } catch (final IOException e) {
       flow.setStatus(Status.FAILED);
       updateExecutableFlowStatusInDB(flow);
@@ -283,15 +370,70 @@ public class ExecutionFlowDao {
           + "RuntimeException. Execution Id  = " + flow.getExecutionId(), re);
     }
 
+    final byte[] flowData = data;
+    final int execId = flow.getExecutionId();
+    // The snapshot supersedes the deltas appended before it, whichever server appended them:
+    // drop them in the same transaction.
+    final SQLTransaction<Integer> updateAndPurge = transOperator -> {
+      final int updated = transOperator.update(UPDATE_EXECUTABLE_FLOW_DATA,
+          flow.getStatus().getNumVal(), flow.getUpdateTime(), flow.getStartTime(),
+          flow.getEndTime(), encType.getNumVal(), flowData, execId);
+      transOperator.update(ExecutableFlowUpdates.DELETE_EXECUTABLE_FLOW_UPDATES, execId,
+          flow.getUpdateTime());
+      transOperator.getConnection().commit();
+      return updated;
+    };
     try {
-      this.dbOperator.update(UPDATE_EXECUTABLE_FLOW_DATA, flow.getStatus()
-          .getNumVal(), flow.getUpdateTime(), flow.getStartTime(), flow
-          .getEndTime(), encType.getNumVal(), data, flow.getExecutionId());
+      this.dbOperator.transaction(updateAndPurge);
     } catch (final SQLException e) {
       throw new ExecutorManagerException("Error updating flow.", e);
     }
   }
 
+  /**
+   * Persists only the nodes of a running flow which changed after {@code lastUpdateTime}, instead
+   * of rewriting the whole flow_data blob. The flow level columns (status, times) of
+   * execution_flows are kept up to date so that list pages don't need to look at the deltas.
+   *
+   * <p>Deltas are applied on top of the snapshot by every reader of flow_data, see {@link
+   * ExecutableFlowUpdates}, and are purged by the next {@link #updateExecutableFlow(ExecutableFlow)}
+   * call.
+   */
+  void appendExecutableFlowUpdate(final ExecutableFlow flow, final long lastUpdateTime)
+      throws ExecutorManagerException {
+    final String INSERT_EXECUTABLE_FLOW_UPDATE = "INSERT INTO execution_flow_updates "
+        + "(exec_id, update_time, enc_type, update_data) values (?,?,?,?)";
+    final String UPDATE_EXECUTABLE_FLOW_STATUS =
+        "UPDATE execution_flows SET status=?,update_time=?,start_time=?,end_time=? "
+            + "WHERE exec_id=?";
+
+    final byte[] data;
+    try {
+      data = GZIPUtils.encodeJSON(flow.toUpdateObject(lastUpdateTime),
+          this.flowDataEncodingType);
+    } catch (final IOException e) {
+      throw new ExecutorManagerException("Error encoding the execution flow update. "
+          + "Execution Id  = " + flow.getExecutionId(), e);
+    }
+
+    final int execId = flow.getExecutionId();
+    final SQLTransaction<Integer> appendUpdate = transOperator -> {
+      transOperator.update(INSERT_EXECUTABLE_FLOW_UPDATE, execId, flow.getUpdateTime(),
+          this.flowDataEncodingType.getNumVal(), data);
+      final int updated = transOperator.update(UPDATE_EXECUTABLE_FLOW_STATUS,
+          flow.getStatus().getNumVal(), flow.getUpdateTime(), flow.getStartTime(),
+          flow.getEndTime(), execId);
+      transOperator.getConnection().commit();
+      return updated;
+    };
+
+    try {
+      this.dbOperator.transaction(appendUpdate);
+    } catch (final SQLException e) {
+      throw new ExecutorManagerException("Error appending update for flow " + execId, e);
+    }
+  }
+
   private void updateExecutableFlowStatusInDB(final ExecutableFlow flow)
     throws ExecutorManagerException {
     final String UPDATE_FLOW_STATUS = "UPDATE execution_flows SET status = ?, update_time = ? "
@@ -312,14 +454,29 @@ public class ExecutionFlowDao {
           .query(FetchExecutableFlows.FETCH_EXECUTABLE_FLOW, flowHandler, execId);
       if (properties.isEmpty()) {
         return null;
-      } else {
-        return properties.get(0);
       }
+      return withUpdates(properties).get(0);
     } catch (final SQLException e) {
       throw new ExecutorManagerException("Error fetching flow id " + execId, e);
     }
   }
 
+  /**
+   * @return the update time and the status of the execution, null if it doesn't exist. Unlike
+   * {@link #fetchExecutableFlow(int)}, the flow data is not read.
+   */
+  public Pair<Long, Status> fetchExecutableFlowUpdateTime(final int execId)
+      throws ExecutorManagerException {
+    final String FETCH_UPDATE_TIME =
+        "SELECT update_time, status FROM execution_flows WHERE exec_id=?";
+    try {
+      return this.dbOperator.query(FETCH_UPDATE_TIME, rs -> rs.next()
+          ? new Pair<>(rs.getLong(1), Status.fromInteger(rs.getInt(2))) : null, execId);
+    } catch (final SQLException e) {
+      throw new ExecutorManagerException("Error fetching update time of flow id " + execId, e);
+    }
+  }
+
   /**
    * set executor id to null for the execution id
    */
@@ -378,10 +535,9 @@ public class ExecutionFlowDao {
         SelectFromExecutionFlows.SELECT_EXECUTION_FOR_UPDATE_INACTIVE;
 
     final SQLTransaction<Integer> selectAndUpdateExecution = transOperator -> {
-      final String POLLING_LOCK_NAME = "execution_flows_polling";
-      final int GET_LOCK_TIMEOUT_IN_SECONDS = 5;
       int execId = -1;
-      final boolean hasLocked = this.mysqlNamedLock.getLock(transOperator, POLLING_LOCK_NAME, GET_LOCK_TIMEOUT_IN_SECONDS);
+      final boolean hasLocked = this.mysqlNamedLock.getLock(transOperator, POLLING_LOCK_NAME,
+          GET_POLLING_LOCK_TIMEOUT_IN_SECONDS);
       logger.info("ExecutionFlow polling lock value: " + hasLocked + " for executorId: " + executorId);
       if (hasLocked) {
         try {
@@ -408,6 +564,104 @@ public class ExecutionFlowDao {
     }
   }
 
+  /**
+   * Assigns up to {@code maxExecutions} queued executions to the executor in one transaction.
+   *
+   * @return the ids of the claimed executions, in dispatch order. May be empty.
+   */
+  public List<Integer> selectAndUpdateExecutions(final int executorId, final boolean isActive,
+      final int maxExecutions) throws ExecutorManagerException {
+    final SQLTransaction<List<Integer>> selectAndUpdateExecutions = transOperator -> {
+      transOperator.getConnection().setTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+      final List<Integer> execIds = claimExecutions(transOperator, executorId, isActive,
+          maxExecutions);
+      transOperator.getConnection().commit();
+      return execIds;
+    };
+
+    try {
+      return this.dbOperator.transaction(selectAndUpdateExecutions);
+    } catch (final SQLException e) {
+      throw new ExecutorManagerException("Error selecting and updating executions with executor "
+          + executorId, e);
+    }
+  }
+
+  /**
+   * Same as {@link #selectAndUpdateExecutions(int, boolean, int)}, but serialized across
+   * executors by the polling lock.
+   */
+  public List<Integer> selectAndUpdateExecutionsWithLocking(final int executorId,
+      final boolean isActive, final int maxExecutions) throws ExecutorManagerException {
+    final SQLTransaction<List<Integer>> selectAndUpdateExecutions = transOperator -> {
+      final boolean hasLocked = this.mysqlNamedLock.getLock(transOperator, POLLING_LOCK_NAME,
+          GET_POLLING_LOCK_TIMEOUT_IN_SECONDS);
+      logger.info("ExecutionFlow polling lock value: " + hasLocked + " for executorId: " + executorId);
+      if (!hasLocked) {
+        logger.info("Could not acquire polling lock for executorId: " + executorId);
+        return Collections.emptyList();
+      }
+      try {
+        return claimExecutions(transOperator, executorId, isActive, maxExecutions);
+      } finally {
+        this.mysqlNamedLock.releaseLock(transOperator, POLLING_LOCK_NAME);
+        logger.info("Released polling lock for executorId: " + executorId);
+      }
+    };
+
+    try {
+      return this.dbOperator.transaction(selectAndUpdateExecutions);
+    } catch (final SQLException e) {
+      throw new ExecutorManagerException("Error selecting and updating executions with executor "
+          + executorId, e);
+    }
+  }
+
+  private List<Integer> claimExecutions(final DatabaseTransOperator transOperator,
+      final int executorId, final boolean isActive, final int maxExecutions) throws SQLException {
+    final String UPDATE_EXECUTION = "UPDATE execution_flows SET executor_id = ?, update_time = ? "
+        + "where exec_id = ? and executor_id is NULL";
+    final String selectExecutionsForUpdate = isActive ?
+        SelectFromExecutionFlows.SELECT_EXECUTIONS_FOR_UPDATE_ACTIVE :
+        SelectFromExecutionFlows.SELECT_EXECUTIONS_FOR_UPDATE_INACTIVE;
+
+    final List<Integer> execIds = transOperator.query(selectExecutionsForUpdate,
+        new SelectFromExecutionFlows(), executorId, maxExecutions);
+    final List<Integer> claimedExecIds = new ArrayList<>(execIds.size());
+    final long updateTime = System.currentTimeMillis();
+    for (final int execId : execIds) {
+      // Skip executions claimed by another executor after they were selected
+      if (transOperator.update(UPDATE_EXECUTION, executorId, updateTime, execId) > 0) {
+        claimedExecIds.add(execId);
+      }
+    }
+    return claimedExecIds;
+  }
+
+  /**
+   * Fetches the project versions of the executions which the executor may claim next, without
+   * claiming them.
+   *
+   * @return up to {@code maxProjects} distinct (project id, version) pairs, in dispatch order.
+   */
+  public List<Pair<Integer, Integer>> fetchQueuedProjectVersions(final int executorId,
+      final boolean isActive, final int maxProjects) throws ExecutorManagerException {
+    final String query = isActive ? SelectFromExecutionFlows.SELECT_QUEUED_PROJECT_VERSIONS_ACTIVE
+        : SelectFromExecutionFlows.SELECT_QUEUED_PROJECT_VERSIONS_INACTIVE;
+    try {
+      return this.dbOperator.query(query, rs -> {
+        final List<Pair<Integer, Integer>> versions = new ArrayList<>();
+        while (rs.next()) {
+          versions.add(new Pair<>(rs.getInt(1), rs.getInt(2)));
+        }
+        return versions;
+      }, executorId, maxProjects);
+    } catch (final SQLException e) {
+      throw new ExecutorManagerException("Error fetching queued project versions for executor "
+          + executorId, e);
+    }
+  }
+
   public static class SelectFromExecutionFlows implements
       ResultSetHandler<List<Integer>> {
 
@@ -424,6 +678,32 @@ public class ExecutionFlowDao {
     public static final String SELECT_EXECUTION_FOR_UPDATE_INACTIVE =
         String.format(SELECT_EXECUTION_FOR_UPDATE_FORMAT, "use_executor = ?");
 
+    private static final String SELECT_EXECUTIONS_FOR_UPDATE_FORMAT =
+        "SELECT exec_id from execution_flows WHERE status = " + Status.PREPARING.getNumVal()
+            + " and executor_id is NULL and flow_data is NOT NULL and %s"
+            + " ORDER BY flow_priority DESC, update_time ASC, exec_id ASC LIMIT ? FOR UPDATE";
+
+    public static final String SELECT_EXECUTIONS_FOR_UPDATE_ACTIVE =
+        String.format(SELECT_EXECUTIONS_FOR_UPDATE_FORMAT,
+            "(use_executor is NULL or use_executor = ?)");
+
+    public static final String SELECT_EXECUTIONS_FOR_UPDATE_INACTIVE =
+        String.format(SELECT_EXECUTIONS_FOR_UPDATE_FORMAT, "use_executor = ?");
+
+    private static final String SELECT_QUEUED_PROJECT_VERSIONS_FORMAT =
+        "SELECT project_id, version from execution_flows WHERE status = "
+            + Status.PREPARING.getNumVal()
+            + " and executor_id is NULL and flow_data is NOT NULL and %s"
+            + " GROUP BY project_id, version"
+            + " ORDER BY MAX(flow_priority) DESC, MIN(update_time) ASC LIMIT ?";
+
+    public static final String SELECT_QUEUED_PROJECT_VERSIONS_ACTIVE =
+        String.format(SELECT_QUEUED_PROJECT_VERSIONS_FORMAT,
+            "(use_executor is NULL or use_executor = ?)");
+
+    public static final String SELECT_QUEUED_PROJECT_VERSIONS_INACTIVE =
+        String.format(SELECT_QUEUED_PROJECT_VERSIONS_FORMAT, "use_executor = ?");
+
     @Override
     public List<Integer> handle(final ResultSet rs) throws SQLException {
       if (!rs.next()) {
@@ -479,8 +759,7 @@ public class ExecutionFlowDao {
           final Status status = Status.fromInteger(rs.getInt(4));
           try {
             final ExecutableFlow exFlow =
-                ExecutableFlow.createExecutableFlow(
-                    GZIPUtils.transformBytesToObject(data, encType), status);
+                ExecutableFlow.createExecutableFlow(data, encType, status);
             execFlows.add(exFlow);
           } catch (final IOException e) {
             throw new SQLException("Error retrieving flow data " + id, e);
@@ -492,6 +771,63 @@ public class ExecutionFlowDao {
     }
   }
 
+  /**
+   * JDBC ResultSetHandler to fetch summaries of executions, for the lists of executions.
+   *
+   * <p>The summaries are built from the columns of execution_flows, the flow data isn't read. They
+   * have no nodes, execution options or properties. The full execution is fetched by
+   * {@link #fetchExecutableFlow(int)} when it is opened.
+   */
+  static class FetchExecutableFlowSummaries implements
+      ResultSetHandler<List<ExecutableFlow>> {
+
+    private static final String SUMMARY_COLUMNS = "ef.exec_id, ef.project_id, ef.version, "
+        + "ef.flow_id, ef.status, ef.submit_user, ef.submit_time, ef.update_time, ef.start_time, "
+        + "ef.end_time";
+    static final String FETCH_BASE_EXECUTABLE_FLOW_SUMMARY_QUERY =
+        "SELECT " + SUMMARY_COLUMNS + " FROM execution_flows ef";
+    static final String FETCH_ALL_EXECUTABLE_FLOW_SUMMARIES =
+        FETCH_BASE_EXECUTABLE_FLOW_SUMMARY_QUERY + " ORDER BY exec_id DESC LIMIT ?, ?";
+    static final String FETCH_EXECUTABLE_FLOW_SUMMARIES =
+        FETCH_BASE_EXECUTABLE_FLOW_SUMMARY_QUERY + " WHERE project_id=? AND flow_id=? "
+            + "ORDER BY exec_id DESC LIMIT ?, ?";
+    static final String FETCH_EXECUTABLE_FLOW_SUMMARIES_BY_STATUS =
+        FETCH_BASE_EXECUTABLE_FLOW_SUMMARY_QUERY + " WHERE project_id=? AND flow_id=? "
+            + "AND status=? ORDER BY exec_id DESC LIMIT ?, ?";
+
+    private static long getTime(final ResultSet rs, final int column) throws SQLException {
+      final long time = rs.getLong(column);
+      return rs.wasNull() ? -1 : time;
+    }
+
+    @Override
+    public List<ExecutableFlow> handle(final ResultSet rs) throws SQLException {
+      if (!rs.next()) {
+        return Collections.emptyList();
+      }
+
+      final List<ExecutableFlow> execFlows = new ArrayList<>();
+      do {
+        final ExecutableFlow flow = new ExecutableFlow();
+        flow.setExecutionId(rs.getInt(1));
+        flow.setProjectId(rs.getInt(2));
+        flow.setVersion(rs.getInt(3));
+        // The id of the root node is the flow id
+        flow.setId(rs.getString(4));
+        flow.setFlowId(rs.getString(4));
+        flow.setStatus(Status.fromInteger(rs.getInt(5)));
+        flow.setSubmitUser(rs.getString(6));
+        flow.setSubmitTime(getTime(rs, 7));
+        flow.setUpdateTime(getTime(rs, 8));
+        flow.setStartTime(getTime(rs, 9));
+        flow.setEndTime(getTime(rs, 10));
+        execFlows.add(flow);
+      } while (rs.next());
+
+      return execFlows;
+    }
+  }
+
   /**
    * JDBC ResultSetHandler to fetch queued executions
    */
@@ -525,8 +861,7 @@ public class ExecutionFlowDao {
           final Status status = Status.fromInteger(rs.getInt(4));
           try {
             final ExecutableFlow exFlow =
-                ExecutableFlow.createExecutableFlow(
-                    GZIPUtils.transformBytesToObject(data, encType), status);
+                ExecutableFlow.createExecutableFlow(data, encType, status);
             final ExecutionReference ref = new ExecutionReference(id);
             execFlows.add(new Pair<>(ref, exFlow));
           } catch (final IOException e) {
@@ -565,8 +900,7 @@ public class ExecutionFlowDao {
           final Status status = Status.fromInteger(rs.getInt(4));
           try {
             final ExecutableFlow exFlow =
-                ExecutableFlow.createExecutableFlow(
-                    GZIPUtils.transformBytesToObject(data, encType), status);
+                ExecutableFlow.createExecutableFlow(data, encType, status);
             execFlows.add(exFlow);
           } catch (final IOException e) {
             throw new SQLException("Error retrieving flow data " + id, e);
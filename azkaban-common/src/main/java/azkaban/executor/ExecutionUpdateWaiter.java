@@ -0,0 +1,116 @@
+/*
+ * Copyright 2020 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package azkaban.executor;
+
+import azkaban.Constants;
+import azkaban.Constants.ConfigurationKeys;
+import azkaban.utils.Props;
+import java.util.concurrent.Semaphore;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+/**
+ * Long polling of the status of executions: holds a request of an execution page until the
+ * execution changes, instead of letting the page poll at a fixed interval.
+ *
+ * <p>The held request checks the execution through
+ * {@link ExecutorManagerAdapter#getCachedExecutableFlow(int)}, which doesn't read the flow data
+ * until it changed. The jetty connectors are blocking, so every held request holds a thread and
+ * their number is bounded. Above the bound, requests are answered right away.
+ */
+@Singleton
+public class ExecutionUpdateWaiter {
+
+  private final ExecutorManagerAdapter executorManagerAdapter;
+  private final long maxWaitMs;
+  private final long checkIntervalMs;
+  private final Semaphore waiters;
+
+  @Inject
+  public ExecutionUpdateWaiter(final Props props,
+      final ExecutorManagerAdapter executorManagerAdapter) {
+    this(executorManagerAdapter,
+        props.getLong(ConfigurationKeys.AZKABAN_EXECUTION_UPDATE_WAIT_MAX_MS,
+            Constants.DEFAULT_EXECUTION_UPDATE_WAIT_MAX_MS),
+        props.getLong(ConfigurationKeys.AZKABAN_EXECUTION_UPDATE_WAIT_INTERVAL_MS,
+            Constants.DEFAULT_EXECUTION_UPDATE_WAIT_INTERVAL_MS),
+        props.getInt(ConfigurationKeys.AZKABAN_EXECUTION_UPDATE_MAX_WAITERS,
+            getDefaultMaxWaiters(props)));
+  }
+
+  public ExecutionUpdateWaiter(final ExecutorManagerAdapter executorManagerAdapter,
+      final long maxWaitMs, final long checkIntervalMs, final int maxWaiters) {
+    this.executorManagerAdapter = executorManagerAdapter;
+    this.maxWaitMs = maxWaitMs;
+    this.checkIntervalMs = checkIntervalMs;
+    this.waiters = new Semaphore(maxWaiters);
+  }
+
+  /**
+   * @return the number of requests that can be held by default, a share of the jetty threads
+   */
+  static int getDefaultMaxWaiters(final Props props) {
+    return props.getInt(ConfigurationKeys.JETTY_MAX_THREADS,
+        Constants.DEFAULT_JETTY_MAX_THREAD_COUNT)
+        * Constants.DEFAULT_EXECUTION_UPDATE_MAX_WAITERS_PERCENT / 100;
+  }
+
+  /**
+   * Waits until the execution was updated after lastUpdateTime, changed status or finished, for
+   * at most timeoutMs (capped by the configured maximum).
+   *
+   * @return the latest state of the execution, which may be shared and must not be modified. Null
+   * if the request can't be held because too many are, or if the execution doesn't exist.
+   */
+  public ExecutableFlow waitForUpdate(final int execId, final long lastUpdateTime,
+      final long timeoutMs) throws ExecutorManagerException, InterruptedException {
+    ExecutableFlow flow = this.executorManagerAdapter.getCachedExecutableFlow(execId);
+    if (flow == null || isUpdated(flow, lastUpdateTime, flow.getStatus())) {
+      return flow;
+    }
+    if (!this.waiters.tryAcquire()) {
+      return null;
+    }
+
+    try {
+      final Status status = flow.getStatus();
+      final long deadline = System.currentTimeMillis() + Math.min(timeoutMs, this.maxWaitMs);
+      long remaining;
+      while ((remaining = deadline - System.currentTimeMillis()) > 0) {
+        Thread.sleep(Math.min(remaining, this.checkIntervalMs));
+        final ExecutableFlow latest = this.executorManagerAdapter.getCachedExecutableFlow(execId);
+        if (latest == null) {
+          // Not expected, keep answering with the last known state
+          break;
+        }
+        flow = latest;
+        if (isUpdated(flow, lastUpdateTime, status)) {
+          break;
+        }
+      }
+      return flow;
+    } finally {
+      this.waiters.release();
+    }
+  }
+
+  private static boolean isUpdated(final ExecutableFlow flow, final long lastUpdateTime,
+      final Status status) {
+    return flow.getUpdateTime() > lastUpdateTime || flow.getStatus() != status
+        || Status.isStatusFinished(flow.getStatus());
+  }
+}
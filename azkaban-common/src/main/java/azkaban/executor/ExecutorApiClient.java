@@ -16,12 +16,25 @@
 
 package azkaban.executor;
 
+import azkaban.Constants;
+import azkaban.Constants.ConfigurationKeys;
+import azkaban.metrics.CommonMetrics;
+import azkaban.utils.Pair;
+import azkaban.utils.Props;
 import azkaban.utils.RestfulApiClient;
 import java.io.IOException;
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.inject.Inject;
 import javax.inject.Singleton;
 import org.apache.http.HttpResponse;
 import org.apache.http.StatusLine;
 import org.apache.http.client.HttpResponseException;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.apache.http.util.EntityUtils;
 
 /**
@@ -31,6 +44,111 @@ import org.apache.http.util.EntityUtils;
 @Singleton
 public class ExecutorApiClient extends RestfulApiClient<String> {
 
+  // Null if a new connection is opened for every request
+  private final CloseableHttpClient pooledHttpClient;
+  // Null if the calls dispatching a flow use the default request config
+  private final RequestConfig dispatchRequestConfig;
+
+  /**
+   * Creates a client that opens a new connection for every request.
+   */
+  public ExecutorApiClient() {
+    super();
+    this.pooledHttpClient = null;
+    this.dispatchRequestConfig = null;
+  }
+
+  /**
+   * Creates a client that reuses kept-alive connections from a pool shared by all requests.
+   */
+  @Inject
+  public ExecutorApiClient(final Props azkProps, final CommonMetrics commonMetrics) {
+    this(createConnectionManager(azkProps), azkProps, commonMetrics);
+  }
+
+  private ExecutorApiClient(final PoolingHttpClientConnectionManager connectionManager,
+      final Props azkProps, final CommonMetrics commonMetrics) {
+    this(connectionManager, createRequestConfig(azkProps), azkProps, commonMetrics);
+  }
+
+  private ExecutorApiClient(final PoolingHttpClientConnectionManager connectionManager,
+      final RequestConfig requestConfig, final Props azkProps,
+      final CommonMetrics commonMetrics) {
+    this(connectionManager, createPooledHttpClient(connectionManager, requestConfig, azkProps),
+        RequestConfig.copy(requestConfig).setSocketTimeout(
+            azkProps.getInt(ConfigurationKeys.EXECUTOR_CLIENT_DISPATCH_SOCKET_TIMEOUT_MS,
+                Constants.DEFAULT_EXECUTOR_CLIENT_DISPATCH_SOCKET_TIMEOUT_MS)).build(),
+        commonMetrics);
+  }
+
+  private ExecutorApiClient(final PoolingHttpClientConnectionManager connectionManager,
+      final CloseableHttpClient pooledHttpClient, final RequestConfig dispatchRequestConfig,
+      final CommonMetrics commonMetrics) {
+    super(pooledHttpClient);
+    this.pooledHttpClient = pooledHttpClient;
+    this.dispatchRequestConfig = dispatchRequestConfig;
+    commonMetrics.addExecutorClientPoolMetrics(connectionManager::getTotalStats);
+  }
+
+  private static PoolingHttpClientConnectionManager createConnectionManager(final Props azkProps) {
+    final PoolingHttpClientConnectionManager connectionManager =
+        new PoolingHttpClientConnectionManager();
+    connectionManager.setMaxTotal(azkProps.getInt(ConfigurationKeys.EXECUTOR_CLIENT_MAX_CONNECTIONS,
+        Constants.DEFAULT_EXECUTOR_CLIENT_MAX_CONNECTIONS));
+    connectionManager.setDefaultMaxPerRoute(
+        azkProps.getInt(ConfigurationKeys.EXECUTOR_CLIENT_MAX_CONNECTIONS_PER_ROUTE,
+            Constants.DEFAULT_EXECUTOR_CLIENT_MAX_CONNECTIONS_PER_ROUTE));
+    return connectionManager;
+  }
+
+  private static RequestConfig createRequestConfig(final Props azkProps) {
+    return RequestConfig.custom()
+        .setConnectTimeout(azkProps.getInt(ConfigurationKeys.EXECUTOR_CLIENT_CONNECT_TIMEOUT_MS,
+            Constants.DEFAULT_EXECUTOR_CLIENT_CONNECT_TIMEOUT_MS))
+        .setSocketTimeout(azkProps.getInt(ConfigurationKeys.EXECUTOR_CLIENT_SOCKET_TIMEOUT_MS,
+            Constants.DEFAULT_EXECUTOR_CLIENT_SOCKET_TIMEOUT_MS))
+        .setConnectionRequestTimeout(
+            azkProps.getInt(ConfigurationKeys.EXECUTOR_CLIENT_CONNECTION_REQUEST_TIMEOUT_MS,
+                Constants.DEFAULT_EXECUTOR_CLIENT_CONNECTION_REQUEST_TIMEOUT_MS))
+        .build();
+  }
+
+  private static CloseableHttpClient createPooledHttpClient(
+      final PoolingHttpClientConnectionManager connectionManager,
+      final RequestConfig requestConfig, final Props azkProps) {
+    return HttpClients.custom()
+        .setConnectionManager(connectionManager)
+        .setDefaultRequestConfig(requestConfig)
+        // Executors restart and go away, drop connections that were idle for too long
+        .evictExpiredConnections()
+        .evictIdleConnections(azkProps.getLong(ConfigurationKeys.EXECUTOR_CLIENT_MAX_IDLE_MS,
+            Constants.DEFAULT_EXECUTOR_CLIENT_MAX_IDLE_MS), TimeUnit.MILLISECONDS)
+        .build();
+  }
+
+  /**
+   * Posts a call dispatching a flow. The executor only answers once the flow is set up, so the
+   * call has its own socket timeout, none by default.
+   */
+  public String httpPostDispatch(final URI uri, final List<Pair<String, String>> params)
+      throws IOException {
+    return this.dispatchRequestConfig == null ? httpPost(uri, params)
+        : httpPost(uri, params, this.dispatchRequestConfig);
+  }
+
+  /**
+   * Closes the pooled connections and stops the thread evicting idle ones.
+   */
+  public void shutdown() {
+    if (this.pooledHttpClient != null) {
+      try {
+        this.pooledHttpClient.close();
+      } catch (final IOException e) {
+        logger.warn("Failed to close the executor connection pool", e);
+      }
+    }
+  }
+
   /**
    * Implementing the parseResponse function to return de-serialized Json object.
    *
@@ -38,6 +38,13 @@ public class ExecutorApiGateway {
     this.apiClient = apiClient;
   }
 
+  /**
+   * Releases the connections to the executors. No call can be made afterwards.
+   */
+  public void shutdown() {
+    this.apiClient.shutdown();
+  }
+
   Map<String, Object> callWithExecutable(final ExecutableFlow exflow,
       final Executor executor, final String action) throws ExecutorManagerException {
     return callWithExecutionId(executor.getHost(), executor.getPort(), action,
@@ -75,7 +82,8 @@ public class ExecutorApiGateway {
           .valueOf(executionId)));
       paramList.add(new Pair<>(ConnectorParams.USER_PARAM, user));
 
-      return callForJsonObjectMap(host, port, "/executor", paramList);
+      return callForJsonObjectMap(host, port, "/executor", paramList,
+          ConnectorParams.EXECUTE_ACTION.equals(action));
     } catch (final IOException e) {
       throw new ExecutorManagerException(e.getMessage(), e);
     }
@@ -86,7 +94,7 @@ public class ExecutorApiGateway {
    */
   <T> T callForJsonType(final String host, final int port, final String path,
       final List<Pair<String, String>> paramList, final Class<T> valueType) throws IOException {
-    final String responseString = callForJsonString(host, port, path, paramList);
+    final String responseString = callForJsonString(host, port, path, paramList, false);
     if (null == responseString || responseString.length() == 0) {
       return null;
     }
@@ -98,8 +106,18 @@ public class ExecutorApiGateway {
    */
   Map<String, Object> callForJsonObjectMap(final String host, final int port,
       final String path, final List<Pair<String, String>> paramList) throws IOException {
+    return callForJsonObjectMap(host, port, path, paramList, false);
+  }
+
+  /**
+   * @param dispatch true for the call dispatching a flow, which isn't bound by the socket timeout
+   * of the other calls.
+   */
+  private Map<String, Object> callForJsonObjectMap(final String host, final int port,
+      final String path, final List<Pair<String, String>> paramList, final boolean dispatch)
+      throws IOException {
     final String responseString =
-        callForJsonString(host, port, path, paramList);
+        callForJsonString(host, port, path, paramList, dispatch);
 
     @SuppressWarnings("unchecked") final Map<String, Object> jsonResponse =
         (Map<String, Object>) JSONUtils.parseJSONFromString(responseString);
@@ -114,7 +132,7 @@ public class ExecutorApiGateway {
    * Call executor and return raw json string.
    */
   private String callForJsonString(final String host, final int port, final String path,
-      List<Pair<String, String>> paramList) throws IOException {
+      List<Pair<String, String>> paramList, final boolean dispatch) throws IOException {
     if (paramList == null) {
       paramList = new ArrayList<>();
     }
@@ -122,7 +140,8 @@ public class ExecutorApiGateway {
     @SuppressWarnings("unchecked") final URI uri =
         ExecutorApiClient.buildUri(host, port, path, true);
 
-    return this.apiClient.httpPost(uri, paramList);
+    return dispatch ? this.apiClient.httpPostDispatch(uri, paramList)
+        : this.apiClient.httpPost(uri, paramList);
   }
 
   public Map<String, Object> updateExecutions(final Executor executor,
@@ -145,4 +164,13 @@ public class ExecutorApiGateway {
         ConnectorParams.UPDATE_ACTION, null, null, executionIds, updateTimes);
   }
 
+  /**
+   * Tells the executor that new executions are queued, so it polls right away instead of waiting
+   * for its next polling interval.
+   */
+  public void notifyWorkAvailable(final Executor executor) throws ExecutorManagerException {
+    callWithExecutionId(executor.getHost(), executor.getPort(),
+        ConnectorParams.WORK_AVAILABLE_ACTION, null, null);
+  }
+
 }
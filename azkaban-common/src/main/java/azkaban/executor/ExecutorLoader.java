@@ -33,6 +33,17 @@ public interface ExecutorLoader {
   ExecutableFlow fetchExecutableFlow(int execId)
       throws ExecutorManagerException;
 
+  /**
+   * <pre>
+   * Fetch the update time and the status of an execution, without its flow data. Used to check
+   * whether a previously fetched flow changed.
+   * Note:
+   * returns null if the execution doesn't exist
+   * </pre>
+   */
+  Pair<Long, Status> fetchExecutableFlowUpdateTime(int execId)
+      throws ExecutorManagerException;
+
   List<ExecutableFlow> fetchRecentlyFinishedFlows(Duration maxAge)
       throws ExecutorManagerException;
 
@@ -64,6 +75,27 @@ public interface ExecutorLoader {
   List<ExecutableFlow> fetchFlowHistory(final int projectId, final String flowId,
       final long startTime) throws ExecutorManagerException;
 
+  /**
+   * <pre>
+   * The fetchFlowHistorySummaries methods are the same as the fetchFlowHistory ones, but the flows
+   * are only summaries built from the columns of the executions, for the lists of executions.
+   * Note:
+   * the summaries have no nodes, execution options or properties
+   * </pre>
+   */
+  List<ExecutableFlow> fetchFlowHistorySummaries(int skip, int num)
+      throws ExecutorManagerException;
+
+  List<ExecutableFlow> fetchFlowHistorySummaries(int projectId, String flowId,
+      int skip, int num) throws ExecutorManagerException;
+
+  List<ExecutableFlow> fetchFlowHistorySummaries(int projectId, String flowId,
+      int skip, int num, Status status) throws ExecutorManagerException;
+
+  List<ExecutableFlow> fetchFlowHistorySummaries(String projContain,
+      String flowContains, String userNameContains, int status, long startData,
+      long endData, int skip, int num) throws ExecutorManagerException;
+
   /**
    * <pre>
    * Fetch all executors from executors table
@@ -234,18 +266,53 @@ public interface ExecutorLoader {
   LogData fetchLogs(int execId, String name, int attempt, int startByte,
       int endByte) throws ExecutorManagerException;
 
+  /**
+   * Fetches the last {@code length} bytes of a log, without reading the rest of it.
+   *
+   * @return null if the log has not been uploaded
+   */
+  LogData fetchLogTail(int execId, String name, int attempt, int length)
+      throws ExecutorManagerException;
+
   List<Object> fetchAttachments(int execId, String name, int attempt)
       throws ExecutorManagerException;
 
   void uploadLogFile(int execId, String name, int attempt, File... files)
       throws ExecutorManagerException;
 
+  /**
+   * Uploads the next chunk of a log that is uploaded while it is written.
+   *
+   * @param startByte the offset of the chunk in the log
+   * @param buffer the chunk, only the first {@code length} bytes are uploaded
+   */
+  void uploadLogChunk(int execId, String name, int attempt, int startByte, byte[] buffer,
+      int length) throws ExecutorManagerException;
+
+  /**
+   * @return the size of the chunks the log storage stores without waste, every chunk uploaded by
+   * {@link #uploadLogChunk} but the last one should have this size
+   */
+  int getLogChunkSize();
+
   void uploadAttachmentFile(ExecutableNode node, File file)
       throws ExecutorManagerException;
 
   void updateExecutableFlow(ExecutableFlow flow)
       throws ExecutorManagerException;
 
+  /**
+   * <pre>
+   * Persist only the nodes of a running flow which changed after lastUpdateTime, instead of
+   * rewriting the whole flow data. The deltas are applied on top of the last full snapshot by
+   * {@link #fetchExecutableFlow(int)} until the next {@link #updateExecutableFlow(ExecutableFlow)}.
+   * Note:
+   * throws an Exception in case of a SQL issue
+   * </pre>
+   */
+  void appendExecutableFlowUpdate(ExecutableFlow flow, long lastUpdateTime)
+      throws ExecutorManagerException;
+
   void uploadExecutableNode(ExecutableNode node, Props inputParams)
       throws ExecutorManagerException;
 
@@ -261,6 +328,15 @@ public interface ExecutorLoader {
   void updateExecutableNode(ExecutableNode node)
       throws ExecutorManagerException;
 
+  /**
+   * <pre>
+   * Updates the status of all the given job attempts in a single batch.
+   * Same semantics as {@link #updateExecutableNode(ExecutableNode)} for each node.
+   * </pre>
+   */
+  void updateExecutableNodes(List<ExecutableNodeUpdate> nodes)
+      throws ExecutorManagerException;
+
   int fetchNumExecutableFlows(int projectId, String flowId)
       throws ExecutorManagerException;
 
@@ -289,6 +365,25 @@ public interface ExecutorLoader {
   int selectAndUpdateExecutionWithLocking(final int executorId, boolean isActive)
       throws ExecutorManagerException;
 
+  /**
+   * <pre>
+   * Assigns up to maxExecutions queued executions to the executor in a single transaction.
+   * Returns the ids of the claimed executions in dispatch order, possibly empty.
+   * </pre>
+   */
+  List<Integer> selectAndUpdateExecutions(final int executorId, boolean isActive,
+      int maxExecutions) throws ExecutorManagerException;
+
+  List<Integer> selectAndUpdateExecutionsWithLocking(final int executorId, boolean isActive,
+      int maxExecutions) throws ExecutorManagerException;
+
+  /**
+   * @return the distinct (project id, version) pairs of the queued executions the executor may
+   * claim next, in dispatch order. The executions are not claimed.
+   */
+  List<Pair<Integer, Integer>> fetchQueuedProjectVersions(int executorId, boolean isActive,
+      int maxProjects) throws ExecutorManagerException;
+
   ExecutableRampMap fetchExecutableRampMap()
       throws ExecutorManagerException;
 
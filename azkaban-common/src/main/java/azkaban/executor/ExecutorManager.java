@@ -494,6 +494,22 @@ public class ExecutorManager extends EventHandler implements
     return this.executorLoader.fetchExecutableFlow(execId);
   }
 
+  /**
+   * Running executions are kept up to date in memory by the updater thread.
+   *
+   * @see azkaban.executor.ExecutorManagerAdapter#getCachedExecutableFlow(int)
+   */
+  @Override
+  public ExecutableFlow getCachedExecutableFlow(final int execId)
+      throws ExecutorManagerException {
+    final Pair<ExecutionReference, ExecutableFlow> running =
+        this.runningExecutions.get().get(execId);
+    if (running != null) {
+      return running.getSecond();
+    }
+    return getExecutableFlow(execId);
+  }
+
   /**
    * Get all active (running, non-dispatched) flows
    *
@@ -573,7 +589,7 @@ public class ExecutorManager extends EventHandler implements
   @Override
   public List<ExecutableFlow> getExecutableFlows(final int skip, final int size)
       throws ExecutorManagerException {
-    final List<ExecutableFlow> flows = this.executorLoader.fetchFlowHistory(skip, size);
+    final List<ExecutableFlow> flows = this.executorLoader.fetchFlowHistorySummaries(skip, size);
     return flows;
   }
 
@@ -581,7 +597,7 @@ public class ExecutorManager extends EventHandler implements
   public List<ExecutableFlow> getExecutableFlows(final String flowIdContains,
       final int skip, final int size) throws ExecutorManagerException {
     final List<ExecutableFlow> flows =
-        this.executorLoader.fetchFlowHistory(null, '%' + flowIdContains + '%', null,
+        this.executorLoader.fetchFlowHistorySummaries(null, '%' + flowIdContains + '%', null,
             0, -1, -1, skip, size);
     return flows;
   }
@@ -592,7 +608,7 @@ public class ExecutorManager extends EventHandler implements
       final long end,
       final int skip, final int size) throws ExecutorManagerException {
     final List<ExecutableFlow> flows =
-        this.executorLoader.fetchFlowHistory(projContain, flowContain, userContain,
+        this.executorLoader.fetchFlowHistorySummaries(projContain, flowContain, userContain,
             status, begin, end, skip, size);
     return flows;
   }
@@ -663,6 +679,55 @@ public class ExecutorManager extends EventHandler implements
     }
   }
 
+  @Override
+  public LogData getExecutionJobLogTail(final ExecutableFlow exFlow, final String jobId,
+      final int length, final int attempt) throws ExecutorManagerException {
+    final Pair<ExecutionReference, ExecutableFlow> pair =
+        this.runningExecutions.get().get(exFlow.getExecutionId());
+    if (pair != null) {
+      final Pair<String, String> typeParam = new Pair<>("type", "job");
+      final Pair<String, String> jobIdParam =
+          new Pair<>("jobId", jobId);
+      final Pair<String, String> tailParam = new Pair<>("tail", "true");
+      final Pair<String, String> lengthParam =
+          new Pair<>("length", String.valueOf(length));
+      final Pair<String, String> attemptParam =
+          new Pair<>("attempt", String.valueOf(attempt));
+
+      @SuppressWarnings("unchecked") final Map<String, Object> result =
+          this.apiGateway.callWithReference(pair.getFirst(), ConnectorParams.LOG_ACTION,
+              typeParam, jobIdParam, tailParam, lengthParam, attemptParam);
+      return LogData.createLogDataFromObject(result);
+    } else {
+      return this.executorLoader.fetchLogTail(exFlow.getExecutionId(), jobId, attempt,
+          length);
+    }
+  }
+
+  @Override
+  public LogSearcher.Result searchExecutionJobLog(final ExecutableFlow exFlow,
+      final String jobId, final int attempt, final LogSearcher.Query query)
+      throws ExecutorManagerException {
+    final Pair<ExecutionReference, ExecutableFlow> pair =
+        this.runningExecutions.get().get(exFlow.getExecutionId());
+    if (pair != null) {
+      final List<Pair<String, String>> params = new ArrayList<>(Arrays.asList(query.toParams()));
+      params.add(new Pair<>("jobId", jobId));
+      params.add(new Pair<>("attempt", String.valueOf(attempt)));
+
+      @SuppressWarnings("unchecked") final Map<String, Object> result =
+          this.apiGateway.callWithReference(pair.getFirst(), ConnectorParams.SEARCH_LOG_ACTION,
+              params.toArray(new Pair[params.size()]));
+      if (result.containsKey(ConnectorParams.RESPONSE_ERROR)) {
+        throw new ExecutorManagerException((String) result.get(ConnectorParams.RESPONSE_ERROR));
+      }
+      return LogSearcher.Result.createResultFromObject(result);
+    } else {
+      return LogSearcher.search((offset, length) -> this.executorLoader
+          .fetchLogs(exFlow.getExecutionId(), jobId, attempt, offset, length), query);
+    }
+  }
+
   @Override
   public List<Object> getExecutionJobStats(final ExecutableFlow exFlow, final String jobId,
       final int attempt) throws ExecutorManagerException {
@@ -1029,6 +1094,7 @@ public class ExecutorManager extends EventHandler implements
     if(null != this.updaterThread) {
       this.updaterThread.shutdown();
     }
+    this.apiGateway.shutdown();
   }
 
   @Override
@@ -1036,7 +1102,7 @@ public class ExecutorManager extends EventHandler implements
       final int length, final List<ExecutableFlow> outputList)
       throws ExecutorManagerException {
     final List<ExecutableFlow> flows =
-        this.executorLoader.fetchFlowHistory(projectId, flowId, from, length);
+        this.executorLoader.fetchFlowHistorySummaries(projectId, flowId, from, length);
     outputList.addAll(flows);
     return this.executorLoader.fetchNumExecutableFlows(projectId, flowId);
   }
@@ -1044,7 +1110,7 @@ public class ExecutorManager extends EventHandler implements
   @Override
   public List<ExecutableFlow> getExecutableFlows(final int projectId, final String flowId,
       final int from, final int length, final Status status) throws ExecutorManagerException {
-    return this.executorLoader.fetchFlowHistory(projectId, flowId, from, length,
+    return this.executorLoader.fetchFlowHistorySummaries(projectId, flowId, from, length,
         status);
   }
 
@@ -36,6 +36,13 @@ public interface ExecutorManagerAdapter {
   public ExecutableFlow getExecutableFlow(int execId)
       throws ExecutorManagerException;
 
+  /**
+   * Returns the execution for the status polling of the UI, possibly from memory. The returned flow
+   * may be shared and must not be modified.
+   */
+  public ExecutableFlow getCachedExecutableFlow(int execId)
+      throws ExecutorManagerException;
+
   public List<Integer> getRunningFlows(int projectId, String flowId);
 
   public List<ExecutableFlow> getRunningFlows();
@@ -53,6 +60,11 @@ public interface ExecutorManagerAdapter {
 
   public List<ExecutableFlow> getRecentlyFinishedFlows();
 
+  /**
+   * The getExecutableFlows methods return summaries of the executions, for the lists of
+   * executions: they have no nodes, execution options or properties. Use
+   * {@link #getExecutableFlow(int)} for the full execution.
+   */
   public List<ExecutableFlow> getExecutableFlows(int skip, int size)
       throws ExecutorManagerException;
 
@@ -82,6 +94,18 @@ public interface ExecutorManagerAdapter {
   public LogData getExecutionJobLog(ExecutableFlow exFlow, String jobId,
       int offset, int length, int attempt) throws ExecutorManagerException;
 
+  /**
+   * Fetches the end of the log of a job: at most the last length bytes.
+   */
+  public LogData getExecutionJobLogTail(ExecutableFlow exFlow, String jobId,
+      int length, int attempt) throws ExecutorManagerException;
+
+  /**
+   * Searches the log of a job attempt, on the executor while the flow is running.
+   */
+  public LogSearcher.Result searchExecutionJobLog(ExecutableFlow exFlow, String jobId,
+      int attempt, LogSearcher.Query query) throws ExecutorManagerException;
+
   public List<Object> getExecutionJobStats(ExecutableFlow exflow, String jobId,
       int attempt) throws ExecutorManagerException;
 
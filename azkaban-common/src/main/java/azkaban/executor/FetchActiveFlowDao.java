@@ -20,7 +20,6 @@ import azkaban.db.DatabaseOperator;
 import azkaban.db.EncodingType;
 import azkaban.flow.Flow;
 import azkaban.project.Project;
-import azkaban.utils.GZIPUtils;
 import azkaban.utils.Pair;
 import com.google.common.annotations.VisibleForTesting;
 import java.io.IOException;
@@ -29,6 +28,7 @@ import java.sql.SQLException;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.stream.Collectors;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import org.apache.commons.dbutils.ResultSetHandler;
@@ -61,8 +61,7 @@ public class FetchActiveFlowDao {
       final EncodingType encType = EncodingType.fromInteger(encodingType);
       final ExecutableFlow exFlow;
       try {
-        exFlow = ExecutableFlow.createExecutableFlow(
-            GZIPUtils.transformBytesToObject(data, encType), Status.fromInteger(status));
+        exFlow = ExecutableFlow.createExecutableFlow(data, encType, Status.fromInteger(status));
       } catch (final IOException e) {
         throw new SQLException("Error retrieving flow data " + id, e);
       }
@@ -114,8 +113,9 @@ public class FetchActiveFlowDao {
   Map<Integer, Pair<ExecutionReference, ExecutableFlow>> fetchUnfinishedFlows()
       throws ExecutorManagerException {
     try {
-      return this.dbOperator.query(FetchActiveExecutableFlows.FETCH_UNFINISHED_EXECUTABLE_FLOWS,
-          new FetchActiveExecutableFlows());
+      return withUpdates(this.dbOperator
+          .query(FetchActiveExecutableFlows.FETCH_UNFINISHED_EXECUTABLE_FLOWS,
+              new FetchActiveExecutableFlows()));
     } catch (final SQLException e) {
       throw new ExecutorManagerException("Error fetching unfinished flows", e);
     }
@@ -146,8 +146,9 @@ public class FetchActiveFlowDao {
   Map<Integer, Pair<ExecutionReference, ExecutableFlow>> fetchActiveFlows()
       throws ExecutorManagerException {
     try {
-      return this.dbOperator.query(FetchActiveExecutableFlows.FETCH_ACTIVE_EXECUTABLE_FLOWS,
-          new FetchActiveExecutableFlows());
+      return withUpdates(this.dbOperator
+          .query(FetchActiveExecutableFlows.FETCH_ACTIVE_EXECUTABLE_FLOWS,
+              new FetchActiveExecutableFlows()));
     } catch (final SQLException e) {
       throw new ExecutorManagerException("Error fetching active flows", e);
     }
@@ -162,14 +163,32 @@ public class FetchActiveFlowDao {
   Pair<ExecutionReference, ExecutableFlow> fetchActiveFlowByExecId(final int execId)
       throws ExecutorManagerException {
     try {
-      return this.dbOperator.query(FetchActiveExecutableFlow
-              .FETCH_ACTIVE_EXECUTABLE_FLOW_BY_EXEC_ID,
-          new FetchActiveExecutableFlow(), execId);
+      final Pair<ExecutionReference, ExecutableFlow> flow = this.dbOperator
+          .query(FetchActiveExecutableFlow.FETCH_ACTIVE_EXECUTABLE_FLOW_BY_EXEC_ID,
+              new FetchActiveExecutableFlow(), execId);
+      if (flow != null) {
+        ExecutableFlowUpdates
+            .applyUpdates(this.dbOperator, Collections.singletonList(flow.getSecond()));
+      }
+      return flow;
     } catch (final SQLException e) {
       throw new ExecutorManagerException("Error fetching active flow by exec id" + execId, e);
     }
   }
 
+  /**
+   * Applies the deltas of running executions on top of the flow_data snapshots, see {@link
+   * ExecutableFlowUpdates}.
+   *
+   * @return the given flows
+   */
+  private Map<Integer, Pair<ExecutionReference, ExecutableFlow>> withUpdates(
+      final Map<Integer, Pair<ExecutionReference, ExecutableFlow>> flows) throws SQLException {
+    ExecutableFlowUpdates.applyUpdates(this.dbOperator,
+        flows.values().stream().map(Pair::getSecond).collect(Collectors.toList()));
+    return flows;
+  }
+
   @VisibleForTesting
   static class FetchActiveExecutableFlows implements
       ResultSetHandler<Map<Integer, Pair<ExecutionReference, ExecutableFlow>>> {
@@ -75,12 +75,24 @@ public class JdbcExecutorLoader implements ExecutorLoader {
     this.executionFlowDao.updateExecutableFlow(flow);
   }
 
+  @Override
+  public void appendExecutableFlowUpdate(final ExecutableFlow flow, final long lastUpdateTime)
+      throws ExecutorManagerException {
+    this.executionFlowDao.appendExecutableFlowUpdate(flow, lastUpdateTime);
+  }
+
   @Override
   public ExecutableFlow fetchExecutableFlow(final int id)
       throws ExecutorManagerException {
     return this.executionFlowDao.fetchExecutableFlow(id);
   }
 
+  @Override
+  public Pair<Long, Status> fetchExecutableFlowUpdateTime(final int execId)
+      throws ExecutorManagerException {
+    return this.executionFlowDao.fetchExecutableFlowUpdateTime(execId);
+  }
+
   @Override
   public List<Pair<ExecutionReference, ExecutableFlow>> fetchQueuedFlows()
       throws ExecutorManagerException {
@@ -171,6 +183,35 @@ public class JdbcExecutorLoader implements ExecutorLoader {
         userNameContains, status, startTime, endTime, skip, num);
   }
 
+  @Override
+  public List<ExecutableFlow> fetchFlowHistorySummaries(final int skip, final int num)
+      throws ExecutorManagerException {
+    return this.executionFlowDao.fetchFlowHistorySummaries(skip, num);
+  }
+
+  @Override
+  public List<ExecutableFlow> fetchFlowHistorySummaries(final int projectId,
+      final String flowId, final int skip, final int num) throws ExecutorManagerException {
+    return this.executionFlowDao.fetchFlowHistorySummaries(projectId, flowId, skip, num);
+  }
+
+  @Override
+  public List<ExecutableFlow> fetchFlowHistorySummaries(final int projectId,
+      final String flowId, final int skip, final int num, final Status status)
+      throws ExecutorManagerException {
+    return this.executionFlowDao.fetchFlowHistorySummaries(projectId, flowId, skip, num,
+        status);
+  }
+
+  @Override
+  public List<ExecutableFlow> fetchFlowHistorySummaries(final String projContain,
+      final String flowContains, final String userNameContains, final int status,
+      final long startTime, final long endTime, final int skip, final int num)
+      throws ExecutorManagerException {
+    return this.executionFlowDao.fetchFlowHistorySummaries(projContain, flowContains,
+        userNameContains, status, startTime, endTime, skip, num);
+  }
+
   @Override
   public void addActiveExecutableReference(final ExecutionReference reference)
       throws ExecutorManagerException {
@@ -207,6 +248,13 @@ public class JdbcExecutorLoader implements ExecutorLoader {
     this.executionJobDao.updateExecutableNode(node);
   }
 
+  @Override
+  public void updateExecutableNodes(final List<ExecutableNodeUpdate> nodes)
+      throws ExecutorManagerException {
+
+    this.executionJobDao.updateExecutableNodes(nodes);
+  }
+
   @Override
   public List<ExecutableJobInfo> fetchJobInfoAttempts(final int execId, final String jobId)
       throws ExecutorManagerException {
@@ -255,6 +303,12 @@ public class JdbcExecutorLoader implements ExecutorLoader {
     return this.executionLogsDao.fetchLogs(execId, name, attempt, startByte, length);
   }
 
+  @Override
+  public LogData fetchLogTail(final int execId, final String name, final int attempt,
+      final int length) throws ExecutorManagerException {
+    return this.executionLogsDao.fetchLogTail(execId, name, attempt, length);
+  }
+
   @Override
   public List<Object> fetchAttachments(final int execId, final String jobId, final int attempt)
       throws ExecutorManagerException {
@@ -269,6 +323,18 @@ public class JdbcExecutorLoader implements ExecutorLoader {
     this.executionLogsDao.uploadLogFile(execId, name, attempt, files);
   }
 
+  @Override
+  public void uploadLogChunk(final int execId, final String name, final int attempt,
+      final int startByte, final byte[] buffer, final int length)
+      throws ExecutorManagerException {
+    this.executionLogsDao.uploadLogChunk(execId, name, attempt, startByte, buffer, length);
+  }
+
+  @Override
+  public int getLogChunkSize() {
+    return this.executionLogsDao.getLogChunkSize();
+  }
+
   @Override
   public void uploadAttachmentFile(final ExecutableNode node, final File file)
       throws ExecutorManagerException {
@@ -360,6 +426,25 @@ public class JdbcExecutorLoader implements ExecutorLoader {
     return this.executionFlowDao.selectAndUpdateExecutionWithLocking(executorId, isActive);
   }
 
+  @Override
+  public List<Integer> selectAndUpdateExecutions(final int executorId, final boolean isActive,
+      final int maxExecutions) throws ExecutorManagerException {
+    return this.executionFlowDao.selectAndUpdateExecutions(executorId, isActive, maxExecutions);
+  }
+
+  @Override
+  public List<Integer> selectAndUpdateExecutionsWithLocking(final int executorId,
+      final boolean isActive, final int maxExecutions) throws ExecutorManagerException {
+    return this.executionFlowDao
+        .selectAndUpdateExecutionsWithLocking(executorId, isActive, maxExecutions);
+  }
+
+  @Override
+  public List<Pair<Integer, Integer>> fetchQueuedProjectVersions(final int executorId,
+      final boolean isActive, final int maxProjects) throws ExecutorManagerException {
+    return this.executionFlowDao.fetchQueuedProjectVersions(executorId, isActive, maxProjects);
+  }
+
   @Override
   public ExecutableRampMap fetchExecutableRampMap() throws ExecutorManagerException {
     return this.executionRampDao.fetchExecutableRampMap();
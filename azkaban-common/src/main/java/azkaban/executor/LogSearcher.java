@@ -0,0 +1,521 @@
+/*
+ * Copyright 2020 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package azkaban.executor;
+
+import azkaban.utils.FileIOUtils.LogData;
+import azkaban.utils.Pair;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Searches a log for the lines that match a regex or a substring, without sending the whole log
+ * to the browser.
+ *
+ * <p>The log is read page by page, from the log storage for finished executions or from the log
+ * file on the executor for running ones. A search returns at most {@link Query#getMaxResults()}
+ * matches and stops once its time budget is spent. The next page of results is searched by
+ * passing {@link Result#getNextOffset()} as the start offset of the next query.
+ *
+ * <p>A regex gets at most {@link #LINE_TIME_BUDGET_MS} per line. The lines it can't search in
+ * time, e.g. because of catastrophic backtracking, are skipped and counted in {@link
+ * Result#getSkippedLines()}. Every search moves past at least one line, so that paging through a
+ * log always ends.
+ */
+public class LogSearcher {
+
+  public static final int MAX_RESULTS = 1000;
+  public static final int MAX_CONTEXT_LINES = 10;
+  public static final long MAX_TIME_BUDGET_MS = 10 * 1000;
+
+  // Size of the pages the log is read in, the size of the stored log chunks
+  static final int PAGE_SIZE = 50 * 1024;
+  // Longer lines are searched in pieces
+  static final int MAX_LINE_LENGTH = 64 * 1024;
+  // Time a regex may spend on a single line
+  static final long LINE_TIME_BUDGET_MS = 1000;
+
+  private static final int DEFAULT_MAX_RESULTS = 100;
+  private static final long DEFAULT_TIME_BUDGET_MS = 5 * 1000;
+
+  private LogSearcher() {
+  }
+
+  /**
+   * Searches the log from the start offset of the query.
+   */
+  public static Result search(final LogReader reader, final Query query)
+      throws ExecutorManagerException {
+    final Scan scan = new Scan(query);
+    final StringBuilder partialLine = new StringBuilder();
+    int lineOffset = query.getStartOffset();
+    int readOffset = query.getStartOffset();
+    boolean firstPage = true;
+
+    while (!scan.isTimedOut()) {
+      final LogData page = reader.read(readOffset, PAGE_SIZE);
+      if (page == null || page.getLength() == 0) {
+        // End of the log
+        if (partialLine.length() > 0) {
+          final String line = partialLine.toString();
+          if (!scan.addLine(line, lineOffset, lineOffset + utf8Length(line))) {
+            return scan.getStoppedResult();
+          }
+        }
+        return scan.getResult(!scan.isDone(), false);
+      }
+      if (firstPage) {
+        // The start offset may be in the middle of a character
+        lineOffset = page.getOffset();
+        firstPage = false;
+      }
+      readOffset = page.getOffset() + page.getLength();
+
+      final String data = page.getData();
+      int lineStart = 0;
+      int newLine;
+      while ((newLine = data.indexOf('\n', lineStart)) >= 0) {
+        partialLine.append(data, lineStart, newLine);
+        lineStart = newLine + 1;
+        final String line = partialLine.toString();
+        partialLine.setLength(0);
+        final int lineEnd = lineOffset + utf8Length(line) + 1;
+        if (!scan.addLine(line, lineOffset, lineEnd)) {
+          return scan.getStoppedResult();
+        }
+        lineOffset = lineEnd;
+      }
+      partialLine.append(data, lineStart, data.length());
+      if (partialLine.length() >= MAX_LINE_LENGTH) {
+        final String line = partialLine.toString();
+        partialLine.setLength(0);
+        final int lineEnd = lineOffset + utf8Length(line);
+        if (!scan.addLine(line, lineOffset, lineEnd)) {
+          return scan.getStoppedResult();
+        }
+        lineOffset = lineEnd;
+      }
+    }
+    return scan.getResult(false, true);
+  }
+
+  /**
+   * @return the number of bytes of the string in UTF-8.
+   */
+  static int utf8Length(final CharSequence s) {
+    int length = 0;
+    for (int i = 0; i < s.length(); i++) {
+      final char c = s.charAt(i);
+      if (c < 0x80) {
+        length++;
+      } else if (c < 0x800) {
+        length += 2;
+      } else if (Character.isHighSurrogate(c)) {
+        length += 4;
+        i++;
+      } else {
+        length += 3;
+      }
+    }
+    return length;
+  }
+
+  /**
+   * Reads a page of a log.
+   */
+  @FunctionalInterface
+  public interface LogReader {
+
+    /**
+     * @return null or empty log data at the end of the log.
+     */
+    LogData read(int offset, int length) throws ExecutorManagerException;
+  }
+
+  /**
+   * The parameters of a search. Out of range values are capped.
+   */
+  public static class Query {
+
+    public static final String PATTERN_PARAM = "pattern";
+    public static final String REGEX_PARAM = "regex";
+    public static final String IGNORE_CASE_PARAM = "ignoreCase";
+    public static final String OFFSET_PARAM = "offset";
+    public static final String MAX_RESULTS_PARAM = "maxResults";
+    public static final String CONTEXT_LINES_PARAM = "contextLines";
+    public static final String TIME_BUDGET_PARAM = "timeBudgetMs";
+    public static final List<String> PARAM_NAMES = Collections.unmodifiableList(Arrays.asList(
+        PATTERN_PARAM, REGEX_PARAM, IGNORE_CASE_PARAM, OFFSET_PARAM, MAX_RESULTS_PARAM,
+        CONTEXT_LINES_PARAM, TIME_BUDGET_PARAM));
+
+    private final String pattern;
+    private final boolean regex;
+    private final boolean ignoreCase;
+    private final int startOffset;
+    private final int maxResults;
+    private final int contextLines;
+    private final long timeBudgetMs;
+    private final Pattern compiledPattern;
+
+    /**
+     * @throws IllegalArgumentException if the pattern is empty or not a valid regex
+     */
+    public Query(final String pattern, final boolean regex, final boolean ignoreCase,
+        final int startOffset, final int maxResults, final int contextLines,
+        final long timeBudgetMs) {
+      if (pattern == null || pattern.isEmpty()) {
+        throw new IllegalArgumentException("Search pattern is empty.");
+      }
+      this.pattern = pattern;
+      this.regex = regex;
+      this.ignoreCase = ignoreCase;
+      this.startOffset = Math.max(startOffset, 0);
+      this.maxResults = Math.min(Math.max(maxResults, 1), MAX_RESULTS);
+      this.contextLines = Math.min(Math.max(contextLines, 0), MAX_CONTEXT_LINES);
+      this.timeBudgetMs = Math.min(Math.max(timeBudgetMs, 1), MAX_TIME_BUDGET_MS);
+      final int flags = ignoreCase ? Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE : 0;
+      this.compiledPattern = Pattern.compile(regex ? pattern : Pattern.quote(pattern), flags);
+    }
+
+    /**
+     * Creates a query from the parameters of a request, only the pattern is required.
+     */
+    public static Query fromParams(final Map<String, String> params) {
+      return new Query(params.get(PATTERN_PARAM),
+          Boolean.parseBoolean(params.get(REGEX_PARAM)),
+          Boolean.parseBoolean(params.get(IGNORE_CASE_PARAM)),
+          Integer.parseInt(params.getOrDefault(OFFSET_PARAM, "0")),
+          Integer.parseInt(params.getOrDefault(MAX_RESULTS_PARAM,
+              String.valueOf(DEFAULT_MAX_RESULTS))),
+          Integer.parseInt(params.getOrDefault(CONTEXT_LINES_PARAM, "0")),
+          Long.parseLong(params.getOrDefault(TIME_BUDGET_PARAM,
+              String.valueOf(DEFAULT_TIME_BUDGET_MS))));
+    }
+
+    /**
+     * @return the query as request parameters, to run it on the executor.
+     */
+    @SuppressWarnings("unchecked")
+    public Pair<String, String>[] toParams() {
+      return new Pair[]{
+          new Pair<>(PATTERN_PARAM, this.pattern),
+          new Pair<>(REGEX_PARAM, String.valueOf(this.regex)),
+          new Pair<>(IGNORE_CASE_PARAM, String.valueOf(this.ignoreCase)),
+          new Pair<>(OFFSET_PARAM, String.valueOf(this.startOffset)),
+          new Pair<>(MAX_RESULTS_PARAM, String.valueOf(this.maxResults)),
+          new Pair<>(CONTEXT_LINES_PARAM, String.valueOf(this.contextLines)),
+          new Pair<>(TIME_BUDGET_PARAM, String.valueOf(this.timeBudgetMs))};
+    }
+
+    public int getStartOffset() {
+      return this.startOffset;
+    }
+
+    public int getMaxResults() {
+      return this.maxResults;
+    }
+
+    public int getContextLines() {
+      return this.contextLines;
+    }
+
+    public long getTimeBudgetMs() {
+      return this.timeBudgetMs;
+    }
+  }
+
+  /**
+   * The matches found by a search.
+   */
+  public static class Result {
+
+    private final List<Match> matches;
+    private final int nextOffset;
+    private final boolean complete;
+    private final boolean timedOut;
+    private final int skippedLines;
+
+    public Result(final List<Match> matches, final int nextOffset, final boolean complete,
+        final boolean timedOut, final int skippedLines) {
+      this.matches = matches;
+      this.nextOffset = nextOffset;
+      this.complete = complete;
+      this.timedOut = timedOut;
+      this.skippedLines = skippedLines;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static Result createResultFromObject(final Map<String, Object> map) {
+      final List<Match> matches = new ArrayList<>();
+      for (final Object match : (List<Object>) map.get("matches")) {
+        matches.add(Match.createMatchFromObject((Map<String, Object>) match));
+      }
+      return new Result(matches, (Integer) map.get("nextOffset"),
+          (Boolean) map.get("complete"), (Boolean) map.get("timedOut"),
+          (Integer) map.getOrDefault("skippedLines", 0));
+    }
+
+    public List<Match> getMatches() {
+      return this.matches;
+    }
+
+    /**
+     * @return the offset to continue the search from.
+     */
+    public int getNextOffset() {
+      return this.nextOffset;
+    }
+
+    /**
+     * @return true if the search reached the end of the log.
+     */
+    public boolean isComplete() {
+      return this.complete;
+    }
+
+    /**
+     * @return true if the search stopped because its time budget was spent.
+     */
+    public boolean isTimedOut() {
+      return this.timedOut;
+    }
+
+    /**
+     * @return the number of lines the regex couldn't search within its time budget.
+     */
+    public int getSkippedLines() {
+      return this.skippedLines;
+    }
+
+    public Map<String, Object> toObject() {
+      final List<Object> matchObjects = new ArrayList<>();
+      for (final Match match : this.matches) {
+        matchObjects.add(match.toObject());
+      }
+      final HashMap<String, Object> map = new HashMap<>();
+      map.put("matches", matchObjects);
+      map.put("nextOffset", this.nextOffset);
+      map.put("complete", this.complete);
+      map.put("timedOut", this.timedOut);
+      map.put("skippedLines", this.skippedLines);
+      return map;
+    }
+  }
+
+  /**
+   * A matching line, with its byte offset in the log and the lines around it.
+   */
+  public static class Match {
+
+    private final int offset;
+    private final String line;
+    private final List<String> before;
+    private final List<String> after;
+
+    public Match(final int offset, final String line, final List<String> before,
+        final List<String> after) {
+      this.offset = offset;
+      this.line = line;
+      this.before = before;
+      this.after = after;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static Match createMatchFromObject(final Map<String, Object> map) {
+      return new Match((Integer) map.get("offset"), (String) map.get("line"),
+          (List<String>) map.get("before"), (List<String>) map.get("after"));
+    }
+
+    public int getOffset() {
+      return this.offset;
+    }
+
+    public String getLine() {
+      return this.line;
+    }
+
+    public List<String> getBefore() {
+      return this.before;
+    }
+
+    public List<String> getAfter() {
+      return this.after;
+    }
+
+    public Map<String, Object> toObject() {
+      final HashMap<String, Object> map = new HashMap<>();
+      map.put("offset", this.offset);
+      map.put("line", this.line);
+      map.put("before", this.before);
+      map.put("after", this.after);
+      return map;
+    }
+  }
+
+  /**
+   * The state of a search, fed one line at a time.
+   */
+  private static class Scan {
+
+    private final Query query;
+    private final long deadline;
+    private final List<Match> matches = new ArrayList<>();
+    private final Deque<String> recentLines = new ArrayDeque<>();
+    // Matches which are still missing lines of context after them
+    private final List<Match> awaitingContext = new ArrayList<>();
+    // Offset of the first line that hasn't been searched
+    private int nextOffset;
+    private boolean searchedLine = false;
+    private int skippedLines = 0;
+
+    Scan(final Query query) {
+      this.query = query;
+      this.deadline = System.currentTimeMillis() + query.getTimeBudgetMs();
+      this.nextOffset = query.getStartOffset();
+    }
+
+    /**
+     * @return false once enough matches have been found and their context is complete, or once
+     * the time budget is spent: the line is then left for the next search.
+     */
+    boolean addLine(final String rawLine, final int offset, final int endOffset) {
+      if (isTimedOut()) {
+        return false;
+      }
+      final String line = rawLine.endsWith("\r")
+          ? rawLine.substring(0, rawLine.length() - 1) : rawLine;
+      for (final Iterator<Match> it = this.awaitingContext.iterator(); it.hasNext(); ) {
+        final Match match = it.next();
+        match.getAfter().add(line);
+        if (match.getAfter().size() >= this.query.getContextLines()) {
+          it.remove();
+        }
+      }
+      if (isFull()) {
+        return !isDone();
+      }
+
+      if (matches(line)) {
+        final Match match = new Match(offset, line, new ArrayList<>(this.recentLines),
+            new ArrayList<>());
+        this.matches.add(match);
+        if (this.query.getContextLines() > 0) {
+          this.awaitingContext.add(match);
+        }
+      }
+      if (this.query.getContextLines() > 0) {
+        if (this.recentLines.size() == this.query.getContextLines()) {
+          this.recentLines.removeFirst();
+        }
+        this.recentLines.addLast(line);
+      }
+      this.nextOffset = endOffset;
+      this.searchedLine = true;
+      return !isDone();
+    }
+
+    private boolean matches(final String line) {
+      final long lineDeadline = System.currentTimeMillis()
+          + Math.min(LINE_TIME_BUDGET_MS, this.query.getTimeBudgetMs());
+      try {
+        return this.query.compiledPattern.matcher(new DeadlineCharSequence(line, lineDeadline))
+            .find();
+      } catch (final SearchTimeoutException e) {
+        // A pathological regex: the line is skipped rather than searched again forever
+        this.skippedLines++;
+        return false;
+      }
+    }
+
+    /**
+     * @return true once the time budget is spent. A search isn't timed out before it has
+     * searched a line, otherwise a slow reader could keep it from ever moving forward.
+     */
+    boolean isTimedOut() {
+      return this.searchedLine && System.currentTimeMillis() > this.deadline;
+    }
+
+    boolean isFull() {
+      return this.matches.size() >= this.query.getMaxResults();
+    }
+
+    boolean isDone() {
+      return isFull() && this.awaitingContext.isEmpty();
+    }
+
+    Result getResult(final boolean complete, final boolean timedOut) {
+      return new Result(this.matches, this.nextOffset, complete, timedOut, this.skippedLines);
+    }
+
+    /**
+     * @return the result of a search stopped before the end of the log.
+     */
+    Result getStoppedResult() {
+      return getResult(false, !isDone());
+    }
+  }
+
+  /**
+   * Stops a regex that takes longer than its time budget.
+   */
+  private static class DeadlineCharSequence implements CharSequence {
+
+    private final CharSequence chars;
+    private final long deadline;
+    private int numAccesses = 0;
+
+    DeadlineCharSequence(final CharSequence chars, final long deadline) {
+      this.chars = chars;
+      this.deadline = deadline;
+    }
+
+    @Override
+    public char charAt(final int index) {
+      // Checking the clock on every access would slow down the common case
+      if (++this.numAccesses % 100000 == 0 && System.currentTimeMillis() > this.deadline) {
+        throw new SearchTimeoutException();
+      }
+      return this.chars.charAt(index);
+    }
+
+    @Override
+    public int length() {
+      return this.chars.length();
+    }
+
+    @Override
+    public CharSequence subSequence(final int start, final int end) {
+      return new DeadlineCharSequence(this.chars.subSequence(start, end), this.deadline);
+    }
+
+    @Override
+    public String toString() {
+      return this.chars.toString();
+    }
+  }
+
+  private static class SearchTimeoutException extends RuntimeException {
+
+  }
+}
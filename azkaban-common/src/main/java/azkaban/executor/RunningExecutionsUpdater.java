@@ -16,15 +16,27 @@
 
 package azkaban.executor;
 
+import azkaban.Constants;
+import azkaban.Constants.ConfigurationKeys;
 import azkaban.alert.Alerter;
 import azkaban.metrics.CommonMetrics;
 import azkaban.utils.Pair;
+import azkaban.utils.Props;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import javax.inject.Inject;
 import org.apache.log4j.Logger;
 import org.joda.time.DateTime;
@@ -48,12 +60,24 @@ public class RunningExecutionsUpdater {
   private final RunningExecutions runningExecutions;
   private final ExecutionFinalizer executionFinalizer;
   private final ExecutorLoader executorLoader;
+  // Executors are called concurrently, each call must complete within the update timeout of
+  // when it started
+  private final ExecutorService updateExecutorService;
+  private final long updateTimeoutMs;
 
   @Inject
-  public RunningExecutionsUpdater(final ExecutorManagerUpdaterStage updaterStage,
+  public RunningExecutionsUpdater(final Props azkProps,
+      final ExecutorManagerUpdaterStage updaterStage,
       final AlerterHolder alerterHolder, final CommonMetrics commonMetrics,
       final ExecutorApiGateway apiGateway, final RunningExecutions runningExecutions,
       final ExecutionFinalizer executionFinalizer, final ExecutorLoader executorLoader) {
+    this.updateExecutorService = Executors.newFixedThreadPool(
+        azkProps.getInt(ConfigurationKeys.EXECUTOR_UPDATE_THREADS,
+            Constants.DEFAULT_EXECUTOR_UPDATE_THREADS),
+        new ThreadFactoryBuilder().setNameFormat("azk-running-executions-updater-%d")
+            .setDaemon(true).build());
+    this.updateTimeoutMs = azkProps.getLong(ConfigurationKeys.EXECUTOR_UPDATE_TIMEOUT_MS,
+        Constants.DEFAULT_EXECUTOR_UPDATE_TIMEOUT_MS);
     this.updaterStage = updaterStage;
     this.alerterHolder = alerterHolder;
     this.commonMetrics = commonMetrics;
@@ -73,6 +97,9 @@ public class RunningExecutionsUpdater {
     final ArrayList<ExecutableFlow> finalizeFlows =
         new ArrayList<>();
 
+    // Call all the executors concurrently, results are merged on this thread
+    final Map<Entry<Optional<Executor>, List<ExecutableFlow>>,
+        Pair<UpdateCall, Future<Map<String, Object>>>> updateCalls = new LinkedHashMap<>();
     for (final Map.Entry<Optional<Executor>, List<ExecutableFlow>> entry : exFlowMap
         .entrySet()) {
 
@@ -89,10 +116,20 @@ public class RunningExecutionsUpdater {
 
       this.updaterStage.set("Starting update flows on " + executor.getHost() + ":"
           + executor.getPort());
+      final UpdateCall updateCall = new UpdateCall(executor, entry.getValue());
+      updateCalls.put(entry,
+          new Pair<>(updateCall, this.updateExecutorService.submit(updateCall)));
+    }
+
+    for (final Map.Entry<Entry<Optional<Executor>, List<ExecutableFlow>>,
+        Pair<UpdateCall, Future<Map<String, Object>>>> updateCall : updateCalls.entrySet()) {
+      final Entry<Optional<Executor>, List<ExecutableFlow>> entry = updateCall.getKey();
+      final Executor executor = entry.getKey().get();
 
       Map<String, Object> results = null;
       try {
-        results = this.apiGateway.updateExecutions(executor, entry.getValue());
+        results = getUpdateResults(executor, updateCall.getValue().getFirst(),
+            updateCall.getValue().getSecond());
       } catch (final ExecutorManagerException e) {
         handleException(entry, executor, e, finalizeFlows);
       }
@@ -133,6 +170,48 @@ public class RunningExecutionsUpdater {
     this.updaterStage.set("Updated all active flows. Waiting for next round.");
   }
 
+  /**
+   * Stops the calls to the executors which are in progress.
+   */
+  public void shutdown() {
+    this.updateExecutorService.shutdownNow();
+  }
+
+  /**
+   * Waits for the update call to the executor until the update timeout has passed since the call
+   * started. A call which is still queued behind calls to other executors doesn't time out.
+   */
+  private Map<String, Object> getUpdateResults(final Executor executor,
+      final UpdateCall updateCall, final Future<Map<String, Object>> future)
+      throws ExecutorManagerException {
+    try {
+      while (true) {
+        final long startTime = updateCall.getStartTime();
+        final long waitMs = startTime < 0 ? this.updateTimeoutMs
+            : startTime + this.updateTimeoutMs - System.currentTimeMillis();
+        try {
+          return future.get(Math.max(0, waitMs), TimeUnit.MILLISECONDS);
+        } catch (final TimeoutException e) {
+          if (startTime >= 0) {
+            future.cancel(true);
+            throw new ExecutorManagerException("Timed out after " + this.updateTimeoutMs
+                + " ms getting update from executor " + executor.getHost(), e);
+          }
+        }
+      }
+    } catch (final ExecutionException e) {
+      if (e.getCause() instanceof ExecutorManagerException) {
+        throw (ExecutorManagerException) e.getCause();
+      }
+      throw new ExecutorManagerException(e.getCause().getMessage(), e.getCause());
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      future.cancel(true);
+      throw new ExecutorManagerException("Interrupted while getting update from executor "
+          + executor.getHost(), e);
+    }
+  }
+
   private void handleException(final Entry<Optional<Executor>, List<ExecutableFlow>> entry,
       final Executor executor, final ExecutorManagerException e,
       final ArrayList<ExecutableFlow> finalizeFlows) {
@@ -248,4 +327,37 @@ public class RunningExecutionsUpdater {
     return flow;
   }
 
+  /**
+   * Calls an executor for the updates of its flows and records when the call started.
+   */
+  private class UpdateCall implements Callable<Map<String, Object>> {
+
+    private final Executor executor;
+    private final List<ExecutableFlow> flows;
+    private volatile long startTime = -1;
+
+    private UpdateCall(final Executor executor, final List<ExecutableFlow> flows) {
+      this.executor = executor;
+      this.flows = flows;
+    }
+
+    @Override
+    public Map<String, Object> call() throws ExecutorManagerException {
+      this.startTime = System.currentTimeMillis();
+      try {
+        return RunningExecutionsUpdater.this.apiGateway.updateExecutions(this.executor, this.flows);
+      } finally {
+        RunningExecutionsUpdater.this.commonMetrics.addExecutorUpdateLatency(
+            this.executor.getHost() + ":" + this.executor.getPort(),
+            System.currentTimeMillis() - this.startTime);
+      }
+    }
+
+    /**
+     * @return the time the call started, or -1 if it hasn't started yet
+     */
+    private long getStartTime() {
+      return this.startTime;
+    }
+  }
 }
@@ -77,6 +77,7 @@ public class RunningExecutionsUpdaterThread extends Thread {
 
   void shutdown() {
     this.shutdown = true;
+    this.updater.shutdown();
   }
 
   public long getLastThreadCheckTime() {
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2020 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package azkaban.executor;
+
+import azkaban.Constants;
+import azkaban.Constants.ConfigurationKeys;
+import azkaban.utils.Pair;
+import azkaban.utils.Props;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+/**
+ * Bounded cache of running executions, for the status polling of the execution pages.
+ *
+ * <p>Every open execution page polls the status of its flow every few seconds. Instead of reading
+ * and decoding the whole flow data for each poll, only the update time and status of the execution
+ * are fetched, and the cached flow is returned if they didn't change. Every write of the flow data
+ * or of the status changes them.
+ *
+ * <p>The cached flows are shared by the callers, which must not modify them.
+ */
+@Singleton
+public class RunningFlowCache {
+
+  private final ExecutorLoader executorLoader;
+  private final Cache<Integer, CachedFlow> cache;
+
+  @Inject
+  public RunningFlowCache(final Props props, final ExecutorLoader executorLoader) {
+    this(executorLoader, props.getInt(ConfigurationKeys.AZKABAN_RUNNING_FLOW_CACHE_SIZE,
+        Constants.DEFAULT_RUNNING_FLOW_CACHE_SIZE));
+  }
+
+  public RunningFlowCache(final ExecutorLoader executorLoader, final int maxSize) {
+    this.executorLoader = executorLoader;
+    this.cache = CacheBuilder.newBuilder()
+        .maximumSize(maxSize)
+        .recordStats()
+        .build();
+  }
+
+  /**
+   * @return the execution, null if it doesn't exist.
+   */
+  public ExecutableFlow get(final int execId) throws ExecutorManagerException {
+    final Pair<Long, Status> version = this.executorLoader.fetchExecutableFlowUpdateTime(execId);
+    if (version == null) {
+      this.cache.invalidate(execId);
+      return null;
+    }
+
+    final CachedFlow cached = this.cache.getIfPresent(execId);
+    if (cached != null && cached.version.equals(version)) {
+      return cached.flow;
+    }
+
+    // The version is fetched first, a write in between is picked up by the next call.
+    final ExecutableFlow flow = this.executorLoader.fetchExecutableFlow(execId);
+    if (flow == null || Status.isStatusFinished(version.getSecond())) {
+      // Finished executions aren't polled for long, keep the space for the running ones
+      this.cache.invalidate(execId);
+    } else {
+      this.cache.put(execId, new CachedFlow(version, flow));
+    }
+    return flow;
+  }
+
+  public CacheStats getStats() {
+    return this.cache.stats();
+  }
+
+  private static class CachedFlow {
+
+    private final Pair<Long, Status> version;
+    private final ExecutableFlow flow;
+
+    CachedFlow(final Pair<Long, Status> version, final ExecutableFlow flow) {
+      this.version = version;
+      this.flow = flow;
+    }
+  }
+}
@@ -97,17 +97,26 @@ public class AzkabanProcess {
 
       this.startupLatch.countDown();
 
-      final LogGobbler outputGobbler =
-          new LogGobbler(
-              new InputStreamReader(this.process.getInputStream(), StandardCharsets.UTF_8),
-              this.logger, Level.INFO, 30);
-      final LogGobbler errorGobbler =
-          new LogGobbler(
-              new InputStreamReader(this.process.getErrorStream(), StandardCharsets.UTF_8),
-              this.logger, Level.ERROR, 30);
-
-      outputGobbler.start();
-      errorGobbler.start();
+      // The error stream is redirected to the output stream, which is all the multiplexer reads.
+      ProcessOutputMultiplexer.Output multiplexedOutput = null;
+      LogGobbler outputGobbler = null;
+      LogGobbler errorGobbler = null;
+      if (ProcessOutputMultiplexer.isEnabled()) {
+        multiplexedOutput = ProcessOutputMultiplexer.getInstance()
+            .register(this.process, this.process.getInputStream(), this.logger, Level.INFO, 30);
+      } else {
+        outputGobbler =
+            new LogGobbler(
+                new InputStreamReader(this.process.getInputStream(), StandardCharsets.UTF_8),
+                this.logger, Level.INFO, 30);
+        errorGobbler =
+            new LogGobbler(
+                new InputStreamReader(this.process.getErrorStream(), StandardCharsets.UTF_8),
+                this.logger, Level.ERROR, 30);
+
+        outputGobbler.start();
+        errorGobbler.start();
+      }
       int exitCode = -1;
       try {
         exitCode = this.process.waitFor();
@@ -118,8 +127,12 @@ public class AzkabanProcess {
       this.completeLatch.countDown();
 
       // try to wait for everything to get logged out before exiting
-      outputGobbler.awaitCompletion(5000);
-      errorGobbler.awaitCompletion(5000);
+      if (multiplexedOutput != null) {
+        multiplexedOutput.awaitCompletion(5000);
+      } else {
+        outputGobbler.awaitCompletion(5000);
+        errorGobbler.awaitCompletion(5000);
+      }
 
       if (exitCode != 0) {
         throw new ProcessFailureException(exitCode);
@@ -0,0 +1,245 @@
+/*
+ * Copyright 2020 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package azkaban.jobExecutor.utils.process;
+
+import azkaban.utils.CircularBuffer;
+import com.google.common.base.Joiner;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+
+/**
+ * Reads the output of all the job processes of the JVM on a single thread, instead of one {@link
+ * azkaban.utils.LogGobbler} thread per process stream.
+ *
+ * <p>Process pipes can't be registered with a selector, so the thread checks every registered
+ * stream for available bytes, reads them in large chunks and only sleeps when no process has
+ * written anything. Complete lines are logged to the job logger. A stream is done once the
+ * process has exited and its buffered output has been read: the thread never blocks on a pipe that
+ * a child of the process keeps open.
+ */
+public class ProcessOutputMultiplexer {
+
+  private static final Logger LOGGER = Logger.getLogger(ProcessOutputMultiplexer.class);
+  private static final int READ_BUFFER_SIZE = 64 * 1024;
+  // Longer lines are logged in pieces
+  private static final int MAX_LINE_LENGTH = 1024 * 1024;
+  private static final long IDLE_WAIT_MS = 10;
+
+  private static volatile boolean enabled = false;
+  private static ProcessOutputMultiplexer instance = null;
+
+  private final Set<Output> outputs = ConcurrentHashMap.newKeySet();
+  private final Thread thread;
+
+  ProcessOutputMultiplexer() {
+    this.thread = new Thread(this::run, "azk-process-output-multiplexer");
+    this.thread.setDaemon(true);
+    this.thread.start();
+  }
+
+  public static void setEnabled(final boolean isEnabled) {
+    enabled = isEnabled;
+  }
+
+  public static boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * @return the multiplexer shared by all processes, its thread is started on the first call.
+   */
+  public static synchronized ProcessOutputMultiplexer getInstance() {
+    if (instance == null) {
+      instance = new ProcessOutputMultiplexer();
+    }
+    return instance;
+  }
+
+  /**
+   * Starts reading an output stream of a process.
+   *
+   * @param bufferLines the number of recent lines kept for {@link Output#getRecentLog()}
+   */
+  public Output register(final Process process, final InputStream stream, final Logger logger,
+      final Level level, final int bufferLines) {
+    final Output output = new Output(process, stream, logger, level, bufferLines);
+    this.outputs.add(output);
+    return output;
+  }
+
+  private void run() {
+    final byte[] readBuffer = new byte[READ_BUFFER_SIZE];
+    while (true) {
+      boolean readAny = false;
+      for (final Output output : this.outputs) {
+        try {
+          readAny |= output.drain(readBuffer);
+        } catch (final RuntimeException e) {
+          LOGGER.error("Failed to read the output of a process.", e);
+          output.finish();
+        }
+        if (output.isDone()) {
+          this.outputs.remove(output);
+        }
+      }
+
+      if (!readAny) {
+        try {
+          Thread.sleep(IDLE_WAIT_MS);
+        } catch (final InterruptedException e) {
+          LOGGER.warn("Process output multiplexer was interrupted.", e);
+        }
+      }
+    }
+  }
+
+  /**
+   * An output stream of a process. All the reads happen on the multiplexer thread.
+   */
+  public static class Output {
+
+    private final Process process;
+    private final InputStream stream;
+    private final Logger logger;
+    private final Level level;
+    private final CountDownLatch doneLatch = new CountDownLatch(1);
+    // Guarded by this
+    private final CircularBuffer<String> recentLines;
+    // Bytes of the current line that is not terminated yet
+    private byte[] pendingLine = new byte[256];
+    private int pendingLength = 0;
+
+    private Output(final Process process, final InputStream stream, final Logger logger,
+        final Level level, final int bufferLines) {
+      this.process = process;
+      this.stream = stream;
+      this.logger = logger;
+      this.level = level;
+      this.recentLines = new CircularBuffer<>(bufferLines);
+    }
+
+    /**
+     * Waits until all the output of the process has been logged.
+     */
+    public void awaitCompletion(final long waitMs) {
+      try {
+        this.doneLatch.await(waitMs, TimeUnit.MILLISECONDS);
+      } catch (final InterruptedException e) {
+        if (this.logger != null) {
+          this.logger.info("I/O thread interrupted.", e);
+        }
+      }
+    }
+
+    public synchronized String getRecentLog() {
+      return Joiner.on(System.getProperty("line.separator")).join(this.recentLines);
+    }
+
+    private boolean isDone() {
+      return this.doneLatch.getCount() == 0;
+    }
+
+    /**
+     * Reads the bytes that are available without blocking.
+     *
+     * @return true if something was read
+     */
+    private boolean drain(final byte[] readBuffer) {
+      if (isDone()) {
+        return false;
+      }
+      try {
+        // Checked before reading: once the process has exited all of its output is available.
+        final boolean exited = !this.process.isAlive();
+        final int available = this.stream.available();
+        if (available > 0) {
+          final int numRead = this.stream.read(readBuffer, 0,
+              Math.min(available, readBuffer.length));
+          if (numRead > 0) {
+            append(readBuffer, numRead);
+            return true;
+          }
+          if (numRead < 0) {
+            finish();
+          }
+        } else if (exited) {
+          finish();
+        }
+      } catch (final IOException e) {
+        if (this.logger != null) {
+          this.logger.error("Error reading from logging stream:", e);
+        }
+        finish();
+      }
+      return false;
+    }
+
+    private void append(final byte[] bytes, final int length) {
+      int lineStart = 0;
+      for (int i = 0; i < length; i++) {
+        if (bytes[i] == '\n') {
+          appendPending(bytes, lineStart, i - lineStart);
+          logPendingLine();
+          lineStart = i + 1;
+        }
+      }
+      appendPending(bytes, lineStart, length - lineStart);
+      if (this.pendingLength >= MAX_LINE_LENGTH) {
+        logPendingLine();
+      }
+    }
+
+    private void appendPending(final byte[] bytes, final int offset, final int length) {
+      if (this.pendingLength + length > this.pendingLine.length) {
+        this.pendingLine = Arrays.copyOf(this.pendingLine,
+            Math.max(this.pendingLine.length * 2, this.pendingLength + length));
+      }
+      System.arraycopy(bytes, offset, this.pendingLine, this.pendingLength, length);
+      this.pendingLength += length;
+    }
+
+    private void logPendingLine() {
+      int length = this.pendingLength;
+      if (length > 0 && this.pendingLine[length - 1] == '\r') {
+        length--;
+      }
+      final String line = new String(this.pendingLine, 0, length, StandardCharsets.UTF_8);
+      this.pendingLength = 0;
+      synchronized (this) {
+        this.recentLines.append(line);
+      }
+      if (this.logger != null) {
+        this.logger.log(this.level, line);
+      }
+    }
+
+    private void finish() {
+      if (this.pendingLength > 0) {
+        logPendingLine();
+      }
+      this.doneLatch.countDown();
+    }
+  }
+}
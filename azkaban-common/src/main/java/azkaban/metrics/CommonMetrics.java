@@ -19,8 +19,11 @@ package azkaban.metrics;
 import com.codahale.metrics.Counter;
 import com.codahale.metrics.Histogram;
 import com.codahale.metrics.Meter;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 import javax.inject.Inject;
 import javax.inject.Singleton;
+import org.apache.http.pool.PoolStats;
 
 /**
  * This singleton class CommonMetrics is in charge of collecting varieties of metrics which are
@@ -41,6 +44,15 @@ public class CommonMetrics {
   public static final String QUEUE_WAIT_HISTOGRAM_NAME = "queue-wait-histogram";
   public static final String UPLOAD_FAT_PROJECT_METER_NAME = "upload-fat-project-meter";
   public static final String UPLOAD_THIN_PROJECT_METER_NAME = "upload-thin-project-meter";
+  public static final String EXECUTOR_CLIENT_LEASED_CONNECTIONS_NAME =
+      "executor-client-leased-connections";
+  public static final String EXECUTOR_CLIENT_AVAILABLE_CONNECTIONS_NAME =
+      "executor-client-available-connections";
+  public static final String EXECUTOR_CLIENT_PENDING_REQUESTS_NAME =
+      "executor-client-pending-requests";
+  public static final String EXECUTOR_CLIENT_POOL_UTILIZATION_NAME =
+      "executor-client-pool-utilization";
+  public static final String EXECUTOR_UPDATE_TIMER_NAME = "executor-update-timer";
 
   private Counter OOMWaitingJobCount;
   private final MetricsManager metricsManager;
@@ -158,6 +170,37 @@ public class CommonMetrics {
     this.OOMWaitingJobCount.dec();
   }
 
+  /**
+   * Add gauges on the saturation of the executor HTTP client connection pool.
+   *
+   * @param poolStats supplier of the current pool stats.
+   */
+  public void addExecutorClientPoolMetrics(final Supplier<PoolStats> poolStats) {
+    this.metricsManager.addGauge(EXECUTOR_CLIENT_LEASED_CONNECTIONS_NAME,
+        () -> poolStats.get().getLeased());
+    this.metricsManager.addGauge(EXECUTOR_CLIENT_AVAILABLE_CONNECTIONS_NAME,
+        () -> poolStats.get().getAvailable());
+    this.metricsManager.addGauge(EXECUTOR_CLIENT_PENDING_REQUESTS_NAME,
+        () -> poolStats.get().getPending());
+    this.metricsManager.addGauge(EXECUTOR_CLIENT_POOL_UTILIZATION_NAME, () -> {
+      final PoolStats stats = poolStats.get();
+      return stats.getMax() == 0 ? 0.0 : (double) stats.getLeased() / stats.getMax();
+    });
+  }
+
+  /**
+   * Record how long fetching the running execution updates from an executor took, both overall
+   * and per executor so slow hosts stand out.
+   *
+   * @param executorHostPort host:port of the executor.
+   * @param timeMs latency of the update call.
+   */
+  public void addExecutorUpdateLatency(final String executorHostPort, final long timeMs) {
+    this.metricsManager.addTimer(EXECUTOR_UPDATE_TIMER_NAME).update(timeMs, TimeUnit.MILLISECONDS);
+    this.metricsManager.addTimer(EXECUTOR_UPDATE_TIMER_NAME + "-" + executorHostPort)
+        .update(timeMs, TimeUnit.MILLISECONDS);
+  }
+
   /**
    * Add the queue wait time for a flow to the metrics.
    *
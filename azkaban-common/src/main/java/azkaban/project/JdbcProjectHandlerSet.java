@@ -21,7 +21,6 @@ import azkaban.spi.Dependency;
 import azkaban.user.Permission;
 import azkaban.utils.GZIPUtils;
 import azkaban.utils.InvalidHashException;
-import azkaban.utils.JSONUtils;
 import azkaban.utils.Pair;
 import azkaban.utils.Props;
 import azkaban.utils.PropsUtils;
@@ -94,16 +93,7 @@ class JdbcProjectHandlerSet {
             final EncodingType encType = EncodingType.fromInteger(encodingType);
             final Object blobObj;
             try {
-              // Convoluted way to inflate strings. Should find common package or
-              // helper function.
-              if (encType == EncodingType.GZIP) {
-                // Decompress the sucker.
-                final String jsonString = GZIPUtils.unGzipString(data, "UTF-8");
-                blobObj = JSONUtils.parseJSONFromString(jsonString);
-              } else {
-                final String jsonString = new String(data, "UTF-8");
-                blobObj = JSONUtils.parseJSONFromString(jsonString);
-              }
+              blobObj = GZIPUtils.transformBytesToObject(data, encType);
               project = Project.projectFromObject(blobObj);
             } catch (final IOException e) {
               throw new SQLException(String.format("Failed to get project with id: %d", id), e);
@@ -173,16 +163,7 @@ class JdbcProjectHandlerSet {
 
         Object flowObj = null;
         try {
-          // Convoluted way to inflate strings. Should find common package or
-          // helper function.
-          if (encType == EncodingType.GZIP) {
-            // Decompress the sucker.
-            final String jsonString = GZIPUtils.unGzipString(dataBytes, "UTF-8");
-            flowObj = JSONUtils.parseJSONFromString(jsonString);
-          } else {
-            final String jsonString = new String(dataBytes, "UTF-8");
-            flowObj = JSONUtils.parseJSONFromString(jsonString);
-          }
+          flowObj = GZIPUtils.transformBytesToObject(dataBytes, encType);
 
           final Flow flow = Flow.flowFromObject(flowObj);
           flows.add(flow);
@@ -220,12 +201,7 @@ class JdbcProjectHandlerSet {
         String propertyString = null;
 
         try {
-          if (encType == EncodingType.GZIP) {
-            // Decompress the sucker.
-            propertyString = GZIPUtils.unGzipString(dataBytes, "UTF-8");
-          } else {
-            propertyString = new String(dataBytes, "UTF-8");
-          }
+          propertyString = GZIPUtils.decodeString(dataBytes, encType);
 
           final Props props = PropsUtils.fromJSONString(propertyString);
           props.setSource(name);
@@ -78,12 +78,14 @@ public class JdbcProjectImpl implements ProjectLoader {
   private static final int MAX_FLOW_FILE_SIZE_IN_BYTES = 1024 * 1024 * 10;
   private final DatabaseOperator dbOperator;
   private final File tempDir;
-  private final EncodingType defaultEncodingType = EncodingType.GZIP;
+  private final EncodingType defaultEncodingType;
 
   @Inject
   public JdbcProjectImpl(final Props props, final DatabaseOperator databaseOperator) {
 
     this.dbOperator = databaseOperator;
+    this.defaultEncodingType = EncodingType.fromName(props.getString(
+        ConfigurationKeys.AZKABAN_PROJECT_FLOW_ENCODING_TYPE, EncodingType.GZIP.name()));
     this.tempDir = new File(props.getString("project.temp.dir", "temp"));
     if (!this.tempDir.exists()) {
       if (this.tempDir.mkdirs()) {
@@ -572,11 +574,7 @@ public class JdbcProjectImpl implements ProjectLoader {
   }
 
   private byte[] convertJsonToBytes(final EncodingType type, final String json) throws IOException {
-    byte[] data = json.getBytes("UTF-8");
-    if (type == EncodingType.GZIP) {
-      data = GZIPUtils.gzipBytes(data);
-    }
-    return data;
+    return GZIPUtils.encodeString(json, type);
   }
 
   private void updateProjectSettings(final Project project, final EncodingType encType)
@@ -870,11 +868,7 @@ public class JdbcProjectImpl implements ProjectLoader {
 
   private byte[] getBytes(final Props props) throws IOException {
     final String propertyJSON = PropsUtils.toJSONString(props, true);
-    byte[] data = propertyJSON.getBytes("UTF-8");
-    if (this.defaultEncodingType == EncodingType.GZIP) {
-      data = GZIPUtils.gzipBytes(data);
-    }
-    return data;
+    return GZIPUtils.encodeString(propertyJSON, this.defaultEncodingType);
   }
 
   @Override
@@ -0,0 +1,276 @@
+/*
+ * Copyright 2020 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package azkaban.storage;
+
+import azkaban.Constants.ConfigurationKeys;
+import azkaban.db.DatabaseOperator;
+import azkaban.db.DatabaseTransOperator;
+import azkaban.db.EncodingType;
+import azkaban.db.SQLTransaction;
+import azkaban.spi.LogStorage;
+import azkaban.utils.GZIPUtils;
+import azkaban.utils.Pair;
+import azkaban.utils.Props;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import org.apache.commons.dbutils.ResultSetHandler;
+import org.apache.commons.io.IOUtils;
+import org.apache.log4j.Logger;
+import org.joda.time.DateTime;
+
+
+/**
+ * DatabaseLogStorage
+ *
+ * This class stores the logs in the execution_logs table, in chunks of 50K compressed with the
+ * configured encoding type, GZIP by default. This is the default since it is the current behavior
+ * of Azkaban. The decompressed chunks that are read are kept in the {@link LogChunkCache}.
+ */
+@Singleton
+public class DatabaseLogStorage implements LogStorage {
+
+  // 50K buffer... if logs are greater than this, we chunk.
+  // However, we better prevent large log files from being uploaded somehow
+  static final int CHUNK_SIZE = 50 * 1024;
+
+  private static final Logger logger = Logger.getLogger(DatabaseLogStorage.class);
+
+  private static final String INSERT_EXECUTION_LOGS = "INSERT INTO execution_logs "
+      + "(exec_id, name, attempt, enc_type, start_byte, end_byte, "
+      + "log, upload_time) VALUES (?,?,?,?,?,?,?,?)";
+
+  // Only reads the primary key index, not the chunks
+  private static final String FETCH_CHUNK_RANGES = "SELECT start_byte, end_byte "
+      + "FROM execution_logs WHERE exec_id=? AND name=? AND attempt=? AND end_byte > ? "
+      + "AND start_byte < ? ORDER BY start_byte";
+
+  private static final String FETCH_CHUNKS = "SELECT start_byte, enc_type, log "
+      + "FROM execution_logs WHERE exec_id=? AND name=? AND attempt=? AND start_byte >= ? "
+      + "AND start_byte <= ?";
+
+  private static final String FETCH_LOG_LENGTH = "SELECT MAX(end_byte) "
+      + "FROM execution_logs WHERE exec_id=? AND name=? AND attempt=?";
+
+  private static final String FETCH_CHUNKS_BY_TIME = "SELECT exec_id, name, attempt, start_byte "
+      + "FROM execution_logs WHERE upload_time < ? LIMIT ?";
+
+  private static final String DELETE_CHUNK = "DELETE FROM execution_logs "
+      + "WHERE exec_id=? AND name=? AND attempt=? AND start_byte=?";
+
+  private final DatabaseOperator dbOperator;
+  private final LogChunkCache chunkCache;
+  private final EncodingType defaultEncodingType;
+
+  @Inject
+  public DatabaseLogStorage(final DatabaseOperator dbOperator, final LogChunkCache chunkCache,
+      final Props props) {
+    this.dbOperator = dbOperator;
+    this.chunkCache = chunkCache;
+    this.defaultEncodingType = EncodingType.fromName(props.getString(
+        ConfigurationKeys.AZKABAN_LOGS_ENCODING_TYPE, EncodingType.GZIP.name()));
+  }
+
+  @Override
+  public int getPartSize() {
+    return CHUNK_SIZE;
+  }
+
+  /**
+   * All the chunks of the part are inserted in a single transaction.
+   */
+  @Override
+  public int putLog(final int execId, final String name, final int attempt, final int startByte,
+      final InputStream log) throws IOException {
+    final SQLTransaction<Integer> transaction = transOperator -> {
+      final int numBytes = putLog(transOperator, execId, name, attempt, startByte, log);
+      transOperator.getConnection().commit();
+      return numBytes;
+    };
+    try {
+      return this.dbOperator.transaction(transaction);
+    } catch (final SQLException e) {
+      logger.error("putLog failed.", e);
+      throw new IOException("Error writing log of " + execId + " : " + name, e);
+    }
+  }
+
+  private int putLog(final DatabaseTransOperator transOperator, final int execId,
+      final String name, final int attempt, final int startByte, final InputStream log)
+      throws SQLException {
+    final byte[] buffer = new byte[CHUNK_SIZE];
+    int chunkStart = startByte;
+    try {
+      int length = IOUtils.read(log, buffer);
+      while (length > 0) {
+        uploadLogPart(transOperator, execId, name, attempt, chunkStart, buffer, length);
+        chunkStart += length;
+        // A short read means the end of the stream was reached.
+        length = length < buffer.length ? 0 : IOUtils.read(log, buffer);
+      }
+    } catch (final SQLException e) {
+      logger.error("Error writing log part.", e);
+      throw new SQLException("Error writing log part", e);
+    } catch (final IOException e) {
+      logger.error("Error chunking.", e);
+      throw new SQLException("Error chunking", e);
+    }
+    return chunkStart - startByte;
+  }
+
+  private void uploadLogPart(final DatabaseTransOperator transOperator, final int execId,
+      final String name, final int attempt, final int startByte, final byte[] buffer,
+      final int length) throws SQLException, IOException {
+    final byte[] buf = GZIPUtils.encodeBytes(buffer, 0, length, this.defaultEncodingType);
+    transOperator.update(INSERT_EXECUTION_LOGS, execId, name, attempt,
+        this.defaultEncodingType.getNumVal(), startByte, startByte + length, buf,
+        DateTime.now().getMillis());
+  }
+
+  /**
+   * Looks up the chunks that overlap the range in the index of the table first, then fetches and
+   * decompresses only the chunks that are not cached. Only the bytes up to the first missing chunk
+   * are returned.
+   */
+  @Override
+  public byte[] getLog(final int execId, final String name, final int attempt,
+      final int startByte, final int length) throws IOException {
+    final int endByte = startByte + length;
+    try {
+      final List<Pair<Integer, Integer>> chunks = this.dbOperator.query(FETCH_CHUNK_RANGES,
+          new ChunkRangesHandler(), execId, name, attempt, startByte, endByte);
+      if (chunks.isEmpty()) {
+        return null;
+      }
+
+      final Map<Integer, byte[]> chunkData = new HashMap<>();
+      int firstMissing = -1;
+      int lastMissing = -1;
+      for (final Pair<Integer, Integer> chunk : chunks) {
+        final byte[] data = this.chunkCache.get(execId, name, attempt, chunk.getFirst());
+        if (data != null) {
+          chunkData.put(chunk.getFirst(), data);
+        } else {
+          if (firstMissing < 0) {
+            firstMissing = chunk.getFirst();
+          }
+          lastMissing = chunk.getFirst();
+        }
+      }
+      if (firstMissing >= 0) {
+        this.dbOperator.query(FETCH_CHUNKS, rs -> {
+          while (rs.next()) {
+            final int chunkStart = rs.getInt(1);
+            if (!chunkData.containsKey(chunkStart)) {
+              final byte[] data = decode(EncodingType.fromInteger(rs.getInt(2)), rs.getBytes(3));
+              this.chunkCache.put(execId, name, attempt, chunkStart, data);
+              chunkData.put(chunkStart, data);
+            }
+          }
+          return null;
+        }, execId, name, attempt, firstMissing, lastMissing);
+      }
+
+      final ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
+      int nextByte = startByte;
+      for (final Pair<Integer, Integer> chunk : chunks) {
+        final byte[] data = chunkData.get(chunk.getFirst());
+        // Missing, or deleted since the chunks were looked up
+        if (chunk.getFirst() > nextByte || data == null) {
+          break;
+        }
+        final int offset = Math.max(startByte - chunk.getFirst(), 0);
+        final int end = Math.min(endByte, chunk.getSecond()) - chunk.getFirst();
+        byteStream.write(data, offset, end - offset);
+        nextByte = chunk.getSecond();
+      }
+      return byteStream.size() == 0 ? null : byteStream.toByteArray();
+    } catch (final SQLException e) {
+      throw new IOException("Error fetching logs " + execId + " : " + name, e);
+    }
+  }
+
+  @Override
+  public int getLogLength(final int execId, final String name, final int attempt)
+      throws IOException {
+    try {
+      return this.dbOperator.query(FETCH_LOG_LENGTH, rs -> rs.next() ? rs.getInt(1) : 0,
+          execId, name, attempt);
+    } catch (final SQLException e) {
+      throw new IOException("Error fetching log length " + execId + " : " + name, e);
+    }
+  }
+
+  private static byte[] decode(final EncodingType encType, final byte[] data)
+      throws SQLException {
+    try {
+      return GZIPUtils.decodeBytes(data, encType);
+    } catch (final IOException e) {
+      throw new SQLException(e);
+    }
+  }
+
+  /**
+   * The deleted chunks are evicted from the cache.
+   */
+  @Override
+  public int deleteLogs(final long uploadTimeMillis, final int limit) throws IOException {
+    try {
+      final List<Object[]> chunks = this.dbOperator.query(FETCH_CHUNKS_BY_TIME, rs -> {
+        final List<Object[]> keys = new ArrayList<>();
+        while (rs.next()) {
+          keys.add(new Object[]{rs.getInt(1), rs.getString(2), rs.getInt(3), rs.getInt(4)});
+        }
+        return keys;
+      }, uploadTimeMillis, limit);
+      if (chunks.isEmpty()) {
+        return 0;
+      }
+
+      this.dbOperator.batch(DELETE_CHUNK, chunks.toArray(new Object[0][]));
+      for (final Object[] chunk : chunks) {
+        this.chunkCache.invalidate((int) chunk[0], (String) chunk[1], (int) chunk[2],
+            (int) chunk[3]);
+      }
+      return chunks.size();
+    } catch (final SQLException e) {
+      logger.error("delete execution logs failed", e);
+      throw new IOException("Error deleting old execution_logs before " + uploadTimeMillis, e);
+    }
+  }
+
+  private static class ChunkRangesHandler implements
+      ResultSetHandler<List<Pair<Integer, Integer>>> {
+
+    @Override
+    public List<Pair<Integer, Integer>> handle(final ResultSet rs) throws SQLException {
+      final List<Pair<Integer, Integer>> chunks = new ArrayList<>();
+      while (rs.next()) {
+        chunks.add(new Pair<>(rs.getInt(1), rs.getInt(2)));
+      }
+      return chunks;
+    }
+  }
+}
@@ -0,0 +1,348 @@
+/*
+ * Copyright 2020 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package azkaban.storage;
+
+import static azkaban.Constants.ConfigurationKeys.HADOOP_CONF_DIR_PATH;
+import static java.util.Objects.requireNonNull;
+
+import azkaban.AzkabanCommonModuleConfig;
+import azkaban.db.DatabaseOperator;
+import azkaban.db.EncodingType;
+import azkaban.db.SQLTransaction;
+import azkaban.spi.LogStorage;
+import azkaban.utils.GZIPUtils;
+import azkaban.utils.Props;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import org.apache.commons.dbutils.ResultSetHandler;
+import org.apache.commons.io.IOUtils;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.log4j.Logger;
+import org.joda.time.DateTime;
+
+
+/**
+ * FileSystemLogStorage
+ *
+ * This class stores the logs in files of a Hadoop file system, e.g. the local file system or HDFS,
+ * under the configured root URI. Each part of a log is written to its own file as a series of
+ * independently gzipped segments, so the file is a valid multi-member gzip file. The position of
+ * every segment is recorded in the execution_log_segments table, which allows reading a range of a
+ * log by decompressing only the segments that overlap it. The decompressed segments that are read
+ * are kept in the {@link LogChunkCache}.
+ */
+@Singleton
+public class FileSystemLogStorage implements LogStorage {
+
+  // Uncompressed size of the segments
+  static final int SEGMENT_SIZE = 256 * 1024;
+
+  private static final Logger log = Logger.getLogger(FileSystemLogStorage.class);
+
+  private static final String HDFS_SCHEME = "hdfs";
+
+  private static final String INSERT_SEGMENT = "INSERT INTO execution_log_segments "
+      + "(exec_id, name, attempt, start_byte, end_byte, enc_type, file_start_byte, file_offset, "
+      + "file_length, upload_time) VALUES (?,?,?,?,?,?,?,?,?,?)";
+
+  private static final String FETCH_LOG_LENGTH = "SELECT MAX(end_byte) "
+      + "FROM execution_log_segments WHERE exec_id=? AND name=? AND attempt=?";
+
+  private static final String FETCH_FILES_BY_TIME = "SELECT DISTINCT exec_id, name, attempt, "
+      + "file_start_byte FROM execution_log_segments WHERE upload_time < ? LIMIT ?";
+
+  private static final String DELETE_FILE_SEGMENTS = "DELETE FROM execution_log_segments "
+      + "WHERE exec_id=? AND name=? AND attempt=? AND file_start_byte=?";
+
+  private final FileSystem fs;
+  private final Path rootPath;
+  private final DatabaseOperator dbOperator;
+  private final LogChunkCache segmentCache;
+
+  @Inject
+  public FileSystemLogStorage(final AzkabanCommonModuleConfig config,
+      final DatabaseOperator dbOperator, final LogChunkCache segmentCache) throws IOException {
+    this(createFileSystem(config), new Path(requireNonNull(config.getLogStorageRootUri(),
+        "Log storage root URI is required")), dbOperator, segmentCache);
+  }
+
+  FileSystemLogStorage(final FileSystem fs, final Path rootPath,
+      final DatabaseOperator dbOperator, final LogChunkCache segmentCache) {
+    this.fs = fs;
+    this.rootPath = rootPath;
+    this.dbOperator = dbOperator;
+    this.segmentCache = segmentCache;
+  }
+
+  private static FileSystem createFileSystem(final AzkabanCommonModuleConfig config)
+      throws IOException {
+    final URI rootUri = requireNonNull(config.getLogStorageRootUri(),
+        "Log storage root URI is required");
+    final Props props = config.getProps();
+    final Configuration conf = new Configuration();
+    if (props.containsKey(HADOOP_CONF_DIR_PATH)) {
+      final String hadoopConfDirPath = props.get(HADOOP_CONF_DIR_PATH);
+      conf.addResource(new Path(hadoopConfDirPath, "core-site.xml"));
+      conf.addResource(new Path(hadoopConfDirPath, "hdfs-site.xml"));
+    }
+    if (HDFS_SCHEME.equals(rootUri.getScheme())) {
+      new HdfsAuth(props, conf).authorize();
+    }
+    log.info("Storing execution logs in " + rootUri);
+    return FileSystem.get(rootUri, conf);
+  }
+
+  /**
+   * The part is written to a new file and its segments are recorded once the file is complete. A
+   * part that failed to be recorded can be put again: its file is overwritten.
+   */
+  @Override
+  public int putLog(final int execId, final String name, final int attempt, final int startByte,
+      final InputStream input) throws IOException {
+    final List<Object[]> segments = new ArrayList<>();
+    final byte[] buffer = new byte[SEGMENT_SIZE];
+    int segmentStart = startByte;
+    int length = IOUtils.read(input, buffer);
+    if (length == 0) {
+      return 0;
+    }
+
+    final long uploadTime = DateTime.now().getMillis();
+    final Path path = getPath(execId, name, attempt, startByte);
+    try (final FSDataOutputStream output = this.fs.create(path, true)) {
+      while (length > 0) {
+        final byte[] compressed = GZIPUtils.gzipBytes(buffer, 0, length);
+        segments.add(new Object[]{execId, name, attempt, segmentStart, segmentStart + length,
+            EncodingType.GZIP.getNumVal(), startByte, output.getPos(), compressed.length,
+            uploadTime});
+        output.write(compressed);
+        segmentStart += length;
+        // A short read means the end of the stream was reached.
+        length = length < buffer.length ? 0 : IOUtils.read(input, buffer);
+      }
+    }
+
+    final SQLTransaction<Integer> transaction = transOperator -> {
+      for (final Object[] segment : segments) {
+        transOperator.update(INSERT_SEGMENT, segment);
+      }
+      transOperator.getConnection().commit();
+      return segments.size();
+    };
+    try {
+      this.dbOperator.transaction(transaction);
+    } catch (final SQLException e) {
+      log.error("Failed to record the log segments of " + path, e);
+      throw new IOException("Error recording log segments of " + execId + " : " + name, e);
+    }
+    return segmentStart - startByte;
+  }
+
+  /**
+   * A part of this size is written to a file of a single segment. Smaller parts make many small
+   * files.
+   */
+  @Override
+  public int getPartSize() {
+    return SEGMENT_SIZE;
+  }
+
+  /**
+   * Only the bytes up to the first missing segment are returned.
+   */
+  @Override
+  public byte[] getLog(final int execId, final String name, final int attempt,
+      final int startByte, final int length) throws IOException {
+    final List<LogSegment> segments;
+    try {
+      segments = this.dbOperator.query(FetchSegmentsHandler.FETCH_SEGMENTS,
+          new FetchSegmentsHandler(), execId, name, attempt, startByte, startByte + length);
+    } catch (final SQLException e) {
+      throw new IOException("Error fetching log segments " + execId + " : " + name, e);
+    }
+    if (segments.isEmpty()) {
+      return null;
+    }
+
+    final int endByte = startByte + length;
+    final ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
+    FSDataInputStream input = null;
+    int inputFileStart = -1;
+    int nextByte = startByte;
+    try {
+      for (final LogSegment segment : segments) {
+        if (segment.startByte > nextByte) {
+          break;
+        }
+        byte[] data = this.segmentCache.get(execId, name, attempt, segment.startByte);
+        if (data == null) {
+          if (input == null || inputFileStart != segment.fileStartByte) {
+            IOUtils.closeQuietly(input);
+            input = this.fs.open(getPath(execId, name, attempt, segment.fileStartByte));
+            inputFileStart = segment.fileStartByte;
+          }
+          final byte[] compressed = new byte[segment.fileLength];
+          input.readFully(segment.fileOffset, compressed);
+          data = GZIPUtils.decodeBytes(compressed, segment.encType);
+          this.segmentCache.put(execId, name, attempt, segment.startByte, data);
+        }
+
+        final int offset = Math.max(startByte - segment.startByte, 0);
+        final int end = Math.min(endByte, segment.endByte) - segment.startByte;
+        byteStream.write(data, offset, end - offset);
+        nextByte = segment.endByte;
+      }
+    } finally {
+      IOUtils.closeQuietly(input);
+    }
+    return byteStream.size() == 0 ? null : byteStream.toByteArray();
+  }
+
+  @Override
+  public int getLogLength(final int execId, final String name, final int attempt)
+      throws IOException {
+    try {
+      return this.dbOperator.query(FETCH_LOG_LENGTH, rs -> rs.next() ? rs.getInt(1) : 0,
+          execId, name, attempt);
+    } catch (final SQLException e) {
+      throw new IOException("Error fetching log length " + execId + " : " + name, e);
+    }
+  }
+
+  /**
+   * Deletes whole files: the limit is the number of files. The cached segments of the logs the
+   * files belong to are evicted, and the directories of the executions are deleted once they are
+   * empty.
+   */
+  @Override
+  public int deleteLogs(final long uploadTimeMillis, final int limit) throws IOException {
+    final List<Object[]> files;
+    try {
+      files = this.dbOperator.query(FETCH_FILES_BY_TIME, rs -> {
+        final List<Object[]> keys = new ArrayList<>();
+        while (rs.next()) {
+          keys.add(new Object[]{rs.getInt(1), rs.getString(2), rs.getInt(3), rs.getInt(4)});
+        }
+        return keys;
+      }, uploadTimeMillis, limit);
+
+      for (final Object[] file : files) {
+        final Path path = getPath((int) file[0], (String) file[1], (int) file[2], (int) file[3]);
+        // The segments are only deleted with the file, so a failed deletion is retried.
+        if (this.fs.exists(path) && !this.fs.delete(path, false)) {
+          throw new IOException("Failed to delete log file " + path);
+        }
+        this.dbOperator.update(DELETE_FILE_SEGMENTS, file);
+        this.segmentCache.invalidateLog((int) file[0], (String) file[1], (int) file[2]);
+      }
+    } catch (final SQLException e) {
+      log.error("delete execution log segments failed", e);
+      throw new IOException("Error deleting old execution logs before " + uploadTimeMillis, e);
+    }
+
+    final Set<Integer> execIds = new HashSet<>();
+    for (final Object[] file : files) {
+      execIds.add((int) file[0]);
+    }
+    for (final int execId : execIds) {
+      deleteDirectoryIfEmpty(execId);
+    }
+    return files.size();
+  }
+
+  /**
+   * The directory is only deleted if no part of the logs of the execution is left in it. A
+   * directory that isn't deleted, e.g. because a part was written to it meanwhile, is deleted with
+   * its last file.
+   */
+  private void deleteDirectoryIfEmpty(final int execId) {
+    final Path dir = new Path(this.rootPath, String.valueOf(execId));
+    try {
+      if (this.fs.exists(dir) && this.fs.listStatus(dir).length == 0) {
+        this.fs.delete(dir, false);
+      }
+    } catch (final IOException e) {
+      log.warn("Failed to delete the empty log directory " + dir, e);
+    }
+  }
+
+  /**
+   * @return the file of the part of the log that starts at fileStartByte. The name of the file is
+   * URL encoded since the names of jobs in embedded flows contain colons.
+   */
+  private Path getPath(final int execId, final String name, final int attempt,
+      final int fileStartByte) throws IOException {
+    final String fileName = URLEncoder.encode(name, StandardCharsets.UTF_8.name()) + "." + attempt
+        + "." + fileStartByte + ".log.gz";
+    return new Path(new Path(this.rootPath, String.valueOf(execId)), fileName);
+  }
+
+  private static class LogSegment {
+
+    private final int startByte;
+    private final int endByte;
+    private final EncodingType encType;
+    private final int fileStartByte;
+    private final long fileOffset;
+    private final int fileLength;
+
+    LogSegment(final int startByte, final int endByte, final EncodingType encType,
+        final int fileStartByte, final long fileOffset, final int fileLength) {
+      this.startByte = startByte;
+      this.endByte = endByte;
+      this.encType = encType;
+      this.fileStartByte = fileStartByte;
+      this.fileOffset = fileOffset;
+      this.fileLength = fileLength;
+    }
+  }
+
+  private static class FetchSegmentsHandler implements ResultSetHandler<List<LogSegment>> {
+
+    private static final String FETCH_SEGMENTS =
+        "SELECT start_byte, end_byte, enc_type, file_start_byte, file_offset, file_length "
+            + "FROM execution_log_segments "
+            + "WHERE exec_id=? AND name=? AND attempt=? AND end_byte > ? "
+            + "AND start_byte < ? ORDER BY start_byte";
+
+    @Override
+    public List<LogSegment> handle(final ResultSet rs) throws SQLException {
+      final List<LogSegment> segments = new ArrayList<>();
+      while (rs.next()) {
+        segments.add(new LogSegment(rs.getInt(1), rs.getInt(2),
+            EncodingType.fromInteger(rs.getInt(3)), rs.getInt(4), rs.getLong(5), rs.getInt(6)));
+      }
+      return segments;
+    }
+  }
+}
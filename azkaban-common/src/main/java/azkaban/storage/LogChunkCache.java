@@ -0,0 +1,119 @@
+/*
+ * Copyright 2020 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package azkaban.storage;
+
+import azkaban.Constants;
+import azkaban.Constants.ConfigurationKeys;
+import azkaban.utils.Props;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import java.util.Objects;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+
+/**
+ * Bounded LRU cache of the decompressed chunks of stored logs.
+ *
+ * <p>The web server pages through a log in requests that are not aligned with the stored chunks,
+ * so without the cache most chunks would be fetched and decompressed twice, and every refresh of a
+ * log page starts over. A stored chunk never changes, so cached chunks only need to be evicted when
+ * they are deleted.
+ */
+@Singleton
+public class LogChunkCache {
+
+  private final Cache<ChunkKey, byte[]> cache;
+
+  @Inject
+  public LogChunkCache(final Props props) {
+    this((long) props.getInt(ConfigurationKeys.AZKABAN_LOGS_CHUNK_CACHE_SIZE_MB,
+        Constants.DEFAULT_LOGS_CHUNK_CACHE_SIZE_MB) * 1024 * 1024);
+  }
+
+  public LogChunkCache(final long maxSizeBytes) {
+    this.cache = CacheBuilder.newBuilder()
+        .maximumWeight(maxSizeBytes)
+        .weigher((final ChunkKey key, final byte[] chunk) -> chunk.length)
+        .recordStats()
+        .build();
+  }
+
+  /**
+   * @return the decompressed chunk of the log starting at startByte, null if it is not cached.
+   */
+  public byte[] get(final int execId, final String name, final int attempt,
+      final int startByte) {
+    return this.cache.getIfPresent(new ChunkKey(execId, name, attempt, startByte));
+  }
+
+  public void put(final int execId, final String name, final int attempt, final int startByte,
+      final byte[] chunk) {
+    this.cache.put(new ChunkKey(execId, name, attempt, startByte), chunk);
+  }
+
+  public void invalidate(final int execId, final String name, final int attempt,
+      final int startByte) {
+    this.cache.invalidate(new ChunkKey(execId, name, attempt, startByte));
+  }
+
+  /**
+   * Evicts all the chunks of a log. The whole cache is scanned.
+   */
+  public void invalidateLog(final int execId, final String name, final int attempt) {
+    this.cache.asMap().keySet().removeIf(key -> key.execId == execId && key.attempt == attempt
+        && key.name.equals(name));
+  }
+
+  public CacheStats getStats() {
+    return this.cache.stats();
+  }
+
+  private static class ChunkKey {
+
+    private final int execId;
+    private final String name;
+    private final int attempt;
+    private final int startByte;
+
+    ChunkKey(final int execId, final String name, final int attempt, final int startByte) {
+      this.execId = execId;
+      this.name = name;
+      this.attempt = attempt;
+      this.startByte = startByte;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      final ChunkKey that = (ChunkKey) o;
+      return this.execId == that.execId && this.attempt == that.attempt
+          && this.startByte == that.startByte && this.name.equals(that.name);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(this.execId, this.name, this.attempt, this.startByte);
+    }
+  }
+}
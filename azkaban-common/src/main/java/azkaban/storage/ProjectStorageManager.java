@@ -29,11 +29,13 @@ import azkaban.spi.StorageException;
 import azkaban.spi.ProjectStorageMetadata;
 import azkaban.user.User;
 import azkaban.utils.HashUtils;
+import azkaban.utils.Pair;
 import azkaban.utils.Props;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.security.DigestInputStream;
 import java.util.List;
 import javax.inject.Inject;
 import javax.inject.Singleton;
@@ -186,8 +188,56 @@ public class ProjectStorageManager {
     }
   }
 
+  /**
+   * Fetch project file from storage as a stream, so that it can be processed while it is
+   * downloaded instead of after it was copied to a local file.
+   *
+   * <p>The MD5 hash of the file is validated when the stream is closed, after reading the rest of
+   * the file. Whatever was made of the stream must be discarded if closing it fails. If processing
+   * the stream fails, it should be closed with {@link #closeAfterFailure} instead.
+   *
+   * @param projectId required project ID
+   * @param version version to be fetched
+   * @return the handler object with the metadata of the project file, and the stream. Null if the
+   * storage doesn't support streaming project files.
+   */
+  public Pair<ProjectFileHandler, InputStream> getProjectFileStream(final int projectId,
+      final int version) {
+    if (this.storage instanceof DatabaseStorage) {
+      // The project file is stored in chunks of the DB, which are fetched at once
+      return null;
+    }
+    log.info(String.format("Streaming project file. project ID: %d version: %d", projectId,
+        version));
+
+    final ProjectFileHandler pfh = this.projectLoader.fetchProjectMetaData(projectId, version);
+    final String resourceId = requireNonNull(pfh.getResourceId(),
+        String.format("URI is null. project ID: %d version: %d",
+            pfh.getProjectId(), pfh.getVersion()));
+    try {
+      return new Pair<>(pfh,
+          new ChecksumValidatingInputStream(this.storage.getProject(resourceId), pfh));
+    } catch (final IOException e) {
+      throw new StorageException(e);
+    }
+  }
+
+  /**
+   * Closes a stream of {@link #getProjectFileStream} whose processing failed, without downloading
+   * the rest of the file to validate its hash.
+   */
+  public static void closeAfterFailure(final InputStream projectFileStream) {
+    if (projectFileStream instanceof ChecksumValidatingInputStream) {
+      ((ChecksumValidatingInputStream) projectFileStream).failed = true;
+    }
+    IOUtils.closeQuietly(projectFileStream);
+  }
+
   private void validateChecksum(final File file, final ProjectFileHandler pfh) throws IOException {
-    final byte[] hash = HashUtils.MD5.getHashBytes(file);
+    validateChecksum(HashUtils.MD5.getHashBytes(file), pfh);
+  }
+
+  private static void validateChecksum(final byte[] hash, final ProjectFileHandler pfh) {
     checkState(HashUtils.isSameHash(pfh.getMD5Hash(), hash),
         String.format("MD5 HASH Failed. project ID: %d version: %d Expected: %s Actual: %s",
             pfh.getProjectId(), pfh.getVersion(), HashUtils.bytesHashToString(pfh.getMD5Hash()),
@@ -195,6 +245,80 @@ public class ProjectStorageManager {
     );
   }
 
+  /**
+   * Computes the MD5 hash of a project file while it is read, and validates it when closed. Once
+   * reading failed the hash isn't validated anymore.
+   */
+  private static class ChecksumValidatingInputStream extends DigestInputStream {
+
+    private final ProjectFileHandler pfh;
+    private boolean closed = false;
+    private boolean failed = false;
+
+    ChecksumValidatingInputStream(final InputStream in, final ProjectFileHandler pfh) {
+      super(in, HashUtils.MD5.getDigest());
+      this.pfh = pfh;
+    }
+
+    @Override
+    public int read() throws IOException {
+      try {
+        return super.read();
+      } catch (final IOException | RuntimeException e) {
+        this.failed = true;
+        throw e;
+      }
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+      try {
+        return super.read(b, off, len);
+      } catch (final IOException | RuntimeException e) {
+        this.failed = true;
+        throw e;
+      }
+    }
+
+    @Override
+    public long skip(final long n) throws IOException {
+      // The skipped bytes are part of the hash
+      if (n <= 0) {
+        return 0;
+      }
+      final byte[] buffer = new byte[(int) Math.min(n, 8192)];
+      long skipped = 0;
+      int read;
+      while (skipped < n
+          && (read = read(buffer, 0, (int) Math.min(n - skipped, buffer.length))) != -1) {
+        skipped += read;
+      }
+      return skipped;
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (this.closed) {
+        return;
+      }
+      this.closed = true;
+      if (this.failed) {
+        super.close();
+        return;
+      }
+      try {
+        // Readers of archives may stop before the end of the file
+        final byte[] buffer = new byte[8192];
+        while (read(buffer) != -1) {
+          // Only hashed
+        }
+        validateChecksum(getMessageDigest().digest(), this.pfh);
+      } finally {
+        super.close();
+      }
+    }
+  }
+
   private File createTempOutputFile(final ProjectFileHandler projectFileHandler)
       throws IOException {
     return File.createTempFile(
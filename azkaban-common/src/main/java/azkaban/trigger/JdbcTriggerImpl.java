@@ -16,11 +16,13 @@
 
 package azkaban.trigger;
 
+import azkaban.Constants.ConfigurationKeys;
 import azkaban.db.EncodingType;
 import azkaban.db.DatabaseOperator;
 import azkaban.db.SQLTransaction;
 import azkaban.utils.GZIPUtils;
 import azkaban.utils.JSONUtils;
+import azkaban.utils.Props;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import java.io.IOException;
@@ -55,11 +57,13 @@ public class JdbcTriggerImpl implements TriggerLoader {
           + " SET trigger_source=?, modify_time=?, enc_type=?, data=? WHERE trigger_id=?";
   private static final Logger logger = Logger.getLogger(JdbcTriggerImpl.class);
   private final DatabaseOperator dbOperator;
-  private final EncodingType defaultEncodingType = EncodingType.GZIP;
+  private final EncodingType defaultEncodingType;
 
   @Inject
-  public JdbcTriggerImpl(final DatabaseOperator databaseOperator) {
+  public JdbcTriggerImpl(final Props props, final DatabaseOperator databaseOperator) {
     this.dbOperator = databaseOperator;
+    this.defaultEncodingType = EncodingType.fromName(props.getString(
+        ConfigurationKeys.AZKABAN_TRIGGER_ENCODING_TYPE, EncodingType.GZIP.name()));
   }
 
   @Override
@@ -147,13 +151,9 @@ public class JdbcTriggerImpl implements TriggerLoader {
     byte[] data = null;
     try {
       final byte[] stringData = json.getBytes("UTF-8");
-      data = stringData;
-
-      if (encType == EncodingType.GZIP) {
-        data = GZIPUtils.gzipBytes(stringData);
-      }
-      logger.debug(
-          "NumChars: " + json.length() + " UTF-8:" + stringData.length + " Gzip:" + data.length);
+      data = GZIPUtils.encodeBytes(stringData, encType);
+      logger.debug("NumChars: " + json.length() + " UTF-8:" + stringData.length + " "
+          + encType.name() + ":" + data.length);
     } catch (final IOException e) {
       logger.error("Trigger encoding fails", e);
       throw new TriggerLoaderException("Error encoding the trigger " + t.toString(), e);
@@ -210,10 +210,7 @@ public class JdbcTriggerImpl implements TriggerLoader {
           final EncodingType encType = EncodingType.fromInteger(encodingType);
 
           try {
-            // Convoluted way to inflate strings. Should find common package or
-            // helper function.
-            jsonObj = JSONUtils.parseJSONFromString(encType == EncodingType.GZIP ?
-                GZIPUtils.unGzipString(data, "UTF-8") : new String(data, "UTF-8"));
+            jsonObj = GZIPUtils.transformBytesToObject(data, encType);
           } catch (final IOException e) {
             throw new SQLException("Error reconstructing trigger data ");
           }
@@ -17,15 +17,39 @@
 package azkaban.utils;
 
 import azkaban.db.EncodingType;
+import io.airlift.compress.Compressor;
+import io.airlift.compress.Decompressor;
+import io.airlift.compress.MalformedInputException;
+import io.airlift.compress.lz4.Lz4Compressor;
+import io.airlift.compress.lz4.Lz4Decompressor;
+import io.airlift.compress.zstd.ZstdCompressor;
+import io.airlift.compress.zstd.ZstdDecompressor;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
 import org.apache.commons.io.IOUtils;
 
+/**
+ * Encodes and decodes the data stored with an {@link EncodingType}. Despite the name, all the
+ * encoding types are supported: the data is always read with the encoding type stored next to it,
+ * so rows written with any type stay readable when the configured type changes.
+ */
 public class GZIPUtils {
 
+  // LZ4 and ZSTD blocks are prefixed with the length of the uncompressed data
+  private static final int LENGTH_PREFIX_SIZE = 4;
+
+  // The buffers of the encoded data are reused by each thread, unless they grew larger than this
+  private static final int MAX_RETAINED_BUFFER_SIZE = 1024 * 1024;
+  private static final ThreadLocal<EncodingBuffer> ENCODING_BUFFER =
+      ThreadLocal.withInitial(EncodingBuffer::new);
+
   public static byte[] gzipString(final String str, final String encType)
       throws IOException {
     final byte[] stringData = str.getBytes(encType);
@@ -65,14 +89,163 @@ public class GZIPUtils {
     return new String(response, encType);
   }
 
-  public static Object transformBytesToObject(final byte[] data, final EncodingType encType)
+  /**
+   * Encodes a range of bytes with the given encoding type.
+   */
+  public static byte[] encodeBytes(final byte[] bytes, final int offset, final int length,
+      final EncodingType encType) throws IOException {
+    switch (encType) {
+      case GZIP:
+        return gzipBytes(bytes, offset, length);
+      case LZ4:
+        return compressBlock(new Lz4Compressor(), bytes, offset, length);
+      case ZSTD:
+        return compressBlock(new ZstdCompressor(), bytes, offset, length);
+      default:
+        return offset == 0 && length == bytes.length ? bytes
+            : Arrays.copyOfRange(bytes, offset, offset + length);
+    }
+  }
+
+  public static byte[] encodeBytes(final byte[] bytes, final EncodingType encType)
+      throws IOException {
+    return encodeBytes(bytes, 0, bytes.length, encType);
+  }
+
+  public static byte[] encodeString(final String str, final EncodingType encType)
+      throws IOException {
+    return encodeBytes(str.getBytes("UTF-8"), encType);
+  }
+
+  /**
+   * Decodes bytes stored with the given encoding type.
+   */
+  public static byte[] decodeBytes(final byte[] bytes, final EncodingType encType)
+      throws IOException {
+    switch (encType) {
+      case GZIP:
+        return unGzipBytes(bytes);
+      case LZ4:
+        return decompressBlock(new Lz4Decompressor(), bytes);
+      case ZSTD:
+        return decompressBlock(new ZstdDecompressor(), bytes);
+      default:
+        return bytes;
+    }
+  }
+
+  public static String decodeString(final byte[] bytes, final EncodingType encType)
+      throws IOException {
+    return new String(decodeBytes(bytes, encType), "UTF-8");
+  }
+
+  private static byte[] compressBlock(final Compressor compressor, final byte[] bytes,
+      final int offset, final int length) {
+    if (length == 0) {
+      return new byte[LENGTH_PREFIX_SIZE];
+    }
+    final byte[] output = new byte[LENGTH_PREFIX_SIZE + compressor.maxCompressedLength(length)];
+    ByteBuffer.wrap(output).putInt(length);
+    final int compressedLength = compressor.compress(bytes, offset, length, output,
+        LENGTH_PREFIX_SIZE, output.length - LENGTH_PREFIX_SIZE);
+    return Arrays.copyOf(output, LENGTH_PREFIX_SIZE + compressedLength);
+  }
+
+  private static byte[] decompressBlock(final Decompressor decompressor, final byte[] bytes)
+      throws IOException {
+    if (bytes.length < LENGTH_PREFIX_SIZE) {
+      throw new IOException("Compressed block is truncated.");
+    }
+    final int length = ByteBuffer.wrap(bytes).getInt();
+    if (length < 0) {
+      throw new IOException("Invalid uncompressed length " + length);
+    }
+    final byte[] output = new byte[length];
+    if (length == 0) {
+      return output;
+    }
+    try {
+      final int decompressedLength = decompressor.decompress(bytes, LENGTH_PREFIX_SIZE,
+          bytes.length - LENGTH_PREFIX_SIZE, output, 0, length);
+      if (decompressedLength != length) {
+        throw new IOException("Expected " + length + " bytes, decompressed "
+            + decompressedLength);
+      }
+    } catch (final MalformedInputException e) {
+      throw new IOException("Compressed block is corrupted.", e);
+    }
+    return output;
+  }
+
+  /**
+   * Encodes the data written by the writer. GZIP data is compressed as it is written, so there is
+   * no uncompressed copy of the data, and for all the types it is written in a buffer reused by
+   * the thread. Only the returned array is allocated for each call.
+   */
+  public static byte[] encode(final StreamWriter writer, final EncodingType encType)
+      throws IOException {
+    final EncodingBuffer buffer = ENCODING_BUFFER.get();
+    buffer.reset();
+    try {
+      if (encType == EncodingType.GZIP) {
+        try (final GZIPOutputStream gzipStream = new GZIPOutputStream(buffer)) {
+          writer.writeTo(gzipStream);
+        }
+        return buffer.toByteArray();
+      }
+      writer.writeTo(buffer);
+      return encodeBytes(buffer.getBuffer(), 0, buffer.size(), encType);
+    } finally {
+      if (buffer.getBuffer().length > MAX_RETAINED_BUFFER_SIZE) {
+        ENCODING_BUFFER.remove();
+      }
+    }
+  }
+
+  /**
+   * Encodes the object as JSON, without building the JSON String first.
+   */
+  public static byte[] encodeJSON(final Object obj, final EncodingType encType)
+      throws IOException {
+    return encode(out -> JSONUtils.toJSON(obj, out), encType);
+  }
+
+  /**
+   * @return a stream of the decoded bytes. GZIP data is decompressed as it is read.
+   */
+  public static InputStream decodeStream(final byte[] bytes, final EncodingType encType)
       throws IOException {
     if (encType == EncodingType.GZIP) {
-      final String jsonString = GZIPUtils.unGzipString(data, "UTF-8");
-      return JSONUtils.parseJSONFromString(jsonString);
-    } else {
-      final String jsonString = new String(data, "UTF-8");
-      return JSONUtils.parseJSONFromString(jsonString);
+      return new GZIPInputStream(new ByteArrayInputStream(bytes));
+    }
+    return new ByteArrayInputStream(decodeBytes(bytes, encType));
+  }
+
+  /**
+   * Parses the JSON as it is decoded, without the intermediate String.
+   */
+  public static Object transformBytesToObject(final byte[] data, final EncodingType encType)
+      throws IOException {
+    return JSONUtils.parseJSONFromStream(decodeStream(data, encType));
+  }
+
+  /**
+   * Writes the data to encode.
+   */
+  @FunctionalInterface
+  public interface StreamWriter {
+
+    void writeTo(OutputStream out) throws IOException;
+  }
+
+  private static class EncodingBuffer extends ByteArrayOutputStream {
+
+    EncodingBuffer() {
+      super(8192);
+    }
+
+    byte[] getBuffer() {
+      return this.buf;
     }
   }
 
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2020 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package azkaban.utils;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.concurrent.ThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Creates the threads that spend most of their time waiting on running jobs: the threads that run
+ * the jobs and the threads that read the output of job processes.
+ *
+ * <p>These are platform threads unless virtual threads are enabled and the JVM supports them (Java
+ * 21 or later). Then thousands of concurrent jobs no longer hold thousands of OS threads. Virtual
+ * threads are created through reflection since Azkaban is compiled for Java 8.
+ */
+public final class JobThreads {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(JobThreads.class);
+
+  private static volatile boolean virtualThreadsEnabled = false;
+
+  private JobThreads() {
+  }
+
+  /**
+   * Switches between virtual and platform threads for the threads created from now on.
+   *
+   * @return true if virtual threads are used
+   */
+  public static boolean setVirtualThreadsEnabled(final boolean enabled) {
+    if (enabled && !isVirtualThreadSupported()) {
+      LOGGER.warn("Virtual threads are not supported by this JVM, jobs use platform threads.");
+    }
+    virtualThreadsEnabled = enabled && isVirtualThreadSupported();
+    return virtualThreadsEnabled;
+  }
+
+  public static boolean isVirtualThreadsEnabled() {
+    return virtualThreadsEnabled;
+  }
+
+  public static boolean isVirtualThreadSupported() {
+    try {
+      Thread.class.getMethod("ofVirtual");
+      return true;
+    } catch (final NoSuchMethodException e) {
+      return false;
+    }
+  }
+
+  /**
+   * @param namePrefix the thread names are the prefix followed by a counter
+   */
+  public static ThreadFactory newThreadFactory(final String namePrefix) {
+    if (virtualThreadsEnabled) {
+      return newVirtualThreadFactory(namePrefix);
+    }
+    return new ThreadFactoryBuilder().setNameFormat(namePrefix + "%d").build();
+  }
+
+  /**
+   * Creates a thread that is not started yet.
+   */
+  public static Thread newThread(final String name, final Runnable runnable) {
+    final Thread thread = newThreadFactory(name).newThread(runnable);
+    thread.setName(name);
+    return thread;
+  }
+
+  private static ThreadFactory newVirtualThreadFactory(final String namePrefix) {
+    try {
+      final Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+      final Object builder = builderClass.getMethod("name", String.class, long.class)
+          .invoke(Thread.class.getMethod("ofVirtual").invoke(null), namePrefix, 0L);
+      return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+    } catch (final ReflectiveOperationException e) {
+      throw new IllegalStateException("Failed to create a virtual thread factory.", e);
+    }
+  }
+}
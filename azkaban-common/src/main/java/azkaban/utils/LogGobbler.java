@@ -23,8 +23,12 @@ import java.io.Reader;
 import org.apache.log4j.Level;
 import org.apache.log4j.Logger;
 
-public class LogGobbler extends Thread {
+/**
+ * Copies the output of a process to a logger on its own thread, see {@link JobThreads}.
+ */
+public class LogGobbler implements Runnable {
 
+  private final Thread thread;
   private final BufferedReader inputReader;
   private final Logger logger;
   private final Level loggingLevel;
@@ -36,6 +40,11 @@ public class LogGobbler extends Thread {
     this.logger = logger;
     this.loggingLevel = level;
     this.buffer = new CircularBuffer<>(bufferLines);
+    this.thread = JobThreads.newThread("azk-log-gobbler", this);
+  }
+
+  public void start() {
+    this.thread.start();
   }
 
   @Override
@@ -75,7 +84,7 @@ public class LogGobbler extends Thread {
 
   public void awaitCompletion(final long waitMs) {
     try {
-      join(waitMs);
+      this.thread.join(waitMs);
     } catch (final InterruptedException e) {
       info("I/O thread interrupted.", e);
     }
@@ -25,7 +25,9 @@ import java.util.stream.Collectors;
 import org.apache.http.HttpEntity;
 import org.apache.http.HttpResponse;
 import org.apache.http.NameValuePair;
+import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.entity.UrlEncodedFormEntity;
+import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpEntityEnclosingRequestBase;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.client.methods.HttpUriRequest;
@@ -48,6 +50,20 @@ public abstract class RestfulApiClient<T> {
 
   protected static Logger logger = Logger.getLogger(RestfulApiClient.class);
 
+  // Shared client reused across requests. If null, a new client is created for each request.
+  private final CloseableHttpClient httpClient;
+
+  protected RestfulApiClient() {
+    this(null);
+  }
+
+  /**
+   * @param httpClient shared, usually pooled, client used for all requests. The caller owns it.
+   */
+  protected RestfulApiClient(final CloseableHttpClient httpClient) {
+    this.httpClient = httpClient;
+  }
+
   /**
    * helper function to build a valid URI.
    *
@@ -125,12 +141,36 @@ public abstract class RestfulApiClient<T> {
     return this.sendAndReturn(completeRequest(post, params));
   }
 
+  /**
+   * function to perform a Post http request with its own timeouts.
+   *
+   * @param requestConfig replaces the default request config of the client for this request.
+   */
+  public T httpPost(final URI uri, final List<Pair<String, String>> params,
+      final RequestConfig requestConfig) throws IOException {
+    if (null == uri) {
+      logger.error(" unable to perform httpPost as the passed uri is null.");
+      return null;
+    }
+
+    final HttpPost post = new HttpPost(uri);
+    post.setConfig(requestConfig);
+    return this.sendAndReturn(completeRequest(post, params));
+  }
+
   /**
    * function to dispatch the request and pass back the response.
    */
   protected T sendAndReturn(final HttpUriRequest request) throws IOException {
-    try (CloseableHttpClient client = HttpClients.createDefault()) {
-      return this.parseResponse(client.execute(request));
+    if (this.httpClient == null) {
+      try (CloseableHttpClient client = HttpClients.createDefault()) {
+        return this.parseResponse(client.execute(request));
+      }
+    }
+    // Closing the response releases the connection back to the pool. The connection is kept alive
+    // if parseResponse consumed the entity.
+    try (CloseableHttpResponse response = this.httpClient.execute(request)) {
+      return this.parseResponse(response);
     }
   }
 }
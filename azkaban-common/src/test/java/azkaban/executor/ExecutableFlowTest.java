@@ -16,6 +16,7 @@
 
 package azkaban.executor;
 
+import azkaban.db.EncodingType;
 import azkaban.executor.ExecutionOptions.FailureAction;
 import azkaban.flow.Flow;
 import azkaban.project.DirectoryFlowLoader;
@@ -24,6 +25,7 @@ import azkaban.sla.SlaOption;
 import azkaban.sla.SlaOption.SlaOptionBuilder;
 import azkaban.sla.SlaType;
 import azkaban.test.executions.ExecutionsTestUtil;
+import azkaban.utils.GZIPUtils;
 import azkaban.utils.JSONUtils;
 import azkaban.utils.Props;
 import com.google.common.collect.ImmutableMap;
@@ -351,6 +353,54 @@ public class ExecutableFlowTest {
     testEquals(exFlow, origExFlow);
   }
 
+  @Test
+  public void testExecutorFlowBinary() throws Exception {
+    final ExecutableFlow exFlow = new ExecutableFlow(this.project, this.project.getFlow("jobe"));
+    exFlow.setExecutionId(102);
+    exFlow.setLocked(true);
+    exFlow.addAllProxyUsers(Arrays.asList("proxy1", "proxy2"));
+    final ExecutableNode joba = exFlow.getExecutableNode("joba");
+    joba.setStatus(Status.FAILED);
+    joba.resetForRetry();
+    joba.setOutputProps(new Props(null, ImmutableMap.of("out", "välue")));
+
+    final ExecutionOptions options = new ExecutionOptions();
+    options.setFailureEmails(Arrays.asList("doo", "daa"));
+    options.setSlaOptions(Arrays.asList(new SlaOptionBuilder(SlaType.FLOW_FINISH, "flowTest",
+        Duration.ofMinutes(1130)).setAlert().setEmails(Arrays.asList("fe@company.com"))
+        .createSlaOption()));
+    exFlow.setExecutionOptions(options);
+
+    final byte[] data = ExecutableFlowCodec.encode(exFlow);
+    Assert.assertTrue(ExecutableFlowCodec.isBinary(data));
+    Assert.assertTrue(data.length < JSONUtils.toJSON(exFlow.toObject()).length());
+
+    final ExecutableFlow decodedFlow = ExecutableFlow.createExecutableFlow(
+        GZIPUtils.encodeBytes(data, EncodingType.GZIP), EncodingType.GZIP, Status.RUNNING);
+    Assert.assertEquals(Status.RUNNING, decodedFlow.getStatus());
+    decodedFlow.setStatus(exFlow.getStatus());
+    testEquals(exFlow, decodedFlow);
+    Assert.assertTrue(decodedFlow.isLocked());
+    Assert.assertEquals(exFlow.getProxyUsers(), decodedFlow.getProxyUsers());
+    testSlaEquals(options.getSlaOptions(), decodedFlow.getExecutionOptions().getSlaOptions());
+
+    final ExecutableNode decodedJoba = decodedFlow.getExecutableNode("joba");
+    Assert.assertEquals("välue", decodedJoba.getOutputProps().get("out"));
+    Assert.assertEquals(1, decodedJoba.getPastAttemptList().size());
+    Assert.assertEquals(Status.FAILED, decodedJoba.getPastAttemptList().get(0).getStatus());
+  }
+
+  @Test
+  public void testCreateExecutableFlowFromJsonData() throws Exception {
+    final ExecutableFlow exFlow = new ExecutableFlow(this.project, this.project.getFlow("jobe"));
+    final byte[] data = GZIPUtils.encodeString(JSONUtils.toJSON(exFlow.toObject()),
+        EncodingType.LZ4);
+
+    final ExecutableFlow parsedExFlow = ExecutableFlow.createExecutableFlow(data,
+        EncodingType.LZ4, exFlow.getStatus());
+    testEquals(exFlow, parsedExFlow);
+  }
+
   @Test
   public void testExecutorFlowUpdates() throws Exception {
     final Flow flow = this.project.getFlow("jobe");
@@ -20,6 +20,7 @@ import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -28,6 +29,7 @@ import azkaban.Constants.ConfigurationKeys;
 import azkaban.metrics.CommonMetrics;
 import azkaban.metrics.MetricsManager;
 import azkaban.user.User;
+import azkaban.utils.FileIOUtils.LogData;
 import azkaban.utils.Pair;
 import azkaban.utils.Props;
 import azkaban.utils.TestUtils;
@@ -82,7 +84,8 @@ public class ExecutionControllerTest {
     this.alertHolder = mock(AlerterHolder.class);
     this.executorHealthChecker = mock(ExecutorHealthChecker.class);
     this.controller = new ExecutionController(this.props, this.loader, this.commonMetrics,
-        this.apiGateway, this.alertHolder, this.executorHealthChecker);
+        this.apiGateway, this.alertHolder, this.executorHealthChecker,
+        new RunningFlowCache(this.props, this.loader));
 
     final Executor executor1 = new Executor(1, "localhost", 12345, true);
     final Executor executor2 = new Executor(2, "localhost", 12346, true);
@@ -174,6 +177,19 @@ public class ExecutionControllerTest {
     verify(this.loader).uploadExecutableFlow(this.flow1);
   }
 
+  @Test
+  public void testSubmitFlowNotifiesActiveExecutors() throws Exception {
+    this.props.put(ConfigurationKeys.AZKABAN_DISPATCH_NOTIFICATION_ENABLED, "true");
+    this.controller = new ExecutionController(this.props, this.loader, this.commonMetrics,
+        this.apiGateway, this.alertHolder, this.executorHealthChecker,
+        new RunningFlowCache(this.props, this.loader));
+    this.controller.submitExecutableFlow(this.flow1, this.user.getUserId());
+    for (final Executor executor : this.activeExecutors) {
+      verify(this.apiGateway, timeout(5000)).notifyWorkAvailable(executor);
+    }
+    this.controller.shutdown();
+  }
+
   @Test
   public void testSubmitFlowsExceedingMaxConcurrentRuns() throws Exception {
     this.props.put(ConfigurationKeys.CONCURRENT_RUNS_ONEFLOW_WHITELIST, "exectest1,"
@@ -277,6 +293,26 @@ public class ExecutionControllerTest {
     Assert.assertEquals(0, this.controller.getApplicationIds(this.flow1, "job1", 0).size());
   }
 
+  @Test
+  public void testGetJobLogTailOfFinishedFlow() throws Exception {
+    final LogData tail = new LogData(96, 4, "tail");
+    when(this.loader.fetchLogTail(this.flow1.getExecutionId(), "job1", 0, 4)).thenReturn(tail);
+    assertThat(this.controller.getExecutionJobLogTail(this.flow1, "job1", 4, 0)).isSameAs(tail);
+  }
+
+  @Test
+  public void testGetJobLogTailOfRunningFlow() throws Exception {
+    when(this.loader.fetchActiveFlowByExecId(this.flow2.getExecutionId()))
+        .thenReturn(new Pair<>(this.ref2, this.flow2));
+    when(this.apiGateway.callWithReference(eq(this.ref2), eq(ConnectorParams.LOG_ACTION),
+        any(), any(), eq(new Pair<>("tail", "true")), eq(new Pair<>("length", "4")), any()))
+        .thenReturn(ImmutableMap.of("offset", 96, "length", 4, "data", "tail"));
+
+    final LogData tail = this.controller.getExecutionJobLogTail(this.flow2, "job1", 4, 0);
+    assertThat(tail.getOffset()).isEqualTo(96);
+    assertThat(tail.getData()).isEqualTo("tail");
+  }
+
   private Answer<Object> getLogChunksMock(final String logData) {
     return invocationOnMock -> {
       String offsetStr = null, lengthStr = null;
@@ -20,6 +20,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.*;
 
+import azkaban.Constants.ConfigurationKeys;
 import azkaban.db.DatabaseOperator;
 import azkaban.db.DatabaseTransOperator;
 import azkaban.project.JdbcProjectImpl;
@@ -27,6 +28,7 @@ import azkaban.project.ProjectLoader;
 import azkaban.test.Utils;
 import azkaban.test.executions.ExecutionsTestUtil;
 import azkaban.user.User;
+import azkaban.utils.GZIPUtils;
 import azkaban.utils.Pair;
 import azkaban.utils.Props;
 import azkaban.utils.TestUtils;
@@ -37,9 +39,11 @@ import java.io.IOException;
 import java.sql.SQLException;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import org.apache.commons.dbutils.handlers.ScalarHandler;
 import org.junit.After;
 import org.junit.AfterClass;
 import org.junit.Before;
@@ -78,7 +82,7 @@ public class ExecutionFlowDaoTest {
   @Before
   public void setup() {
     this.mysqlNamedLock = mock(MysqlNamedLock.class);
-    this.executionFlowDao = new ExecutionFlowDao(dbOperator, this.mysqlNamedLock);
+    this.executionFlowDao = new ExecutionFlowDao(dbOperator, this.mysqlNamedLock, props);
     this.executorDao = new ExecutorDao(dbOperator);
     this.assignExecutor = new AssignExecutorDao(dbOperator, this.executorDao);
     this.fetchActiveFlowDao = new FetchActiveFlowDao(dbOperator);
@@ -90,6 +94,7 @@ public class ExecutionFlowDaoTest {
   public void clearDB() {
     try {
       dbOperator.update("DELETE FROM execution_flows");
+      dbOperator.update("DELETE FROM execution_flow_updates");
       dbOperator.update("DELETE FROM executors");
       dbOperator.update("DELETE FROM projects");
     } catch (final SQLException e) {
@@ -143,6 +148,137 @@ public class ExecutionFlowDaoTest {
     assertTwoFlowSame(fetchFlow, fetchFlow2);
   }
 
+  @Test
+  public void testFetchExecutableFlowUpdateTime() throws Exception {
+    final ExecutableFlow flow = createTestFlow();
+    this.executionFlowDao.uploadExecutableFlow(flow);
+    flow.setUpdateTime(1000L);
+    flow.setStatus(Status.RUNNING);
+    this.executionFlowDao.updateExecutableFlow(flow);
+
+    assertThat(this.executionFlowDao.fetchExecutableFlowUpdateTime(flow.getExecutionId()))
+        .isEqualTo(new Pair<>(1000L, Status.RUNNING));
+    assertThat(this.executionFlowDao.fetchExecutableFlowUpdateTime(-1)).isNull();
+  }
+
+  @Test
+  public void testChangeFlowDataEncodingType() throws Exception {
+    final ExecutableFlow flow = createTestFlow();
+    this.executionFlowDao.uploadExecutableFlow(flow);
+
+    // The flow data written as GZIP is still readable, then rewritten as LZ4.
+    final Props lz4Props = new Props();
+    lz4Props.put(ConfigurationKeys.AZKABAN_FLOW_DATA_ENCODING_TYPE, "lz4");
+    final ExecutionFlowDao lz4Dao = new ExecutionFlowDao(dbOperator, this.mysqlNamedLock,
+        lz4Props);
+    final ExecutableFlow fetchFlow = lz4Dao.fetchExecutableFlow(flow.getExecutionId());
+    fetchFlow.setStatus(Status.SUCCEEDED);
+    lz4Dao.updateExecutableFlow(fetchFlow);
+
+    assertTwoFlowSame(fetchFlow,
+        this.executionFlowDao.fetchExecutableFlow(flow.getExecutionId()));
+  }
+
+  @Test
+  public void testBinaryFlowData() throws Exception {
+    final Props binaryProps = new Props();
+    binaryProps.put(ConfigurationKeys.AZKABAN_FLOW_DATA_BINARY_FORMAT_ENABLED, "true");
+    final ExecutionFlowDao binaryDao = new ExecutionFlowDao(dbOperator, this.mysqlNamedLock,
+        binaryProps);
+    final ExecutableFlow flow = createTestFlow();
+    binaryDao.uploadExecutableFlow(flow);
+
+    final byte[] flowData = dbOperator.query(
+        "SELECT flow_data FROM execution_flows WHERE exec_id=?",
+        rs -> rs.next() ? rs.getBytes(1) : null, flow.getExecutionId());
+    assertThat(ExecutableFlowCodec.isBinary(GZIPUtils.unGzipBytes(flowData))).isTrue();
+
+    final ExecutableFlow fetchFlow =
+        this.executionFlowDao.fetchExecutableFlow(flow.getExecutionId());
+    assertTwoFlowSame(flow, fetchFlow);
+  }
+
+  @Test
+  public void testAppendExecutableFlowUpdate() throws Exception {
+    final long snapshotTime = System.currentTimeMillis();
+    final ExecutableFlow flow = createTestFlow();
+    flow.setUpdateTime(snapshotTime);
+    this.executionFlowDao.uploadExecutableFlow(flow);
+
+    final ExecutableNode node = flow.getExecutableNodes().get(0);
+    node.setStatus(Status.RUNNING);
+    node.setStartTime(snapshotTime + 10);
+    node.setUpdateTime(snapshotTime + 10);
+    flow.setStatus(Status.RUNNING);
+    flow.setStartTime(snapshotTime + 10);
+    flow.setUpdateTime(snapshotTime + 10);
+    this.executionFlowDao.appendExecutableFlowUpdate(flow, snapshotTime);
+
+    final ExecutableFlow fetchFlow =
+        this.executionFlowDao.fetchExecutableFlow(flow.getExecutionId());
+    assertTwoFlowSame(flow, fetchFlow);
+    assertThat(fetchFlow.getExecutableNode(node.getId()).getStatus()).isEqualTo(Status.RUNNING);
+    assertThat(fetchFlow.getExecutableNode(node.getId()).getStartTime())
+        .isEqualTo(snapshotTime + 10);
+    assertThat(countExecutableFlowUpdates()).isEqualTo(1);
+
+    // A full snapshot supersedes the deltas written before it.
+    flow.setUpdateTime(snapshotTime + 20);
+    this.executionFlowDao.updateExecutableFlow(flow);
+    assertThat(countExecutableFlowUpdates()).isEqualTo(0);
+    final ExecutableFlow fetchFlow2 =
+        this.executionFlowDao.fetchExecutableFlow(flow.getExecutionId());
+    assertTwoFlowSame(flow, fetchFlow2);
+    assertThat(fetchFlow2.getExecutableNode(node.getId()).getStatus()).isEqualTo(Status.RUNNING);
+  }
+
+  @Test
+  public void testSnapshotPurgesUpdatesAppendedByAnotherServer() throws Exception {
+    final long snapshotTime = System.currentTimeMillis();
+    final ExecutableFlow flow = createTestFlow();
+    flow.setUpdateTime(snapshotTime);
+    this.executionFlowDao.uploadExecutableFlow(flow);
+    flow.setStatus(Status.RUNNING);
+    flow.setUpdateTime(snapshotTime + 10);
+    this.executionFlowDao.appendExecutableFlowUpdate(flow, snapshotTime);
+    assertThat(countExecutableFlowUpdates()).isEqualTo(1);
+
+    // E.g. the web server finalizing the flow, or the executor after a restart
+    final ExecutionFlowDao otherDao = new ExecutionFlowDao(dbOperator, this.mysqlNamedLock,
+        props);
+    flow.setUpdateTime(snapshotTime + 20);
+    otherDao.updateExecutableFlow(flow);
+    assertThat(countExecutableFlowUpdates()).isEqualTo(0);
+  }
+
+  @Test
+  public void testListsApplyExecutableFlowUpdates() throws Exception {
+    final long snapshotTime = System.currentTimeMillis();
+    final ExecutableFlow flow = createTestFlow();
+    flow.setUpdateTime(snapshotTime);
+    this.executionFlowDao.uploadExecutableFlow(flow);
+
+    final ExecutableNode node = flow.getExecutableNodes().get(0);
+    node.setStatus(Status.RUNNING);
+    node.setUpdateTime(snapshotTime + 10);
+    flow.setStatus(Status.RUNNING);
+    flow.setUpdateTime(snapshotTime + 10);
+    this.executionFlowDao.appendExecutableFlowUpdate(flow, snapshotTime);
+
+    final ExecutableFlow fromHistory = this.executionFlowDao.fetchFlowHistory(0, 2).get(0);
+    assertThat(fromHistory.getExecutableNode(node.getId()).getStatus())
+        .isEqualTo(Status.RUNNING);
+    final ExecutableFlow fromUnfinished = this.fetchActiveFlowDao.fetchUnfinishedFlows()
+        .get(flow.getExecutionId()).getSecond();
+    assertThat(fromUnfinished.getExecutableNode(node.getId()).getStatus())
+        .isEqualTo(Status.RUNNING);
+  }
+
+  private long countExecutableFlowUpdates() throws SQLException {
+    return dbOperator.query("SELECT COUNT(*) FROM execution_flow_updates",
+        new ScalarHandler<Long>());
+  }
+
   @Test
   public void fetchFlowHistory() throws Exception {
     final ExecutableFlow flow = createTestFlow();
@@ -160,6 +296,33 @@ public class ExecutionFlowDaoTest {
     assertTwoFlowSame(flowList1.get(0), fetchFlow);
   }
 
+  @Test
+  public void fetchFlowHistorySummaries() throws Exception {
+    createTestProject();
+    final ExecutableFlow flow = createTestFlow();
+    flow.setSubmitUser("testUser1");
+    flow.setSubmitTime(System.currentTimeMillis());
+    this.executionFlowDao.uploadExecutableFlow(flow);
+    final ExecutableFlow fetchFlow =
+        this.executionFlowDao.fetchExecutableFlow(flow.getExecutionId());
+
+    final List<ExecutableFlow> summaries = new ArrayList<>();
+    summaries.addAll(this.executionFlowDao.fetchFlowHistorySummaries(0, 2));
+    summaries.addAll(this.executionFlowDao
+        .fetchFlowHistorySummaries(flow.getProjectId(), flow.getId(), 0, 2));
+    summaries.addAll(this.executionFlowDao.fetchFlowHistorySummaries(flow.getProjectId(),
+        flow.getId(), 0, 2, fetchFlow.getStatus()));
+    summaries.addAll(this.executionFlowDao
+        .fetchFlowHistorySummaries("exectest1", "", "", 0, -1, -1, 0, 16));
+    assertThat(summaries).hasSize(4);
+    for (final ExecutableFlow summary : summaries) {
+      assertTwoFlowSame(summary, fetchFlow, false);
+      assertThat(summary.getId()).isEqualTo(fetchFlow.getId());
+      assertThat(summary.getUpdateTime()).isEqualTo(fetchFlow.getUpdateTime());
+      assertThat(summary.getExecutableNodes()).isEmpty();
+    }
+  }
+
   @Test
   public void fetchFlowHistoryWithStartTime() throws Exception {
     final ExecutableFlow flow1 = createExecution(
@@ -485,6 +648,29 @@ public class ExecutionFlowDaoTest {
     assertThat(inOutProps.getSecond().get("hello")).isEqualTo("output");
   }
 
+  @Test
+  public void testUpdateExecutableNodes() throws Exception {
+    final ExecutableFlow flow = TestUtils.createTestExecutableFlow("exectest1", "exec1");
+    flow.setExecutionId(10);
+
+    final ExecutableNode node1 = flow.getExecutableNode("job1");
+    final ExecutableNode node2 = flow.getExecutableNode("job2");
+    this.executionJobDao.uploadExecutableNode(node1, new Props());
+    this.executionJobDao.uploadExecutableNode(node2, new Props());
+
+    node1.setStatus(Status.SUCCEEDED);
+    node1.setEndTime(System.currentTimeMillis());
+    node2.setStatus(Status.RUNNING);
+    this.executionJobDao.updateExecutableNodes(Arrays.asList(new ExecutableNodeUpdate(node1),
+        new ExecutableNodeUpdate(node2)));
+
+    final ExecutableJobInfo info1 = this.executionJobDao.fetchJobInfo(10, "job1", 0);
+    final ExecutableJobInfo info2 = this.executionJobDao.fetchJobInfo(10, "job2", 0);
+    assertThat(info1.getStatus()).isEqualTo(Status.SUCCEEDED);
+    assertThat(info1.getEndTime()).isEqualTo(node1.getEndTime());
+    assertThat(info2.getStatus()).isEqualTo(Status.RUNNING);
+  }
+
   @Test
   public void testSelectAndUpdateExecution() throws Exception {
     final ExecutableFlow flow = TestUtils.createTestExecutableFlow("exectest1", "exec1");
@@ -557,6 +743,78 @@ public class ExecutionFlowDaoTest {
         .isEqualTo(-1);
   }
 
+  @Test
+  public void testSelectAndUpdateExecutions() throws Exception {
+    assertThat(this.executionFlowDao.selectAndUpdateExecutions(-1, true, 2))
+        .as("Expected no execution selected")
+        .isEmpty();
+
+    final long currentTime = System.currentTimeMillis();
+    final ExecutableFlow lowPriorityFlow = submitNewFlow("exectest1", "exec1", currentTime,
+        ExecutionOptions.DEFAULT_FLOW_PRIORITY);
+    final ExecutableFlow highPriorityFlow = submitNewFlow("exectest1", "exec1", currentTime + 5,
+        ExecutionOptions.DEFAULT_FLOW_PRIORITY + 5);
+    final ExecutableFlow midPriorityFlow = submitNewFlow("exectest1", "exec1", currentTime + 10,
+        ExecutionOptions.DEFAULT_FLOW_PRIORITY + 3);
+
+    final Executor executor = this.executorDao.addExecutor("localhost", 12345);
+    assertThat(this.executionFlowDao.selectAndUpdateExecutions(executor.getId(), true, 2))
+        .as("Expected the two flows with highest priority")
+        .containsExactly(highPriorityFlow.getExecutionId(), midPriorityFlow.getExecutionId());
+    assertThat(this.executorDao.fetchExecutorByExecutionId(midPriorityFlow.getExecutionId()))
+        .isEqualTo(executor);
+
+    assertThat(this.executionFlowDao.selectAndUpdateExecutions(executor.getId(), true, 2))
+        .containsExactly(lowPriorityFlow.getExecutionId());
+    assertThat(this.executionFlowDao.selectAndUpdateExecutions(executor.getId(), true, 2))
+        .isEmpty();
+  }
+
+  @Test
+  public void testFetchQueuedProjectVersions() throws Exception {
+    final long currentTime = System.currentTimeMillis();
+    final ExecutableFlow lowPriorityFlow1 = submitNewFlow("exectest1", "exec1", currentTime,
+        ExecutionOptions.DEFAULT_FLOW_PRIORITY);
+    final ExecutableFlow lowPriorityFlow2 = submitNewFlow("exectest1", "exec2", currentTime + 5,
+        ExecutionOptions.DEFAULT_FLOW_PRIORITY);
+    final ExecutableFlow highPriorityFlow = TestUtils.createTestExecutableFlow("exectest1",
+        "exec1");
+    highPriorityFlow.setVersion(lowPriorityFlow1.getVersion() + 1);
+    highPriorityFlow.setStatus(Status.PREPARING);
+    highPriorityFlow.setSubmitTime(currentTime + 10);
+    highPriorityFlow.getExecutionOptions().getFlowParameters().put(ExecutionOptions.FLOW_PRIORITY,
+        String.valueOf(ExecutionOptions.DEFAULT_FLOW_PRIORITY + 5));
+    this.executionFlowDao.uploadExecutableFlow(highPriorityFlow);
+
+    final Executor executor = this.executorDao.addExecutor("localhost", 12345);
+    final Pair<Integer, Integer> lowPriorityVersion = new Pair<>(lowPriorityFlow1.getProjectId(),
+        lowPriorityFlow1.getVersion());
+    final Pair<Integer, Integer> highPriorityVersion = new Pair<>(highPriorityFlow.getProjectId(),
+        highPriorityFlow.getVersion());
+    assertThat(this.executionFlowDao.fetchQueuedProjectVersions(executor.getId(), true, 5))
+        .containsExactly(highPriorityVersion, lowPriorityVersion);
+    assertThat(this.executionFlowDao.fetchQueuedProjectVersions(executor.getId(), true, 1))
+        .containsExactly(highPriorityVersion);
+
+    // The executions are not claimed. Once claimed, the version is still queued by exec2.
+    assertThat(this.executionFlowDao.selectAndUpdateExecutions(executor.getId(), true, 2))
+        .containsExactly(highPriorityFlow.getExecutionId(), lowPriorityFlow1.getExecutionId());
+    assertThat(this.executionFlowDao.fetchQueuedProjectVersions(executor.getId(), true, 5))
+        .containsExactly(new Pair<>(lowPriorityFlow2.getProjectId(),
+            lowPriorityFlow2.getVersion()));
+  }
+
+  @Test
+  public void testLockFailureSelectAndUpdateExecutionsWithLocking() throws Exception {
+    when(mysqlNamedLock.getLock(any(DatabaseTransOperator.class), any(String.class), any(Integer.class)))
+        .thenReturn(false);
+    submitNewFlow("exectest1", "exec1", System.currentTimeMillis(),
+        ExecutionOptions.DEFAULT_FLOW_PRIORITY);
+    final Executor executor = this.executorDao.addExecutor("localhost", 12345);
+    assertThat(this.executionFlowDao.selectAndUpdateExecutionsWithLocking(executor.getId(), true,
+        2)).isEmpty();
+  }
+
   @Test
   public void testSelectAndUpdateExecutionWithSamePriority() throws Exception {
     // Selecting executions when DB is empty
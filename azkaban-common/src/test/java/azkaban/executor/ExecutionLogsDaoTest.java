@@ -19,10 +19,14 @@ package azkaban.executor;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import azkaban.db.DatabaseOperator;
+import azkaban.storage.DatabaseLogStorage;
+import azkaban.storage.LogChunkCache;
 import azkaban.test.Utils;
 import azkaban.test.executions.ExecutionsTestUtil;
 import azkaban.utils.FileIOUtils.LogData;
+import azkaban.utils.Props;
 import java.io.File;
+import java.nio.charset.StandardCharsets;
 import java.sql.SQLException;
 import org.junit.After;
 import org.junit.AfterClass;
@@ -35,6 +39,7 @@ public class ExecutionLogsDaoTest {
   private static final String LOG_TEST_DIR_NAME = "logtest";
   private static DatabaseOperator dbOperator;
   private ExecutionLogsDao executionLogsDao;
+  private LogChunkCache chunkCache;
 
   @BeforeClass
   public static void setUp() throws Exception {
@@ -53,7 +58,9 @@ public class ExecutionLogsDaoTest {
 
   @Before
   public void setup() {
-    this.executionLogsDao = new ExecutionLogsDao(dbOperator);
+    this.chunkCache = new LogChunkCache(10 * 1024 * 1024);
+    this.executionLogsDao = new ExecutionLogsDao(new DatabaseLogStorage(dbOperator,
+        this.chunkCache, new Props()));
   }
 
   @After
@@ -86,6 +93,20 @@ public class ExecutionLogsDaoTest {
     assertThat(data2.getLength()).isEqualTo(20);
   }
 
+  @Test
+  public void testUploadLogChunks() throws ExecutorManagerException {
+    final byte[] buffer = "0123456789".getBytes(StandardCharsets.UTF_8);
+    this.executionLogsDao.uploadLogChunk(1, "chunks", 0, 0, buffer, 10);
+    this.executionLogsDao.uploadLogChunk(1, "chunks", 0, 10, buffer, 4);
+
+    final LogData data = this.executionLogsDao.fetchLogs(1, "chunks", 0, 0, 50000);
+    assertThat(data.getData()).isEqualTo("01234567890123");
+
+    final LogData data2 = this.executionLogsDao.fetchLogs(1, "chunks", 0, 8, 4);
+    assertThat(data2.getOffset()).isEqualTo(8);
+    assertThat(data2.getData()).isEqualTo("8901");
+  }
+
   @Test
   public void testLargeUploadLog() throws ExecutorManagerException {
     final File logDir = ExecutionsTestUtil.getFlowDir(LOG_TEST_DIR_NAME);
@@ -110,6 +131,67 @@ public class ExecutionLogsDaoTest {
     assertThat(logsResult3.getLength()).isEqualTo(185493);
   }
 
+  @Test
+  public void testCachedChunksAreNotFetchedAgain() throws ExecutorManagerException {
+    final File logDir = ExecutionsTestUtil.getFlowDir(LOG_TEST_DIR_NAME);
+    final File[] largelog = {new File(logDir, "largeLog1.log")};
+    this.executionLogsDao.uploadLogFile(1, "cachedFiles", 0, largelog);
+
+    final LogData data = this.executionLogsDao.fetchLogs(1, "cachedFiles", 0, 0, 60000);
+    assertThat(this.chunkCache.getStats().missCount()).isEqualTo(2);
+
+    // Overlaps the second chunk which is cached and the third which is not
+    final LogData data2 = this.executionLogsDao.fetchLogs(1, "cachedFiles", 0, 60000, 50000);
+    assertThat(this.chunkCache.getStats().hitCount()).isEqualTo(1);
+    assertThat(this.chunkCache.getStats().missCount()).isEqualTo(3);
+
+    final LogData uncached = new ExecutionLogsDao(new DatabaseLogStorage(dbOperator,
+        new LogChunkCache(0), new Props())).fetchLogs(1, "cachedFiles", 0, 0, 110000);
+    assertThat(data.getData() + data2.getData()).isEqualTo(uncached.getData());
+  }
+
+  @Test
+  public void testFetchLogTail() throws ExecutorManagerException {
+    final byte[] buffer = "0123456789".getBytes(StandardCharsets.UTF_8);
+    this.executionLogsDao.uploadLogChunk(1, "tail", 0, 0, buffer, 10);
+    this.executionLogsDao.uploadLogChunk(1, "tail", 0, 10, buffer, 10);
+
+    final LogData tail = this.executionLogsDao.fetchLogTail(1, "tail", 0, 4);
+    assertThat(tail.getOffset()).isEqualTo(16);
+    assertThat(tail.getData()).isEqualTo("6789");
+
+    final LogData all = this.executionLogsDao.fetchLogTail(1, "tail", 0, 1000);
+    assertThat(all.getOffset()).isEqualTo(0);
+    assertThat(all.getLength()).isEqualTo(20);
+
+    assertThat(this.executionLogsDao.fetchLogTail(1, "tail", 1, 4)).isNull();
+  }
+
+  @Test
+  public void testFetchStopsAtAMissingChunk() throws ExecutorManagerException {
+    final byte[] buffer = "0123456789".getBytes(StandardCharsets.UTF_8);
+    this.executionLogsDao.uploadLogChunk(1, "gap", 0, 0, buffer, 10);
+    this.executionLogsDao.uploadLogChunk(1, "gap", 0, 20, buffer, 10);
+
+    final LogData data = this.executionLogsDao.fetchLogs(1, "gap", 0, 5, 100);
+    assertThat(data.getOffset()).isEqualTo(5);
+    assertThat(data.getData()).isEqualTo("56789");
+    assertThat(this.executionLogsDao.fetchLogs(1, "gap", 0, 15, 100)).isNull();
+    assertThat(this.executionLogsDao.fetchLogs(1, "gap", 0, 20, 100).getData())
+        .isEqualTo("0123456789");
+  }
+
+  @Test
+  public void testLogCleanupEvictsCachedChunks() throws ExecutorManagerException {
+    final byte[] buffer = "0123456789".getBytes(StandardCharsets.UTF_8);
+    this.executionLogsDao.uploadLogChunk(1, "evicted", 0, 0, buffer, 10);
+    this.executionLogsDao.fetchLogs(1, "evicted", 0, 0, 10);
+    assertThat(this.chunkCache.get(1, "evicted", 0, 0)).isNotNull();
+
+    this.executionLogsDao.removeExecutionLogsByTime(System.currentTimeMillis() + 1000, 10);
+    assertThat(this.chunkCache.get(1, "evicted", 0, 0)).isNull();
+  }
+
   @Test
   public void testLogCleanup() throws ExecutorManagerException {
     final File logDir = ExecutionsTestUtil.getFlowDir(LOG_TEST_DIR_NAME);
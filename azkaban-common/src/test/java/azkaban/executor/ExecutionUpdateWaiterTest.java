@@ -0,0 +1,110 @@
+/*
+ * Copyright 2020 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package azkaban.executor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import azkaban.Constants.ConfigurationKeys;
+import azkaban.utils.Props;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ExecutionUpdateWaiterTest {
+
+  private static final int EXEC_ID = 1;
+
+  private ExecutorManagerAdapter executorManagerAdapter;
+
+  @Before
+  public void setUp() {
+    this.executorManagerAdapter = mock(ExecutorManagerAdapter.class);
+  }
+
+  private static ExecutableFlow createFlow(final long updateTime, final Status status) {
+    final ExecutableFlow flow = new ExecutableFlow();
+    flow.setUpdateTime(updateTime);
+    flow.setStatus(status);
+    return flow;
+  }
+
+  @Test
+  public void testUpdatedFlowIsReturnedRightAway() throws Exception {
+    final ExecutableFlow flow = createFlow(200, Status.RUNNING);
+    when(this.executorManagerAdapter.getCachedExecutableFlow(EXEC_ID)).thenReturn(flow);
+    final ExecutionUpdateWaiter waiter =
+        new ExecutionUpdateWaiter(this.executorManagerAdapter, 60000, 10, 1);
+
+    assertThat(waiter.waitForUpdate(EXEC_ID, 100, 60000)).isSameAs(flow);
+    verify(this.executorManagerAdapter, times(1)).getCachedExecutableFlow(EXEC_ID);
+  }
+
+  @Test
+  public void testWaitUntilUpdate() throws Exception {
+    final ExecutableFlow updated = createFlow(200, Status.RUNNING);
+    when(this.executorManagerAdapter.getCachedExecutableFlow(EXEC_ID))
+        .thenReturn(createFlow(100, Status.RUNNING), createFlow(100, Status.RUNNING), updated);
+    final ExecutionUpdateWaiter waiter =
+        new ExecutionUpdateWaiter(this.executorManagerAdapter, 60000, 10, 1);
+
+    assertThat(waiter.waitForUpdate(EXEC_ID, 100, 60000)).isSameAs(updated);
+    verify(this.executorManagerAdapter, times(3)).getCachedExecutableFlow(EXEC_ID);
+  }
+
+  @Test
+  public void testWaitUntilStatusChange() throws Exception {
+    final ExecutableFlow killing = createFlow(100, Status.KILLING);
+    when(this.executorManagerAdapter.getCachedExecutableFlow(EXEC_ID))
+        .thenReturn(createFlow(100, Status.RUNNING), killing);
+    final ExecutionUpdateWaiter waiter =
+        new ExecutionUpdateWaiter(this.executorManagerAdapter, 60000, 10, 1);
+
+    assertThat(waiter.waitForUpdate(EXEC_ID, 100, 60000)).isSameAs(killing);
+  }
+
+  @Test
+  public void testTimeout() throws Exception {
+    final ExecutableFlow flow = createFlow(100, Status.RUNNING);
+    when(this.executorManagerAdapter.getCachedExecutableFlow(EXEC_ID)).thenReturn(flow);
+    // The timeout of the request is capped
+    final ExecutionUpdateWaiter waiter =
+        new ExecutionUpdateWaiter(this.executorManagerAdapter, 50, 10, 1);
+
+    assertThat(waiter.waitForUpdate(EXEC_ID, 100, 60000)).isSameAs(flow);
+  }
+
+  @Test
+  public void testNoWaitAboveMaxWaiters() throws Exception {
+    when(this.executorManagerAdapter.getCachedExecutableFlow(EXEC_ID))
+        .thenReturn(createFlow(100, Status.RUNNING));
+    final ExecutionUpdateWaiter waiter =
+        new ExecutionUpdateWaiter(this.executorManagerAdapter, 60000, 10, 0);
+
+    assertThat(waiter.waitForUpdate(EXEC_ID, 100, 60000)).isNull();
+  }
+
+  @Test
+  public void testDefaultMaxWaitersFollowsTheJettyThreads() {
+    final Props props = new Props();
+    assertThat(ExecutionUpdateWaiter.getDefaultMaxWaiters(props)).isEqualTo(10);
+    props.put(ConfigurationKeys.JETTY_MAX_THREADS, 200);
+    assertThat(ExecutionUpdateWaiter.getDefaultMaxWaiters(props)).isEqualTo(100);
+  }
+}
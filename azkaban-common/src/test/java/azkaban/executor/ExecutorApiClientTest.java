@@ -0,0 +1,54 @@
+/*
+ * Copyright 2020 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package azkaban.executor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import azkaban.metrics.CommonMetrics;
+import azkaban.metrics.MetricsManager;
+import azkaban.utils.Props;
+import com.codahale.metrics.MetricRegistry;
+import java.util.Collections;
+import org.junit.Test;
+
+public class ExecutorApiClientTest {
+
+  @Test
+  public void testPooledClientRegistersPoolMetrics() {
+    final MetricRegistry registry = new MetricRegistry();
+    new ExecutorApiClient(new Props(), new CommonMetrics(new MetricsManager(registry)));
+
+    assertThat(registry.getGauges().get(CommonMetrics.EXECUTOR_CLIENT_LEASED_CONNECTIONS_NAME)
+        .getValue()).isEqualTo(0);
+    assertThat(registry.getGauges().get(CommonMetrics.EXECUTOR_CLIENT_PENDING_REQUESTS_NAME)
+        .getValue()).isEqualTo(0);
+    assertThat(registry.getGauges().get(CommonMetrics.EXECUTOR_CLIENT_POOL_UTILIZATION_NAME)
+        .getValue()).isEqualTo(0.0);
+  }
+
+  @Test
+  public void testShutdownClosesThePool() throws Exception {
+    final ExecutorApiClient client = new ExecutorApiClient(new Props(),
+        new CommonMetrics(new MetricsManager(new MetricRegistry())));
+    client.shutdown();
+
+    assertThatThrownBy(() -> client.httpPost(
+        ExecutorApiClient.buildUri("localhost", 12321, "/executor", true),
+        Collections.emptyList())).isInstanceOf(IllegalStateException.class);
+  }
+}
@@ -19,6 +19,8 @@ package azkaban.executor;
 import static org.junit.Assert.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import azkaban.utils.JSONUtils;
@@ -77,4 +79,16 @@ public class ExecutorApiGatewayTest {
     assertEquals(new Pair<>("execid", "null"), this.params.getValue().get(3));
     assertEquals(new Pair<>("user", null), this.params.getValue().get(4));
   }
+
+  @Test
+  public void dispatchIsNotBoundByTheDefaultTimeout() throws Exception {
+    final ExecutableFlow flow = new ExecutableFlow();
+    flow.setExecutionId(3);
+    when(this.client.httpPostDispatch(eq(new URI("http://executor-2:1234/executor")), any()))
+        .thenReturn(JSONUtils.toJSON(ImmutableMap.of("status", "success")));
+
+    this.gateway.callWithExecutable(flow, new Executor(2, "executor-2", 1234, true),
+        ConnectorParams.EXECUTE_ACTION);
+    verify(this.client, never()).httpPost(any(), any());
+  }
 }
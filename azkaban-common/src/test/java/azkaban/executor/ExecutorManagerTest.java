@@ -153,7 +153,7 @@ public class ExecutorManagerTest {
     final ExecutionFinalizer executionFinalizer = new ExecutionFinalizer(this.loader,
         this.updaterStage, this.alertHolder, this.runningExecutions);
     final RunningExecutionsUpdaterThread updaterThread = new RunningExecutionsUpdaterThread(
-        new RunningExecutionsUpdater(
+        new RunningExecutionsUpdater(this.props,
             this.updaterStage, this.alertHolder, this.commonMetrics, this.apiGateway,
             this.runningExecutions, executionFinalizer, this.loader), this.runningExecutions);
     updaterThread.waitTimeIdleMs = 0;
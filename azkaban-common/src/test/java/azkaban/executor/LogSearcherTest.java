@@ -0,0 +1,195 @@
+/*
+ * Copyright 2020 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package azkaban.executor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import azkaban.utils.FileIOUtils;
+import azkaban.utils.FileIOUtils.LogData;
+import azkaban.utils.Pair;
+import com.google.common.util.concurrent.Uninterruptibles;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+public class LogSearcherTest {
+
+  private static LogSearcher.LogReader reader(final String log) {
+    final byte[] bytes = log.getBytes(StandardCharsets.UTF_8);
+    return (offset, length) -> {
+      if (offset >= bytes.length) {
+        return null;
+      }
+      final Pair<Integer, Integer> range = FileIOUtils
+          .getUtf8Range(bytes, offset, Math.min(length, bytes.length - offset));
+      return new LogData(range.getFirst(), range.getSecond(),
+          new String(bytes, range.getFirst(), range.getSecond(), StandardCharsets.UTF_8));
+    };
+  }
+
+  private static LogSearcher.Query query(final String pattern, final boolean regex,
+      final int offset, final int maxResults, final int contextLines) {
+    return new LogSearcher.Query(pattern, regex, false, offset, maxResults, contextLines, 5000);
+  }
+
+  @Test
+  public void testSubstringMatchesWithByteOffsets() throws Exception {
+    final String log = "début\nerror one\n中文 error two\nok\n";
+    final LogSearcher.Result result = LogSearcher.search(reader(log),
+        query("error", false, 0, 10, 0));
+
+    assertThat(result.getMatches()).hasSize(2);
+    assertThat(result.getMatches().get(0).getOffset()).isEqualTo(7);
+    assertThat(result.getMatches().get(0).getLine()).isEqualTo("error one");
+    assertThat(result.getMatches().get(1).getOffset()).isEqualTo(17);
+    assertThat(result.getMatches().get(1).getLine()).isEqualTo("中文 error two");
+    assertThat(result.isComplete()).isTrue();
+    assertThat(result.isTimedOut()).isFalse();
+    assertThat(result.getNextOffset()).isEqualTo(log.getBytes(StandardCharsets.UTF_8).length);
+  }
+
+  @Test
+  public void testRegexIsQuotedUnlessRequested() throws Exception {
+    final String log = "a.c\nabc\n";
+    assertThat(LogSearcher.search(reader(log), query("a.c", false, 0, 10, 0)).getMatches())
+        .extracting(LogSearcher.Match::getLine).containsExactly("a.c");
+    assertThat(LogSearcher.search(reader(log), query("a.c", true, 0, 10, 0)).getMatches())
+        .extracting(LogSearcher.Match::getLine).containsExactly("a.c", "abc");
+  }
+
+  @Test
+  public void testContextLines() throws Exception {
+    final String log = "1\n2\nmatch\n3\n4\n";
+    final LogSearcher.Result result = LogSearcher.search(reader(log),
+        query("match", false, 0, 10, 1));
+
+    final LogSearcher.Match match = result.getMatches().get(0);
+    assertThat(match.getBefore()).containsExactly("2");
+    assertThat(match.getAfter()).containsExactly("3");
+  }
+
+  @Test
+  public void testPaginationAcrossPages() throws Exception {
+    final StringBuilder log = new StringBuilder();
+    for (int i = 0; i < 20000; i++) {
+      log.append(i % 1000 == 0 ? "hit " : "line ").append(i).append('\n');
+    }
+
+    int offset = 0;
+    int found = 0;
+    LogSearcher.Result result;
+    do {
+      result = LogSearcher.search(reader(log.toString()), query("hit", false, offset, 3, 0));
+      for (final LogSearcher.Match match : result.getMatches()) {
+        assertThat(match.getLine()).isEqualTo("hit " + found * 1000);
+        found++;
+      }
+      offset = result.getNextOffset();
+    } while (!result.isComplete());
+
+    assertThat(found).isEqualTo(20);
+  }
+
+  private static LogSearcher.LogReader slowReader(final String log) {
+    final LogSearcher.LogReader reader = reader(log);
+    return (offset, length) -> {
+      Uninterruptibles.sleepUninterruptibly(10, TimeUnit.MILLISECONDS);
+      return reader.read(offset, length);
+    };
+  }
+
+  @Test
+  public void testTimeBudget() throws Exception {
+    final StringBuilder log = new StringBuilder();
+    for (int i = 0; i < 100000; i++) {
+      log.append(i % 10000 == 0 ? "hit " : "line ").append(i).append('\n');
+    }
+
+    final LogSearcher.Result result = LogSearcher.search(slowReader(log.toString()),
+        new LogSearcher.Query("hit", false, false, 0, 100, 0, 30));
+    assertThat(result.isTimedOut()).isTrue();
+    assertThat(result.isComplete()).isFalse();
+    assertThat(result.getNextOffset()).isGreaterThan(0);
+    assertThat(result.getNextOffset()).isLessThan(log.length());
+  }
+
+  @Test
+  public void testSearchMovesForwardWithABudgetShorterThanARead() throws Exception {
+    final StringBuilder log = new StringBuilder();
+    for (int i = 0; i < 50; i++) {
+      log.append(i % 10 == 0 ? "hit " : "line ").append(i).append('\n');
+    }
+    final LogSearcher.LogReader reader = slowReader(log.toString());
+
+    int offset = 0;
+    int found = 0;
+    LogSearcher.Result result;
+    do {
+      result = LogSearcher.search(reader,
+          new LogSearcher.Query("hit", false, false, offset, 100, 0, 1));
+      found += result.getMatches().size();
+      if (!result.isComplete()) {
+        assertThat(result.getNextOffset()).isGreaterThan(offset);
+      }
+      offset = result.getNextOffset();
+    } while (!result.isComplete());
+    assertThat(found).isEqualTo(5);
+  }
+
+  @Test
+  public void testLineRegexTimeoutSkipsTheLine() throws Exception {
+    // The backreference defeats the regex engine's protection against catastrophic backtracking
+    final String pathologicalLine = String.join("", Collections.nCopies(40, "a")) + "c";
+    final String log = "aab\n" + pathologicalLine + "\nok\naab\n";
+    final LogSearcher.Result result = LogSearcher.search(reader(log),
+        new LogSearcher.Query("(a+)+\\1b", true, false, 0, 10, 0, 5000));
+
+    assertThat(result.getMatches()).extracting(LogSearcher.Match::getOffset)
+        .containsExactly(0, 4 + pathologicalLine.length() + 1 + 3);
+    assertThat(result.getSkippedLines()).isEqualTo(1);
+    assertThat(result.isComplete()).isTrue();
+    assertThat(result.isTimedOut()).isFalse();
+    assertThat(result.getNextOffset()).isEqualTo(log.length());
+  }
+
+  @Test
+  public void testResultRoundTrip() throws Exception {
+    final LogSearcher.Result result = LogSearcher.search(reader("a\nb\nc\n"),
+        query("b", false, 0, 10, 1));
+    final LogSearcher.Result copy = LogSearcher.Result
+        .createResultFromObject(result.toObject());
+
+    assertThat(copy.getNextOffset()).isEqualTo(result.getNextOffset());
+    assertThat(copy.isComplete()).isTrue();
+    assertThat(copy.getMatches().get(0).getLine()).isEqualTo("b");
+    assertThat(copy.getMatches().get(0).getBefore()).containsExactly("a");
+    assertThat(copy.getMatches().get(0).getAfter()).containsExactly("c");
+  }
+
+  @Test
+  public void testInvalidPattern() {
+    final Map<String, String> params = new HashMap<>();
+    params.put(LogSearcher.Query.PATTERN_PARAM, "(");
+    params.put(LogSearcher.Query.REGEX_PARAM, "true");
+    assertThatThrownBy(() -> LogSearcher.Query.fromParams(params))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+}
@@ -23,8 +23,10 @@ import azkaban.utils.Pair;
 import azkaban.utils.Props;
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
@@ -67,12 +69,37 @@ public class MockExecutorLoader implements ExecutorLoader {
     this.flowUpdateCount++;
   }
 
+  @Override
+  public void updateExecutableNodes(final List<ExecutableNodeUpdate> nodes)
+      throws ExecutorManagerException {
+    for (final ExecutableNodeUpdate node : nodes) {
+      final ExecutableNode foundNode = this.nodes.get(node.getJobId());
+      foundNode.setEndTime(node.getEndTime());
+      foundNode.setStartTime(node.getStartTime());
+      foundNode.setStatus(node.getStatus());
+
+      final Integer value = this.jobUpdateCount.get(node.getJobId());
+      if (value == null) {
+        throw new ExecutorManagerException("The node has not been uploaded");
+      }
+      this.jobUpdateCount.put(node.getJobId(), value + 1);
+      this.flowUpdateCount++;
+    }
+  }
+
   @Override
   public ExecutableFlow fetchExecutableFlow(final int execId) throws ExecutorManagerException {
     final ExecutableFlow flow = this.flows.get(execId);
     return ExecutableFlow.createExecutableFlow(flow.toObject(), flow.getStatus());
   }
 
+  @Override
+  public Pair<Long, Status> fetchExecutableFlowUpdateTime(final int execId)
+      throws ExecutorManagerException {
+    final ExecutableFlow flow = this.flows.get(execId);
+    return flow == null ? null : new Pair<>(flow.getUpdateTime(), flow.getStatus());
+  }
+
   @Override
   public Map<Integer, Pair<ExecutionReference, ExecutableFlow>> fetchActiveFlows()
       throws ExecutorManagerException {
@@ -148,6 +175,19 @@ public class MockExecutorLoader implements ExecutorLoader {
     }
   }
 
+  @Override
+  public void uploadLogChunk(final int execId, final String name, final int attempt,
+      final int startByte, final byte[] buffer, final int length)
+      throws ExecutorManagerException {
+    LOGGER.info("Uploaded log chunk for [" + name + "]:[" + execId + "] at " + startByte + ":\n"
+        + new String(buffer, 0, length, StandardCharsets.UTF_8));
+  }
+
+  @Override
+  public int getLogChunkSize() {
+    return 50 * 1024;
+  }
+
   @Override
   public void updateExecutableFlow(final ExecutableFlow flow)
       throws ExecutorManagerException {
@@ -157,6 +197,15 @@ public class MockExecutorLoader implements ExecutorLoader {
     this.flowUpdateCount++;
   }
 
+  @Override
+  public void appendExecutableFlowUpdate(final ExecutableFlow flow, final long lastUpdateTime)
+      throws ExecutorManagerException {
+    final ExecutableFlow toUpdate = this.flows.get(flow.getExecutionId());
+
+    toUpdate.applyUpdateObject(flow.toUpdateObject(lastUpdateTime));
+    this.flowUpdateCount++;
+  }
+
   @Override
   public void uploadExecutableNode(final ExecutableNode node, final Props inputParams)
       throws ExecutorManagerException {
@@ -228,6 +277,12 @@ public class MockExecutorLoader implements ExecutorLoader {
     return null;
   }
 
+  @Override
+  public LogData fetchLogTail(final int execId, final String name, final int attempt,
+      final int length) throws ExecutorManagerException {
+    return null;
+  }
+
   @Override
   public List<ExecutableFlow> fetchFlowHistory(final int skip, final int num)
       throws ExecutorManagerException {
@@ -250,6 +305,34 @@ public class MockExecutorLoader implements ExecutorLoader {
     return new ArrayList<>();
   }
 
+  @Override
+  public List<ExecutableFlow> fetchFlowHistorySummaries(final int skip, final int num)
+      throws ExecutorManagerException {
+    return fetchFlowHistory(skip, num);
+  }
+
+  @Override
+  public List<ExecutableFlow> fetchFlowHistorySummaries(final int projectId,
+      final String flowId, final int skip, final int num) throws ExecutorManagerException {
+    return fetchFlowHistory(projectId, flowId, skip, num);
+  }
+
+  @Override
+  public List<ExecutableFlow> fetchFlowHistorySummaries(final int projectId,
+      final String flowId, final int skip, final int num, final Status status)
+      throws ExecutorManagerException {
+    return fetchFlowHistory(projectId, flowId, skip, num, status);
+  }
+
+  @Override
+  public List<ExecutableFlow> fetchFlowHistorySummaries(final String projectContains,
+      final String flowContains, final String userNameContains, final int status,
+      final long startData, final long endData, final int skip, final int num)
+      throws ExecutorManagerException {
+    return fetchFlowHistory(projectContains, flowContains, userNameContains, status, startData,
+        endData, skip, num);
+  }
+
   @Override
   public List<ExecutableJobInfo> fetchJobHistory(final int projectId, final String jobId,
       final int skip, final int size) throws ExecutorManagerException {
@@ -463,6 +546,24 @@ public class MockExecutorLoader implements ExecutorLoader {
     return 1;
   }
 
+  @Override
+  public List<Integer> selectAndUpdateExecutions(final int executorId, final boolean isActive,
+      final int maxExecutions) throws ExecutorManagerException {
+    return Collections.singletonList(1);
+  }
+
+  @Override
+  public List<Integer> selectAndUpdateExecutionsWithLocking(final int executorId,
+      final boolean isActive, final int maxExecutions) throws ExecutorManagerException {
+    return Collections.singletonList(1);
+  }
+
+  @Override
+  public List<Pair<Integer, Integer>> fetchQueuedProjectVersions(final int executorId,
+      final boolean isActive, final int maxProjects) throws ExecutorManagerException {
+    return Collections.emptyList();
+  }
+
   @Override
   public ExecutableRampMap fetchExecutableRampMap() throws ExecutorManagerException {
     ExecutableRampMap map = ExecutableRampMap.createInstance();
@@ -20,6 +20,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 import azkaban.db.DatabaseOperator;
 import azkaban.test.Utils;
+import azkaban.utils.Props;
 import azkaban.utils.TestUtils;
 import java.sql.SQLException;
 import org.junit.After;
@@ -53,7 +54,7 @@ public class NumExecutionsDaoTest {
   @Before
   public void setup() {
     MysqlNamedLock mysqlNamedLock = Mockito.mock(MysqlNamedLock.class);
-    this.executionFlowDao = new ExecutionFlowDao(dbOperator, mysqlNamedLock);
+    this.executionFlowDao = new ExecutionFlowDao(dbOperator, mysqlNamedLock, new Props());
     this.numExecutionsDao = new NumExecutionsDao(dbOperator);
   }
 
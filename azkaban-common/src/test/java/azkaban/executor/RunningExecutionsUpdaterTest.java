@@ -1,16 +1,22 @@
 package azkaban.executor;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
+import azkaban.Constants.ConfigurationKeys;
 import azkaban.alert.Alerter;
 import azkaban.metrics.CommonMetrics;
 import azkaban.utils.Pair;
+import azkaban.utils.Props;
 import com.google.common.collect.ImmutableMap;
 import java.util.Collections;
 import java.util.HashMap;
@@ -47,6 +53,7 @@ public class RunningExecutionsUpdaterTest {
   private ExecutableFlow execution;
   private RunningExecutions runningExecutions;
   private Executor activeExecutor;
+  private Props props;
 
   private RunningExecutionsUpdater updater;
 
@@ -59,7 +66,9 @@ public class RunningExecutionsUpdaterTest {
     this.runningExecutions = new RunningExecutions();
     this.runningExecutions.get().put(EXECUTION_ID_77, new Pair<>(
         new ExecutionReference(EXECUTION_ID_77, this.activeExecutor), this.execution));
-    this.updater = new RunningExecutionsUpdater(this.updaterStage, this.alerterHolder,
+    this.props = new Props();
+    this.props.put(ConfigurationKeys.EXECUTOR_UPDATE_TIMEOUT_MS, 1000);
+    this.updater = new RunningExecutionsUpdater(this.props, this.updaterStage, this.alerterHolder,
         this.commonMetrics, this.apiGateway, this.runningExecutions, this.executionFinalizer,
         this.executorLoader);
     when(this.alerterHolder.get("email")).thenReturn(this.mailAlerter);
@@ -116,6 +125,49 @@ public class RunningExecutionsUpdaterTest {
     verifyZeroInteractions(this.executionFinalizer);
   }
 
+  /**
+   * A hung executor is treated like a failed update call once the deadline passes.
+   */
+  @Test
+  public void updateExecutionsUpdateCallTimesOut() throws Exception {
+    doAnswer(invocation -> {
+      Thread.sleep(10 * 1000);
+      return null;
+    }).when(this.apiGateway).updateExecutions(any(), any());
+    when(this.executorLoader.fetchExecutor(anyInt())).thenReturn(this.activeExecutor);
+    this.updater.updateExecutions();
+    verifyCallUpdateApi();
+    verify(this.commonMetrics, timeout(1000)).addExecutorUpdateLatency(any(), anyLong());
+    verifyZeroInteractions(this.executionFinalizer);
+  }
+
+  /**
+   * A call queued behind the call to another executor gets the whole timeout once it starts.
+   */
+  @Test
+  public void updateExecutionsQueuedCallIsNotTimedOutBeforeItStarts() throws Exception {
+    final ExecutableFlow otherExecution = new ExecutableFlow();
+    otherExecution.setExecutionId(EXECUTION_ID_77 + 1);
+    final Executor otherExecutor = new Executor(2, "activeExecutor-2", 9999, true);
+    this.runningExecutions.get().put(otherExecution.getExecutionId(), new Pair<>(
+        new ExecutionReference(otherExecution.getExecutionId(), otherExecutor), otherExecution));
+    this.props.put(ConfigurationKeys.EXECUTOR_UPDATE_THREADS, 1);
+    this.updater = new RunningExecutionsUpdater(this.props, this.updaterStage, this.alerterHolder,
+        this.commonMetrics, this.apiGateway, this.runningExecutions, this.executionFinalizer,
+        this.executorLoader);
+    // Each call takes most of the timeout, the calls together take longer than the timeout
+    doAnswer(invocation -> {
+      Thread.sleep(700);
+      return ImmutableMap.of(ConnectorParams.RESPONSE_UPDATED_FLOWS, Collections.emptyList());
+    }).when(this.apiGateway).updateExecutions(any(), any());
+    this.updater.updateExecutions();
+    assertThat(this.runningExecutions.get().get(EXECUTION_ID_77).getFirst().getNumErrors())
+        .isEqualTo(0);
+    assertThat(this.runningExecutions.get().get(otherExecution.getExecutionId()).getFirst()
+        .getNumErrors()).isEqualTo(0);
+    this.updater.shutdown();
+  }
+
   /**
    * Should finalize execution if executor doesn't exist in the DB.
    */
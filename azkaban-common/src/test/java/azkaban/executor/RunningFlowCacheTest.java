@@ -0,0 +1,86 @@
+/*
+ * Copyright 2020 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package azkaban.executor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import azkaban.utils.Pair;
+import org.junit.Before;
+import org.junit.Test;
+
+public class RunningFlowCacheTest {
+
+  private static final int EXEC_ID = 1;
+
+  private ExecutorLoader loader;
+  private RunningFlowCache cache;
+
+  @Before
+  public void setUp() {
+    this.loader = mock(ExecutorLoader.class);
+    this.cache = new RunningFlowCache(this.loader, 10);
+  }
+
+  @Test
+  public void testUnchangedFlowIsServedFromMemory() throws Exception {
+    final ExecutableFlow flow = new ExecutableFlow();
+    when(this.loader.fetchExecutableFlowUpdateTime(EXEC_ID))
+        .thenReturn(new Pair<>(100L, Status.RUNNING));
+    when(this.loader.fetchExecutableFlow(EXEC_ID)).thenReturn(flow);
+
+    assertThat(this.cache.get(EXEC_ID)).isSameAs(flow);
+    assertThat(this.cache.get(EXEC_ID)).isSameAs(flow);
+    verify(this.loader, times(1)).fetchExecutableFlow(EXEC_ID);
+    assertThat(this.cache.getStats().hitCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void testChangedFlowIsFetchedAgain() throws Exception {
+    final ExecutableFlow flow = new ExecutableFlow();
+    final ExecutableFlow updated = new ExecutableFlow();
+    when(this.loader.fetchExecutableFlowUpdateTime(EXEC_ID))
+        .thenReturn(new Pair<>(100L, Status.RUNNING), new Pair<>(200L, Status.RUNNING),
+            new Pair<>(200L, Status.KILLING));
+    when(this.loader.fetchExecutableFlow(EXEC_ID)).thenReturn(flow, updated, updated);
+
+    assertThat(this.cache.get(EXEC_ID)).isSameAs(flow);
+    assertThat(this.cache.get(EXEC_ID)).isSameAs(updated);
+    // A change of status alone is a change too
+    this.cache.get(EXEC_ID);
+    verify(this.loader, times(3)).fetchExecutableFlow(EXEC_ID);
+  }
+
+  @Test
+  public void testFinishedFlowIsNotCached() throws Exception {
+    when(this.loader.fetchExecutableFlowUpdateTime(EXEC_ID))
+        .thenReturn(new Pair<>(100L, Status.SUCCEEDED));
+    when(this.loader.fetchExecutableFlow(EXEC_ID)).thenReturn(new ExecutableFlow());
+
+    this.cache.get(EXEC_ID);
+    this.cache.get(EXEC_ID);
+    verify(this.loader, times(2)).fetchExecutableFlow(EXEC_ID);
+  }
+
+  @Test
+  public void testMissingFlow() throws Exception {
+    assertThat(this.cache.get(EXEC_ID)).isNull();
+  }
+}
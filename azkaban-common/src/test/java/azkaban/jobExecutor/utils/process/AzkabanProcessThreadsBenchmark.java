@@ -0,0 +1,98 @@
+/*
+ * Copyright 2020 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package azkaban.jobExecutor.utils.process;
+
+import azkaban.utils.JobThreads;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.apache.log4j.Logger;
+import org.junit.After;
+import org.junit.Ignore;
+import org.junit.Test;
+
+/**
+ * Compares the number of OS threads and the heap used while many shell jobs run concurrently on
+ * platform threads and on virtual threads. Virtual threads need Java 21 or later.
+ */
+@Ignore("Benchmark, run manually")
+public class AzkabanProcessThreadsBenchmark {
+
+  private static final int NUM_JOBS = 500;
+  private static final String JOB_DURATION_SECONDS = "10";
+  private static final Logger LOGGER = Logger.getLogger(AzkabanProcessThreadsBenchmark.class);
+
+  @After
+  public void tearDown() {
+    JobThreads.setVirtualThreadsEnabled(false);
+  }
+
+  @Test
+  public void concurrentShellJobs() throws Exception {
+    runJobs(false);
+    if (JobThreads.isVirtualThreadSupported()) {
+      runJobs(true);
+    } else {
+      System.out.println("Virtual threads are not supported by this JVM.");
+    }
+  }
+
+  private static void runJobs(final boolean virtualThreads) throws Exception {
+    JobThreads.setVirtualThreadsEnabled(virtualThreads);
+    final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+    final MemoryMXBean memoryBean = ManagementFactory.getMemoryMXBean();
+    System.gc();
+    final int threadsBefore = threadBean.getThreadCount();
+    final long heapBefore = memoryBean.getHeapMemoryUsage().getUsed();
+
+    final ExecutorService jobPool = Executors
+        .newFixedThreadPool(NUM_JOBS, JobThreads.newThreadFactory("benchmark-job-"));
+    final CountDownLatch started = new CountDownLatch(NUM_JOBS);
+    final CountDownLatch finished = new CountDownLatch(NUM_JOBS);
+    for (int i = 0; i < NUM_JOBS; i++) {
+      jobPool.submit(() -> {
+        final AzkabanProcess process = new AzkabanProcessBuilder("sh", "-c",
+            "echo started; sleep " + JOB_DURATION_SECONDS + "; echo done")
+            .setLogger(LOGGER).build();
+        started.countDown();
+        try {
+          process.run();
+        } finally {
+          finished.countDown();
+        }
+        return null;
+      });
+    }
+
+    started.await();
+    // Let all the processes spawn and their output readers start
+    Thread.sleep(3000);
+    final int peakThreads = threadBean.getThreadCount() - threadsBefore;
+    final long heapUsedMb = (memoryBean.getHeapMemoryUsage().getUsed() - heapBefore) >> 20;
+    finished.await();
+    jobPool.shutdown();
+    jobPool.awaitTermination(1, TimeUnit.MINUTES);
+
+    System.out.println(String.format(
+        "%d concurrent shell jobs on %s threads: %d additional OS threads, %d MB additional heap",
+        NUM_JOBS, virtualThreads ? "virtual" : "platform", peakThreads, heapUsedMb));
+  }
+}
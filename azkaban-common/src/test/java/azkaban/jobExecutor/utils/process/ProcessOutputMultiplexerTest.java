@@ -0,0 +1,75 @@
+/*
+ * Copyright 2020 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package azkaban.jobExecutor.utils.process;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.junit.Test;
+
+public class ProcessOutputMultiplexerTest {
+
+  private static final String NEW_LINE = System.getProperty("line.separator");
+
+  private final ProcessOutputMultiplexer multiplexer = ProcessOutputMultiplexer.getInstance();
+  private final Logger logger = Logger.getLogger(ProcessOutputMultiplexerTest.class);
+
+  @Test
+  public void testLinesOfSeveralProcesses() throws Exception {
+    final Process process1 = new ProcessBuilder("sh", "-c", "echo a; sleep 1; echo b").start();
+    final Process process2 = new ProcessBuilder("sh", "-c", "printf 'c\\r\\nd'").start();
+    final ProcessOutputMultiplexer.Output output1 = this.multiplexer
+        .register(process1, process1.getInputStream(), this.logger, Level.INFO, 30);
+    final ProcessOutputMultiplexer.Output output2 = this.multiplexer
+        .register(process2, process2.getInputStream(), this.logger, Level.INFO, 30);
+
+    process1.waitFor();
+    process2.waitFor();
+    output1.awaitCompletion(10000);
+    output2.awaitCompletion(10000);
+
+    assertThat(output1.getRecentLog()).isEqualTo("a" + NEW_LINE + "b");
+    assertThat(output2.getRecentLog()).isEqualTo("c" + NEW_LINE + "d");
+  }
+
+  @Test
+  public void testOnlyRecentLinesAreKept() throws Exception {
+    final Process process = new ProcessBuilder("sh", "-c", "for i in 1 2 3 4 5; do echo $i; done")
+        .start();
+    final ProcessOutputMultiplexer.Output output = this.multiplexer
+        .register(process, process.getInputStream(), this.logger, Level.INFO, 2);
+
+    process.waitFor();
+    output.awaitCompletion(10000);
+
+    assertThat(output.getRecentLog()).isEqualTo("4" + NEW_LINE + "5");
+  }
+
+  @Test
+  public void testOutputOfAzkabanProcess() throws Exception {
+    ProcessOutputMultiplexer.setEnabled(true);
+    try {
+      final AzkabanProcess process = new AzkabanProcessBuilder("echo", "hello")
+          .setLogger(this.logger).build();
+      process.run();
+      assertThat(process.isComplete()).isTrue();
+    } finally {
+      ProcessOutputMultiplexer.setEnabled(false);
+    }
+  }
+}
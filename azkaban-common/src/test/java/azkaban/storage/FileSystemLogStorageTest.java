@@ -0,0 +1,169 @@
+/*
+ * Copyright 2020 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package azkaban.storage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import azkaban.db.DatabaseOperator;
+import azkaban.test.Utils;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+import org.apache.commons.io.IOUtils;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class FileSystemLogStorageTest {
+
+  private static final String JOB_NAME = "flow:embedded:job";
+  private static DatabaseOperator dbOperator;
+
+  @Rule
+  public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private File rootDir;
+  private LogChunkCache segmentCache;
+  private FileSystemLogStorage logStorage;
+
+  @BeforeClass
+  public static void setUpDB() throws Exception {
+    dbOperator = Utils.initTestDB();
+  }
+
+  @AfterClass
+  public static void destroyDB() throws Exception {
+    try {
+      dbOperator.update("DROP ALL OBJECTS");
+      dbOperator.update("SHUTDOWN");
+    } catch (final SQLException e) {
+      e.printStackTrace();
+    }
+  }
+
+  @Before
+  public void setUp() throws Exception {
+    dbOperator.update("DELETE FROM execution_log_segments");
+    this.rootDir = this.temporaryFolder.newFolder("logs");
+    this.segmentCache = new LogChunkCache(10 * 1024 * 1024);
+    this.logStorage = new FileSystemLogStorage(FileSystem.getLocal(new Configuration()),
+        new Path(this.rootDir.toURI()), dbOperator, this.segmentCache);
+  }
+
+  @Test
+  public void testRangesAcrossSegmentsAndParts() throws Exception {
+    final byte[] log = createLog(FileSystemLogStorage.SEGMENT_SIZE * 2 + 100);
+    final int firstPartLength = FileSystemLogStorage.SEGMENT_SIZE + 10;
+    assertThat(this.logStorage.putLog(1, JOB_NAME, 0, 0,
+        new ByteArrayInputStream(log, 0, firstPartLength))).isEqualTo(firstPartLength);
+    this.logStorage.putLog(1, JOB_NAME, 0, firstPartLength,
+        new ByteArrayInputStream(log, firstPartLength, log.length - firstPartLength));
+
+    assertThat(this.logStorage.getLog(1, JOB_NAME, 0, 0, log.length)).isEqualTo(log);
+    final int start = FileSystemLogStorage.SEGMENT_SIZE - 5;
+    assertThat(this.logStorage.getLog(1, JOB_NAME, 0, start, 50))
+        .isEqualTo(Arrays.copyOfRange(log, start, start + 50));
+    assertThat(this.logStorage.getLog(1, JOB_NAME, 0, log.length - 10, 1000))
+        .isEqualTo(Arrays.copyOfRange(log, log.length - 10, log.length));
+
+    assertThat(this.logStorage.getLogLength(1, JOB_NAME, 0)).isEqualTo(log.length);
+    assertThat(this.logStorage.getLog(1, JOB_NAME, 0, log.length, 1000)).isNull();
+    assertThat(this.logStorage.getLog(1, JOB_NAME, 1, 0, 1000)).isNull();
+  }
+
+  @Test
+  public void testPartIsAGzipFile() throws Exception {
+    final byte[] log = createLog(FileSystemLogStorage.SEGMENT_SIZE + 100);
+    this.logStorage.putLog(2, JOB_NAME, 0, 0, new ByteArrayInputStream(log));
+
+    final File[] files = new File(this.rootDir, "2").listFiles((dir, name) -> name.endsWith(".gz"));
+    assertThat(files).hasSize(1);
+    try (final GZIPInputStream input = new GZIPInputStream(new FileInputStream(files[0]))) {
+      assertThat(IOUtils.toByteArray(input)).isEqualTo(log);
+    }
+  }
+
+  @Test
+  public void testDeleteLogs() throws Exception {
+    this.logStorage.putLog(3, JOB_NAME, 0, 0, new ByteArrayInputStream(createLog(100)));
+    this.logStorage.putLog(3, JOB_NAME, 0, 100, new ByteArrayInputStream(createLog(100)));
+    this.logStorage.putLog(4, JOB_NAME, 0, 0, new ByteArrayInputStream(createLog(100)));
+
+    final long uploadTime = System.currentTimeMillis() + 1000;
+    assertThat(this.logStorage.deleteLogs(uploadTime, 2)).isEqualTo(2);
+    assertThat(this.logStorage.deleteLogs(uploadTime, 2)).isEqualTo(1);
+    assertThat(this.logStorage.deleteLogs(uploadTime, 2)).isEqualTo(0);
+
+    assertThat(this.logStorage.getLog(3, JOB_NAME, 0, 0, 1000)).isNull();
+    assertThat(new File(this.rootDir, "3")).doesNotExist();
+    assertThat(new File(this.rootDir, "4")).doesNotExist();
+  }
+
+  @Test
+  public void testDeleteLogsKeepsDirectoryWithNewerParts() throws Exception {
+    this.logStorage.putLog(7, JOB_NAME, 0, 0, new ByteArrayInputStream(createLog(100)));
+    final long uploadTime = System.currentTimeMillis() + 1000;
+    this.logStorage.putLog(7, JOB_NAME, 1, 0, new ByteArrayInputStream(createLog(100)));
+    dbOperator.update("UPDATE execution_log_segments SET upload_time=? WHERE attempt=1",
+        uploadTime + 1000);
+
+    assertThat(this.logStorage.deleteLogs(uploadTime, 10)).isEqualTo(1);
+    assertThat(this.logStorage.getLog(7, JOB_NAME, 1, 0, 1000)).isEqualTo(createLog(100));
+    assertThat(new File(this.rootDir, "7").listFiles((dir, name) -> name.endsWith(".gz")))
+        .hasSize(1);
+  }
+
+  @Test
+  public void testReadStopsAtAMissingPart() throws Exception {
+    final byte[] log = createLog(300);
+    this.logStorage.putLog(5, JOB_NAME, 0, 0, new ByteArrayInputStream(log, 0, 100));
+    this.logStorage.putLog(5, JOB_NAME, 0, 200, new ByteArrayInputStream(log, 200, 100));
+
+    assertThat(this.logStorage.getLog(5, JOB_NAME, 0, 50, 250))
+        .isEqualTo(Arrays.copyOfRange(log, 50, 100));
+    assertThat(this.logStorage.getLog(5, JOB_NAME, 0, 150, 100)).isNull();
+    assertThat(this.logStorage.getLog(5, JOB_NAME, 0, 200, 100))
+        .isEqualTo(Arrays.copyOfRange(log, 200, 300));
+  }
+
+  @Test
+  public void testDeleteLogsEvictsCachedSegments() throws Exception {
+    this.logStorage.putLog(6, JOB_NAME, 0, 0, new ByteArrayInputStream(createLog(100)));
+    this.logStorage.getLog(6, JOB_NAME, 0, 0, 100);
+    assertThat(this.segmentCache.get(6, JOB_NAME, 0, 0)).isNotNull();
+
+    this.logStorage.deleteLogs(System.currentTimeMillis() + 1000, 10);
+    assertThat(this.segmentCache.get(6, JOB_NAME, 0, 0)).isNull();
+  }
+
+  private static byte[] createLog(final int length) {
+    final byte[] log = new byte[length];
+    for (int i = 0; i < length; i++) {
+      log[i] = (byte) ('a' + i % 26);
+    }
+    return log;
+  }
+}
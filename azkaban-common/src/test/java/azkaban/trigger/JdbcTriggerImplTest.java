@@ -18,10 +18,13 @@ package azkaban.trigger;
 
 import static org.junit.Assert.assertTrue;
 
+import azkaban.Constants.ConfigurationKeys;
 import azkaban.db.DatabaseOperator;
+import azkaban.db.EncodingType;
 import azkaban.executor.ExecutionOptions;
 import azkaban.trigger.builtin.BasicTimeChecker;
 import azkaban.trigger.builtin.ExecuteFlowAction;
+import azkaban.utils.Props;
 import azkaban.utils.TimeUtils;
 import java.sql.SQLException;
 import java.util.ArrayList;
@@ -74,7 +77,23 @@ public class JdbcTriggerImplTest {
 
   @Before
   public void setUp() {
-    this.loader = new JdbcTriggerImpl(dbOperator);
+    this.loader = new JdbcTriggerImpl(new Props(), dbOperator);
+  }
+
+  @Test
+  public void testConfiguredEncodingType() throws Exception {
+    final Props props = new Props();
+    props.put(ConfigurationKeys.AZKABAN_TRIGGER_ENCODING_TYPE, EncodingType.ZSTD.name());
+    this.loader = new JdbcTriggerImpl(props, dbOperator);
+    final Trigger t1 = createTrigger("testProj1", "testFlow1", "source1");
+    this.loader.addTrigger(t1);
+
+    final int encType = dbOperator.query("SELECT enc_type FROM triggers WHERE trigger_id=?",
+        rs -> rs.next() ? rs.getInt(1) : -1, t1.getTriggerId());
+    assertTrue(encType == EncodingType.ZSTD.getNumVal());
+    final List<Trigger> ts = this.loader.loadTriggers();
+    assertTrue(ts.size() == 1);
+    assertTrue(ts.get(0).getSource().equals("source1"));
   }
 
   @Test
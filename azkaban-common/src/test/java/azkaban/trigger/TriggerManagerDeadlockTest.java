@@ -84,7 +84,7 @@ public class TriggerManagerDeadlockTest {
   }
 
   private RunningExecutionsUpdaterThread getRunningExecutionsUpdaterThread() {
-    return new RunningExecutionsUpdaterThread(new RunningExecutionsUpdater(
+    return new RunningExecutionsUpdaterThread(new RunningExecutionsUpdater(new Props(),
         this.updaterStage, this.alertHolder, this.commonMetrics, this.apiGateway,
         this.runningExecutions, this.executionFinalizer, this.execLoader), this.runningExecutions);
   }
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2020 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package azkaban.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import azkaban.db.EncodingType;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import org.junit.Test;
+
+public class GZIPUtilsTest {
+
+  private static final String JSON = "{\"id\":\"flow\",\"nodes\":[{\"id\":\"job1\",\"status\":"
+      + "\"SUCCEEDED\"},{\"id\":\"job2\",\"status\":\"SUCCEEDED\"},{\"id\":\"jöb3\"}]}";
+
+  @Test
+  public void testRoundTripAllEncodingTypes() throws Exception {
+    for (final EncodingType encType : EncodingType.values()) {
+      final byte[] encoded = GZIPUtils.encodeString(JSON, encType);
+      assertThat(GZIPUtils.decodeString(encoded, encType)).as(encType.name()).isEqualTo(JSON);
+      assertThat(EncodingType.fromInteger(encType.getNumVal())).isEqualTo(encType);
+    }
+  }
+
+  @Test
+  public void testEncodeRange() throws Exception {
+    final byte[] bytes = JSON.getBytes(StandardCharsets.UTF_8);
+    for (final EncodingType encType : EncodingType.values()) {
+      final byte[] encoded = GZIPUtils.encodeBytes(bytes, 5, 20, encType);
+      assertThat(GZIPUtils.decodeBytes(encoded, encType)).as(encType.name())
+          .isEqualTo(Arrays.copyOfRange(bytes, 5, 25));
+    }
+  }
+
+  @Test
+  public void testTransformBytesToObject() throws Exception {
+    for (final EncodingType encType : EncodingType.values()) {
+      final Map<String, Object> object = (Map<String, Object>) GZIPUtils
+          .transformBytesToObject(GZIPUtils.encodeString(JSON, encType), encType);
+      assertThat(object.get("id")).isEqualTo("flow");
+    }
+  }
+
+  @Test
+  public void testEncodeJSON() throws Exception {
+    final Map<String, Object> before = (Map<String, Object>) JSONUtils.parseJSONFromString(JSON);
+    for (final EncodingType encType : EncodingType.values()) {
+      final byte[] encoded = GZIPUtils.encodeJSON(before, encType);
+      assertThat(GZIPUtils.transformBytesToObject(encoded, encType)).isEqualTo(before);
+      // The buffer reused by the thread must not leak into the next encoding
+      assertThat(GZIPUtils.decodeString(GZIPUtils.encodeJSON("a", encType), encType))
+          .isEqualTo("\"a\"");
+    }
+  }
+
+  @Test
+  public void testEmptyData() throws Exception {
+    for (final EncodingType encType : EncodingType.values()) {
+      assertThat(GZIPUtils.decodeBytes(GZIPUtils.encodeBytes(new byte[0], encType), encType))
+          .isEmpty();
+    }
+  }
+
+  @Test
+  public void testCorruptedBlock() throws Exception {
+    final byte[] encoded = GZIPUtils.encodeString(JSON, EncodingType.LZ4);
+    assertThatThrownBy(() -> GZIPUtils.decodeBytes(Arrays.copyOf(encoded, 2), EncodingType.LZ4))
+        .isInstanceOf(IOException.class);
+  }
+
+  @Test
+  public void testFromName() {
+    assertThat(EncodingType.fromName(" zstd")).isEqualTo(EncodingType.ZSTD);
+    assertThatThrownBy(() -> EncodingType.fromName("snappy"))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2020 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package azkaban.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.After;
+import org.junit.Test;
+
+public class JobThreadsTest {
+
+  @After
+  public void tearDown() {
+    JobThreads.setVirtualThreadsEnabled(false);
+  }
+
+  @Test
+  public void testPlatformThreadsByDefault() throws Exception {
+    assertThat(JobThreads.isVirtualThreadsEnabled()).isFalse();
+    assertThreadRuns();
+  }
+
+  @Test
+  public void testVirtualThreadsOnlyIfSupported() throws Exception {
+    assertThat(JobThreads.setVirtualThreadsEnabled(true))
+        .isEqualTo(JobThreads.isVirtualThreadSupported());
+    assertThreadRuns();
+  }
+
+  private static void assertThreadRuns() throws InterruptedException {
+    final AtomicBoolean ran = new AtomicBoolean();
+    final Thread thread = JobThreads.newThread("test-thread", () -> ran.set(true));
+    assertThat(thread.getName()).isEqualTo("test-thread");
+    thread.start();
+    thread.join(10000);
+    assertThat(ran.get()).isTrue();
+
+    final Thread pooledThread = JobThreads.newThreadFactory("test-pool-").newThread(() -> {
+    });
+    assertThat(pooledThread.getName()).isEqualTo("test-pool-0");
+  }
+}
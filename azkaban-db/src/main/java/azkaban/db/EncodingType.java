@@ -17,12 +17,16 @@
 package azkaban.db;
 
 /**
- * Used for when we store text data. Plain uses UTF8 encoding.
+ * Used for when we store text data. Plain uses UTF8 encoding. The other types are UTF8 text
+ * compressed with the named codec.
+ *
+ * LZ4 is much cheaper to compress and decompress than GZIP, at a lower ratio, and is meant for
+ * data rewritten often such as running flows. ZSTD compresses about as well as GZIP, faster.
  */
 // TODO kunkun-tang: This class needs to move to azkaban-db module, as database module should be
 // Deprecated soon.
 public enum EncodingType {
-  PLAIN(1), GZIP(2);
+  PLAIN(1), GZIP(2), LZ4(3), ZSTD(4);
 
   private final int numVal;
 
@@ -36,11 +40,23 @@ public enum EncodingType {
         return PLAIN;
       case 2:
         return GZIP;
+      case 3:
+        return LZ4;
+      case 4:
+        return ZSTD;
       default:
         return PLAIN;
     }
   }
 
+  /**
+   * @param name the name of the type, case insensitive. e.g. "lz4"
+   * @throws IllegalArgumentException if there is no type with this name
+   */
+  public static EncodingType fromName(final String name) {
+    return valueOf(name.trim().toUpperCase());
+  }
+
   public int getNumVal() {
     return this.numVal;
   }
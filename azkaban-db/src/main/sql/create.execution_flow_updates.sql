@@ -0,0 +1,13 @@
+-- In table execution_flow_updates, each row is a compact delta of the nodes of a running
+-- execution which changed since the previous write. The full snapshot is still kept in
+-- execution_flows.flow_data and the deltas it supersedes are purged whenever it is rewritten.
+
+CREATE TABLE execution_flow_updates (
+  exec_id     INT    NOT NULL,
+  update_time BIGINT NOT NULL,
+  enc_type    TINYINT,
+  update_data LONGBLOB
+);
+
+CREATE INDEX ex_flow_updates_exec_id
+  ON execution_flow_updates (exec_id, update_time);
@@ -0,0 +1,20 @@
+-- In table execution_log_segments, each row locates a gzipped segment of a log stored by the
+-- FILESYSTEM log storage. All the segments of a stored part of a log are in the file named after
+-- exec_id, name, attempt and file_start_byte, at file_offset.
+
+CREATE TABLE execution_log_segments (
+  exec_id         INT          NOT NULL,
+  name            VARCHAR(640) NOT NULL,
+  attempt         INT          NOT NULL,
+  start_byte      INT          NOT NULL,
+  end_byte        INT          NOT NULL,
+  enc_type        TINYINT,
+  file_start_byte INT          NOT NULL,
+  file_offset     BIGINT       NOT NULL,
+  file_length     INT          NOT NULL,
+  upload_time     BIGINT,
+  PRIMARY KEY (exec_id, name, attempt, start_byte)
+);
+
+CREATE INDEX ex_log_segments_upload_time
+  ON execution_log_segments (upload_time);
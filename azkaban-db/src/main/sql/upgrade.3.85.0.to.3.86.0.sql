@@ -0,0 +1,31 @@
+-- DB Migration from release 3.85.0 to 3.86.0
+-- Adding execution_flow_updates to persist running flow status changes as deltas instead of
+-- rewriting the whole flow_data blob.
+CREATE TABLE execution_flow_updates (
+  exec_id     INT    NOT NULL,
+  update_time BIGINT NOT NULL,
+  enc_type    TINYINT,
+  update_data LONGBLOB
+);
+
+CREATE INDEX ex_flow_updates_exec_id
+  ON execution_flow_updates (exec_id, update_time);
+
+-- Adding execution_log_segments to index the logs stored in a file system instead of the
+-- execution_logs table.
+CREATE TABLE execution_log_segments (
+  exec_id         INT          NOT NULL,
+  name            VARCHAR(640) NOT NULL,
+  attempt         INT          NOT NULL,
+  start_byte      INT          NOT NULL,
+  end_byte        INT          NOT NULL,
+  enc_type        TINYINT,
+  file_start_byte INT          NOT NULL,
+  file_offset     BIGINT       NOT NULL,
+  file_length     INT          NOT NULL,
+  upload_time     BIGINT,
+  PRIMARY KEY (exec_id, name, attempt, start_byte)
+);
+
+CREATE INDEX ex_log_segments_upload_time
+  ON execution_log_segments (upload_time);
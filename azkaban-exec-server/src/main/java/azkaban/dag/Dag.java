@@ -20,7 +20,9 @@ import static java.util.Objects.requireNonNull;
 
 import com.google.common.annotations.VisibleForTesting;
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * A DAG (Directed acyclic graph) consists of {@link Node}s.
@@ -32,9 +34,14 @@ public class Dag {
 
   private final String name;
   private final DagProcessor dagProcessor;
-  private final List<Node> nodes = new ArrayList<>();
+  private final Set<Node> nodes = new LinkedHashSet<>();
   private Status status = Status.READY;
 
+  // Kept up to date by the nodes as their status changes so that checking if the dag has finished
+  // doesn't require a scan of all the nodes.
+  private int numNonTerminalNodes = 0;
+  private int numFailedNodes = 0;
+
   Dag(final String name, final DagProcessor dagProcessor) {
     requireNonNull(name, "The name of the Dag can't be null");
     this.name = name;
@@ -57,7 +64,26 @@ public class Dag {
    */
   void addNode(final Node node) {
     assert (node.getDag() == this);
-    this.nodes.add(node);
+    if (this.nodes.add(node)) {
+      countNodeStatus(node.getStatus(), 1);
+    }
+  }
+
+  /**
+   * Updates the node counters when a node changes its status.
+   */
+  void updateNodeStatusCounts(final Status oldStatus, final Status newStatus) {
+    countNodeStatus(oldStatus, -1);
+    countNodeStatus(newStatus, 1);
+  }
+
+  private void countNodeStatus(final Status status, final int delta) {
+    if (!status.isTerminal()) {
+      this.numNonTerminalNodes += delta;
+    }
+    if (status == Status.FAILURE) {
+      this.numFailedNodes += delta;
+    }
   }
 
   void start() {
@@ -91,21 +117,12 @@ public class Dag {
    * <p>If any node has not reached its terminal state, this method will simply return.
    */
   void updateDagStatus() {
-    // A dag may have nodes that are disabled. It's safer to scan all the nodes.
-    // Assume the overhead is minimal. If it is not the case, we can optimize later.
-    boolean failed = false;
-    for (final Node node : this.nodes) {
-      final Status nodeStatus = node.getStatus();
-      if (!nodeStatus.isTerminal()) {
-        return;
-      }
-      if (nodeStatus == Status.FAILURE) {
-        failed = true;
-      }
+    if (this.numNonTerminalNodes > 0) {
+      return;
     }
 
     // Update the dag status only after all nodes have reached terminal states.
-    updateDagStatusInternal(failed);
+    updateDagStatusInternal(this.numFailedNodes > 0);
   }
 
   /**
@@ -156,6 +173,6 @@ public class Dag {
 
   @VisibleForTesting
   public List<Node> getNodes() {
-    return this.nodes;
+    return new ArrayList<>(this.nodes);
   }
 }
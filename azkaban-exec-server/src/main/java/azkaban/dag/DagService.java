@@ -22,6 +22,7 @@ import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.time.Duration;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.ThreadFactory;
 import javax.inject.Inject;
 import javax.inject.Singleton;
@@ -85,6 +86,13 @@ public class DagService {
     this.executorService.submit(dag::kill);
   }
 
+  /**
+   * Runs a task on the dag thread, after the transitions submitted before it.
+   */
+  public Future<?> submit(final Runnable task) {
+    return this.executorService.submit(task);
+  }
+
   /**
    * Shuts down the service and waits for the tasks to finish.
    */
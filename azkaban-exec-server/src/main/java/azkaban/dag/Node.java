@@ -39,6 +39,10 @@ public class Node {
 
   private Status status = Status.READY;
 
+  // The number of parents that are not effectively successful. The node can run when it drops to
+  // zero, so a finishing parent doesn't need to check the other parents of its children.
+  private int numPendingParents = 0;
+
   private final Dag dag;
 
   Node(final String name, final NodeProcessor nodeProcessor, final Dag dag) {
@@ -64,6 +68,9 @@ public class Node {
   void addParent(final Node node) {
     this.parents.add(node);
     node.addChild(this);
+    if (!node.status.isSuccessEffectively()) {
+      this.numPendingParents++;
+    }
   }
 
   private void addChild(final Node node) {
@@ -80,16 +87,8 @@ public class Node {
    * @return true if the node is ready to run
    */
   private boolean isReady() {
-    if (this.status != Status.READY) {
-      // e.g. if the node is disabled, it is not ready to run.
-      return false;
-    }
-    for (final Node parent : this.parents) {
-      if (!parent.status.isSuccessEffectively()) {
-        return false;
-      }
-    }
-    return true;
+    // e.g. if the node is disabled, it is not ready to run.
+    return this.status == Status.READY && this.numPendingParents == 0;
   }
 
   /**
@@ -147,10 +146,25 @@ public class Node {
   }
 
   private void changeStatus(final Status status) {
-    this.status = status;
+    updateStatus(status);
     this.nodeProcessor.changeStatus(this, this.status);
   }
 
+  /**
+   * Updates the status and the counters that depend on it in the children and the dag.
+   */
+  private void updateStatus(final Status status) {
+    final Status oldStatus = this.status;
+    this.status = status;
+    if (oldStatus.isSuccessEffectively() != status.isSuccessEffectively()) {
+      final int delta = status.isSuccessEffectively() ? -1 : 1;
+      for (final Node child : this.children) {
+        child.numPendingParents += delta;
+      }
+    }
+    this.dag.updateNodeStatusCounts(oldStatus, status);
+  }
+
   /**
    * Kills a node.
    *
@@ -189,7 +203,7 @@ public class Node {
 
   @VisibleForTesting
   void setStatus(final Status status) {
-    this.status = status;
+    updateStatus(status);
   }
 
   String getName() {
@@ -0,0 +1,202 @@
+/*
+ * Copyright 2020 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package azkaban.execapp;
+
+import azkaban.spi.DependencyFile;
+import azkaban.utils.DependencyTransferManager;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.Striped;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.Lock;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Content-addressed store of the startup dependencies of thin archives, shared by the projects in
+ * the project cache.
+ *
+ * <p>Each dependency is downloaded once into the store, in a file named by its SHA1, and hard
+ * linked into every project dir which needs it. A new version of a project whose dependencies
+ * didn't change is installed without downloading any of them. A dependency is downloaded by one
+ * thread at a time, the others needing it wait for it.
+ *
+ * <p>A stored dependency isn't referenced anymore when its only link is the one of the store, i.e.
+ * once the {@link ProjectCacheCleaner} deleted the least recently used projects and the execution
+ * dirs which linked it. Such dependencies are deleted before the cleaner runs again.
+ */
+class DependencyCache {
+
+  static final String DEPENDENCY_CACHE_DIR_NAME = "_dependencies";
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(DependencyCache.class);
+  private static final int DEPENDENCY_LOCK_STRIPES = 64;
+  private static final String TEMP_FILE_PREFIX = "_temp.";
+
+  private final File cacheDir;
+  private final DependencyTransferManager dependencyTransferManager;
+  // Held while a dependency is downloaded into the store
+  private final Striped<Lock> dependencyLocks = Striped.lock(DEPENDENCY_LOCK_STRIPES);
+
+  DependencyCache(final File projectCacheDir,
+      final DependencyTransferManager dependencyTransferManager) {
+    Preconditions.checkArgument(projectCacheDir.exists());
+    // Not a project dir, so it isn't deleted by the project cache cleaner
+    this.cacheDir = new File(projectCacheDir, DEPENDENCY_CACHE_DIR_NAME);
+    this.cacheDir.mkdirs();
+    this.dependencyTransferManager = dependencyTransferManager;
+  }
+
+  /**
+   * Links the dependencies to their files, downloading the ones which aren't stored yet.
+   *
+   * @param deps the dependencies and the files of the project dir to link them to
+   */
+  void installDependencies(final Set<DependencyFile> deps) throws IOException {
+    if (deps.isEmpty()) {
+      return;
+    }
+    downloadMissingDependencies(deps);
+
+    for (final DependencyFile dep : deps) {
+      try {
+        linkDependency(dep);
+      } catch (final NoSuchFileException e) {
+        // Deleted as unreferenced in the meantime
+        LOGGER.info("Dependency {} was deleted from the dependency cache, downloading it again",
+            dep.getFileName());
+        downloadMissingDependencies(Collections.singleton(dep));
+        linkDependency(dep);
+      }
+    }
+  }
+
+  private void downloadMissingDependencies(final Set<DependencyFile> deps) throws IOException {
+    final Set<String> missingHashes = deps.stream()
+        .map(DependencyFile::getSHA1)
+        .filter(sha1 -> !getStoredFile(sha1).exists())
+        .collect(Collectors.toSet());
+    if (missingHashes.isEmpty()) {
+      return;
+    }
+
+    // Striped orders the locks, so that threads locking overlapping sets don't deadlock
+    final List<Lock> locks = new ArrayList<>();
+    for (final Lock lock : this.dependencyLocks.bulkGet(missingHashes)) {
+      lock.lock();
+      locks.add(lock);
+    }
+    final Map<String, File> tempFiles = new HashMap<>();
+    try {
+      final Set<DependencyFile> toDownload = new HashSet<>();
+      for (final DependencyFile dep : deps) {
+        final String sha1 = dep.getSHA1();
+        // Skip the ones another thread downloaded while this one waited for the locks
+        if (missingHashes.contains(sha1) && !getStoredFile(sha1).exists()
+            && !tempFiles.containsKey(sha1)) {
+          final File tempFile = new File(this.cacheDir,
+              TEMP_FILE_PREFIX + sha1 + "." + UUID.randomUUID());
+          tempFiles.put(sha1, tempFile);
+          toDownload.add(dep.makeDependencyFile(tempFile));
+        }
+      }
+      if (toDownload.isEmpty()) {
+        return;
+      }
+
+      final long start = System.currentTimeMillis();
+      // Validates the SHA1 of the downloaded files
+      this.dependencyTransferManager.downloadAllDependencies(toDownload);
+      for (final Map.Entry<String, File> tempFile : tempFiles.entrySet()) {
+        Files.move(tempFile.getValue().toPath(), getStoredFile(tempFile.getKey()).toPath(),
+            StandardCopyOption.ATOMIC_MOVE);
+      }
+      LOGGER.info("Downloading {} dependencies into the dependency cache completed in {} msec(s)",
+          toDownload.size(), System.currentTimeMillis() - start);
+    } finally {
+      for (final File tempFile : tempFiles.values()) {
+        Files.deleteIfExists(tempFile.toPath());
+      }
+      for (final Lock lock : locks) {
+        lock.unlock();
+      }
+    }
+  }
+
+  private void linkDependency(final DependencyFile dep) throws IOException {
+    final File storedFile = getStoredFile(dep.getSHA1());
+    dep.getFile().getParentFile().mkdirs();
+    try {
+      Files.createLink(dep.getFile().toPath(), storedFile.toPath());
+    } catch (final FileAlreadyExistsException e) {
+      // Listed twice, or shipped in the archive as well
+      LOGGER.warn("Dependency {} already exists in the project dir", dep.getFile());
+    }
+  }
+
+  /**
+   * Deletes the stored dependencies which no project or execution dir links anymore. A dependency
+   * deleted while a project is about to link it is downloaded again by that project.
+   *
+   * @return the number of deleted dependencies
+   */
+  int deleteUnreferencedDependencies() {
+    final File[] storedFiles = Objects.requireNonNull(this.cacheDir.listFiles());
+    int deleted = 0;
+    for (final File storedFile : storedFiles) {
+      if (storedFile.getName().startsWith(TEMP_FILE_PREFIX)) {
+        continue;
+      }
+      try {
+        if (getLinkCount(storedFile) <= 1 && storedFile.delete()) {
+          deleted++;
+        }
+      } catch (final IOException | UnsupportedOperationException | IllegalArgumentException e) {
+        LOGGER.warn("Error reading the link count of dependency {}", storedFile, e);
+      }
+    }
+    if (deleted > 0) {
+      LOGGER.info("Deleted {} unreferenced dependencies from the dependency cache", deleted);
+    }
+    return deleted;
+  }
+
+  @VisibleForTesting
+  int getLinkCount(final File file) throws IOException {
+    return (Integer) Files.getAttribute(file.toPath(), "unix:nlink");
+  }
+
+  @VisibleForTesting
+  File getStoredFile(final String sha1) {
+    return new File(this.cacheDir, sha1);
+  }
+}
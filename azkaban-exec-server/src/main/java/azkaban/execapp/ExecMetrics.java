@@ -18,6 +18,7 @@ package azkaban.execapp;
 
 import azkaban.execapp.metric.ProjectCacheHitRatio;
 import azkaban.metrics.MetricsManager;
+import com.codahale.metrics.Histogram;
 import com.codahale.metrics.Timer;
 import javax.inject.Inject;
 import javax.inject.Singleton;
@@ -30,11 +31,26 @@ public class ExecMetrics {
   public static final String NUM_RUNNING_FLOWS_NAME = "EXEC-NumRunningFlows";
   public static final String NUM_QUEUED_FLOWS_NAME = "EXEC-NumQueuedFlows";
   public static final String PROJECT_DIR_CACHE_HIT_RATIO_NAME = "EXEC-ProjectDirCacheHitRatio";
+  public static final String PROJECT_PREFETCH_HIT_RATIO_NAME = "EXEC-ProjectPrefetchHitRatio";
   public static final String FLOW_SETUP_TIMER_NAME = "EXEC-flow-setup-timer";
+  public static final String STATUS_UPDATE_QUEUE_DEPTH_NAME = "EXEC-StatusUpdateQueueDepth";
+  public static final String STATUS_UPDATE_COALESCE_RATIO_NAME = "EXEC-StatusUpdateCoalesceRatio";
+  public static final String STATUS_UPDATE_FLUSH_TIMER_NAME = "EXEC-status-update-flush-timer";
+  public static final String NUM_RUNNING_JOBS_NAME = "EXEC-NumRunningJobs";
+  public static final String NUM_QUEUED_JOBS_NAME = "EXEC-NumQueuedJobs";
+  public static final String JOB_QUEUE_WAIT_HISTOGRAM_NAME = "EXEC-job-queue-wait-ms";
+  public static final String FLOW_PREP_WAIT_HISTOGRAM_NAME = "EXEC-flow-prep-wait-ms";
+  public static final String FLOW_PREP_WORK_HISTOGRAM_NAME = "EXEC-flow-prep-work-ms";
 
   private final MetricsManager metricsManager;
   private Timer flowSetupTimer;
+  private final Timer statusUpdateFlushTimer;
+  private final Histogram jobQueueWaitHistogram;
+  private final Histogram flowPrepWaitHistogram;
+  private final Histogram flowPrepWorkHistogram;
   private final ProjectCacheHitRatio projectCacheHitRatio;
+  // Of the flows which found their project not cached beforehand, ratio of prefetched ones
+  private final ProjectCacheHitRatio projectPrefetchHitRatio;
 
   @Inject
   ExecMetrics(final MetricsManager metricsManager) {
@@ -43,13 +59,34 @@ public class ExecMetrics {
     this.projectCacheHitRatio = new ProjectCacheHitRatio();
     metricsManager.addGauge("EXEC-ProjectDirCacheHitRatio",
         this.projectCacheHitRatio::getRatio);
+    this.projectPrefetchHitRatio = new ProjectCacheHitRatio();
+    metricsManager.addGauge(PROJECT_PREFETCH_HIT_RATIO_NAME,
+        this.projectPrefetchHitRatio::getRatio);
     this.flowSetupTimer = this.metricsManager.addTimer(FLOW_SETUP_TIMER_NAME);
+    this.statusUpdateFlushTimer = this.metricsManager.addTimer(STATUS_UPDATE_FLUSH_TIMER_NAME);
+    this.jobQueueWaitHistogram = this.metricsManager.addHistogram(JOB_QUEUE_WAIT_HISTOGRAM_NAME);
+    this.flowPrepWaitHistogram = this.metricsManager.addHistogram(FLOW_PREP_WAIT_HISTOGRAM_NAME);
+    this.flowPrepWorkHistogram = this.metricsManager.addHistogram(FLOW_PREP_WORK_HISTOGRAM_NAME);
   }
 
   ProjectCacheHitRatio getProjectCacheHitRatio() {
     return this.projectCacheHitRatio;
   }
 
+  /**
+   * Records a flow which used a project prefetched for it.
+   */
+  public void markProjectPrefetchHit() {
+    this.projectPrefetchHitRatio.markHit();
+  }
+
+  /**
+   * Records a flow which had to download its project.
+   */
+  public void markProjectPrefetchMiss() {
+    this.projectPrefetchHitRatio.markMiss();
+  }
+
   public void addFlowRunnerManagerMetrics(final FlowRunnerManager flowRunnerManager) {
     this.metricsManager
         .addGauge(NUM_RUNNING_FLOWS_NAME, flowRunnerManager::getNumRunningFlows);
@@ -57,8 +94,49 @@ public class ExecMetrics {
         .addGauge(NUM_QUEUED_FLOWS_NAME, flowRunnerManager::getNumQueuedFlows);
   }
 
+  public void addStatusUpdateBufferMetrics(final StatusUpdateBuffer statusUpdateBuffer) {
+    this.metricsManager
+        .addGauge(STATUS_UPDATE_QUEUE_DEPTH_NAME, statusUpdateBuffer::getQueueDepth);
+    this.metricsManager
+        .addGauge(STATUS_UPDATE_COALESCE_RATIO_NAME, statusUpdateBuffer::getCoalesceRatio);
+  }
+
+  public void addJobSchedulerMetrics(final JobScheduler jobScheduler) {
+    this.metricsManager.addGauge(NUM_RUNNING_JOBS_NAME, jobScheduler::getNumRunningJobs);
+    this.metricsManager.addGauge(NUM_QUEUED_JOBS_NAME, jobScheduler::getNumQueuedJobs);
+  }
+
+  /**
+   * Records the time a job waited in the job scheduler before it started running.
+   */
+  public void addJobQueueWait(final long waitTimeMs) {
+    this.jobQueueWaitHistogram.update(waitTimeMs);
+  }
+
+  /**
+   * Records the time a flow preparation waited for the locks of the project cache.
+   */
+  public void addFlowPrepWait(final long waitTimeMs) {
+    this.flowPrepWaitHistogram.update(waitTimeMs);
+  }
+
+  /**
+   * Records the time a flow preparation spent downloading the project and setting up the
+   * execution dir.
+   */
+  public void addFlowPrepWork(final long workTimeMs) {
+    this.flowPrepWorkHistogram.update(workTimeMs);
+  }
+
   /**
    * @return the {@link Timer.Context} for the timer.
    */
   public Timer.Context getFlowSetupTimerContext() { return this.flowSetupTimer.time(); }
+
+  /**
+   * @return the {@link Timer.Context} for the status update flush timer.
+   */
+  public Timer.Context getStatusUpdateFlushTimerContext() {
+    return this.statusUpdateFlushTimer.time();
+  }
 }
@@ -0,0 +1,189 @@
+/*
+ * Copyright 2020 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package azkaban.execapp;
+
+import azkaban.dag.Dag;
+import azkaban.dag.DagBuilder;
+import azkaban.dag.DagService;
+import azkaban.dag.Node;
+import azkaban.dag.NodeProcessor;
+import azkaban.dag.Status;
+import azkaban.executor.ExecutableFlow;
+import azkaban.executor.ExecutableFlowBase;
+import azkaban.executor.ExecutableNode;
+import com.google.common.util.concurrent.Uninterruptibles;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Mirrors an {@link ExecutableFlow} as a {@link Dag} so that the jobs of the flow are started by
+ * the event driven {@link DagService} instead of by rescanning the flow graph.
+ *
+ * <p>Every job becomes a dag node. An embedded flow becomes two dag nodes: one that starts the
+ * embedded flow and one that finalizes it once all of its nodes are done. The start node is a
+ * parent of the start nodes of the embedded flow, the end nodes of the embedded flow are the
+ * parents of the finalizing node.
+ *
+ * <p>A dag node only tells when all the dependencies of an azkaban node are done, whatever their
+ * status is. The {@link Listener} decides if the node runs, is skipped or is canceled and marks
+ * the dag node as done once the azkaban node has finished. This way conditions on job status and
+ * failure actions behave the same as when the flow graph is rescanned.
+ */
+public class ExecutableFlowDag {
+
+  private static final String FLOW_END_SUFFIX = " (end)";
+
+  private final DagService dagService;
+  private final Listener listener;
+  private final DagBuilder dagBuilder;
+  private final Map<String, Node> nodes = new HashMap<>();
+  private final Dag dag;
+
+  public ExecutableFlowDag(final ExecutableFlow flow, final DagService dagService,
+      final Listener listener) {
+    this.dagService = dagService;
+    this.listener = listener;
+    this.dagBuilder = new DagBuilder(String.valueOf(flow.getExecutionId()),
+        (dag, status) -> {
+          if (status == Status.SUCCESS) {
+            listener.onFlowDone();
+          }
+        });
+    addNodes(flow, null);
+    this.dag = this.dagBuilder.build();
+  }
+
+  public void start() {
+    this.dagService.startDag(this.dag);
+  }
+
+  /**
+   * Marks a job as done. For an embedded flow, marks the node that starts the flow as done so that
+   * the start nodes of the embedded flow can be checked.
+   */
+  public void markNodeDone(final ExecutableNode node) {
+    this.dagService.markNodeSuccess(this.nodes.get(node.getNestedId()));
+  }
+
+  /**
+   * Marks an embedded flow as finalized so that the nodes depending on it can be checked.
+   */
+  public void markEmbeddedFlowDone(final ExecutableFlowBase flow) {
+    this.dagService.markNodeSuccess(this.nodes.get(getEndNodeName(flow)));
+  }
+
+  /**
+   * Waits for the transitions of the nodes marked so far, so that the listener was called for all
+   * the nodes they made ready.
+   */
+  public void awaitPendingTransitions() throws ExecutionException {
+    Uninterruptibles.getUninterruptibly(this.dagService.submit(() -> {
+    }));
+  }
+
+  public int getNumNodes() {
+    return this.nodes.size();
+  }
+
+  /**
+   * Adds the nodes of a flow and their dependencies.
+   *
+   * @param flow the flow
+   * @param flowStartNodeName the name of the node that starts the flow, null for the root flow
+   */
+  private void addNodes(final ExecutableFlowBase flow, final String flowStartNodeName) {
+    for (final ExecutableNode node : flow.getExecutableNodes()) {
+      addNode(node.getNestedId(), (dagNode, status) -> {
+        if (status == Status.RUNNING) {
+          this.listener.onNodeReady(node);
+        }
+      });
+      if (node instanceof ExecutableFlowBase) {
+        final ExecutableFlowBase embeddedFlow = (ExecutableFlowBase) node;
+        addNode(getEndNodeName(embeddedFlow), (dagNode, status) -> {
+          if (status == Status.RUNNING) {
+            this.listener.onEmbeddedFlowReady(embeddedFlow);
+          }
+        });
+        addNodes(embeddedFlow, embeddedFlow.getNestedId());
+      }
+    }
+
+    for (final ExecutableNode node : flow.getExecutableNodes()) {
+      if (node.getInNodes().isEmpty() && flowStartNodeName != null) {
+        this.dagBuilder.addParentNode(node.getNestedId(), flowStartNodeName);
+      }
+      for (final String inNodeId : node.getInNodes()) {
+        this.dagBuilder.addParentNode(node.getNestedId(),
+            getExitNodeName(flow.getExecutableNode(inNodeId)));
+      }
+      if (node instanceof ExecutableFlowBase) {
+        addEndNodeParents((ExecutableFlowBase) node);
+      }
+    }
+  }
+
+  private void addEndNodeParents(final ExecutableFlowBase embeddedFlow) {
+    final String endNodeName = getEndNodeName(embeddedFlow);
+    if (embeddedFlow.getEndNodes().isEmpty()) {
+      this.dagBuilder.addParentNode(endNodeName, embeddedFlow.getNestedId());
+    }
+    for (final String endNodeId : embeddedFlow.getEndNodes()) {
+      this.dagBuilder
+          .addParentNode(endNodeName, getExitNodeName(embeddedFlow.getExecutableNode(endNodeId)));
+    }
+  }
+
+  private void addNode(final String name, final NodeProcessor nodeProcessor) {
+    this.nodes.put(name, this.dagBuilder.createNode(name, nodeProcessor));
+  }
+
+  /**
+   * @return the name of the dag node that is done when the azkaban node is finished.
+   */
+  private static String getExitNodeName(final ExecutableNode node) {
+    return node instanceof ExecutableFlowBase ? getEndNodeName((ExecutableFlowBase) node)
+        : node.getNestedId();
+  }
+
+  private static String getEndNodeName(final ExecutableFlowBase flow) {
+    return flow.getNestedId() + FLOW_END_SUFFIX;
+  }
+
+  /**
+   * Receives the dag events. The calls are made from the single thread of the {@link DagService},
+   * so implementations should hand the work off to another thread.
+   */
+  public interface Listener {
+
+    /**
+     * All the dependencies of a job or an embedded flow are done.
+     */
+    void onNodeReady(ExecutableNode node);
+
+    /**
+     * All the nodes of an embedded flow are done, the embedded flow can be finalized.
+     */
+    void onEmbeddedFlowReady(ExecutableFlowBase flow);
+
+    /**
+     * All the nodes of the flow are done, the flow can be finalized.
+     */
+    void onFlowDone();
+  }
+}
@@ -24,6 +24,7 @@ import azkaban.executor.ExecutableFlowBase;
 import azkaban.executor.Executor;
 import azkaban.executor.ExecutorLoader;
 import azkaban.executor.ExecutorManagerException;
+import azkaban.executor.LogSearcher;
 import azkaban.utils.FileIOUtils.JobMetaData;
 import azkaban.utils.FileIOUtils.LogData;
 import azkaban.utils.JSONUtils;
@@ -120,6 +121,9 @@ public class ExecutorServlet extends HttpServlet implements ConnectorParams {
           setActive(false, respMap);
         } else if (action.equals(ConnectorParams.SHUTDOWN)) {
           shutdown(respMap);
+        } else if (action.equals(ConnectorParams.WORK_AVAILABLE_ACTION)) {
+          this.flowRunnerManager.notifyWorkAvailable();
+          respMap.put(ConnectorParams.STATUS_PARAM, ConnectorParams.RESPONSE_SUCCESS);
         } else {
           final int execid = Integer.parseInt(getParam(req, ConnectorParams.EXECID_PARAM));
           final String user = getParam(req, ConnectorParams.USER_PARAM, null);
@@ -130,6 +134,8 @@ public class ExecutorServlet extends HttpServlet implements ConnectorParams {
             handleFetchMetaDataEvent(execid, req, resp, respMap);
           } else if (action.equals(ConnectorParams.LOG_ACTION)) {
             handleFetchLogEvent(execid, req, resp, respMap);
+          } else if (action.equals(ConnectorParams.SEARCH_LOG_ACTION)) {
+            handleSearchLogEvent(execid, req, respMap);
           } else if (action.equals(ConnectorParams.ATTACHMENTS_ACTION)) {
             handleFetchAttachmentsEvent(execid, req, resp, respMap);
           } else if (action.equals(ConnectorParams.EXECUTE_ACTION)) {
@@ -183,13 +189,13 @@ public class ExecutorServlet extends HttpServlet implements ConnectorParams {
       final HttpServletResponse resp, final Map<String, Object> respMap)
       throws ServletException {
     final String type = getParam(req, "type");
-    final int startByte = getIntParam(req, "offset");
     final int length = getIntParam(req, "length");
 
     resp.setContentType("text/plain");
     resp.setCharacterEncoding("utf-8");
 
     if (type.equals("flow")) {
+      final int startByte = getIntParam(req, "offset");
       final LogData result;
       try {
         result = this.flowRunnerManager.readFlowLogs(execId, startByte, length);
@@ -201,10 +207,13 @@ public class ExecutorServlet extends HttpServlet implements ConnectorParams {
     } else {
       final int attempt = getIntParam(req, "attempt", 0);
       final String jobId = getParam(req, "jobId");
+      // With tail=true the last bytes of the log are read, there is no offset
+      final boolean tail = Boolean.parseBoolean(getParam(req, "tail", "false"));
+      final int startByte = tail ? 0 : getIntParam(req, "offset");
       try {
-        final LogData result =
-            this.flowRunnerManager.readJobLogs(execId, jobId, attempt, startByte,
-                length);
+        final LogData result = tail
+            ? this.flowRunnerManager.readJobLogTail(execId, jobId, attempt, length)
+            : this.flowRunnerManager.readJobLogs(execId, jobId, attempt, startByte, length);
         respMap.putAll(result.toObject());
       } catch (final Exception e) {
         logger.error(e.getMessage(), e);
@@ -213,6 +222,26 @@ public class ExecutorServlet extends HttpServlet implements ConnectorParams {
     }
   }
 
+  private void handleSearchLogEvent(final int execId, final HttpServletRequest req,
+      final Map<String, Object> respMap) throws ServletException {
+    final String jobId = getParam(req, "jobId");
+    final int attempt = getIntParam(req, "attempt", 0);
+    final Map<String, String> params = new HashMap<>();
+    for (final String name : LogSearcher.Query.PARAM_NAMES) {
+      if (hasParam(req, name)) {
+        params.put(name, getParam(req, name));
+      }
+    }
+    try {
+      final LogSearcher.Result result = this.flowRunnerManager
+          .searchJobLogs(execId, jobId, attempt, LogSearcher.Query.fromParams(params));
+      respMap.putAll(result.toObject());
+    } catch (final Exception e) {
+      logger.error(e.getMessage(), e);
+      respMap.put(ConnectorParams.RESPONSE_ERROR, e.getMessage());
+    }
+  }
+
   private void handleFetchAttachmentsEvent(final int execId, final HttpServletRequest req,
       final HttpServletResponse resp, final Map<String, Object> respMap)
       throws ServletException {
@@ -30,19 +30,35 @@ import azkaban.storage.ProjectStorageManager;
 import azkaban.utils.DependencyTransferException;
 import azkaban.utils.DependencyTransferManager;
 import azkaban.utils.FileIOUtils;
+import azkaban.utils.Pair;
 import azkaban.utils.Utils;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.Striped;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.Uninterruptibles;
+import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.attribute.FileTime;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.stream.Collectors;
 import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
 import org.apache.commons.io.FileUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -54,6 +70,12 @@ class FlowPreparer {
   static final String PROJECT_DIR_SIZE_FILE_NAME = "___azkaban_project_dir_size_in_bytes___";
 
   private static final Logger LOGGER = LoggerFactory.getLogger(FlowPreparer.class);
+  private static final int PROJECT_LOCK_STRIPES = 64;
+  // A project installed for a flow is deleted by the cache clean-up only if the cache is very
+  // small compared to the projects, give up then.
+  private static final int MAX_SETUP_ATTEMPTS = 3;
+  // Execution id logged for the downloads of prefetched projects
+  private static final int PREFETCH_EXEC_ID = -1;
 
   // TODO spyne: move to config class
   private final File executionsDir;
@@ -62,16 +84,32 @@ class FlowPreparer {
   private final ProjectStorageManager projectStorageManager;
   // Null if cache clean-up is disabled
   private final Optional<ProjectCacheCleaner> projectCacheCleaner;
+  private final Optional<DependencyCache> dependencyCache;
   private final ProjectCacheHitRatio projectCacheHitRatio;
   private final DependencyTransferManager dependencyTransferManager;
+  private final ExecMetrics execMetrics;
+  // Extract project zips while they are downloaded
+  private final boolean streamingDownload;
+  // Downloads the startup dependencies while the project zip is extracted
+  private final ExecutorService dependencyDownloadService = Executors.newCachedThreadPool(
+      new ThreadFactoryBuilder().setNameFormat("azk-dependency-download-%d").setDaemon(true)
+          .build());
+  // Held while a project version is downloaded and installed
+  private final Striped<Lock> projectLocks = Striped.lock(PROJECT_LOCK_STRIPES);
+  // Write lock held while project dirs are deleted or added, read lock while they are hard linked
+  private final ReadWriteLock projectCacheLock = new ReentrantReadWriteLock();
+  // Dir names of the prefetched projects which no flow has used yet
+  private final Set<String> prefetchedProjects = ConcurrentHashMap.newKeySet();
 
   FlowPreparer(final ProjectStorageManager projectStorageManager, final DependencyTransferManager dependencyTransferManager,
-      final File projectsDir, final ProjectCacheCleaner cleaner, final ProjectCacheHitRatio projectCacheHitRatio,
-      final File executionsDir) {
+      final File projectsDir, final ProjectCacheCleaner cleaner, final DependencyCache dependencyCache,
+      final ProjectCacheHitRatio projectCacheHitRatio, final File executionsDir,
+      final ExecMetrics execMetrics, final boolean streamingDownload) {
     Preconditions.checkNotNull(projectStorageManager);
     Preconditions.checkNotNull(executionsDir);
     Preconditions.checkNotNull(projectsDir);
     Preconditions.checkNotNull(projectCacheHitRatio);
+    Preconditions.checkNotNull(execMetrics);
 
     Preconditions.checkArgument(projectsDir.exists());
     Preconditions.checkArgument(executionsDir.exists());
@@ -80,8 +118,11 @@ class FlowPreparer {
     this.executionsDir = executionsDir;
     this.projectCacheDir = projectsDir;
     this.projectCacheCleaner = Optional.ofNullable(cleaner);
+    this.dependencyCache = Optional.ofNullable(dependencyCache);
     this.projectCacheHitRatio = projectCacheHitRatio;
     this.dependencyTransferManager = dependencyTransferManager;
+    this.execMetrics = execMetrics;
+    this.streamingDownload = streamingDownload;
   }
 
   /**
@@ -105,57 +146,45 @@ class FlowPreparer {
   /**
    * Prepare the flow directory for execution.
    *
+   * <p>Flows of different projects, or of different versions of a project, are prepared
+   * concurrently. Only one of the concurrent preparations of a project version downloads it, the
+   * others wait for it.
+   *
    * @param flow Executable Flow instance.
    */
   void setup(final ExecutableFlow flow) throws ExecutorManagerException {
     final ProjectFileHandler projectFileHandler = null;
-    File tempDir = null;
     try {
       final ProjectDirectoryMetadata project = new ProjectDirectoryMetadata(
           flow.getProjectId(),
           flow.getVersion());
 
       final long flowPrepStartTime = System.currentTimeMillis();
+      final PrepTime prepTime = new PrepTime();
 
-      tempDir = downloadProjectIfNotExists(project, flow.getExecutionId());
-
-      LOGGER.info("Project is setup for execution {}", flow.getExecutionId());
-      // With synchronization, only one thread is allowed to proceed to avoid complicated race
-      // conditions which could arise when multiple threads are downloading/deleting/hard-linking
-      // the same project. But it doesn't prevent multiple executor processes interfering with each
-      // other triggering race conditions. So it's important to operationally make sure that only
-      // one executor process is setting up flow execution against the shared project directory.
-      long criticalSectionStartTime = -1;
       File execDir = null;
-
-      synchronized (this) {
-        LOGGER.info("Setting up execution dir for {}", flow.getExecutionId());
-        criticalSectionStartTime = System.currentTimeMillis();
-        if (!project.getInstalledDir().exists() && tempDir != null) {
-          // If new project is downloaded and project dir cache clean-up feature is enabled, then
-          // perform clean-up if size of all project dirs exceeds the cache size.
-          if (this.projectCacheCleaner.isPresent()) {
-            this.projectCacheCleaner.get()
-                .deleteProjectDirsIfNecessary(project.getDirSizeInByte());
+      for (int attempt = 1; execDir == null; attempt++) {
+        installProjectIfNotExists(project, flow.getExecutionId(), prepTime);
+        LOGGER.info("Project is setup for execution {}", flow.getExecutionId());
+        execDir = setupExecutionDirIfInstalled(project, flow, prepTime);
+        if (execDir == null) {
+          if (attempt >= MAX_SETUP_ATTEMPTS) {
+            throw new IOException("Project " + project + " was deleted by the project cache "
+                + "clean-up " + attempt + " times before the execution dir was set up");
           }
-          // Rename temp dir to a proper project directory name.
-          Files.move(tempDir.toPath(), project.getInstalledDir().toPath());
+          LOGGER.warn("Project {} was deleted by the project cache clean-up, installing it again."
+              + " ExecId: {}", project, flow.getExecutionId());
         }
-
-        final long start = System.currentTimeMillis();
-        execDir = setupExecutionDir(project.getInstalledDir(), flow);
-        final long end = System.currentTimeMillis();
-        LOGGER.info("Setting up execution dir {} took {} sec(s)", execDir, (end - start) / 1000);
       }
 
       final long flowPrepCompletionTime = System.currentTimeMillis();
-      LOGGER.info("Flow preparation completed in {} sec(s), out ot which {} sec(s) was spent inside "
-              + "critical section. [execid: {}, path: {}]",
-          (flowPrepCompletionTime - flowPrepStartTime) / 1000,
-          (flowPrepCompletionTime - criticalSectionStartTime) / 1000,
-          flow.getExecutionId(), execDir.getPath());
+      final long totalTime = flowPrepCompletionTime - flowPrepStartTime;
+      this.execMetrics.addFlowPrepWait(prepTime.waitMs);
+      this.execMetrics.addFlowPrepWork(totalTime - prepTime.waitMs);
+      LOGGER.info("Flow preparation completed in {} sec(s), out ot which {} sec(s) was spent "
+              + "waiting for locks. [execid: {}, path: {}]", totalTime / 1000,
+          prepTime.waitMs / 1000, flow.getExecutionId(), execDir.getPath());
     } catch (final Exception ex) {
-      FileIOUtils.deleteDirectorySilently(tempDir);
       LOGGER.error("Error in preparing flow execution {}", flow.getExecutionId(), ex);
       throw new ExecutorManagerException(ex);
     } finally {
@@ -165,6 +194,119 @@ class FlowPreparer {
     }
   }
 
+  /**
+   * Downloads and installs the project in the project cache, unless it is already installed.
+   * Holds the lock of the project version, so that a version is downloaded only once.
+   */
+  private void installProjectIfNotExists(final ProjectDirectoryMetadata project, final int execId,
+      final PrepTime prepTime) throws IOException {
+    final Lock projectLock = this.projectLocks.get(generateProjectDirName(project));
+    prepTime.lock(projectLock);
+    File tempDir = null;
+    try {
+      tempDir = downloadProjectIfNotExists(project, execId);
+      if (tempDir == null) {
+        return;
+      }
+
+      // Project dirs are only deleted or added while no execution dir is being set up.
+      prepTime.lock(this.projectCacheLock.writeLock());
+      try {
+        // If new project is downloaded and project dir cache clean-up feature is enabled, then
+        // perform clean-up if size of all project dirs exceeds the cache size.
+        if (this.projectCacheCleaner.isPresent()) {
+          // Dependencies are unreferenced once the projects linking them were deleted
+          this.dependencyCache.ifPresent(DependencyCache::deleteUnreferencedDependencies);
+          this.projectCacheCleaner.get()
+              .deleteProjectDirsIfNecessary(project.getDirSizeInByte());
+        }
+        // Rename temp dir to a proper project directory name.
+        Files.move(tempDir.toPath(), project.getInstalledDir().toPath());
+        tempDir = null;
+        this.projectCacheCleaner.ifPresent(cleaner -> cleaner.projectInstalled(project));
+      } finally {
+        this.projectCacheLock.writeLock().unlock();
+      }
+    } finally {
+      projectLock.unlock();
+      FileIOUtils.deleteDirectorySilently(tempDir);
+    }
+  }
+
+  /**
+   * Hard links the installed project to the execution dir. Execution dirs are set up
+   * concurrently, the clean-up of the project cache waits for them. But it may run between the
+   * installation of the project and this call.
+   *
+   * @return the execution dir, null if the project is not installed anymore.
+   */
+  private File setupExecutionDirIfInstalled(final ProjectDirectoryMetadata project,
+      final ExecutableFlow flow, final PrepTime prepTime) throws IOException {
+    prepTime.lock(this.projectCacheLock.readLock());
+    try {
+      if (!project.getInstalledDir().exists()) {
+        return null;
+      }
+      LOGGER.info("Setting up execution dir for {}", flow.getExecutionId());
+      final long start = System.currentTimeMillis();
+      final File execDir = setupExecutionDir(project.getInstalledDir(), flow);
+      final long end = System.currentTimeMillis();
+      LOGGER.info("Setting up execution dir {} took {} sec(s)", execDir, (end - start) / 1000);
+      return execDir;
+    } finally {
+      this.projectCacheLock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Downloads a project version into the project cache ahead of the flows which will run it.
+   *
+   * <p>Unlike the preparation of a flow, prefetching never makes room for the project in the
+   * cache: the project is discarded if it doesn't fit without evicting other projects.
+   *
+   * @return true if the project was installed, false if it already was or didn't fit.
+   * @throws IOException if downloading or unzipping fails.
+   */
+  boolean prefetchProject(final int projectId, final int version) throws IOException {
+    // Prefetched projects may have been evicted before any flow used them
+    this.prefetchedProjects.removeIf(dirName -> !new File(this.projectCacheDir, dirName).exists());
+
+    final ProjectDirectoryMetadata project = new ProjectDirectoryMetadata(projectId, version);
+    final String projectDirName = generateProjectDirName(project);
+    project.setInstalledDir(new File(this.projectCacheDir, projectDirName));
+
+    final Lock projectLock = this.projectLocks.get(projectDirName);
+    projectLock.lock();
+    File tempDir = null;
+    try {
+      if (project.getInstalledDir().exists()) {
+        return false;
+      }
+      LOGGER.info("Prefetching project {}", project);
+      tempDir = createTempDir(project);
+      downloadAndUnzipProject(project, PREFETCH_EXEC_ID, tempDir);
+
+      this.projectCacheLock.writeLock().lock();
+      try {
+        if (this.projectCacheCleaner.isPresent() && !this.projectCacheCleaner.get()
+            .hasRoomFor(project.getDirSizeInByte())) {
+          LOGGER.info("Discarding prefetched project {}, the project cache is full", project);
+          return false;
+        }
+        Files.move(tempDir.toPath(), project.getInstalledDir().toPath());
+        tempDir = null;
+        this.projectCacheCleaner.ifPresent(cleaner -> cleaner.projectInstalled(project));
+        this.prefetchedProjects.add(projectDirName);
+        return true;
+      } finally {
+        this.projectCacheLock.writeLock().unlock();
+      }
+    } finally {
+      projectLock.unlock();
+      FileIOUtils.deleteDirectorySilently(tempDir);
+    }
+  }
+
   private File setupExecutionDir(final File installedDir, final ExecutableFlow flow)
       throws IOException {
     File execDir = null;
@@ -211,6 +353,16 @@ class FlowPreparer {
   @VisibleForTesting
   void downloadAndUnzipProject(final ProjectDirectoryMetadata proj, final int execId, final File dest)
       throws IOException {
+    if (this.streamingDownload) {
+      final Pair<ProjectFileHandler, InputStream> projectFileStream = this.projectStorageManager
+          .getProjectFileStream(proj.getProjectId(), proj.getVersion());
+      if (projectFileStream != null) {
+        streamAndUnzipProject(proj, execId, dest, projectFileStream.getFirst(),
+            projectFileStream.getSecond());
+        return;
+      }
+    }
+
     final long start = System.currentTimeMillis();
     final ProjectFileHandler projectFileHandler = requireNonNull(this.projectStorageManager
         .getProjectFile(proj.getProjectId(), proj.getVersion()));
@@ -237,6 +389,63 @@ class FlowPreparer {
     }
   }
 
+  /**
+   * Extracts the project zip while it is downloaded, and downloads the startup dependencies at the
+   * same time. The dependencies are known from the DB, they don't need to wait for the archive.
+   */
+  private void streamAndUnzipProject(final ProjectDirectoryMetadata proj, final int execId,
+      final File dest, final ProjectFileHandler projectFileHandler, final InputStream projectStream)
+      throws IOException {
+    final long start = System.currentTimeMillis();
+    final Future<?> dependencyDownload;
+    try {
+      checkState("zip".equalsIgnoreCase(projectFileHandler.getFileType()));
+      dependencyDownload = this.dependencyDownloadService.submit(() -> {
+        downloadAllDependencies(proj, execId, dest, projectFileHandler.getStartupDependencies());
+        return null;
+      });
+    } catch (final RuntimeException e) {
+      ProjectStorageManager.closeAfterFailure(projectStream);
+      throw e;
+    }
+
+    try {
+      final ZipInputStream zip = new ZipInputStream(new BufferedInputStream(projectStream));
+      try {
+        Utils.unzip(zip, dest);
+      } catch (final IOException | RuntimeException e) {
+        // The rest of the archive isn't downloaded just to validate its checksum
+        ProjectStorageManager.closeAfterFailure(projectStream);
+        throw e;
+      }
+      // Closing the stream validates the checksum of the whole archive
+      zip.close();
+    } catch (final IOException | RuntimeException e) {
+      // Don't let the dependencies be written to dest while the caller deletes it
+      try {
+        awaitDependencyDownload(dependencyDownload);
+      } catch (final IOException | RuntimeException suppressed) {
+        e.addSuppressed(suppressed);
+      }
+      throw e;
+    }
+    LOGGER.info("Downloading and unzipping project {} when preparing execution [execid {}] "
+        + "completed in {} second(s)", proj, execId, (System.currentTimeMillis() - start) / 1000);
+
+    awaitDependencyDownload(dependencyDownload);
+    proj.setDirSizeInByte(calculateDirSizeAndSave(dest));
+  }
+
+  private static void awaitDependencyDownload(final Future<?> dependencyDownload)
+      throws IOException {
+    try {
+      Uninterruptibles.getUninterruptibly(dependencyDownload);
+    } catch (final ExecutionException e) {
+      Throwables.throwIfUnchecked(e.getCause());
+      throw new IOException(e.getCause());
+    }
+  }
+
   /**
    * Download necessary JAR dependencies from storage
    *
@@ -246,7 +455,7 @@ class FlowPreparer {
    * @param dependencies the set of dependencies to download
    */
   private void downloadAllDependencies(final ProjectDirectoryMetadata proj, final int execId, final File folder,
-      final Set<Dependency> dependencies) {
+      final Set<Dependency> dependencies) throws IOException {
     // Download all of the dependencies from storage
     LOGGER.info("Downloading {} JAR dependencies... Project: {}, ExecId: {}", dependencies.size(), proj, execId);
     Set<DependencyFile> depFiles = dependencies
@@ -256,7 +465,11 @@ class FlowPreparer {
 
     try {
       final long start = System.currentTimeMillis();
-      this.dependencyTransferManager.downloadAllDependencies(depFiles);
+      if (this.dependencyCache.isPresent()) {
+        this.dependencyCache.get().installDependencies(depFiles);
+      } else {
+        this.dependencyTransferManager.downloadAllDependencies(depFiles);
+      }
       LOGGER.info("Downloading {} JAR dependencies for project {} when preparing "
               + "execution [execid {}] completed in {} second(s)", dependencies.size(), proj, execId,
           (System.currentTimeMillis() - start) / 1000);
@@ -288,19 +501,30 @@ class FlowPreparer {
       LOGGER.info("Project {} already cached. Skipping download. ExecId: {}", proj, execId);
       // Hit the local cache.
       this.projectCacheHitRatio.markHit();
+      if (this.prefetchedProjects.remove(projectDir)) {
+        this.execMetrics.markProjectPrefetchHit();
+      }
       // Update last modified time of the file keeping project dir size when the project is
       // accessed. This last modified time will be used to determined least recently used
       // projects when performing project directory clean-up.
       updateLastModifiedTime(
           Paths.get(proj.getInstalledDir().getPath(), PROJECT_DIR_SIZE_FILE_NAME));
+      this.projectCacheCleaner
+          .ifPresent(cleaner -> cleaner.projectAccessed(proj.getInstalledDir()));
       return null;
     }
 
     this.projectCacheHitRatio.markMiss();
+    this.execMetrics.markProjectPrefetchMiss();
 
     // Download project to a temp dir if not exists in local cache.
     final File tempDir = createTempDir(proj);
-    downloadAndUnzipProject(proj, execId, tempDir);
+    try {
+      downloadAndUnzipProject(proj, execId, tempDir);
+    } catch (final IOException | RuntimeException e) {
+      FileIOUtils.deleteDirectorySilently(tempDir);
+      throw e;
+    }
 
     return tempDir;
   }
@@ -313,9 +537,24 @@ class FlowPreparer {
     return execDir;
   }
 
+  /**
+   * Time a flow preparation spent waiting for the locks.
+   */
+  private static class PrepTime {
+
+    private long waitMs;
+
+    void lock(final Lock lock) {
+      final long start = System.currentTimeMillis();
+      lock.lock();
+      this.waitMs += System.currentTimeMillis() - start;
+    }
+  }
+
   public void shutdown() {
     if (projectCacheCleaner.isPresent()) {
       this.projectCacheCleaner.get().shutdown();
     }
+    this.dependencyDownloadService.shutdownNow();
   }
 }
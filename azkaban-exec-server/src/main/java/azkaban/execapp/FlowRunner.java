@@ -28,6 +28,7 @@ import azkaban.Constants;
 import azkaban.Constants.ConfigurationKeys;
 import azkaban.Constants.JobProperties;
 import azkaban.ServiceProvider;
+import azkaban.dag.DagService;
 import azkaban.event.Event;
 import azkaban.event.EventData;
 import azkaban.event.EventHandler;
@@ -60,6 +61,7 @@ import azkaban.project.ProjectManagerException;
 import azkaban.sla.SlaOption;
 import azkaban.spi.AzkabanEventReporter;
 import azkaban.spi.EventType;
+import azkaban.utils.JobThreads;
 import azkaban.utils.Props;
 import azkaban.utils.SwapQueue;
 import com.google.common.annotations.VisibleForTesting;
@@ -83,10 +85,14 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.BlockingDeque;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
 import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import javax.script.ScriptEngine;
 import javax.script.ScriptEngineManager;
@@ -152,6 +158,21 @@ public class FlowRunner extends EventHandler implements Runnable {
   private volatile boolean flowFinished = false;
   private volatile boolean flowKilled = false;
   private volatile boolean flowIsRamping = false;
+  // If enabled, status changes are appended as deltas between periodic full snapshots.
+  private final boolean deltaUpdateEnabled;
+  private final long snapshotIntervalMs;
+  private long lastSnapshotTime = -1;
+  private long lastPersistedUpdateTime = -1;
+  // If set, non-terminal status updates are coalesced by the executor-wide write-behind buffer.
+  private StatusUpdateBuffer statusUpdateBuffer = null;
+  private boolean finalUpdatePersisted = false;
+  // If set, job logs are uploaded while the jobs run.
+  private JobLogUploader jobLogUploader = null;
+  // If set, jobs are started by the event driven dag engine instead of by rescanning the flow.
+  private DagService dagService = null;
+  private volatile ExecutableFlowDag flowDag = null;
+  // Work handed over by the dag engine and by finished jobs to the flow runner thread
+  private final BlockingDeque<DagEvent> dagEvents = new LinkedBlockingDeque<>();
 
   // For flow related metrics
   private final CommonMetrics commonMetrics;
@@ -197,6 +218,11 @@ public class FlowRunner extends EventHandler implements Runnable {
     this.azkabanProps = azkabanProps;
     this.alerterHolder = alerterHolder;
     this.commonMetrics = commonMetrics;
+    this.deltaUpdateEnabled = azkabanProps
+        .getBoolean(ConfigurationKeys.AZKABAN_FLOW_DELTA_UPDATE_ENABLED, false);
+    this.snapshotIntervalMs = azkabanProps.getLong(
+        ConfigurationKeys.AZKABAN_FLOW_SNAPSHOT_INTERVAL_MS,
+        Constants.DEFAULT_AZKABAN_FLOW_SNAPSHOT_INTERVAL_MS);
 
     // Add the flow listener only if a non-null eventReporter is available.
     if (azkabanEventReporter != null) {
@@ -231,6 +257,21 @@ public class FlowRunner extends EventHandler implements Runnable {
     return this;
   }
 
+  public FlowRunner setStatusUpdateBuffer(final StatusUpdateBuffer statusUpdateBuffer) {
+    this.statusUpdateBuffer = statusUpdateBuffer;
+    return this;
+  }
+
+  public FlowRunner setJobLogUploader(final JobLogUploader jobLogUploader) {
+    this.jobLogUploader = jobLogUploader;
+    return this;
+  }
+
+  public FlowRunner setDagService(final DagService dagService) {
+    this.dagService = dagService;
+    return this;
+  }
+
   public File getExecutionDir() {
     return this.execDir;
   }
@@ -244,7 +285,8 @@ public class FlowRunner extends EventHandler implements Runnable {
   public void run() {
     try {
       if (this.executorService == null) {
-        this.executorService = Executors.newFixedThreadPool(this.numJobThreads);
+        this.executorService = Executors.newFixedThreadPool(this.numJobThreads,
+            JobThreads.newThreadFactory("azk-job-runner-" + this.execId + "-"));
       }
       setupFlowExecution();
       this.flow.setStartTime(System.currentTimeMillis());
@@ -281,7 +323,7 @@ public class FlowRunner extends EventHandler implements Runnable {
         this.logger.info("Setting end time for flow " + this.execId + " to "
             + System.currentTimeMillis());
         closeLogger();
-        updateFlow();
+        updateFinalFlow();
       } finally {
         this.fireEventListeners(
             Event.create(this, EventType.FLOW_FINISHED, new EventData(this.flow)));
@@ -351,13 +393,48 @@ public class FlowRunner extends EventHandler implements Runnable {
   }
 
   private void updateFlow() {
-    updateFlow(System.currentTimeMillis());
+    if (this.statusUpdateBuffer != null) {
+      this.statusUpdateBuffer.bufferFlowUpdate(this.execId, this::flushBufferedUpdate);
+    } else {
+      updateFlow(System.currentTimeMillis(), false);
+    }
+  }
+
+  /**
+   * Persists the final state of the flow synchronously, bypassing the write-behind buffer.
+   */
+  private synchronized void updateFinalFlow() {
+    if (this.statusUpdateBuffer != null) {
+      this.statusUpdateBuffer.removeFlowUpdate(this.execId);
+    }
+    updateFlow(System.currentTimeMillis(), true);
+    this.finalUpdatePersisted = true;
+  }
+
+  /**
+   * Called by the write-behind buffer. A no-op once the final state of the flow is persisted.
+   */
+  private synchronized void flushBufferedUpdate() {
+    if (!this.finalUpdatePersisted) {
+      updateFlow(System.currentTimeMillis(), false);
+    }
   }
 
-  private synchronized void updateFlow(final long time) {
+  /**
+   * Persists the flow. In delta update mode only the nodes changed since the last write are
+   * persisted, unless a full snapshot is due or {@code forceSnapshot} is set.
+   */
+  private synchronized void updateFlow(final long time, final boolean forceSnapshot) {
     try {
       this.flow.setUpdateTime(time);
-      this.executorLoader.updateExecutableFlow(this.flow);
+      if (this.deltaUpdateEnabled && !forceSnapshot && this.lastPersistedUpdateTime > 0
+          && time - this.lastSnapshotTime < this.snapshotIntervalMs) {
+        this.executorLoader.appendExecutableFlowUpdate(this.flow, this.lastPersistedUpdateTime);
+      } else {
+        this.executorLoader.updateExecutableFlow(this.flow);
+        this.lastSnapshotTime = time;
+      }
+      this.lastPersistedUpdateTime = time;
     } catch (final ExecutorManagerException e) {
       this.logger.error("Error updating flow.", e);
     }
@@ -426,8 +503,14 @@ public class FlowRunner extends EventHandler implements Runnable {
    */
   private void runFlow() throws Exception {
     this.logger.info("Starting flows");
-    runReadyJob(this.flow);
-    updateFlow();
+    if (this.dagService != null && getImpliedStatus(this.flow) == Status.READY) {
+      startFlowDag();
+      updateFlow();
+      runFlowDag();
+    } else {
+      runReadyJob(this.flow);
+      updateFlow();
+    }
 
     while (!this.flowFinished) {
       synchronized (this.mainSyncObj) {
@@ -458,6 +541,183 @@ public class FlowRunner extends EventHandler implements Runnable {
     this.logger.info("Finished Flow");
   }
 
+  private void startFlowDag() throws IOException {
+    startFlow(this.flow);
+    this.flowDag = new ExecutableFlowDag(this.flow, this.dagService, new DagEventListener());
+    this.logger.info("Running flow with the dag engine. Number of dag nodes: "
+        + this.flowDag.getNumNodes());
+    this.flowDag.start();
+  }
+
+  /**
+   * Handles the dag events until the flow finishes. A dag can only run once, so if failed jobs
+   * are retried the flow continues by rescanning the flow graph.
+   */
+  private void runFlowDag() throws IOException {
+    while (!this.flowFinished) {
+      if (this.retryFailedJobs) {
+        synchronized (this.mainSyncObj) {
+          stopFlowDag();
+        }
+        return;
+      }
+
+      final DagEvent event;
+      try {
+        event = this.dagEvents.poll(CHECK_WAIT_MS, TimeUnit.MILLISECONDS);
+      } catch (final InterruptedException e) {
+        continue;
+      }
+      if (event == null) {
+        continue;
+      }
+
+      synchronized (this.mainSyncObj) {
+        if (this.flowPaused) {
+          this.dagEvents.addFirst(event);
+          try {
+            this.mainSyncObj.wait(CHECK_WAIT_MS);
+          } catch (final InterruptedException e) {
+          }
+          continue;
+        }
+
+        // Handle all the queued events before persisting the flow
+        DagEvent nextEvent = event;
+        while (nextEvent != null) {
+          handleDagEvent(nextEvent);
+          nextEvent = this.dagEvents.poll();
+        }
+        updateFlow();
+      }
+    }
+  }
+
+  private void handleDagEvent(final DagEvent event) throws IOException {
+    switch (event.getType()) {
+      case NODE_READY:
+        runDagNode(event.getNode());
+        break;
+      case EMBEDDED_FLOW_READY:
+        finishDagEmbeddedFlow((ExecutableFlowBase) event.getNode());
+        break;
+      case JOB_FINISHED:
+        finishDagJob(event.getNode());
+        break;
+      case FLOW_DONE:
+        finalizeFlow(this.flow);
+        fireJobFinishedEvent(this.flow);
+        break;
+      default:
+        throw new IllegalStateException("Unknown dag event type " + event.getType());
+    }
+  }
+
+  /**
+   * Runs, skips or cancels a node whose dependencies are all done.
+   */
+  private void runDagNode(final ExecutableNode node) throws IOException {
+    if (isSkippedOrCancelled(node.getParentFlow())) {
+      // The nodes of an embedded flow that never started keep their status.
+      this.flowDag.markNodeDone(node);
+      return;
+    }
+
+    final Status nextNodeStatus = getImpliedStatus(node);
+    if (nextNodeStatus == Status.READY) {
+      if (node instanceof ExecutableFlowBase) {
+        startFlow((ExecutableFlowBase) node);
+        this.flowDag.markNodeDone(node);
+      } else {
+        // The node is done when the job finishes.
+        runExecutableNode(node);
+      }
+      return;
+    }
+
+    if (nextNodeStatus == Status.CANCELLED) {
+      this.logger.info(String.format("Cancelling '%s' due to prior errors.", node.getNestedId()));
+      node.cancelNode(System.currentTimeMillis());
+      fireJobFinishedEvent(node);
+    } else if (nextNodeStatus == Status.SKIPPED) {
+      this.logger.info("Skipping disabled job '" + node.getId() + "'.");
+      node.skipNode(System.currentTimeMillis());
+      fireJobFinishedEvent(node);
+    }
+    this.flowDag.markNodeDone(node);
+  }
+
+  private void finishDagJob(final ExecutableNode node) throws IOException {
+    // If a job is seen as failed or killed due to failing SLA, then we set the parent flow to
+    // FAILED_FINISHING
+    if (node.getStatus() == Status.FAILED || (node.getStatus() == Status.KILLED && node
+        .isKilledBySLA())) {
+      if (retryJobIfPossible(node)) {
+        runDagNode(node);
+        return;
+      }
+      setFlowFailed(node);
+    }
+    this.flowDag.markNodeDone(node);
+  }
+
+  private void finishDagEmbeddedFlow(final ExecutableFlowBase flow) {
+    if (!isSkippedOrCancelled(flow)) {
+      finalizeFlow(flow);
+      fireJobFinishedEvent(flow);
+    }
+    this.flowDag.markEmbeddedFlowDone(flow);
+  }
+
+  /**
+   * @return true if the flow or a flow it is embedded in was skipped or cancelled before it
+   * started
+   */
+  private static boolean isSkippedOrCancelled(final ExecutableFlowBase flow) {
+    for (ExecutableFlowBase base = flow; base != null; base = base.getParentFlow()) {
+      if (base.getStatus() == Status.SKIPPED || base.getStatus() == Status.CANCELLED) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Stops using the dag engine. The pending dag events are handed over to the flow graph scan.
+   */
+  private void stopFlowDag() throws IOException {
+    this.logger.info("Retrying failed jobs. The flow continues without the dag engine.");
+    // Nodes marked as done may still be in transition on the dag service. Their events must be
+    // queued before the switch, or the nodes they made ready would never run.
+    try {
+      this.flowDag.awaitPendingTransitions();
+    } catch (final ExecutionException | RejectedExecutionException e) {
+      this.logger.error("Failed to wait for the pending dag transitions", e);
+    }
+    final List<DagEvent> pendingEvents = new ArrayList<>();
+    synchronized (this.dagEvents) {
+      this.flowDag = null;
+      this.dagEvents.drainTo(pendingEvents);
+    }
+
+    for (final DagEvent event : pendingEvents) {
+      switch (event.getType()) {
+        case NODE_READY:
+          runReadyJob(event.getNode());
+          break;
+        case JOB_FINISHED:
+          this.finishedNodes.add(event.getNode());
+          break;
+        default:
+          // The end nodes of the flow trigger its finalization.
+          final ExecutableFlowBase flow = (ExecutableFlowBase) event.getNode();
+          for (final String endNodeId : flow.getEndNodes()) {
+            this.finishedNodes.add(flow.getExecutableNode(endNodeId));
+          }
+      }
+    }
+  }
+
   private void retryAllFailures() throws IOException {
     this.logger.info("Restarting all failed jobs");
 
@@ -614,13 +874,7 @@ public class FlowRunner extends EventHandler implements Runnable {
     } else if (nextNodeStatus == Status.READY) {
       if (node instanceof ExecutableFlowBase) {
         final ExecutableFlowBase flow = ((ExecutableFlowBase) node);
-        this.logger.info("Running flow '" + flow.getNestedId() + "'.");
-        flow.setStatus(Status.RUNNING);
-        // don't overwrite start time of root flows
-        if (flow.getStartTime() <= 0) {
-          flow.setStartTime(System.currentTimeMillis());
-        }
-        prepareJobProperties(flow);
+        startFlow(flow);
 
         for (final String startNodeId : ((ExecutableFlowBase) node).getStartNodes()) {
           final ExecutableNode startNode = flow.getExecutableNode(startNodeId);
@@ -633,6 +887,16 @@ public class FlowRunner extends EventHandler implements Runnable {
     return true;
   }
 
+  private void startFlow(final ExecutableFlowBase flow) throws IOException {
+    this.logger.info("Running flow '" + flow.getNestedId() + "'.");
+    flow.setStatus(Status.RUNNING);
+    // don't overwrite start time of root flows
+    if (flow.getStartTime() <= 0) {
+      flow.setStartTime(System.currentTimeMillis());
+    }
+    prepareJobProperties(flow);
+  }
+
   private boolean retryJobIfPossible(final ExecutableNode node) {
     if (node instanceof ExecutableFlowBase) {
       return false;
@@ -684,6 +948,10 @@ public class FlowRunner extends EventHandler implements Runnable {
 
   private void finishExecutableNode(final ExecutableNode node) {
     this.finishedNodes.add(node);
+    fireJobFinishedEvent(node);
+  }
+
+  private void fireJobFinishedEvent(final ExecutableNode node) {
     final EventData eventData = new EventData(node.getStatus(), node.getNestedId());
     fireEventListeners(Event.create(this, EventType.JOB_FINISHED, eventData));
   }
@@ -1104,6 +1372,8 @@ public class FlowRunner extends EventHandler implements Runnable {
 
     jobRunner.setDelayStart(node.getDelayedExecution());
     jobRunner.setLogSettings(this.logger, this.jobLogFileSize, this.jobLogNumFiles);
+    jobRunner.setStatusUpdateBuffer(this.statusUpdateBuffer);
+    jobRunner.setJobLogUploader(this.jobLogUploader);
     jobRunner.addListener(this.listener);
 
     if (JobCallbackManager.isInitialized()) {
@@ -1538,10 +1808,12 @@ public class FlowRunner extends EventHandler implements Runnable {
             FlowRunner.this.flowPaused = false;
           }
 
-          FlowRunner.this.finishedNodes.add(node);
           FlowRunner.this.activeJobRunners.remove(jobRunner);
           node.getParentFlow().setUpdateTime(System.currentTimeMillis());
-          interrupt();
+          if (!addDagEvent(new DagEvent(DagEvent.Type.JOB_FINISHED, node))) {
+            FlowRunner.this.finishedNodes.add(node);
+            interrupt();
+          }
           fireEventListeners(event);
         }
       } else if (event.getType() == EventType.JOB_STARTED) {
@@ -1562,6 +1834,65 @@ public class FlowRunner extends EventHandler implements Runnable {
     }
   }
 
+  /**
+   * Queues an event for the flow runner thread if the dag engine is in use.
+   *
+   * @return false if the dag engine isn't used
+   */
+  private boolean addDagEvent(final DagEvent event) {
+    synchronized (this.dagEvents) {
+      if (this.flowDag == null) {
+        return false;
+      }
+      this.dagEvents.add(event);
+      return true;
+    }
+  }
+
+  private class DagEventListener implements ExecutableFlowDag.Listener {
+
+    @Override
+    public void onNodeReady(final ExecutableNode node) {
+      addDagEvent(new DagEvent(DagEvent.Type.NODE_READY, node));
+    }
+
+    @Override
+    public void onEmbeddedFlowReady(final ExecutableFlowBase flow) {
+      addDagEvent(new DagEvent(DagEvent.Type.EMBEDDED_FLOW_READY, flow));
+    }
+
+    @Override
+    public void onFlowDone() {
+      addDagEvent(new DagEvent(DagEvent.Type.FLOW_DONE, FlowRunner.this.flow));
+    }
+  }
+
+  private static class DagEvent {
+
+    private final Type type;
+    private final ExecutableNode node;
+
+    DagEvent(final Type type, final ExecutableNode node) {
+      this.type = type;
+      this.node = node;
+    }
+
+    Type getType() {
+      return this.type;
+    }
+
+    ExecutableNode getNode() {
+      return this.node;
+    }
+
+    enum Type {
+      NODE_READY,
+      EMBEDDED_FLOW_READY,
+      JOB_FINISHED,
+      FLOW_DONE
+    }
+  }
+
   /***
    * Propagate properties (specified in {@code AZKABAN_EVENT_REPORTING_PROPERTIES_TO_PROPAGATE})
    * to metadata for event reporting.
@@ -20,6 +20,7 @@ import static java.util.Objects.requireNonNull;
 import azkaban.Constants;
 import azkaban.Constants.ConfigurationKeys;
 import azkaban.ServiceProvider;
+import azkaban.dag.DagService;
 import azkaban.event.Event;
 import azkaban.event.EventListener;
 import azkaban.execapp.event.FlowWatcher;
@@ -32,7 +33,9 @@ import azkaban.executor.ExecutionOptions;
 import azkaban.executor.Executor;
 import azkaban.executor.ExecutorLoader;
 import azkaban.executor.ExecutorManagerException;
+import azkaban.executor.LogSearcher;
 import azkaban.executor.Status;
+import azkaban.jobExecutor.utils.process.ProcessOutputMultiplexer;
 import azkaban.jobtype.JobTypeManager;
 import azkaban.jobtype.JobTypeManagerException;
 import azkaban.metric.MetricReportManager;
@@ -46,10 +49,12 @@ import azkaban.spi.EventType;
 import azkaban.spi.Storage;
 import azkaban.storage.ProjectStorageManager;
 import azkaban.utils.DependencyTransferManager;
+import azkaban.utils.ExecutorServiceUtils;
 import azkaban.utils.FileIOUtils;
 import azkaban.utils.FileIOUtils.JobMetaData;
 import azkaban.utils.FileIOUtils.LogData;
 import azkaban.utils.JSONUtils;
+import azkaban.utils.JobThreads;
 import azkaban.utils.OsCpuUtil;
 import azkaban.utils.Props;
 import azkaban.utils.SystemMemoryInfo;
@@ -73,13 +78,16 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToIntFunction;
 import javax.annotation.Nullable;
 import javax.inject.Inject;
 import javax.inject.Singleton;
@@ -136,6 +144,10 @@ public class FlowRunnerManager implements EventListener,
   private final ProjectLoader projectLoader;
   private final JobTypeManager jobtypeManager;
   private final FlowPreparer flowPreparer;
+  private StatusUpdateBuffer statusUpdateBuffer = null;
+  private DagService dagService = null;
+  private JobScheduler jobScheduler = null;
+  private JobLogUploader jobLogUploader = null;
   private final TriggerManager triggerManager;
   private final FlowRampManager flowRampManager;
   private final AlerterHolder alerterHolder;
@@ -157,6 +169,7 @@ public class FlowRunnerManager implements EventListener,
   // If true, jobs will validate proxy user against a list of valid proxy users.
   private final boolean validateProxyUser;
   private PollingService pollingService;
+  private ProjectPrefetcher projectPrefetcher = null;
   private int threadPoolQueueSize = -1;
   private Props globalProps;
   private long lastCleanerThreadCheckTime = -1;
@@ -194,8 +207,27 @@ public class FlowRunnerManager implements EventListener,
 
     // azkaban.temp.dir
     this.numThreads = props.getInt(EXECUTOR_FLOW_THREADS, DEFAULT_NUM_EXECUTING_FLOWS);
-    this.numJobThreadPerFlow = props.getInt(FLOW_NUM_JOB_THREADS, DEFAULT_FLOW_NUM_JOB_TREADS);
     this.executorService = createExecutorService(this.numThreads);
+    if (JobThreads.setVirtualThreadsEnabled(
+        props.getBoolean(ConfigurationKeys.AZKABAN_JOB_VIRTUAL_THREADS_ENABLED, false))) {
+      LOGGER.info("Running jobs on virtual threads.");
+    }
+    ProcessOutputMultiplexer.setEnabled(
+        props.getBoolean(ConfigurationKeys.AZKABAN_JOB_OUTPUT_MULTIPLEXER_ENABLED, false));
+    final int flowNumJobThreads = props.getInt(FLOW_NUM_JOB_THREADS, DEFAULT_FLOW_NUM_JOB_TREADS);
+    if (props.getBoolean(ConfigurationKeys.AZKABAN_JOB_SCHEDULER_ENABLED, false)) {
+      // By default the shared pool has as many threads as all the per flow pools together, and a
+      // flow runs as many jobs at the same time as it would in its own pool.
+      final int maxRunningJobs = props.getInt(
+          ConfigurationKeys.AZKABAN_JOB_SCHEDULER_MAX_RUNNING_JOBS,
+          this.numThreads * flowNumJobThreads);
+      this.numJobThreadPerFlow = props
+          .getInt(ConfigurationKeys.AZKABAN_JOB_SCHEDULER_MAX_JOBS_PER_FLOW, flowNumJobThreads);
+      this.jobScheduler = new JobScheduler(maxRunningJobs, execMetrics);
+      execMetrics.addJobSchedulerMetrics(this.jobScheduler);
+    } else {
+      this.numJobThreadPerFlow = flowNumJobThreads;
+    }
 
     this.executorLoader = executorLoader;
     this.projectLoader = projectLoader;
@@ -253,21 +285,69 @@ public class FlowRunnerManager implements EventListener,
       }
     }
 
+    DependencyCache dependencyCache = null;
+    if (this.azkabanProps
+        .getBoolean(ConfigurationKeys.PROJECT_CACHE_SHARED_DEPENDENCIES_ENABLED, false)) {
+      this.LOGGER.info("Sharing the startup dependencies of thin archives between project dirs.");
+      dependencyCache = new DependencyCache(this.projectDirectory, this.dependencyTransferManager);
+    }
+
     // Create a flow preparer
     this.flowPreparer = new FlowPreparer(projectStorageManager, this.dependencyTransferManager,
-        this.projectDirectory, cleaner, this.execMetrics.getProjectCacheHitRatio(),
-        this.executionDirectory);
+        this.projectDirectory, cleaner, dependencyCache, this.execMetrics.getProjectCacheHitRatio(),
+        this.executionDirectory, this.execMetrics, this.azkabanProps
+        .getBoolean(ConfigurationKeys.PROJECT_STREAMING_DOWNLOAD_ENABLED, false));
 
     this.execMetrics.addFlowRunnerManagerMetrics(this);
 
+    if (this.azkabanProps
+        .getBoolean(ConfigurationKeys.AZKABAN_STATUS_UPDATE_WRITE_BEHIND_ENABLED, false)) {
+      this.LOGGER.info("Starting status update write-behind buffer.");
+      this.statusUpdateBuffer = new StatusUpdateBuffer(this.executorLoader, this.execMetrics,
+          this.azkabanProps.getLong(ConfigurationKeys.AZKABAN_STATUS_UPDATE_FLUSH_INTERVAL_MS,
+              Constants.DEFAULT_STATUS_UPDATE_FLUSH_INTERVAL_MS));
+      this.execMetrics.addStatusUpdateBufferMetrics(this.statusUpdateBuffer);
+      this.statusUpdateBuffer.start();
+    }
+
+    if (this.azkabanProps
+        .getBoolean(ConfigurationKeys.AZKABAN_JOB_LOG_STREAMING_UPLOAD_ENABLED, false)) {
+      this.LOGGER.info("Uploading job logs while jobs are running.");
+      this.jobLogUploader = new JobLogUploader(this.executorLoader,
+          this.azkabanProps.getLong(ConfigurationKeys.AZKABAN_JOB_LOG_UPLOAD_INTERVAL_MS,
+              Constants.DEFAULT_JOB_LOG_UPLOAD_INTERVAL_MS));
+    }
+
+    if (this.azkabanProps.getBoolean(ConfigurationKeys.AZKABAN_FLOW_DAG_ENGINE_ENABLED, false)) {
+      this.LOGGER.info("Running flows with the dag engine.");
+      this.dagService = new DagService(new ExecutorServiceUtils());
+    }
+
     this.cleanerThread = new CleanerThread();
     this.cleanerThread.start();
 
     if (this.azkabanProps.getBoolean(ConfigurationKeys.AZKABAN_POLL_MODEL, false)) {
       this.LOGGER.info("Starting polling service.");
-      this.pollingService = new PollingService(this.azkabanProps
-          .getLong(ConfigurationKeys.AZKABAN_POLLING_INTERVAL_MS,
-              Constants.DEFAULT_AZKABAN_POLLING_INTERVAL_MS),
+      final long pollingIntervalMs;
+      if (this.azkabanProps
+          .getBoolean(ConfigurationKeys.AZKABAN_DISPATCH_NOTIFICATION_ENABLED, false)) {
+        // The web server notifies this executor of new executions, polling is only a fallback
+        pollingIntervalMs = this.azkabanProps
+            .getLong(ConfigurationKeys.AZKABAN_POLLING_FALLBACK_INTERVAL_MS,
+                Constants.DEFAULT_AZKABAN_POLLING_FALLBACK_INTERVAL_MS);
+      } else {
+        pollingIntervalMs = this.azkabanProps
+            .getLong(ConfigurationKeys.AZKABAN_POLLING_INTERVAL_MS,
+                Constants.DEFAULT_AZKABAN_POLLING_INTERVAL_MS);
+      }
+      if (this.azkabanProps
+          .getBoolean(ConfigurationKeys.AZKABAN_PROJECT_PREFETCH_ENABLED, false)) {
+        this.LOGGER.info("Prefetching the projects of queued executions.");
+        this.projectPrefetcher = new ProjectPrefetcher(this.flowPreparer, this.executorLoader,
+            this.azkabanProps.getInt(ConfigurationKeys.AZKABAN_PROJECT_PREFETCH_MAX_PROJECTS,
+                Constants.DEFAULT_PROJECT_PREFETCH_MAX_PROJECTS));
+      }
+      this.pollingService = new PollingService(pollingIntervalMs,
           new PollingCriteria(this.azkabanProps));
       this.pollingService.start();
     }
@@ -330,6 +410,15 @@ public class FlowRunnerManager implements EventListener,
     }
   }
 
+  /**
+   * Called when the web server notifies this executor of newly queued executions.
+   */
+  public void notifyWorkAvailable() {
+    if (this.pollingService != null) {
+      this.pollingService.requestPoll();
+    }
+  }
+
   public void setExecutorActive(final boolean isActive, final String host, final int port)
       throws ExecutorManagerException, InterruptedException {
     final Executor executor = this.executorLoader.fetchExecutor(host, port);
@@ -493,19 +582,39 @@ public class FlowRunnerManager implements EventListener,
     this.flowRampManager
         .configure(flow, FileIOUtils.getDirectory(this.projectDirectory, flow.getDirectory()));
 
+    // Without the job scheduler the flow runner creates its own pool of numJobThreads.
+    final ExecutorService jobExecutorService = this.jobScheduler == null ? null
+        : this.jobScheduler.createFlowExecutor(execId, getFlowPriority(flow), numJobThreads);
     final FlowRunner runner =
         new FlowRunner(flow, this.executorLoader, this.projectLoader, this.jobtypeManager,
-            this.azkabanProps, this.azkabanEventReporter, this.alerterHolder, this.commonMetrics);
+            jobExecutorService, this.azkabanProps, this.azkabanEventReporter, this.alerterHolder,
+            this.commonMetrics);
     runner.setFlowWatcher(watcher)
         .setJobLogSettings(this.jobLogChunkSize, this.jobLogNumFiles)
         .setValidateProxyUser(this.validateProxyUser)
         .setNumJobThreads(numJobThreads)
+        .setStatusUpdateBuffer(this.statusUpdateBuffer)
+        .setJobLogUploader(this.jobLogUploader)
+        .setDagService(this.dagService)
         .addListeners(this, this.flowRampManager);
 
     configureFlowLevelMetrics(runner);
     return runner;
   }
 
+  private int getFlowPriority(final ExecutableFlow flow) {
+    final String priority = flow.getExecutionOptions().getFlowParameters()
+        .get(ExecutionOptions.FLOW_PRIORITY);
+    if (priority != null) {
+      try {
+        return Integer.parseInt(priority);
+      } catch (final NumberFormatException e) {
+        LOGGER.error("Failed to parse flow priority for exec_id = " + flow.getExecutionId(), e);
+      }
+    }
+    return ExecutionOptions.DEFAULT_FLOW_PRIORITY;
+  }
+
   private void submitFlowRunner(final FlowRunner runner) throws ExecutorManagerException {
     this.runningFlows.put(runner.getExecutionId(), runner);
     try {
@@ -702,6 +811,20 @@ public class FlowRunnerManager implements EventListener,
 
   public LogData readJobLogs(final int execId, final String jobId, final int attempt,
       final int startByte, final int length) throws ExecutorManagerException {
+    return readJobLogs(execId, jobId, attempt, logFile -> startByte, length);
+  }
+
+  /**
+   * Reads the last bytes of a job log, at most length bytes.
+   */
+  public LogData readJobLogTail(final int execId, final String jobId, final int attempt,
+      final int length) throws ExecutorManagerException {
+    return readJobLogs(execId, jobId, attempt,
+        logFile -> Math.toIntExact(Math.max(logFile.length() - length, 0)), length);
+  }
+
+  private LogData readJobLogs(final int execId, final String jobId, final int attempt,
+      final ToIntFunction<File> startByte, final int length) throws ExecutorManagerException {
     final FlowRunner runner = this.runningFlows.get(execId);
     if (runner == null) {
       throw new ExecutorManagerException("Running flow " + execId
@@ -718,7 +841,7 @@ public class FlowRunnerManager implements EventListener,
           }
           final File logFile = runner.getJobLogFile(jobId, attempt);
           if (logFile != null && logFile.exists()) {
-            return FileIOUtils.readUtf8File(logFile, startByte, length);
+            return FileIOUtils.readUtf8File(logFile, startByte.applyAsInt(logFile), length);
           } else {
             throw new ExecutorManagerException("Job log file doesn't exist.");
           }
@@ -732,6 +855,15 @@ public class FlowRunnerManager implements EventListener,
         "Error reading file. Log directory doesn't exist.");
   }
 
+  /**
+   * Searches the log file of a running job, reading it page by page.
+   */
+  public LogSearcher.Result searchJobLogs(final int execId, final String jobId,
+      final int attempt, final LogSearcher.Query query) throws ExecutorManagerException {
+    return LogSearcher.search(
+        (offset, length) -> readJobLogs(execId, jobId, attempt, offset, length), query);
+  }
+
   public List<Object> readJobAttachments(final int execId, final String jobId, final int attempt)
       throws ExecutorManagerException {
     final FlowRunner runner = this.runningFlows.get(execId);
@@ -896,6 +1028,9 @@ public class FlowRunnerManager implements EventListener,
     if (this.azkabanProps.getBoolean(ConfigurationKeys.AZKABAN_POLL_MODEL, false)) {
       this.pollingService.shutdown();
     }
+    if (this.projectPrefetcher != null) {
+      this.projectPrefetcher.shutdown();
+    }
     this.executorService.shutdown();
     boolean result = false;
     while (!result) {
@@ -907,6 +1042,22 @@ public class FlowRunnerManager implements EventListener,
       }
     }
     flowPreparer.shutdown();
+    if (this.jobScheduler != null) {
+      this.jobScheduler.shutdown();
+    }
+    if (this.jobLogUploader != null) {
+      this.jobLogUploader.shutdown();
+    }
+    if (this.statusUpdateBuffer != null) {
+      this.statusUpdateBuffer.shutdown();
+    }
+    if (this.dagService != null) {
+      try {
+        this.dagService.shutdownAndAwaitTermination();
+      } catch (final InterruptedException e) {
+        LOGGER.error("Interrupted while shutting down the dag service", e);
+      }
+    }
     LOGGER.warn("Shutdown FlowRunnerManager complete.");
   }
 
@@ -919,7 +1070,16 @@ public class FlowRunnerManager implements EventListener,
     if (this.azkabanProps.getBoolean(ConfigurationKeys.AZKABAN_POLL_MODEL, false)) {
       this.pollingService.shutdown();
     }
+    if (this.projectPrefetcher != null) {
+      this.projectPrefetcher.shutdown();
+    }
     this.executorService.shutdownNow();
+    if (this.jobScheduler != null) {
+      this.jobScheduler.shutdownNow();
+    }
+    if (this.statusUpdateBuffer != null) {
+      this.statusUpdateBuffer.shutdown();
+    }
     this.triggerManager.shutdown();
   }
 
@@ -1042,11 +1202,15 @@ public class FlowRunnerManager implements EventListener,
     private final ScheduledExecutorService scheduler;
     private final PollingCriteria pollingCriteria;
     private final long pollingIntervalMs;
+    private final int batchSize;
+    private final AtomicBoolean pollRequested = new AtomicBoolean(false);
     private int executorId = -1;
     private int numRetries = 0;
 
     public PollingService(final long pollingIntervalMs, final PollingCriteria pollingCriteria) {
       this.pollingIntervalMs = pollingIntervalMs;
+      this.batchSize = FlowRunnerManager.this.azkabanProps
+          .getInt(ConfigurationKeys.AZKABAN_POLLING_BATCH_SIZE, 1);
       this.scheduler = Executors.newSingleThreadScheduledExecutor();
       this.pollingCriteria = pollingCriteria;
     }
@@ -1056,7 +1220,28 @@ public class FlowRunnerManager implements EventListener,
           TimeUnit.MILLISECONDS);
     }
 
-    private void pollExecution() {
+    /**
+     * Polls right away instead of waiting for the next polling interval, and keeps polling while
+     * executions are claimed and flow threads are idle. Requests made while a poll is pending are
+     * coalesced.
+     */
+    public void requestPoll() {
+      if (this.pollRequested.compareAndSet(false, true)) {
+        this.scheduler.execute(() -> {
+          this.pollRequested.set(false);
+          while (pollExecution() > 0
+              && getMaxNumRunningFlows() > getNumRunningFlows() + getNumQueuedFlows()) {
+            FlowRunnerManager.LOGGER.debug("Claimed executions after notification, polling again");
+          }
+        });
+      }
+    }
+
+    /**
+     * @return the number of claimed executions
+     */
+    private int pollExecution() {
+      int numClaimed = 0;
       if (this.executorId == -1) {
         if (AzkabanExecutorServer.getApp() != null) {
           try {
@@ -1070,15 +1255,10 @@ public class FlowRunnerManager implements EventListener,
         }
       } else if (this.pollingCriteria.shouldPoll()) {
         try {
-          final int execId;
-          if (FlowRunnerManager.this.azkabanProps.getBoolean(ConfigurationKeys.AZKABAN_POLLING_LOCK_ENABLED, false)) {
-            execId = FlowRunnerManager.this.executorLoader.selectAndUpdateExecutionWithLocking(
-                this.executorId, FlowRunnerManager.this.active);
-          } else {
-            execId = FlowRunnerManager.this.executorLoader.selectAndUpdateExecution(this.executorId,
-                FlowRunnerManager.this.active);
-          }
-          if (execId != -1) {
+          ExecutorManagerException submitException = null;
+          final List<Integer> execIds = claimExecutions();
+          numClaimed = execIds.size();
+          for (final int execId : execIds) {
             FlowRunnerManager.LOGGER.info("Submitting flow " + execId);
             try {
               submitFlow(execId);
@@ -1086,12 +1266,16 @@ public class FlowRunnerManager implements EventListener,
               this.numRetries = 0;
             } catch (final ExecutorManagerException e) {
               // If the flow fails to be submitted, then unset its executor id in DB so that other
-              // executors can pick up this flow and submit again.
+              // executors can pick up this flow and submit again. The remaining claimed flows are
+              // still submitted.
               FlowRunnerManager.this.executorLoader.unsetExecutorIdForExecution(execId);
-              throw new ExecutorManagerException(
+              submitException = new ExecutorManagerException(
                   "Unset executor id " + this.executorId + " for execution " + execId, e);
             }
           }
+          if (submitException != null) {
+            throw submitException;
+          }
         } catch (final Exception e) {
           FlowRunnerManager.LOGGER.error("Failed to submit flow ", e);
           FlowRunnerManager.this.commonMetrics.markDispatchFail();
@@ -1106,6 +1290,44 @@ public class FlowRunnerManager implements EventListener,
           }
         }
       }
+      if (this.executorId != -1 && FlowRunnerManager.this.projectPrefetcher != null) {
+        // The executions left in the queue are likely claimed by one of the next polls
+        FlowRunnerManager.this.projectPrefetcher
+            .prefetchQueuedProjects(this.executorId, FlowRunnerManager.this.active);
+      }
+      return numClaimed;
+    }
+
+    /**
+     * Assigns queued executions to this executor. In batch mode up to the configured batch size
+     * are claimed at once, bounded by the number of idle flow threads.
+     */
+    private List<Integer> claimExecutions() throws ExecutorManagerException {
+      final boolean lockEnabled = FlowRunnerManager.this.azkabanProps
+          .getBoolean(ConfigurationKeys.AZKABAN_POLLING_LOCK_ENABLED, false);
+      if (this.batchSize > 1) {
+        final int maxExecutions = Math.min(this.batchSize,
+            getMaxNumRunningFlows() - getNumRunningFlows() - getNumQueuedFlows());
+        if (maxExecutions <= 0) {
+          return Collections.emptyList();
+        }
+        if (lockEnabled) {
+          return FlowRunnerManager.this.executorLoader.selectAndUpdateExecutionsWithLocking(
+              this.executorId, FlowRunnerManager.this.active, maxExecutions);
+        }
+        return FlowRunnerManager.this.executorLoader.selectAndUpdateExecutions(this.executorId,
+            FlowRunnerManager.this.active, maxExecutions);
+      }
+
+      final int execId;
+      if (lockEnabled) {
+        execId = FlowRunnerManager.this.executorLoader.selectAndUpdateExecutionWithLocking(
+            this.executorId, FlowRunnerManager.this.active);
+      } else {
+        execId = FlowRunnerManager.this.executorLoader.selectAndUpdateExecution(this.executorId,
+            FlowRunnerManager.this.active);
+      }
+      return execId == -1 ? Collections.emptyList() : Collections.singletonList(execId);
     }
 
     public void shutdown() {
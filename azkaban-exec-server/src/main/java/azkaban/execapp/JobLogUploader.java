@@ -0,0 +1,296 @@
+/*
+ * Copyright 2020 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package azkaban.execapp;
+
+import azkaban.executor.ExecutorLoader;
+import azkaban.executor.ExecutorManagerException;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.io.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Executor-wide uploader of the logs of running jobs.
+ *
+ * <p>The log file of every running job is tailed in the background and each full chunk is
+ * uploaded to the log storage as soon as it has been written. When the job finishes only
+ * the last, partial chunk is left to upload. The chunks have the size the log storage stores
+ * without waste, see {@link ExecutorLoader#getLogChunkSize}.
+ *
+ * <p>The log file is rolled by log4j. A rolled file is renamed rather than copied, so the tailer
+ * keeps reading the file it has open until the end and then moves on to the next newer file, which
+ * it finds by the file key of the file system. Unlike the upload at the end of the job, the
+ * uploaded log also contains the parts that have been deleted from the disk by rolling.
+ *
+ * <p>The offsets of the log storage are ints, so at most {@link #getMaxUploadedBytes} of a log
+ * are uploaded, a little less than 2 GB. The rest of the log is only kept on the disk of the executor,
+ * subject to rolling.
+ */
+@SuppressWarnings("FutureReturnValueIgnored")
+public class JobLogUploader {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(JobLogUploader.class);
+
+  private final ExecutorLoader executorLoader;
+  private final long uploadIntervalMs;
+  private final int chunkSize;
+  private final ScheduledExecutorService scheduler;
+
+  public JobLogUploader(final ExecutorLoader executorLoader, final long uploadIntervalMs) {
+    this.executorLoader = executorLoader;
+    this.uploadIntervalMs = uploadIntervalMs;
+    this.chunkSize = executorLoader.getLogChunkSize();
+    this.scheduler = Executors.newSingleThreadScheduledExecutor(
+        new ThreadFactoryBuilder().setNameFormat("azk-job-log-uploader").setDaemon(true)
+            .build());
+  }
+
+  /**
+   * Starts uploading the log of a job attempt in the background.
+   *
+   * @param logFile the file the job logger writes to
+   */
+  public JobLogTailer startUpload(final int execId, final String name, final int attempt,
+      final File logFile) {
+    final JobLogTailer tailer = new JobLogTailer(this.executorLoader, execId, name, attempt,
+        logFile, this.chunkSize, getMaxUploadedBytes(this.chunkSize));
+    tailer.setUploadFuture(this.scheduler.scheduleWithFixedDelay(tailer::uploadQuietly,
+        this.uploadIntervalMs, this.uploadIntervalMs, TimeUnit.MILLISECONDS));
+    return tailer;
+  }
+
+  public void shutdown() {
+    this.scheduler.shutdownNow();
+  }
+
+  /**
+   * @return the end of the last full chunk that ends before the largest offset of the log storage
+   */
+  static long getMaxUploadedBytes(final int chunkSize) {
+    return Integer.MAX_VALUE - Integer.MAX_VALUE % chunkSize;
+  }
+
+  /**
+   * Uploads the log of a single job attempt.
+   */
+  public static class JobLogTailer {
+
+    private final ExecutorLoader executorLoader;
+    private final int execId;
+    private final String name;
+    private final int attempt;
+    private final File logFile;
+    private final long maxUploadedBytes;
+    private final byte[] chunk;
+    private ScheduledFuture<?> uploadFuture = null;
+
+    // Guarded by this
+    private int chunkLength = 0;
+    // Guarded by this
+    private long uploadedBytes = 0;
+    // Guarded by this
+    private InputStream input = null;
+    // Guarded by this
+    private Object inputFileKey = null;
+    // Guarded by this
+    private boolean finished = false;
+
+    JobLogTailer(final ExecutorLoader executorLoader, final int execId, final String name,
+        final int attempt, final File logFile, final int chunkSize, final long maxUploadedBytes) {
+      this.executorLoader = executorLoader;
+      this.execId = execId;
+      this.name = name;
+      this.attempt = attempt;
+      this.logFile = logFile;
+      this.chunk = new byte[chunkSize];
+      this.maxUploadedBytes = maxUploadedBytes;
+    }
+
+    private synchronized void setUploadFuture(final ScheduledFuture<?> uploadFuture) {
+      this.uploadFuture = uploadFuture;
+    }
+
+    /**
+     * Uploads the full chunks that have been written since the last upload.
+     */
+    synchronized void uploadFullChunks() throws IOException, ExecutorManagerException {
+      if (this.finished) {
+        return;
+      }
+      if (this.input == null && !openNextFile()) {
+        return;
+      }
+      readToEnd();
+      // The log was rolled: the open file is complete, continue with the next newer file.
+      while (!this.finished && openNextFile()) {
+        readToEnd();
+      }
+    }
+
+    /**
+     * Uploads the rest of the log. Called once the job logger has been closed.
+     */
+    public synchronized void finish() throws ExecutorManagerException {
+      if (this.uploadFuture != null) {
+        this.uploadFuture.cancel(false);
+      }
+      try {
+        uploadFullChunks();
+        if (this.chunkLength > 0 && !this.finished) {
+          uploadChunk();
+        }
+      } catch (final IOException e) {
+        throw new ExecutorManagerException("Error reading log file " + this.logFile, e);
+      } finally {
+        this.finished = true;
+        IOUtils.closeQuietly(this.input);
+      }
+    }
+
+    synchronized long getUploadedBytes() {
+      return this.uploadedBytes;
+    }
+
+    private void uploadQuietly() {
+      try {
+        uploadFullChunks();
+      } catch (final Exception e) {
+        // Retried at the next interval, the bytes that failed to upload are still buffered.
+        LOGGER.warn("Failed to upload the log of " + this.name + " in execution " + this.execId,
+            e);
+      }
+    }
+
+    private void readToEnd() throws IOException, ExecutorManagerException {
+      while (!this.finished) {
+        if (this.chunkLength == this.chunk.length) {
+          uploadChunk();
+          continue;
+        }
+        final int numRead = this.input
+            .read(this.chunk, this.chunkLength, this.chunk.length - this.chunkLength);
+        if (numRead <= 0) {
+          return;
+        }
+        this.chunkLength += numRead;
+      }
+    }
+
+    /**
+     * Uploads the buffered chunk, or stops uploading if the log would exceed the maximum size.
+     */
+    private void uploadChunk() throws ExecutorManagerException {
+      if (this.uploadedBytes + this.chunkLength > this.maxUploadedBytes) {
+        LOGGER.warn("The log of " + this.name + " in execution " + this.execId + " exceeds "
+            + this.maxUploadedBytes + " bytes, the rest of it isn't uploaded");
+        this.finished = true;
+        this.chunkLength = 0;
+        if (this.uploadFuture != null) {
+          this.uploadFuture.cancel(false);
+        }
+        IOUtils.closeQuietly(this.input);
+        return;
+      }
+      // Can't overflow, the maximum size is below the largest int
+      this.executorLoader.uploadLogChunk(this.execId, this.name, this.attempt,
+          (int) this.uploadedBytes, this.chunk, this.chunkLength);
+      this.uploadedBytes += this.chunkLength;
+      this.chunkLength = 0;
+    }
+
+    /**
+     * Opens the file that was written after the open file, or the oldest file if none is open.
+     *
+     * @return false if the open file is still the one being written to
+     */
+    private boolean openNextFile() throws IOException, ExecutorManagerException {
+      final List<File> files = getFilesOldestFirst();
+      int next = 0;
+      if (this.input != null) {
+        if (this.inputFileKey == null) {
+          // Without file keys rolled files can't be told apart, only the log file is read.
+          return false;
+        }
+        for (int i = 0; i < files.size(); i++) {
+          if (Objects.equals(getFileKey(files.get(i)), this.inputFileKey)) {
+            // If the open file was deleted by rolling, it was the oldest one.
+            next = i + 1;
+            break;
+          }
+        }
+      }
+      if (next >= files.size()) {
+        return false;
+      }
+
+      if (this.input != null) {
+        // The open file may have been written to after it was last read and before it was rolled.
+        readToEnd();
+        if (this.finished) {
+          return false;
+        }
+        IOUtils.closeQuietly(this.input);
+      }
+      final File file = files.get(next);
+      this.inputFileKey = getFileKey(file);
+      this.input = openFile(file);
+      return true;
+    }
+
+    /**
+     * Overridden by tests to interleave the reads with the writes of the job logger.
+     */
+    InputStream openFile(final File file) throws IOException {
+      return new FileInputStream(file);
+    }
+
+    /**
+     * @return the rolled log files from the oldest to the newest, followed by the log file.
+     */
+    private List<File> getFilesOldestFirst() {
+      final List<File> files = new ArrayList<>();
+      for (int i = 1; ; i++) {
+        final File rolledFile = new File(this.logFile.getPath() + "." + i);
+        if (!rolledFile.exists()) {
+          break;
+        }
+        files.add(0, rolledFile);
+      }
+      if (this.logFile.exists()) {
+        files.add(this.logFile);
+      }
+      return files;
+    }
+
+    private static Object getFileKey(final File file) throws IOException {
+      return Files.readAttributes(file.toPath(), BasicFileAttributes.class).fileKey();
+    }
+  }
+}
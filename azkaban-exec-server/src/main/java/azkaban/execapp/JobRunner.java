@@ -96,6 +96,10 @@ public class JobRunner extends EventHandler implements Runnable {
   private long delayStartMs = 0;
   private volatile boolean killed = false;
   private BlockingStatus currentBlockStatus = null;
+  private StatusUpdateBuffer statusUpdateBuffer = null;
+  // If set, the log is uploaded while the job runs instead of only when it has finished.
+  private JobLogUploader jobLogUploader = null;
+  private JobLogUploader.JobLogTailer logTailer = null;
 
   public JobRunner(final ExecutableNode node, final File workingDir, final ExecutorLoader loader,
       final JobTypeManager jobtypeManager, final Props azkabanProps) {
@@ -174,6 +178,14 @@ public class JobRunner extends EventHandler implements Runnable {
     this.jobLogBackupIndex = numLogBackup;
   }
 
+  public void setStatusUpdateBuffer(final StatusUpdateBuffer statusUpdateBuffer) {
+    this.statusUpdateBuffer = statusUpdateBuffer;
+  }
+
+  public void setJobLogUploader(final JobLogUploader jobLogUploader) {
+    this.jobLogUploader = jobLogUploader;
+  }
+
   public Props getProps() {
     return this.props;
   }
@@ -272,6 +284,10 @@ public class JobRunner extends EventHandler implements Runnable {
 
       try {
         attachFileAppender(createFileAppender());
+        if (this.jobLogUploader != null) {
+          this.logTailer = this.jobLogUploader.startUpload(this.executionId,
+              this.node.getNestedId(), this.node.getAttempt(), this.logFile);
+        }
       } catch (final IOException e) {
         removeAppender(this.jobAppender);
         this.flowLogger.error("Could not open log file in " + this.workingDir
@@ -391,9 +407,23 @@ public class JobRunner extends EventHandler implements Runnable {
   }
 
   private void writeStatus() {
+    writeStatus(false);
+  }
+
+  /**
+   * Writes the node status. Non-terminal updates go through the write-behind buffer if there is
+   * one, terminal updates are always written before returning.
+   */
+  private void writeStatus(final boolean terminal) {
     try {
       this.node.setUpdateTime(System.currentTimeMillis());
-      this.loader.updateExecutableNode(this.node);
+      if (this.statusUpdateBuffer == null) {
+        this.loader.updateExecutableNode(this.node);
+      } else if (terminal) {
+        this.statusUpdateBuffer.writeNodeUpdate(this.node);
+      } else {
+        this.statusUpdateBuffer.bufferNodeUpdate(this.node);
+      }
     } catch (final ExecutorManagerException e) {
       this.flowLogger.error("Could not update job properties in db for "
           + this.jobId, e);
@@ -518,6 +548,11 @@ public class JobRunner extends EventHandler implements Runnable {
     }
 
     try {
+      if (this.logTailer != null) {
+        // Most of the log has been uploaded while the job was running.
+        this.logTailer.finish();
+        return;
+      }
       final File[] files = this.logFile.getParentFile().listFiles(new FilenameFilter() {
         @Override
         public boolean accept(final File dir, final String name) {
@@ -623,7 +658,7 @@ public class JobRunner extends EventHandler implements Runnable {
     try {
       finalizeLogFile(this.node.getAttempt());
       finalizeAttachmentFile();
-      writeStatus();
+      writeStatus(true);
     } finally {
       try {
         // note that FlowRunner thread does node.attempt++ when it receives the JOB_FINISHED event
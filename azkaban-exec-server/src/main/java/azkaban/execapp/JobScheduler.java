@@ -0,0 +1,283 @@
+/*
+ * Copyright 2020 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package azkaban.execapp;
+
+import azkaban.executor.ExecutionOptions;
+import azkaban.utils.JobThreads;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Executor-wide thread pool that runs the jobs of all the flows of an executor.
+ *
+ * <p>Each flow submits its jobs through its own {@link ExecutorService} created by {@link
+ * #createFlowExecutor}. At most {@code maxRunningJobs} jobs run at the same time on the executor
+ * and at most {@code maxJobs} jobs of a single flow. When jobs are waiting for a thread, the next
+ * free thread goes to the flow with the fewest running jobs relative to its weight, so a flow with
+ * a higher {@link ExecutionOptions#FLOW_PRIORITY} gets a proportionally larger share of the pool.
+ * Ties go to the flow whose next job has waited the longest.
+ *
+ * <p>Idle threads are released, so the pool only holds as many threads as there are running jobs.
+ */
+public class JobScheduler {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(JobScheduler.class);
+  private static final long THREAD_KEEP_ALIVE_SECONDS = 60;
+
+  private final int maxRunningJobs;
+  private final ExecMetrics execMetrics;
+  private final ThreadPoolExecutor workers;
+
+  // Flows with queued or running jobs. Guarded by this
+  private final Set<FlowJobExecutor> activeFlows = new LinkedHashSet<>();
+  // Guarded by this
+  private int numRunningJobs = 0;
+  // Guarded by this
+  private int numQueuedJobs = 0;
+
+  public JobScheduler(final int maxRunningJobs, final ExecMetrics execMetrics) {
+    this.maxRunningJobs = maxRunningJobs;
+    this.execMetrics = execMetrics;
+    // Jobs are only handed to the pool when a thread is available, so the queue stays empty.
+    this.workers = new ThreadPoolExecutor(maxRunningJobs, maxRunningJobs,
+        THREAD_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+        JobThreads.newThreadFactory("azk-job-scheduler-"));
+    this.workers.allowCoreThreadTimeOut(true);
+  }
+
+  /**
+   * Creates the executor service the jobs of a flow are submitted to.
+   *
+   * @param execId the execution id of the flow
+   * @param weight the share of the pool the flow gets relative to the other flows
+   * @param maxJobs the maximum number of jobs of the flow that run at the same time
+   */
+  public ExecutorService createFlowExecutor(final int execId, final int weight,
+      final int maxJobs) {
+    return new FlowJobExecutor(execId, Math.max(weight, 1), Math.max(maxJobs, 1));
+  }
+
+  public int getMaxRunningJobs() {
+    return this.maxRunningJobs;
+  }
+
+  public synchronized int getNumRunningJobs() {
+    return this.numRunningJobs;
+  }
+
+  public synchronized int getNumQueuedJobs() {
+    return this.numQueuedJobs;
+  }
+
+  /**
+   * Stops the threads once the running jobs are done. Flows are expected to have finished.
+   */
+  public void shutdown() {
+    this.workers.shutdown();
+  }
+
+  public void shutdownNow() {
+    this.workers.shutdownNow();
+  }
+
+  /**
+   * Starts queued jobs until the pool is full or no flow can start another job.
+   */
+  private synchronized void dispatch() {
+    while (this.numRunningJobs < this.maxRunningJobs) {
+      final FlowJobExecutor flow = pickNextFlow();
+      if (flow == null) {
+        return;
+      }
+
+      final QueuedJob job = flow.pendingJobs.poll();
+      this.numQueuedJobs--;
+      this.numRunningJobs++;
+      flow.numRunningJobs++;
+      this.execMetrics.addJobQueueWait(System.currentTimeMillis() - job.queuedTime);
+      try {
+        this.workers.execute(() -> runJob(flow, job.command));
+      } catch (final RejectedExecutionException e) {
+        LOGGER.error("Job of execution " + flow.execId + " was rejected, the job scheduler is "
+            + "shut down.", e);
+        jobDone(flow);
+        return;
+      }
+    }
+  }
+
+  /**
+   * @return the flow that has the fewest running jobs relative to its weight among the flows that
+   * can start a queued job, null if there is none.
+   */
+  private FlowJobExecutor pickNextFlow() {
+    FlowJobExecutor next = null;
+    for (final FlowJobExecutor flow : this.activeFlows) {
+      if (flow.pendingJobs.isEmpty() || flow.numRunningJobs >= flow.maxJobs) {
+        continue;
+      }
+      if (next == null) {
+        next = flow;
+        continue;
+      }
+      final long share = (long) flow.numRunningJobs * next.weight;
+      final long nextShare = (long) next.numRunningJobs * flow.weight;
+      if (share < nextShare || (share == nextShare
+          && flow.pendingJobs.peek().queuedTime < next.pendingJobs.peek().queuedTime)) {
+        next = flow;
+      }
+    }
+    return next;
+  }
+
+  private void runJob(final FlowJobExecutor flow, final Runnable command) {
+    try {
+      command.run();
+    } catch (final RuntimeException e) {
+      LOGGER.error("Job of execution " + flow.execId + " failed to run.", e);
+    } finally {
+      synchronized (this) {
+        jobDone(flow);
+        dispatch();
+      }
+    }
+  }
+
+  // Called with the lock held
+  private void jobDone(final FlowJobExecutor flow) {
+    this.numRunningJobs--;
+    flow.numRunningJobs--;
+    if (flow.isIdle()) {
+      this.activeFlows.remove(flow);
+    }
+    notifyAll();
+  }
+
+  private static class QueuedJob {
+
+    private final Runnable command;
+    private final long queuedTime;
+
+    private QueuedJob(final Runnable command, final long queuedTime) {
+      this.command = command;
+      this.queuedTime = queuedTime;
+    }
+  }
+
+  /**
+   * The view of the pool for a single flow. All the state is guarded by the {@link JobScheduler}.
+   */
+  private class FlowJobExecutor extends AbstractExecutorService {
+
+    private final int execId;
+    private final int weight;
+    private final int maxJobs;
+    private final Deque<QueuedJob> pendingJobs = new ArrayDeque<>();
+    private int numRunningJobs = 0;
+    private boolean shutdown = false;
+
+    private FlowJobExecutor(final int execId, final int weight, final int maxJobs) {
+      this.execId = execId;
+      this.weight = weight;
+      this.maxJobs = maxJobs;
+    }
+
+    @Override
+    public void execute(final Runnable command) {
+      synchronized (JobScheduler.this) {
+        if (this.shutdown || JobScheduler.this.workers.isShutdown()) {
+          throw new RejectedExecutionException(
+              "Jobs of execution " + this.execId + " are no longer accepted.");
+        }
+        this.pendingJobs.add(new QueuedJob(command, System.currentTimeMillis()));
+        JobScheduler.this.numQueuedJobs++;
+        JobScheduler.this.activeFlows.add(this);
+        dispatch();
+      }
+    }
+
+    @Override
+    public void shutdown() {
+      synchronized (JobScheduler.this) {
+        this.shutdown = true;
+      }
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+      synchronized (JobScheduler.this) {
+        this.shutdown = true;
+        final List<Runnable> notStarted = new ArrayList<>(this.pendingJobs.size());
+        for (final QueuedJob job : this.pendingJobs) {
+          notStarted.add(job.command);
+        }
+        JobScheduler.this.numQueuedJobs -= this.pendingJobs.size();
+        this.pendingJobs.clear();
+        if (isIdle()) {
+          JobScheduler.this.activeFlows.remove(this);
+        }
+        return notStarted;
+      }
+    }
+
+    @Override
+    public boolean isShutdown() {
+      synchronized (JobScheduler.this) {
+        return this.shutdown;
+      }
+    }
+
+    @Override
+    public boolean isTerminated() {
+      synchronized (JobScheduler.this) {
+        return this.shutdown && isIdle();
+      }
+    }
+
+    @Override
+    public boolean awaitTermination(final long timeout, final TimeUnit unit)
+        throws InterruptedException {
+      final long deadline = System.nanoTime() + unit.toNanos(timeout);
+      synchronized (JobScheduler.this) {
+        while (!isTerminated()) {
+          final long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+          if (remainingMs <= 0) {
+            return false;
+          }
+          JobScheduler.this.wait(remainingMs);
+        }
+        return true;
+      }
+    }
+
+    private boolean isIdle() {
+      return this.pendingJobs.isEmpty() && this.numRunningJobs == 0;
+    }
+  }
+}
@@ -25,13 +25,14 @@ import java.io.FilenameFilter;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
 import java.time.Duration;
-import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
+import java.util.NavigableSet;
 import java.util.Objects;
+import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutorService;
@@ -62,12 +63,23 @@ class ProjectCacheCleaner {
 
   private static final double DEFAULT_THROTTLE_PERCENTAGE = 0.92; // 92%
 
+  private static final Comparator<ProjectDirectoryMetadata> LAST_ACCESS_ORDER = Comparator
+      .comparing(ProjectDirectoryMetadata::getLastAccessTime,
+          Comparator.nullsFirst(Comparator.<FileTime>naturalOrder()))
+      .thenComparing(project -> project.getInstalledDir().toPath());
+
   // If space in Cache partition goes above this Percentage, incoming request must wait
   // till the current cache cleanup cycle is done
   private double throttlePercentage;
 
-  // Currently cached projects
+  // Index of the currently cached projects. It is loaded from the project dirs on first use, then
+  // updated as projects are installed, accessed and deleted. Guarded by this.
   private final Map<Path, ProjectDirectoryMetadata> cachedProjects = new HashMap<>();
+  // Same projects, least recently accessed first
+  private final NavigableSet<ProjectDirectoryMetadata> projectsByLastAccess =
+      new TreeSet<>(LAST_ACCESS_ORDER);
+  private long cachedProjectsSizeInBytes = 0;
+  private boolean indexLoaded = false;
 
   // A record of projects under deletion
   private final ConcurrentMap<Path, File> projectsUnderDeletion = new ConcurrentHashMap<>();
@@ -115,23 +127,21 @@ class ProjectCacheCleaner {
    * @return OS Metadata for the given path
    */
   private ProjectDirectoryMetadata fetchProjectMetadata(final Path project) {
-    ProjectDirectoryMetadata projectDirectoryMetadata = this.cachedProjects.get(project);
+    ProjectDirectoryMetadata projectDirectoryMetadata = null;
 
     try {
-      if (projectDirectoryMetadata == null) {
-        final String fileName = project.getFileName().toString();
-        final int projectId = Integer.parseInt(fileName.split("\\.")[0]);
-        final int versionNum = Integer.parseInt(fileName.split("\\.")[1]);
-        projectDirectoryMetadata = new ProjectDirectoryMetadata(projectId, versionNum, project.toFile());
-
-        /*
-         * Calculate used-space (Equivalent of du command) only if the metadata for
-         * this project was never fetched before. This optimization is important as
-         * recursive space calculation is a very expensive operation.
-         */
-        projectDirectoryMetadata.setDirSizeInByte(
-            FlowPreparer.calculateDirSizeAndSave(projectDirectoryMetadata.getInstalledDir()));
-      }
+      final String fileName = project.getFileName().toString();
+      final int projectId = Integer.parseInt(fileName.split("\\.")[0]);
+      final int versionNum = Integer.parseInt(fileName.split("\\.")[1]);
+      projectDirectoryMetadata = new ProjectDirectoryMetadata(projectId, versionNum, project.toFile());
+
+      /*
+       * Recursive space calculation (Equivalent of du command) is a very expensive operation,
+       * so it is read from the size file saved in the project dir, and only done once per
+       * project when the index is loaded.
+       */
+      projectDirectoryMetadata.setDirSizeInByte(
+          FlowPreparer.calculateDirSizeAndSave(projectDirectoryMetadata.getInstalledDir()));
 
       projectDirectoryMetadata.setLastAccessTime(
           Files.getLastModifiedTime(Paths.get(projectDirectoryMetadata.getInstalledDir().toString(),
@@ -145,11 +155,18 @@ class ProjectCacheCleaner {
   }
 
   /**
-   * Browse Cache root directory to fetch all valid projects and unclean files. If a project
-   * already exists in the cache, don't bother to re-fetch the OS metadata again.
+   * Browse Cache root directory to fetch all valid projects, unless the index of the cached
+   * projects was already loaded. Afterwards, the index is kept up to date by the calls of {@link
+   * #projectInstalled} and {@link #projectAccessed}, and by the deletions of the cleaner.
+   *
+   * <p>The sizes and last access times of the projects are persisted in the project dirs, in the
+   * file keeping the size and in its last modified time, so the index survives restarts.
    */
-  private void loadAllProjects() {
-    final List<Path> projects = new ArrayList<>();
+  private void loadIndexIfNecessary() {
+    if (this.indexLoaded) {
+      return;
+    }
+    final long start = System.currentTimeMillis();
     for (final File project : Objects
         .requireNonNull(this.projectCacheDir.listFiles(new FilenameFilter() {
           String pattern = "[0-9]+\\.[0-9]+";
@@ -162,21 +179,64 @@ class ProjectCacheCleaner {
           !projectsUnderDeletion.containsKey(project.toPath())) {
         ProjectDirectoryMetadata projectDirectoryMetadata = fetchProjectMetadata(project.toPath());
         if (projectDirectoryMetadata != null) {
-            cachedProjects.put(project.toPath(), projectDirectoryMetadata);
+          addToIndex(projectDirectoryMetadata);
         }
       }
     } // end of for loop
+    this.indexLoaded = true;
+    log.info("Loading {} project dirs metadata completed in {} msecs",
+        this.cachedProjects.size(), System.currentTimeMillis() - start);
+  }
+
+  private void addToIndex(final ProjectDirectoryMetadata project) {
+    removeFromIndex(project.getInstalledDir().toPath());
+    this.cachedProjects.put(project.getInstalledDir().toPath(), project);
+    this.projectsByLastAccess.add(project);
+    this.cachedProjectsSizeInBytes += getDirSizeInBytes(project);
+  }
+
+  private void removeFromIndex(final Path projectDir) {
+    final ProjectDirectoryMetadata project = this.cachedProjects.remove(projectDir);
+    if (project != null) {
+      this.projectsByLastAccess.remove(project);
+      this.cachedProjectsSizeInBytes -= getDirSizeInBytes(project);
+    }
+  }
+
+  private static long getDirSizeInBytes(final ProjectDirectoryMetadata project) {
+    return project.getDirSizeInByte() == null ? 0 : project.getDirSizeInByte();
   }
 
   /**
-   * @return sum of the size of all project dirs
+   * Adds a project which was just installed in the cache to the index.
+   *
+   * @param project the installed project, with its installed dir and dir size
    */
-  private long getProjectDirsTotalSizeInBytes() {
-    long totalSizeInBytes = 0;
-    for (ProjectDirectoryMetadata metadata : cachedProjects.values()) {
-      totalSizeInBytes += metadata.getDirSizeInByte();
+  public synchronized void projectInstalled(final ProjectDirectoryMetadata project) {
+    if (!this.indexLoaded) {
+      // The project is found in the cache dir when the index is loaded
+      return;
+    }
+    final ProjectDirectoryMetadata indexed = new ProjectDirectoryMetadata(project.getProjectId(),
+        project.getVersion(), project.getInstalledDir());
+    indexed.setDirSizeInByte(project.getDirSizeInByte());
+    indexed.setLastAccessTime(FileTime.fromMillis(System.currentTimeMillis()));
+    addToIndex(indexed);
+  }
+
+  /**
+   * Records an access to a cached project, which makes it the most recently used one.
+   *
+   * @param installedDir the installed dir of the project
+   */
+  public synchronized void projectAccessed(final File installedDir) {
+    final ProjectDirectoryMetadata project = this.cachedProjects.get(installedDir.toPath());
+    if (project != null) {
+      // The order of the set must not change while the project is in it
+      this.projectsByLastAccess.remove(project);
+      project.setLastAccessTime(FileTime.fromMillis(System.currentTimeMillis()));
+      this.projectsByLastAccess.add(project);
     }
-    return totalSizeInBytes;
   }
 
   private void addToDeletionQueue(final File toDelete) {
@@ -223,19 +283,11 @@ class ProjectCacheCleaner {
    * @param sizeToFreeInBytes space to free up
    */
   private void deleteLeastRecentlyUsedProjects(long sizeToFreeInBytes) {
-
-    final List<ProjectDirectoryMetadata> lruList = new ArrayList<>(cachedProjects.values());
-    lruList.sort(Comparator.comparing(ProjectDirectoryMetadata::getLastAccessTime));
-    for (ProjectDirectoryMetadata lruEntry : lruList) {
-      if (sizeToFreeInBytes > 0) {
-        if (lruEntry.getInstalledDir() != null) {
-          cachedProjects.remove(lruEntry.getInstalledDir().toPath());
-          submitProjectForDeletion(lruEntry.getInstalledDir());
-          sizeToFreeInBytes -= lruEntry.getDirSizeInByte();
-        }
-      } else {
-        break;
-      }
+    while (sizeToFreeInBytes > 0 && !this.projectsByLastAccess.isEmpty()) {
+      final ProjectDirectoryMetadata lruEntry = this.projectsByLastAccess.first();
+      removeFromIndex(lruEntry.getInstalledDir().toPath());
+      submitProjectForDeletion(lruEntry.getInstalledDir());
+      sizeToFreeInBytes -= getDirSizeInBytes(lruEntry);
     }
   }
 
@@ -282,13 +334,29 @@ class ProjectCacheCleaner {
   public void deleteProjectDirsIfNecessary(final long newProjectSizeInBytes) {
     final long cachePartitionSize = this.projectCacheDir.getTotalSpace();
     final long availablePartitionSize = this.projectCacheDir.getUsableSpace();
+    final boolean throttleAfterDeletion;
 
-    final long start = System.currentTimeMillis();
-    loadAllProjects();
-    log.info("Loading {} project dirs metadata completed in {} msecs",
-        cachedProjects.size(), System.currentTimeMillis() - start);
+    synchronized (this) {
+      loadIndexIfNecessary();
+      throttleAfterDeletion = evictIfNecessary(cachePartitionSize, availablePartitionSize,
+          newProjectSizeInBytes);
+    }
 
-    final long currentCacheSize = getProjectDirsTotalSizeInBytes();
+    if (throttleAfterDeletion) {
+      /*
+       * Block till already submitted cleanup is done.
+       */
+      log.info("Throttle Watermark was hit. Blocking till LRU eviction is complete.");
+      finishPendingCleanup();
+    }
+  }
+
+  /**
+   * @return true if the cleanup should be throttled
+   */
+  private boolean evictIfNecessary(final long cachePartitionSize,
+      final long availablePartitionSize, final long newProjectSizeInBytes) {
+    final long currentCacheSize = this.cachedProjectsSizeInBytes;
     final long projectCacheDirCapacity = currentCacheSize + availablePartitionSize;
     boolean throttleAfterDeletion = false;
 
@@ -314,14 +382,19 @@ class ProjectCacheCleaner {
       log.info("Projected cache size exceeds High Watermark. LRU Eviction will kick in");
       deleteLeastRecentlyUsedProjects(projectedCacheSize - highWatermark);
     }
+    return throttleAfterDeletion;
+  }
 
-    if (throttleAfterDeletion) {
-      /*
-       * Block till already submitted cleanup is done.
-       */
-      log.info("Throttle Watermark was hit. Blocking till LRU eviction is complete.");
-      finishPendingCleanup();
-    }
+  /**
+   * @param newProjectSizeInBytes space in bytes the new project will add to the existing cache
+   * @return true if the new project fits below the high water mark, without evicting any project.
+   */
+  public synchronized boolean hasRoomFor(final long newProjectSizeInBytes) {
+    loadIndexIfNecessary();
+    final long currentCacheSize = this.cachedProjectsSizeInBytes;
+    final long projectCacheDirCapacity = currentCacheSize + this.projectCacheDir.getUsableSpace();
+    final long highWatermark = (long) (projectCacheDirCapacity * this.percentageOfDisk);
+    return currentCacheSize + newProjectSizeInBytes < highWatermark;
   }
 
   /**
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2020 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package azkaban.execapp;
+
+import azkaban.executor.ExecutorLoader;
+import azkaban.executor.ExecutorManagerException;
+import azkaban.utils.Pair;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Downloads the projects of queued executions into the project cache before the executions are
+ * dispatched, so that flows don't wait for the download of their project when they start.
+ *
+ * <p>In the poll model the queued executions an executor may claim next are known from the
+ * execution_flows table. Their project versions are prefetched in the background, one at a time,
+ * by {@link FlowPreparer#prefetchProject(int, int)}, which never evicts projects from the cache.
+ */
+public class ProjectPrefetcher {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ProjectPrefetcher.class);
+
+  private final FlowPreparer flowPreparer;
+  private final ExecutorLoader executorLoader;
+  private final int maxProjects;
+  private final ExecutorService prefetchService;
+  private final AtomicBoolean prefetching = new AtomicBoolean(false);
+
+  ProjectPrefetcher(final FlowPreparer flowPreparer, final ExecutorLoader executorLoader,
+      final int maxProjects) {
+    this.flowPreparer = flowPreparer;
+    this.executorLoader = executorLoader;
+    this.maxProjects = maxProjects;
+    this.prefetchService = Executors.newSingleThreadExecutor(
+        new ThreadFactoryBuilder().setNameFormat("azk-project-prefetcher").setDaemon(true)
+            .build());
+  }
+
+  /**
+   * Starts prefetching the projects of the executions the executor may claim next, unless a
+   * prefetch is still running.
+   */
+  public void prefetchQueuedProjects(final int executorId, final boolean isActive) {
+    if (!this.prefetching.compareAndSet(false, true)) {
+      return;
+    }
+    try {
+      this.prefetchService.execute(() -> {
+        try {
+          prefetch(executorId, isActive);
+        } finally {
+          this.prefetching.set(false);
+        }
+      });
+    } catch (final RejectedExecutionException e) {
+      this.prefetching.set(false);
+    }
+  }
+
+  @VisibleForTesting
+  void prefetch(final int executorId, final boolean isActive) {
+    final List<Pair<Integer, Integer>> projectVersions;
+    try {
+      projectVersions = this.executorLoader
+          .fetchQueuedProjectVersions(executorId, isActive, this.maxProjects);
+    } catch (final ExecutorManagerException e) {
+      LOGGER.warn("Failed to fetch the projects of queued executions", e);
+      return;
+    }
+
+    for (final Pair<Integer, Integer> projectVersion : projectVersions) {
+      try {
+        this.flowPreparer.prefetchProject(projectVersion.getFirst(), projectVersion.getSecond());
+      } catch (final Exception e) {
+        // The flow downloads the project itself when it starts
+        LOGGER.warn("Failed to prefetch project {} version {}", projectVersion.getFirst(),
+            projectVersion.getSecond(), e);
+      }
+    }
+  }
+
+  public void shutdown() {
+    this.prefetchService.shutdownNow();
+  }
+}
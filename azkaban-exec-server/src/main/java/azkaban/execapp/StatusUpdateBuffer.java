@@ -0,0 +1,196 @@
+/*
+ * Copyright 2020 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package azkaban.execapp;
+
+import azkaban.executor.ExecutableNode;
+import azkaban.executor.ExecutableNodeUpdate;
+import azkaban.executor.ExecutorLoader;
+import azkaban.executor.ExecutorManagerException;
+import com.codahale.metrics.Timer;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Executor-wide write-behind buffer for non-terminal flow and job status updates.
+ *
+ * <p>Updates for the same execution or the same job attempt are coalesced until the next flush,
+ * so only the latest state is written. The state of a job is captured when its update is
+ * submitted. Job updates are written in a single JDBC batch. Flow updates are
+ * written through the callback of the owning {@link FlowRunner}, which decides between a snapshot
+ * and a delta. Terminal updates are not buffered: callers flush them synchronously.
+ */
+@SuppressWarnings("FutureReturnValueIgnored")
+public class StatusUpdateBuffer {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(StatusUpdateBuffer.class);
+
+  private final ExecutorLoader executorLoader;
+  private final ExecMetrics execMetrics;
+  private final long flushIntervalMs;
+  private final ScheduledExecutorService scheduler;
+
+  // Guarded by this
+  private Map<Integer, Runnable> pendingFlowUpdates = new LinkedHashMap<>();
+  // Guarded by this
+  private Map<String, ExecutableNodeUpdate> pendingNodeUpdates = new LinkedHashMap<>();
+  // Serializes node writes so that an older state of a node never overwrites a newer one
+  private final Object nodeFlushLock = new Object();
+
+  private final AtomicLong numSubmittedUpdates = new AtomicLong();
+  private final AtomicLong numWrittenUpdates = new AtomicLong();
+
+  public StatusUpdateBuffer(final ExecutorLoader executorLoader, final ExecMetrics execMetrics,
+      final long flushIntervalMs) {
+    this.executorLoader = executorLoader;
+    this.execMetrics = execMetrics;
+    this.flushIntervalMs = flushIntervalMs;
+    this.scheduler = Executors.newSingleThreadScheduledExecutor(
+        new ThreadFactoryBuilder().setNameFormat("azk-status-update-flusher").setDaemon(true)
+            .build());
+  }
+
+  public void start() {
+    this.scheduler.scheduleWithFixedDelay(this::flush, this.flushIntervalMs,
+        this.flushIntervalMs, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Buffers a flow update. Only the last persister submitted for an execution before the next
+   * flush is run.
+   */
+  public synchronized void bufferFlowUpdate(final int execId, final Runnable persister) {
+    this.numSubmittedUpdates.incrementAndGet();
+    this.pendingFlowUpdates.put(execId, persister);
+  }
+
+  /**
+   * Drops the pending update of an execution. Called before the flow is written synchronously.
+   */
+  public synchronized void removeFlowUpdate(final int execId) {
+    if (this.pendingFlowUpdates.remove(execId) != null) {
+      this.numWrittenUpdates.incrementAndGet();
+    }
+  }
+
+  /**
+   * Buffers a job update, with the current state of the node.
+   */
+  public void bufferNodeUpdate(final ExecutableNode node) {
+    // Captured by the caller, which is the thread changing the node
+    final ExecutableNodeUpdate update = new ExecutableNodeUpdate(node);
+    synchronized (this) {
+      this.numSubmittedUpdates.incrementAndGet();
+      this.pendingNodeUpdates.put(getNodeKey(update), update);
+    }
+  }
+
+  /**
+   * Writes all the buffered job updates, including the given node, before returning.
+   */
+  public void writeNodeUpdate(final ExecutableNode node) throws ExecutorManagerException {
+    bufferNodeUpdate(node);
+    flushNodeUpdates();
+  }
+
+  public synchronized int getQueueDepth() {
+    return this.pendingFlowUpdates.size() + this.pendingNodeUpdates.size();
+  }
+
+  /**
+   * @return the number of submitted updates per database write, 1.0 if nothing was coalesced.
+   */
+  public double getCoalesceRatio() {
+    final long written = this.numWrittenUpdates.get();
+    return written == 0 ? 1.0 : (double) this.numSubmittedUpdates.get() / written;
+  }
+
+  public void shutdown() {
+    this.scheduler.shutdown();
+    try {
+      this.scheduler.awaitTermination(this.flushIntervalMs, TimeUnit.MILLISECONDS);
+    } catch (final InterruptedException e) {
+      LOGGER.warn("Interrupted while waiting for the status update flusher to stop", e);
+    }
+    flush();
+  }
+
+  private void flush() {
+    try {
+      flushNodeUpdates();
+    } catch (final ExecutorManagerException e) {
+      LOGGER.error("Failed to flush buffered job status updates", e);
+    }
+    flushFlowUpdates();
+  }
+
+  private void flushNodeUpdates() throws ExecutorManagerException {
+    synchronized (this.nodeFlushLock) {
+      final List<ExecutableNodeUpdate> nodes;
+      synchronized (this) {
+        if (this.pendingNodeUpdates.isEmpty()) {
+          return;
+        }
+        nodes = new ArrayList<>(this.pendingNodeUpdates.values());
+        this.pendingNodeUpdates = new LinkedHashMap<>();
+      }
+      final Timer.Context context = this.execMetrics.getStatusUpdateFlushTimerContext();
+      try {
+        this.executorLoader.updateExecutableNodes(nodes);
+      } finally {
+        context.stop();
+        this.numWrittenUpdates.addAndGet(nodes.size());
+      }
+    }
+  }
+
+  private void flushFlowUpdates() {
+    final List<Runnable> persisters;
+    synchronized (this) {
+      if (this.pendingFlowUpdates.isEmpty()) {
+        return;
+      }
+      persisters = new ArrayList<>(this.pendingFlowUpdates.values());
+      this.pendingFlowUpdates = new LinkedHashMap<>();
+    }
+    final Timer.Context context = this.execMetrics.getStatusUpdateFlushTimerContext();
+    try {
+      for (final Runnable persister : persisters) {
+        try {
+          persister.run();
+        } catch (final RuntimeException e) {
+          LOGGER.error("Failed to flush buffered flow status update", e);
+        }
+      }
+    } finally {
+      context.stop();
+      this.numWrittenUpdates.addAndGet(persisters.size());
+    }
+  }
+
+  private static String getNodeKey(final ExecutableNodeUpdate node) {
+    return node.getExecId() + ":" + node.getNestedId() + ":" + node.getAttempt();
+  }
+}
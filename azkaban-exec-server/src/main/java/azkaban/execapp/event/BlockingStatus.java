@@ -16,14 +16,23 @@
 package azkaban.execapp.event;
 
 import azkaban.executor.Status;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
-
+/**
+ * Lets a job wait for the status of a job of another execution. Waits use a {@link Lock} rather
+ * than a monitor so that waiting virtual threads don't pin their carrier thread.
+ */
 public class BlockingStatus {
 
   private static final long WAIT_TIME = 300000;  // 5 * 60 * 1000
   private final int execId;
   private final String jobId;
-  private Status status;
+  private final Lock lock = new ReentrantLock();
+  private final Condition statusChanged = this.lock.newCondition();
+  private volatile Status status;
 
   public BlockingStatus(final int execId, final String jobId, final Status initialStatus) {
     this.execId = execId;
@@ -37,11 +46,12 @@ public class BlockingStatus {
     }
 
     while (!Status.isStatusFinished(this.status)) {
-      synchronized (this) {
-        try {
-          this.wait(WAIT_TIME);
-        } catch (final InterruptedException e) {
-        }
+      this.lock.lock();
+      try {
+        this.statusChanged.await(WAIT_TIME, TimeUnit.MILLISECONDS);
+      } catch (final InterruptedException e) {
+      } finally {
+        this.lock.unlock();
       }
     }
 
@@ -53,17 +63,23 @@ public class BlockingStatus {
   }
 
   public void unblock() {
-    synchronized (this) {
-      this.notifyAll();
+    this.lock.lock();
+    try {
+      this.statusChanged.signalAll();
+    } finally {
+      this.lock.unlock();
     }
   }
 
   public void changeStatus(final Status status) {
-    synchronized (this) {
+    this.lock.lock();
+    try {
       this.status = status;
       if (Status.isStatusFinished(status)) {
         unblock();
       }
+    } finally {
+      this.lock.unlock();
     }
   }
 
@@ -77,6 +77,32 @@ public class DagTest {
     verify(this.mockDagProcessor, never()).changeStatus(any(), any());
   }
 
+  /**
+   * Tests a node runs only after all of its parents have succeeded.
+   * <pre>
+   *   a   b
+   *    \ /
+   *     c
+   * </pre>
+   */
+  @Test
+  public void node_runs_after_all_parents_succeed() {
+    final Node aNode = createAndAddNode("a");
+    final Node bNode = createAndAddNode("b");
+    final Node cNode = createAndAddNode("c");
+    cNode.addParent(aNode);
+    cNode.addParent(bNode);
+
+    this.testFlow.start();
+    assertThat(cNode.getStatus()).isEqualTo(Status.READY);
+    aNode.markSuccess();
+    assertThat(cNode.getStatus()).isEqualTo(Status.READY);
+    bNode.markSuccess();
+    assertThat(cNode.getStatus()).isEqualTo(Status.RUNNING);
+    cNode.markSuccess();
+    assertThat(this.testFlow.getStatus()).isEqualTo(Status.SUCCESS);
+  }
+
   /**
    * Tests ready nodes are canceled when the dag is killed.
    */
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2020 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package azkaban.execapp;
+
+import static azkaban.utils.ThinArchiveUtils.getDependencyFile;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import azkaban.spi.Dependency;
+import azkaban.spi.DependencyFile;
+import azkaban.test.executions.ThinArchiveTestUtils;
+import azkaban.utils.DependencyTransferManager;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class DependencyCacheTest {
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+  private File projectsDir;
+  private DependencyTransferManager dependencyTransferManager;
+  private DependencyCache dependencyCache;
+
+  @Before
+  public void setUp() throws Exception {
+    this.projectsDir = this.temporaryFolder.newFolder("projects");
+    this.dependencyTransferManager = mock(DependencyTransferManager.class);
+    doAnswer(invocation -> {
+      final Set<DependencyFile> deps = invocation.getArgument(0);
+      for (final DependencyFile dep : deps) {
+        FileUtils.writeStringToFile(dep.getFile(), dep.getSHA1(), StandardCharsets.UTF_8);
+      }
+      return null;
+    }).when(this.dependencyTransferManager).downloadAllDependencies(any());
+    this.dependencyCache = new DependencyCache(this.projectsDir, this.dependencyTransferManager);
+  }
+
+  private Set<DependencyFile> getDependencyFiles(final File projectDir,
+      final Set<Dependency> deps) {
+    return deps.stream().map(d -> getDependencyFile(projectDir, d)).collect(Collectors.toSet());
+  }
+
+  @Test
+  public void testDependenciesAreDownloadedOnce() throws Exception {
+    final Set<Dependency> deps = ThinArchiveTestUtils.getDepSetAB();
+    final File projectDir1 = new File(this.projectsDir, "1.1");
+    final File projectDir2 = new File(this.projectsDir, "1.2");
+
+    this.dependencyCache.installDependencies(getDependencyFiles(projectDir1, deps));
+    this.dependencyCache.installDependencies(getDependencyFiles(projectDir2, deps));
+
+    verify(this.dependencyTransferManager, times(1)).downloadAllDependencies(any());
+    final Dependency depA = ThinArchiveTestUtils.getDepA();
+    final File storedFile = this.dependencyCache.getStoredFile(depA.getSHA1());
+    assertThat(getDependencyFile(projectDir2, depA).getFile()).hasContent(depA.getSHA1());
+    // Linked by the store and the two project dirs
+    assertThat(this.dependencyCache.getLinkCount(storedFile)).isEqualTo(3);
+  }
+
+  @Test
+  public void testDeleteUnreferencedDependencies() throws Exception {
+    final File projectDir1 = new File(this.projectsDir, "1.1");
+    final File projectDir2 = new File(this.projectsDir, "2.1");
+    this.dependencyCache.installDependencies(
+        getDependencyFiles(projectDir1, ThinArchiveTestUtils.getDepSetAB()));
+    this.dependencyCache.installDependencies(
+        getDependencyFiles(projectDir2, ThinArchiveTestUtils.getDepSetA()));
+
+    FileUtils.deleteDirectory(projectDir1);
+    assertThat(this.dependencyCache.deleteUnreferencedDependencies()).isEqualTo(1);
+    assertThat(this.dependencyCache.getStoredFile(ThinArchiveTestUtils.getDepA().getSHA1()))
+        .exists();
+    assertThat(this.dependencyCache.getStoredFile(ThinArchiveTestUtils.getDepB().getSHA1()))
+        .doesNotExist();
+
+    // Downloaded again when needed
+    this.dependencyCache.installDependencies(
+        getDependencyFiles(projectDir1, ThinArchiveTestUtils.getDepSetAB()));
+    verify(this.dependencyTransferManager, times(2)).downloadAllDependencies(any());
+    assertThat(getDependencyFile(projectDir1, ThinArchiveTestUtils.getDepB()).getFile())
+        .exists();
+  }
+}
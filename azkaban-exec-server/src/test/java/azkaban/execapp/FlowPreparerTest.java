@@ -26,8 +26,10 @@ import azkaban.storage.ProjectStorageManager;
 import azkaban.test.executions.ThinArchiveTestUtils;
 import azkaban.utils.DependencyTransferManager;
 import azkaban.utils.FileIOUtils;
+import azkaban.utils.Pair;
 import azkaban.utils.Utils;
 import java.io.File;
+import java.io.FileInputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -64,6 +66,8 @@ public class FlowPreparerTest {
   private File projectsDir;
   private FlowPreparer instance;
   private DependencyTransferManager dependencyTransferManager;
+  private ExecMetrics execMetrics;
+  private ProjectStorageManager projectStorageManager;
 
   private ProjectStorageManager createMockStorageManager() throws Exception {
     final ClassLoader classLoader = getClass().getClassLoader();
@@ -87,6 +91,8 @@ public class FlowPreparerTest {
     final ProjectStorageManager projectStorageManager = mock(ProjectStorageManager.class);
     when(projectStorageManager.getProjectFile(eq(FAT_PROJECT_ID), anyInt())).thenReturn(projectFileHandlerFAT);
     when(projectStorageManager.getProjectFile(eq(THIN_PROJECT_ID), anyInt())).thenReturn(projectFileHandlerTHIN);
+    when(projectStorageManager.getProjectFileStream(eq(THIN_PROJECT_ID), anyInt())).thenAnswer(
+        invocation -> new Pair<>(projectFileHandlerTHIN, new FileInputStream(zipTHIN)));
     return projectStorageManager;
   }
 
@@ -105,10 +111,12 @@ public class FlowPreparerTest {
     this.projectsDir = this.temporaryFolder.newFolder("projects");
 
     this.dependencyTransferManager = mock(DependencyTransferManager.class);
+    this.execMetrics = mock(ExecMetrics.class);
+    this.projectStorageManager = createMockStorageManager();
 
     this.instance = spy(
-        new FlowPreparer(createMockStorageManager(), this.dependencyTransferManager, this.projectsDir, null,
-            new ProjectCacheHitRatio(), this.executionsDir));
+        new FlowPreparer(this.projectStorageManager, this.dependencyTransferManager, this.projectsDir, null, null,
+            new ProjectCacheHitRatio(), this.executionsDir, this.execMetrics, false));
     doNothing().when(this.instance).updateLastModifiedTime(any());
   }
 
@@ -192,6 +200,67 @@ public class FlowPreparerTest {
     }
   }
 
+  @Test
+  public void testProjectIsDownloadedOnceByMultipleThreads() throws Exception {
+    final int threadNum = 4;
+    final ExecutorService service = Executors.newFixedThreadPool(threadNum);
+
+    final List<Future<?>> futures = new ArrayList<>();
+    for (int i = 1; i <= threadNum; i++) {
+      final ExecutableFlow flow = mockExecutableFlow(i, FAT_PROJECT_ID, 34);
+      futures.add(service.submit(() -> {
+        this.instance.setup(flow);
+        return null;
+      }));
+    }
+    // Another version of the project is prepared alongside
+    futures.add(service.submit(() -> {
+      this.instance.setup(mockExecutableFlow(threadNum + 1, FAT_PROJECT_ID, 35));
+      return null;
+    }));
+
+    for (final Future<?> future : futures) {
+      future.get();
+    }
+    service.shutdownNow();
+
+    verify(this.instance, times(1))
+        .downloadAndUnzipProject(argThat(p -> p.getVersion() == 34), anyInt(), any());
+    verify(this.instance, times(1))
+        .downloadAndUnzipProject(argThat(p -> p.getVersion() == 35), anyInt(), any());
+    verify(this.execMetrics, times(threadNum + 1)).addFlowPrepWait(anyLong());
+    verify(this.execMetrics, times(threadNum + 1)).addFlowPrepWork(anyLong());
+  }
+
+  @Test
+  public void testPrefetchedProjectIsUsedBySetup() throws Exception {
+    assertThat(this.instance.prefetchProject(FAT_PROJECT_ID, 34)).isTrue();
+    // Already installed
+    assertThat(this.instance.prefetchProject(FAT_PROJECT_ID, 34)).isFalse();
+
+    final ExecutableFlow flow = mockExecutableFlow(1, FAT_PROJECT_ID, 34);
+    this.instance.setup(flow);
+
+    verify(this.instance, times(1)).downloadAndUnzipProject(any(), anyInt(), any());
+    verify(this.execMetrics).markProjectPrefetchHit();
+    verify(this.execMetrics, never()).markProjectPrefetchMiss();
+    assertTrue(new File(new File(this.executionsDir, "1"), SAMPLE_FLOW_01).exists());
+  }
+
+  @Test
+  public void testPrefetchDoesNotEvictProjects() throws Exception {
+    final ProjectCacheCleaner cleaner = mock(ProjectCacheCleaner.class);
+    when(cleaner.hasRoomFor(anyLong())).thenReturn(false);
+    final FlowPreparer preparer = new FlowPreparer(this.projectStorageManager,
+        this.dependencyTransferManager, this.projectsDir, cleaner, null, new ProjectCacheHitRatio(),
+        this.executionsDir, this.execMetrics, false);
+
+    assertThat(preparer.prefetchProject(FAT_PROJECT_ID, 34)).isFalse();
+    verify(cleaner, never()).deleteProjectDirsIfNecessary(anyLong());
+    // The downloaded project is discarded
+    assertThat(this.projectsDir.list()).isEmpty();
+  }
+
   @Test
   public void testSetupFlow() throws ExecutorManagerException {
     final ExecutableFlow executableFlow = mock(ExecutableFlow.class);
@@ -225,4 +294,37 @@ public class FlowPreparerTest {
     Set<Dependency> expectedDownloadedDeps = ThinArchiveTestUtils.getDepSetAB();
     verify(this.dependencyTransferManager).downloadAllDependencies(depSetEq(expectedDownloadedDeps));
   }
+
+  @Test
+  public void testStreamAndUnzipProjectTHIN() throws Exception {
+    final FlowPreparer preparer = new FlowPreparer(this.projectStorageManager,
+        this.dependencyTransferManager, this.projectsDir, null, null, new ProjectCacheHitRatio(),
+        this.executionsDir, this.execMetrics, true);
+    final ProjectDirectoryMetadata proj = new ProjectDirectoryMetadata(THIN_PROJECT_ID, 34,
+        new File(this.projectsDir, SAMPLE_FLOW_01));
+    final File tmp = preparer.downloadProjectIfNotExists(proj, 124);
+
+    verify(this.projectStorageManager, never()).getProjectFile(anyInt(), anyInt());
+    verify(this.dependencyTransferManager)
+        .downloadAllDependencies(depSetEq(ThinArchiveTestUtils.getDepSetAB()));
+    assertThat(tmp.list()).isNotEmpty();
+    assertThat(proj.getDirSizeInByte()).isEqualTo(FileIOUtils.readNumberFromFile(
+        Paths.get(tmp.getPath(), FlowPreparer.PROJECT_DIR_SIZE_FILE_NAME)));
+    preparer.shutdown();
+  }
+
+  @Test
+  public void testStreamingFallsBackToLocalCopy() throws Exception {
+    final FlowPreparer preparer = new FlowPreparer(this.projectStorageManager,
+        this.dependencyTransferManager, this.projectsDir, null, null, new ProjectCacheHitRatio(),
+        this.executionsDir, this.execMetrics, true);
+    final ProjectDirectoryMetadata proj = new ProjectDirectoryMetadata(FAT_PROJECT_ID, 34,
+        new File(this.projectsDir, SAMPLE_FLOW_01));
+    // The storage of the FAT project doesn't support streaming
+    final File tmp = preparer.downloadProjectIfNotExists(proj, 124);
+
+    verify(this.projectStorageManager).getProjectFile(FAT_PROJECT_ID, 34);
+    assertThat(tmp.list()).contains(SAMPLE_FLOW_01);
+    preparer.shutdown();
+  }
 }
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2020 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package azkaban.execapp;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import azkaban.dag.DagService;
+import azkaban.executor.ExecutionOptions.FailureAction;
+import azkaban.executor.Status;
+import azkaban.utils.ExecutorServiceUtils;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.commons.io.FileUtils;
+import org.junit.Ignore;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Compares the time it takes to run a large fan-out flow of noop jobs when the flow graph is
+ * rescanned and when the dag engine is used.
+ *
+ * <pre>
+ *          start
+ *       /  |  ..  \
+ *   job_0 job_1 .. job_n
+ *       \  |  ..  /
+ *           end
+ * </pre>
+ */
+@Ignore("Benchmark, run manually")
+public class FlowRunnerDagEngineBenchmark {
+
+  private static final int NUM_FAN_OUT_JOBS = 2000;
+  private static final int NUM_JOB_THREADS = 100;
+  private static final int NUM_ROUNDS = 3;
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test
+  public void fanOutFlow() throws Exception {
+    final File projectDir = this.temporaryFolder.newFolder("fanout");
+    createFanOutProject(projectDir);
+    final FlowRunnerTestUtil testUtil = new FlowRunnerTestUtil(projectDir, this.temporaryFolder);
+    final DagService dagService = new DagService(new ExecutorServiceUtils());
+
+    try {
+      for (int i = 0; i < NUM_ROUNDS; i++) {
+        final long defaultEngineMs = runFlow(testUtil, null);
+        final long dagEngineMs = runFlow(testUtil, dagService);
+        System.out.println(String.format(
+            "Round %d, %d fan-out jobs: default engine %d ms, dag engine %d ms", i,
+            NUM_FAN_OUT_JOBS, defaultEngineMs, dagEngineMs));
+      }
+    } finally {
+      dagService.shutdownAndAwaitTermination();
+    }
+  }
+
+  private static long runFlow(final FlowRunnerTestUtil testUtil, final DagService dagService)
+      throws Exception {
+    final FlowRunner runner = testUtil.createFromFlowMap("end", FailureAction.FINISH_ALL_POSSIBLE)
+        .setNumJobThreads(NUM_JOB_THREADS)
+        .setDagService(dagService);
+    final long startTime = System.currentTimeMillis();
+    FlowRunnerTestUtil.startThread(runner).join();
+    final long duration = System.currentTimeMillis() - startTime;
+    assertThat(runner.getExecutableFlow().getStatus()).isEqualTo(Status.SUCCEEDED);
+    return duration;
+  }
+
+  private static void createFanOutProject(final File projectDir) throws Exception {
+    writeJob(projectDir, "start", null);
+    final List<String> fanOutJobs = new ArrayList<>();
+    for (int i = 0; i < NUM_FAN_OUT_JOBS; i++) {
+      final String jobName = "job_" + i;
+      writeJob(projectDir, jobName, "start");
+      fanOutJobs.add(jobName);
+    }
+    writeJob(projectDir, "end", String.join(",", fanOutJobs));
+  }
+
+  private static void writeJob(final File projectDir, final String name,
+      final String dependencies) throws Exception {
+    String content = "type=noop\n";
+    if (dependencies != null) {
+      content += "dependencies=" + dependencies + "\n";
+    }
+    FileUtils.writeStringToFile(new File(projectDir, name + ".job"), content,
+        StandardCharsets.UTF_8);
+  }
+}
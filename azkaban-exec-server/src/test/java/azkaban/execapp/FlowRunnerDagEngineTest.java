@@ -0,0 +1,207 @@
+/*
+ * Copyright 2020 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package azkaban.execapp;
+
+import azkaban.dag.DagService;
+import azkaban.dag.Node;
+import azkaban.executor.ExecutableFlow;
+import azkaban.executor.ExecutionOptions.FailureAction;
+import azkaban.executor.InteractiveTestJob;
+import azkaban.executor.Status;
+import azkaban.utils.ExecutorServiceUtils;
+import com.google.common.util.concurrent.Uninterruptibles;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Runs flows with the dag engine. The expected statuses are the same as when the flow graph is
+ * rescanned, see {@link FlowRunnerTest} and {@link FlowRunnerTest2}.
+ */
+public class FlowRunnerDagEngineTest extends FlowRunnerTestBase {
+
+  private final DagService dagService = new DagService(new ExecutorServiceUtils());
+
+  @After
+  public void tearDown() throws InterruptedException {
+    this.dagService.shutdownAndAwaitTermination();
+  }
+
+  @Test
+  public void runFlow() throws Exception {
+    final FlowRunnerTestUtil testUtil = new FlowRunnerTestUtil("exectest1",
+        this.temporaryFolder);
+    this.runner = testUtil.createFromFlowFile("exec1").setDagService(this.dagService);
+
+    FlowRunnerTestUtil.startThread(this.runner);
+    succeedJobs("job3", "job4", "job6");
+
+    waitForAndAssertFlowStatus(Status.SUCCEEDED);
+    assertThreadShutDown();
+    assertStatus("job1", Status.SUCCEEDED);
+    assertStatus("job5", Status.SUCCEEDED);
+    assertStatus("job7", Status.SUCCEEDED);
+    assertStatus("job10", Status.SUCCEEDED);
+  }
+
+  @Test
+  public void runFlowWithDisabledJobs() throws Exception {
+    final FlowRunnerTestUtil testUtil = new FlowRunnerTestUtil("exectest1",
+        this.temporaryFolder);
+    this.runner = testUtil.createFromFlowFile("exec1").setDagService(this.dagService);
+    final ExecutableFlow exFlow = this.runner.getExecutableFlow();
+    exFlow.getExecutableNode("job1").setStatus(Status.DISABLED);
+    exFlow.getExecutableNode("job10").setStatus(Status.DISABLED);
+
+    FlowRunnerTestUtil.startThread(this.runner);
+    succeedJobs("job3", "job4", "job6");
+
+    waitForAndAssertFlowStatus(Status.SUCCEEDED);
+    assertThreadShutDown();
+    assertStatus("job1", Status.SKIPPED);
+    assertStatus("job2", Status.SUCCEEDED);
+    assertStatus("job10", Status.SKIPPED);
+  }
+
+  @Test
+  public void failedJobCancelsPendingJobs() throws Exception {
+    final FlowRunnerTestUtil testUtil = new FlowRunnerTestUtil("exectest1",
+        this.temporaryFolder);
+    this.runner = testUtil.createFromFlowFile("exec2").setDagService(this.dagService);
+
+    FlowRunnerTestUtil.startThread(this.runner);
+    succeedJobs("job6");
+
+    waitForAndAssertFlowStatus(Status.FAILED);
+    assertStatus("job1", Status.SUCCEEDED);
+    assertStatus("job2d", Status.FAILED);
+    assertStatus("job3", Status.CANCELLED);
+    assertStatus("job6", Status.SUCCEEDED);
+    assertStatus("job10", Status.CANCELLED);
+    assertThreadShutDown();
+  }
+
+  @Test
+  public void runEmbeddedFlows() throws Exception {
+    final FlowRunnerTestUtil testUtil = new FlowRunnerTestUtil("embedded2",
+        this.temporaryFolder);
+    this.runner = testUtil.createFromFlowMap("jobf", FailureAction.FINISH_CURRENTLY_RUNNING)
+        .setDagService(this.dagService);
+
+    FlowRunnerTestUtil.startThread(this.runner);
+    succeedJobs("joba");
+    assertStatus("jobb", Status.RUNNING);
+    assertStatus("jobd", Status.RUNNING);
+    assertStatus("jobb:innerJobA", Status.RUNNING);
+    assertStatus("jobb:innerJobB", Status.READY);
+
+    succeedJobs("jobb:innerJobA");
+    succeedJobs("jobb:innerJobB", "jobb:innerJobC");
+    succeedJobs("jobb:innerFlow");
+    assertStatus("jobb", Status.SUCCEEDED);
+
+    succeedJobs("jobc", "jobd:innerJobA");
+    succeedJobs("jobd:innerFlow2");
+    assertStatus("jobd", Status.SUCCEEDED);
+    succeedJobs("joba1", "jobe");
+    succeedJobs("jobf");
+
+    waitForAndAssertFlowStatus(Status.SUCCEEDED);
+    assertThreadShutDown();
+  }
+
+  @Test
+  public void failedJobCancelsEmbeddedFlows() throws Exception {
+    final FlowRunnerTestUtil testUtil = new FlowRunnerTestUtil("embedded2",
+        this.temporaryFolder);
+    this.runner = testUtil.createFromFlowMap("jobf", FailureAction.FINISH_CURRENTLY_RUNNING)
+        .setDagService(this.dagService);
+
+    FlowRunnerTestUtil.startThread(this.runner);
+    assertStatus("joba", Status.RUNNING);
+    assertStatus("joba1", Status.RUNNING);
+
+    InteractiveTestJob.getTestJob("joba").failJob();
+    waitForAndAssertFlowStatus(Status.FAILED_FINISHING);
+    assertStatus("jobb", Status.CANCELLED);
+    assertStatus("jobd", Status.CANCELLED);
+    assertStatus("jobb:innerJobA", Status.READY);
+    assertStatus("jobe", Status.CANCELLED);
+
+    InteractiveTestJob.getTestJob("joba1").succeedJob();
+    assertStatus("jobf", Status.CANCELLED);
+    waitForAndAssertFlowStatus(Status.FAILED);
+    assertThreadShutDown();
+  }
+
+  /**
+   * The flow continues without the dag engine when failed jobs are retried. A node marked as done
+   * just before the switch still makes its children ready.
+   */
+  @Test
+  public void retryContinuesWithoutDagEngine() throws Exception {
+    final CountDownLatch innerJobAMarkedDone = new CountDownLatch(1);
+    final DagService slowDagService = new DagService(new ExecutorServiceUtils()) {
+      @Override
+      public void markNodeSuccess(final Node node) {
+        if (node.toString().startsWith("Node (jobb:innerJobA)")) {
+          // The transition is still pending when the flow runner switches to the graph scan
+          submit(() -> Uninterruptibles.sleepUninterruptibly(500, TimeUnit.MILLISECONDS));
+          super.markNodeSuccess(node);
+          innerJobAMarkedDone.countDown();
+        } else {
+          super.markNodeSuccess(node);
+        }
+      }
+    };
+    try {
+      final FlowRunnerTestUtil testUtil = new FlowRunnerTestUtil("embedded2",
+          this.temporaryFolder);
+      this.runner = testUtil.createFromFlowMap("jobf", FailureAction.FINISH_ALL_POSSIBLE)
+          .setDagService(slowDagService);
+
+      FlowRunnerTestUtil.startThread(this.runner);
+      succeedJobs("joba");
+      assertStatus("jobb:innerJobA", Status.RUNNING);
+      InteractiveTestJob.getTestJob("jobc").failJob();
+      waitForAndAssertFlowStatus(Status.FAILED_FINISHING);
+
+      InteractiveTestJob.getTestJob("jobb:innerJobA").succeedJob();
+      innerJobAMarkedDone.await();
+      InteractiveTestJob.clearTestJobs("jobc");
+      this.runner.retryFailures("me");
+
+      assertStatus("jobc", Status.RUNNING);
+      assertStatus("jobb:innerJobB", Status.RUNNING);
+      assertStatus("jobb:innerJobC", Status.RUNNING);
+      waitForAndAssertFlowStatus(Status.RUNNING);
+
+      succeedJobs("jobb:innerJobB", "jobb:innerJobC", "jobc", "jobd:innerJobA");
+      succeedJobs("jobb:innerFlow", "jobd:innerFlow2");
+      assertStatus("jobb", Status.SUCCEEDED);
+      assertStatus("jobd", Status.SUCCEEDED);
+      succeedJobs("jobe", "joba1");
+      succeedJobs("jobf");
+
+      waitForAndAssertFlowStatus(Status.SUCCEEDED);
+      assertThreadShutDown();
+    } finally {
+      slowDagService.shutdownAndAwaitTermination();
+    }
+  }
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright 2020 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package azkaban.execapp;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import azkaban.execapp.JobLogUploader.JobLogTailer;
+import azkaban.executor.ExecutorLoader;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class JobLogUploaderTest {
+
+  private static final int CHUNK_SIZE = 50 * 1024;
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private final ByteArrayOutputStream uploadedLog = new ByteArrayOutputStream();
+  private final ByteArrayOutputStream writtenLog = new ByteArrayOutputStream();
+  private ExecutorLoader executorLoader;
+  private JobLogUploader uploader;
+  private File logFile;
+
+  @Before
+  public void setUp() throws Exception {
+    this.executorLoader = mock(ExecutorLoader.class);
+    when(this.executorLoader.getLogChunkSize()).thenReturn(CHUNK_SIZE);
+    doAnswer(invocation -> {
+      final int startByte = invocation.getArgument(3);
+      final byte[] buffer = invocation.getArgument(4);
+      final int length = invocation.getArgument(5);
+      assertThat(startByte).isEqualTo(this.uploadedLog.size());
+      this.uploadedLog.write(buffer, 0, length);
+      return null;
+    }).when(this.executorLoader)
+        .uploadLogChunk(eq(1), eq("job"), eq(0), anyInt(), any(), anyInt());
+    // Uploads are triggered by the test
+    this.uploader = new JobLogUploader(this.executorLoader, 60 * 60 * 1000);
+    this.logFile = new File(this.temporaryFolder.getRoot(), "_job.1.job.log");
+  }
+
+  @After
+  public void tearDown() {
+    this.uploader.shutdown();
+  }
+
+  @Test
+  public void testOnlyFullChunksAreUploadedWhileRunning() throws Exception {
+    final JobLogTailer tailer = this.uploader.startUpload(1, "job", 0, this.logFile);
+    tailer.uploadFullChunks();
+    assertThat(tailer.getUploadedBytes()).isEqualTo(0);
+
+    append(this.logFile, 'a', CHUNK_SIZE * 2 + 100);
+    tailer.uploadFullChunks();
+    assertThat(tailer.getUploadedBytes()).isEqualTo(CHUNK_SIZE * 2);
+
+    append(this.logFile, 'b', 100);
+    tailer.finish();
+    assertThat(tailer.getUploadedBytes()).isEqualTo(CHUNK_SIZE * 2 + 200);
+    assertThat(this.uploadedLog.toByteArray()).isEqualTo(this.writtenLog.toByteArray());
+  }
+
+  @Test
+  public void testRolledFilesAreReadToTheEnd() throws Exception {
+    final JobLogTailer tailer = this.uploader.startUpload(1, "job", 0, this.logFile);
+    append(this.logFile, 'a', CHUNK_SIZE + 10);
+    tailer.uploadFullChunks();
+
+    // Roll twice between two uploads
+    append(this.logFile, 'b', 20);
+    roll();
+    append(this.logFile, 'c', CHUNK_SIZE);
+    roll();
+    append(this.logFile, 'd', 30);
+    tailer.uploadFullChunks();
+    assertThat(tailer.getUploadedBytes()).isEqualTo(CHUNK_SIZE * 2);
+
+    tailer.finish();
+    assertThat(this.uploadedLog.toByteArray()).isEqualTo(this.writtenLog.toByteArray());
+  }
+
+  /**
+   * The job logger writes to the file after the tailer has read it to the end, then rolls it.
+   */
+  @Test
+  public void testFileWrittenBeforeRollingIsReadToTheEnd() throws Exception {
+    final JobLogTailer tailer = new JobLogTailer(this.executorLoader, 1, "job", 0, this.logFile,
+        CHUNK_SIZE, JobLogUploader.getMaxUploadedBytes(CHUNK_SIZE)) {
+      private boolean rolled = false;
+
+      @Override
+      InputStream openFile(final File file) throws IOException {
+        return new FilterInputStream(new FileInputStream(file)) {
+          @Override
+          public int read(final byte[] b, final int off, final int len) throws IOException {
+            final int numRead = super.read(b, off, len);
+            if (numRead <= 0 && !rolled) {
+              rolled = true;
+              writeAndRoll();
+            }
+            return numRead;
+          }
+        };
+      }
+    };
+    append(this.logFile, 'a', CHUNK_SIZE - 10);
+    tailer.uploadFullChunks();
+    tailer.finish();
+    assertThat(this.uploadedLog.toByteArray()).isEqualTo(this.writtenLog.toByteArray());
+  }
+
+  @Test
+  public void testUploadStopsAtMaxSize() throws Exception {
+    final JobLogTailer tailer = new JobLogTailer(this.executorLoader, 1, "job", 0, this.logFile,
+        CHUNK_SIZE, CHUNK_SIZE * 2);
+    append(this.logFile, 'a', CHUNK_SIZE * 3 + 10);
+    tailer.uploadFullChunks();
+    assertThat(tailer.getUploadedBytes()).isEqualTo(CHUNK_SIZE * 2);
+
+    append(this.logFile, 'b', CHUNK_SIZE);
+    tailer.uploadFullChunks();
+    tailer.finish();
+    assertThat(tailer.getUploadedBytes()).isEqualTo(CHUNK_SIZE * 2);
+    assertThat(this.uploadedLog.toByteArray())
+        .isEqualTo(Arrays.copyOf(this.writtenLog.toByteArray(), CHUNK_SIZE * 2));
+  }
+
+  @Test
+  public void testMaxSizeFitsTheOffsetsOfTheLogStorage() {
+    for (final int chunkSize : new int[]{CHUNK_SIZE, 256 * 1024}) {
+      final long maxUploadedBytes = JobLogUploader.getMaxUploadedBytes(chunkSize);
+      assertThat(maxUploadedBytes).isLessThanOrEqualTo(Integer.MAX_VALUE);
+      assertThat(maxUploadedBytes % chunkSize).isEqualTo(0);
+    }
+  }
+
+  private void append(final File file, final char c, final int length) throws Exception {
+    final byte[] bytes = new byte[length];
+    Arrays.fill(bytes, (byte) c);
+    FileUtils.writeByteArrayToFile(file, bytes, true);
+    this.writtenLog.write(bytes);
+  }
+
+  private void writeAndRoll() {
+    try {
+      append(this.logFile, 'b', 20);
+      roll();
+      append(this.logFile, 'c', 30);
+    } catch (final Exception e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /**
+   * Renames the files like the log4j RollingFileAppender.
+   */
+  private void roll() {
+    final File rolled2 = new File(this.logFile.getPath() + ".2");
+    final File rolled1 = new File(this.logFile.getPath() + ".1");
+    if (rolled1.exists()) {
+      assertThat(rolled1.renameTo(rolled2)).isTrue();
+    }
+    assertThat(this.logFile.renameTo(rolled1)).isTrue();
+  }
+}
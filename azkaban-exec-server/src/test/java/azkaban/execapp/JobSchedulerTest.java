@@ -0,0 +1,145 @@
+/*
+ * Copyright 2020 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package azkaban.execapp;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import azkaban.metrics.MetricsManager;
+import azkaban.metrics.MetricsTestUtility;
+import com.codahale.metrics.MetricRegistry;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class JobSchedulerTest {
+
+  private final CountDownLatch release = new CountDownLatch(1);
+  private MetricsTestUtility testUtil;
+  private ExecMetrics execMetrics;
+  private JobScheduler scheduler;
+
+  @Before
+  public void setUp() {
+    final MetricRegistry metricRegistry = new MetricRegistry();
+    this.testUtil = new MetricsTestUtility(metricRegistry);
+    this.execMetrics = new ExecMetrics(new MetricsManager(metricRegistry));
+  }
+
+  @After
+  public void tearDown() {
+    this.release.countDown();
+    this.scheduler.shutdownNow();
+  }
+
+  @Test
+  public void testGlobalAndPerFlowLimits() throws Exception {
+    this.scheduler = new JobScheduler(3, this.execMetrics);
+    final ExecutorService flow1 = this.scheduler.createFlowExecutor(1, 5, 2);
+    final ExecutorService flow2 = this.scheduler.createFlowExecutor(2, 5, 2);
+    final AtomicInteger started1 = new AtomicInteger();
+    final AtomicInteger started2 = new AtomicInteger();
+    for (int i = 0; i < 3; i++) {
+      flow1.submit(blockingJob(started1));
+      flow2.submit(blockingJob(started2));
+    }
+
+    await().atMost(10, TimeUnit.SECONDS)
+        .until(() -> started1.get() + started2.get() == 3);
+    assertThat(started1.get()).isEqualTo(2);
+    assertThat(started2.get()).isEqualTo(1);
+    assertThat(this.scheduler.getNumRunningJobs()).isEqualTo(3);
+    assertThat(this.scheduler.getNumQueuedJobs()).isEqualTo(3);
+
+    this.release.countDown();
+    flow1.shutdown();
+    flow2.shutdown();
+    assertThat(flow1.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+    assertThat(flow2.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+    assertThat(started1.get()).isEqualTo(3);
+    assertThat(started2.get()).isEqualTo(3);
+    assertThat(this.scheduler.getNumRunningJobs()).isEqualTo(0);
+    assertThat(this.testUtil.getHistogramSnapshot(ExecMetrics.JOB_QUEUE_WAIT_HISTOGRAM_NAME)
+        .size()).isEqualTo(6);
+  }
+
+  @Test
+  public void testFreeThreadsAreSharedByPriority() throws Exception {
+    this.scheduler = new JobScheduler(3, this.execMetrics);
+    // Keep the pool busy until the jobs of both flows are queued
+    final CountDownLatch releaseBlocker = new CountDownLatch(1);
+    final ExecutorService blocker = this.scheduler.createFlowExecutor(1, 5, 3);
+    final AtomicInteger startedBlockers = new AtomicInteger();
+    for (int i = 0; i < 3; i++) {
+      blocker.submit(() -> {
+        startedBlockers.incrementAndGet();
+        releaseBlocker.await();
+        return null;
+      });
+    }
+    await().atMost(10, TimeUnit.SECONDS).until(() -> startedBlockers.get() == 3);
+
+    final ExecutorService highPriorityFlow = this.scheduler.createFlowExecutor(2, 10, 3);
+    final ExecutorService lowPriorityFlow = this.scheduler.createFlowExecutor(3, 5, 3);
+    final AtomicInteger startedHigh = new AtomicInteger();
+    final AtomicInteger startedLow = new AtomicInteger();
+    for (int i = 0; i < 3; i++) {
+      highPriorityFlow.submit(blockingJob(startedHigh));
+      lowPriorityFlow.submit(blockingJob(startedLow));
+    }
+    assertThat(this.scheduler.getNumQueuedJobs()).isEqualTo(6);
+
+    releaseBlocker.countDown();
+    await().atMost(10, TimeUnit.SECONDS)
+        .until(() -> startedHigh.get() + startedLow.get() == 3);
+    assertThat(startedHigh.get()).isEqualTo(2);
+    assertThat(startedLow.get()).isEqualTo(1);
+  }
+
+  @Test
+  public void testShutdownFlowRejectsNewJobs() throws Exception {
+    this.scheduler = new JobScheduler(1, this.execMetrics);
+    final ExecutorService flow = this.scheduler.createFlowExecutor(1, 5, 1);
+    final AtomicInteger started = new AtomicInteger();
+    flow.submit(blockingJob(started));
+    flow.submit(blockingJob(started));
+
+    assertThat(flow.shutdownNow()).hasSize(1);
+    assertThat(flow.isShutdown()).isTrue();
+    assertThat(flow.isTerminated()).isFalse();
+    assertThat(this.scheduler.getNumQueuedJobs()).isEqualTo(0);
+
+    this.release.countDown();
+    assertThat(flow.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+    assertThat(started.get()).isEqualTo(1);
+  }
+
+  private Runnable blockingJob(final AtomicInteger started) {
+    return () -> {
+      started.incrementAndGet();
+      try {
+        this.release.await();
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    };
+  }
+}
@@ -122,6 +122,41 @@ public class ProjectCacheCleanerTest {
     assertThat(this.cacheDir.list()).contains("2.1");
   }
 
+  @Test
+  /**
+   * An accessed project is kept, the index isn't reloaded from the project dirs.
+   */
+  public void testAccessedProjectIsNotEvicted() throws Exception {
+    final ProjectCacheCleaner cleaner = new ProjectCacheCleaner(this.cacheDir, 0.7);
+    assertThat(cleaner.hasRoomFor(1)).isTrue();
+
+    final File accessedDir = new File(this.cacheDir, "1.1");
+    cleaner.projectAccessed(accessedDir);
+    Files.setLastModifiedTime(Paths.get(accessedDir.toString(),
+        FlowPreparer.PROJECT_DIR_SIZE_FILE_NAME), FileTime.fromMillis(0));
+
+    cleaner.deleteProjectDirsIfNecessary(2000000);
+    cleaner.finishPendingCleanup();
+    assertThat(this.cacheDir.list()).hasSize(2);
+    assertThat(this.cacheDir.list()).contains("1.1");
+    assertThat(this.cacheDir.list()).contains("3.1");
+  }
+
+  @Test
+  /**
+   * An installed project is added to the size of the cache.
+   */
+  public void testInstalledProjectIsAccounted() {
+    final ProjectCacheCleaner cleaner = new ProjectCacheCleaner(this.cacheDir, 0.7);
+    assertThat(cleaner.hasRoomFor(500000)).isTrue();
+
+    final ProjectDirectoryMetadata installed = new ProjectDirectoryMetadata(4, 1,
+        new File(this.cacheDir, "4.1"));
+    installed.setDirSizeInByte(2000000L);
+    cleaner.projectInstalled(installed);
+    assertThat(cleaner.hasRoomFor(500000)).isFalse();
+  }
+
   @Test
   /**
    * Put enough items in the cache to invoke throttle condition.
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2020 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package azkaban.execapp;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import azkaban.executor.ExecutorLoader;
+import azkaban.executor.ExecutorManagerException;
+import azkaban.utils.Pair;
+import java.io.IOException;
+import java.util.Arrays;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ProjectPrefetcherTest {
+
+  private static final int EXECUTOR_ID = 1;
+
+  private FlowPreparer flowPreparer;
+  private ExecutorLoader executorLoader;
+  private ProjectPrefetcher prefetcher;
+
+  @Before
+  public void setUp() {
+    this.flowPreparer = mock(FlowPreparer.class);
+    this.executorLoader = mock(ExecutorLoader.class);
+    this.prefetcher = new ProjectPrefetcher(this.flowPreparer, this.executorLoader, 3);
+  }
+
+  @After
+  public void tearDown() {
+    this.prefetcher.shutdown();
+  }
+
+  @Test
+  public void testPrefetchQueuedProjects() throws Exception {
+    when(this.executorLoader.fetchQueuedProjectVersions(EXECUTOR_ID, true, 3))
+        .thenReturn(Arrays.asList(new Pair<>(10, 1), new Pair<>(11, 2)));
+    doThrow(new IOException("download failed")).when(this.flowPreparer).prefetchProject(10, 1);
+
+    this.prefetcher.prefetch(EXECUTOR_ID, true);
+
+    // A failed prefetch doesn't stop the others
+    verify(this.flowPreparer).prefetchProject(10, 1);
+    verify(this.flowPreparer).prefetchProject(11, 2);
+  }
+
+  @Test
+  public void testFetchFailure() throws Exception {
+    when(this.executorLoader.fetchQueuedProjectVersions(EXECUTOR_ID, false, 3))
+        .thenThrow(new ExecutorManagerException("db down"));
+
+    this.prefetcher.prefetch(EXECUTOR_ID, false);
+
+    verify(this.flowPreparer, never()).prefetchProject(anyInt(), anyInt());
+  }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2020 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package azkaban.execapp;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import azkaban.executor.ExecutableFlow;
+import azkaban.executor.ExecutableNode;
+import azkaban.executor.ExecutableNodeUpdate;
+import azkaban.executor.ExecutorLoader;
+import azkaban.executor.Status;
+import azkaban.metrics.MetricsManager;
+import azkaban.metrics.MetricsTestUtility;
+import azkaban.utils.TestUtils;
+import com.codahale.metrics.MetricRegistry;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+public class StatusUpdateBufferTest {
+
+  private ExecutorLoader executorLoader;
+  private MetricsTestUtility testUtil;
+  private StatusUpdateBuffer buffer;
+
+  @Before
+  public void setUp() {
+    final MetricRegistry metricRegistry = new MetricRegistry();
+    this.testUtil = new MetricsTestUtility(metricRegistry);
+    this.executorLoader = mock(ExecutorLoader.class);
+    this.buffer = new StatusUpdateBuffer(this.executorLoader,
+        new ExecMetrics(new MetricsManager(metricRegistry)), 60 * 1000);
+  }
+
+  @Test
+  public void testNodeUpdatesAreCoalescedAndBatched() throws Exception {
+    final ExecutableFlow flow = createFlow(1);
+    final ExecutableNode node1 = flow.getExecutableNode("job1");
+    final ExecutableNode node2 = flow.getExecutableNode("job2");
+
+    this.buffer.bufferNodeUpdate(node1);
+    this.buffer.bufferNodeUpdate(node1);
+    this.buffer.bufferNodeUpdate(node2);
+    assertThat(this.buffer.getQueueDepth()).isEqualTo(2);
+    verify(this.executorLoader, never()).updateExecutableNode(node1);
+
+    // A terminal update flushes everything that is pending
+    this.buffer.writeNodeUpdate(node2);
+    assertThat(captureNodeUpdates()).extracting(ExecutableNodeUpdate::getJobId)
+        .containsExactly("job1", "job2");
+    assertThat(this.buffer.getQueueDepth()).isEqualTo(0);
+    assertThat(this.buffer.getCoalesceRatio()).isEqualTo(2.0);
+    assertThat(this.testUtil.getTimerCount(ExecMetrics.STATUS_UPDATE_FLUSH_TIMER_NAME))
+        .isEqualTo(1);
+  }
+
+  @Test
+  public void testNodeStateIsCapturedWhenBuffered() throws Exception {
+    final ExecutableNode node = createFlow(1).getExecutableNode("job1");
+    node.setStatus(Status.RUNNING);
+    this.buffer.bufferNodeUpdate(node);
+    node.setStatus(Status.SUCCEEDED);
+
+    this.buffer.shutdown();
+    assertThat(captureNodeUpdates()).extracting(ExecutableNodeUpdate::getStatus)
+        .containsExactly(Status.RUNNING);
+  }
+
+  @Test
+  public void testAttemptsAreNotCoalesced() throws Exception {
+    final ExecutableNode node = createFlow(1).getExecutableNode("job1");
+    node.setStatus(Status.FAILED);
+    this.buffer.bufferNodeUpdate(node);
+    node.resetForRetry();
+    node.setStatus(Status.RUNNING);
+    this.buffer.bufferNodeUpdate(node);
+
+    this.buffer.shutdown();
+    assertThat(captureNodeUpdates())
+        .extracting(ExecutableNodeUpdate::getAttempt, ExecutableNodeUpdate::getStatus)
+        .containsExactly(tuple(0, Status.FAILED), tuple(1, Status.RUNNING));
+  }
+
+  @Test
+  public void testRemovedFlowUpdateIsNotFlushed() {
+    final AtomicInteger numPersisted = new AtomicInteger();
+    this.buffer.bufferFlowUpdate(1, numPersisted::incrementAndGet);
+    this.buffer.bufferFlowUpdate(1, numPersisted::incrementAndGet);
+    this.buffer.bufferFlowUpdate(2, numPersisted::incrementAndGet);
+    this.buffer.removeFlowUpdate(2);
+    assertThat(this.buffer.getQueueDepth()).isEqualTo(1);
+
+    this.buffer.shutdown();
+    assertThat(numPersisted.get()).isEqualTo(1);
+    assertThat(this.buffer.getQueueDepth()).isEqualTo(0);
+  }
+
+  private static ExecutableFlow createFlow(final int execId) throws Exception {
+    final ExecutableFlow flow = TestUtils.createTestExecutableFlow("exectest1", "exec1");
+    flow.setExecutionId(execId);
+    return flow;
+  }
+
+  @SuppressWarnings("unchecked")
+  private List<ExecutableNodeUpdate> captureNodeUpdates() throws Exception {
+    final ArgumentCaptor<List<ExecutableNodeUpdate>> captor = ArgumentCaptor.forClass(List.class);
+    verify(this.executorLoader).updateExecutableNodes(captor.capture());
+    return captor.getValue();
+  }
+}
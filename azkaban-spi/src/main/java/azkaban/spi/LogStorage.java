@@ -0,0 +1,79 @@
+/*
+ * Copyright 2020 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package azkaban.spi;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+
+/**
+ * The Azkaban LogStorage interface stores the logs of flow and job executions. By default, the
+ * logs are stored in the execution_logs table of the database.
+ *
+ * A log is identified by the execution id, the name of the flow or job and the attempt. It is
+ * stored in one or more parts, which are put in order: each part starts at the byte where the
+ * previous part ended.
+ *
+ * Note: This is a synchronous interface.
+ */
+public interface LogStorage {
+
+  /**
+   * Store a part of a log.
+   *
+   * @param startByte Position of the part in the log, i.e. the number of bytes stored before.
+   * @param log The content of the part, read until the end of the stream.
+   * @return The number of bytes stored.
+   */
+  int putLog(int execId, String name, int attempt, int startByte, InputStream log)
+      throws IOException;
+
+  /**
+   * Get the size of the parts that are stored without waste, e.g. without splitting them into a
+   * short last chunk or writing a small file for each of them. A log that is put in many parts,
+   * e.g. while it is written, should be put in parts of this size, except for the last one.
+   *
+   * @return The preferred size of a part in bytes.
+   */
+  int getPartSize();
+
+  /**
+   * Get a range of a log.
+   *
+   * @return The stored bytes of the log starting at startByte, at most length bytes. The bytes
+   * are contiguous: fewer bytes are returned if the log ends, or if a part of it is missing, e.g.
+   * deleted, before length bytes. null if no byte of the log is stored at startByte.
+   */
+  byte[] getLog(int execId, String name, int attempt, int startByte, int length)
+      throws IOException;
+
+  /**
+   * Get the length of a log, which allows reading the end of a log without reading the rest.
+   *
+   * @return The number of bytes of the log stored. 0 if the log is not stored.
+   */
+  int getLogLength(int execId, String name, int attempt) throws IOException;
+
+  /**
+   * Delete the logs uploaded before the given time, in batches.
+   *
+   * @param limit The maximum number of stored parts to delete.
+   * @return The number of stored parts deleted. If it is less than limit, there is nothing left to
+   * delete.
+   */
+  int deleteLogs(long uploadTimeMillis, int limit) throws IOException;
+}
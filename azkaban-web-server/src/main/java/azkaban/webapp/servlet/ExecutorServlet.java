@@ -24,9 +24,11 @@ import azkaban.executor.ExecutableFlowBase;
 import azkaban.executor.ExecutableNode;
 import azkaban.executor.ExecutionOptions;
 import azkaban.executor.ExecutionOptions.FailureAction;
+import azkaban.executor.ExecutionUpdateWaiter;
 import azkaban.executor.Executor;
 import azkaban.executor.ExecutorManagerAdapter;
 import azkaban.executor.ExecutorManagerException;
+import azkaban.executor.LogSearcher;
 import azkaban.executor.Status;
 import azkaban.flow.Flow;
 import azkaban.flow.FlowUtils;
@@ -76,6 +78,7 @@ public class ExecutorServlet extends LoginAbstractAzkabanServlet {
   private ExecutorManagerAdapter executorManagerAdapter;
   private ScheduleManager scheduleManager;
   private UserManager userManager;
+  private ExecutionUpdateWaiter executionUpdateWaiter;
 
   @Override
   public void init(final ServletConfig config) throws ServletException {
@@ -88,6 +91,7 @@ public class ExecutorServlet extends LoginAbstractAzkabanServlet {
     this.flowTriggerService = server.getFlowTriggerService();
     // TODO: reallocf fully guicify
     this.webMetrics = SERVICE_PROVIDER.getInstance(WebMetrics.class);
+    this.executionUpdateWaiter = SERVICE_PROVIDER.getInstance(ExecutionUpdateWaiter.class);
   }
 
   @Override
@@ -119,7 +123,10 @@ public class ExecutorServlet extends LoginAbstractAzkabanServlet {
       ExecutableFlow exFlow = null;
 
       try {
-        exFlow = this.executorManagerAdapter.getExecutableFlow(execid);
+        // The status of running flows is polled by every open execution page
+        exFlow = ajaxName.equals("fetchexecflowupdate") || ajaxName.equals("waitexecflowupdate")
+            ? this.executorManagerAdapter.getCachedExecutableFlow(execid)
+            : this.executorManagerAdapter.getExecutableFlow(execid);
       } catch (final ExecutorManagerException e) {
         ret.put("error",
             "Error fetching execution '" + execid + "': " + e.getMessage());
@@ -133,6 +140,8 @@ public class ExecutorServlet extends LoginAbstractAzkabanServlet {
         } else if (ajaxName.equals("fetchexecflowupdate")) {
           ajaxFetchExecutableFlowUpdate(req, resp, ret, session.getUser(),
               exFlow);
+        } else if (ajaxName.equals("waitexecflowupdate")) {
+          ajaxWaitExecutableFlowUpdate(req, resp, ret, session.getUser(), exFlow);
         } else if (ajaxName.equals("cancelFlow")) {
           ajaxCancelFlow(req, resp, ret, session.getUser(), exFlow);
         } else if (ajaxName.equals("pauseFlow")) {
@@ -143,6 +152,8 @@ public class ExecutorServlet extends LoginAbstractAzkabanServlet {
           ajaxFetchExecFlowLogs(req, resp, ret, session.getUser(), exFlow);
         } else if (ajaxName.equals("fetchExecJobLogs")) {
           ajaxFetchJobLogs(req, resp, ret, session.getUser(), exFlow);
+        } else if (ajaxName.equals("searchExecJobLogs")) {
+          ajaxSearchJobLogs(req, resp, ret, session.getUser(), exFlow);
         } else if (ajaxName.equals("fetchExecJobStats")) {
           ajaxFetchJobStats(req, resp, ret, session.getUser(), exFlow);
         } else if (ajaxName.equals("retryFailedJobs")) {
@@ -571,7 +582,9 @@ public class ExecutorServlet extends LoginAbstractAzkabanServlet {
       return;
     }
 
-    final int offset = this.getIntParam(req, "offset");
+    // With tail=true the last length bytes of the log are fetched, there is no offset
+    final boolean tail = Boolean.parseBoolean(this.getParam(req, "tail", "false"));
+    final int offset = tail ? 0 : this.getIntParam(req, "offset");
     final int length = this.getIntParam(req, "length");
 
     final String jobId = this.getParam(req, "jobId");
@@ -585,8 +598,10 @@ public class ExecutorServlet extends LoginAbstractAzkabanServlet {
       }
 
       final int attempt = this.getIntParam(req, "attempt", node.getAttempt());
-      final LogData data = this.executorManagerAdapter
-          .getExecutionJobLog(exFlow, jobId, offset, length, attempt);
+      final LogData data = tail
+          ? this.executorManagerAdapter.getExecutionJobLogTail(exFlow, jobId, length, attempt)
+          : this.executorManagerAdapter
+              .getExecutionJobLog(exFlow, jobId, offset, length, attempt);
       ret.putAll(appendLogData(data, offset));
 
     } catch (final ExecutorManagerException e) {
@@ -594,6 +609,72 @@ public class ExecutorServlet extends LoginAbstractAzkabanServlet {
     }
   }
 
+  /**
+   * Searches the log of a job for the lines matching a pattern. The results are paginated: the
+   * returned nextOffset is the offset to continue the search from.
+   */
+  private void ajaxSearchJobLogs(final HttpServletRequest req,
+      final HttpServletResponse resp, final HashMap<String, Object> ret, final User user,
+      final ExecutableFlow exFlow) throws ServletException {
+    final Project project = getProjectAjaxByPermission(ret, exFlow.getProjectId(), user, Type.READ);
+    if (project == null) {
+      return;
+    }
+
+    final String jobId = this.getParam(req, "jobId");
+    resp.setCharacterEncoding("utf-8");
+
+    final ExecutableNode node = exFlow.getExecutableNodePath(jobId);
+    if (node == null) {
+      ret.put("error", "Job " + jobId + " doesn't exist in " + exFlow.getExecutionId());
+      return;
+    }
+
+    final LogSearcher.Query query;
+    try {
+      final Map<String, String> params = new HashMap<>();
+      for (final String name : LogSearcher.Query.PARAM_NAMES) {
+        if (hasParam(req, name)) {
+          params.put(name, getParam(req, name));
+        }
+      }
+      query = LogSearcher.Query.fromParams(params);
+    } catch (final IllegalArgumentException e) {
+      ret.put("error", "Invalid search: " + e.getMessage());
+      return;
+    }
+
+    try {
+      final int attempt = this.getIntParam(req, "attempt", node.getAttempt());
+      final LogSearcher.Result result = this.executorManagerAdapter
+          .searchExecutionJobLog(exFlow, jobId, attempt, query);
+      final List<Object> matches = new ArrayList<>();
+      for (final LogSearcher.Match match : result.getMatches()) {
+        final Map<String, Object> matchObject = new HashMap<>();
+        matchObject.put("offset", match.getOffset());
+        matchObject.put("line", StringEscapeUtils.escapeHtml(match.getLine()));
+        matchObject.put("before", escapeHtml(match.getBefore()));
+        matchObject.put("after", escapeHtml(match.getAfter()));
+        matches.add(matchObject);
+      }
+      ret.put("matches", matches);
+      ret.put("nextOffset", result.getNextOffset());
+      ret.put("complete", result.isComplete());
+      ret.put("timedOut", result.isTimedOut());
+      ret.put("skippedLines", result.getSkippedLines());
+    } catch (final ExecutorManagerException e) {
+      throw new ServletException(e);
+    }
+  }
+
+  private static List<String> escapeHtml(final List<String> lines) {
+    final List<String> escaped = new ArrayList<>(lines.size());
+    for (final String line : lines) {
+      escaped.add(StringEscapeUtils.escapeHtml(line));
+    }
+    return escaped;
+  }
+
   private Map<String, Object> appendLogData(final LogData data, final int defaultOffset) {
     final Map<String, Object> parameters = new HashMap<>();
 
@@ -893,6 +974,47 @@ public class ExecutorServlet extends LoginAbstractAzkabanServlet {
       return;
     }
 
+    putExecutableFlowUpdate(ret, exFlow, lastUpdateTime);
+  }
+
+  /**
+   * Same as fetchexecflowupdate, but the request is held until the execution changes after
+   * lastUpdateTime, or until the timeout. If the request couldn't be held, longPoll is false and
+   * the page should fall back to polling at an interval.
+   */
+  private void ajaxWaitExecutableFlowUpdate(final HttpServletRequest req,
+      final HttpServletResponse resp, final HashMap<String, Object> ret, final User user,
+      final ExecutableFlow exFlow) throws ServletException {
+    final long lastUpdateTime = getLongParam(req, "lastUpdateTime");
+    final long timeoutMs = getLongParam(req, "timeoutMs",
+        Constants.DEFAULT_EXECUTION_UPDATE_WAIT_MAX_MS);
+
+    final Project project =
+        getProjectAjaxByPermission(ret, exFlow.getProjectId(), user, Type.READ);
+    if (project == null) {
+      return;
+    }
+
+    ExecutableFlow flow = exFlow;
+    boolean longPoll = false;
+    try {
+      final ExecutableFlow updated = this.executionUpdateWaiter
+          .waitForUpdate(exFlow.getExecutionId(), lastUpdateTime, timeoutMs);
+      if (updated != null) {
+        flow = updated;
+        longPoll = true;
+      }
+    } catch (final ExecutorManagerException e) {
+      logger.warn("Error waiting for the update of execution " + exFlow.getExecutionId(), e);
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    putExecutableFlowUpdate(ret, flow, lastUpdateTime);
+    ret.put("longPoll", longPoll);
+  }
+
+  private void putExecutableFlowUpdate(final HashMap<String, Object> ret,
+      final ExecutableFlow exFlow, final long lastUpdateTime) {
     final Map<String, Object> map =
         getExecutableFlowUpdateInfo(exFlow, lastUpdateTime);
     map.put("status", exFlow.getStatus());
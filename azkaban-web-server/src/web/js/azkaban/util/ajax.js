@@ -14,7 +14,8 @@
  * the License.
  */
 
-function ajaxCall(requestURL, data, successCallback, beforeSendCallback, requestType) {
+function ajaxCall(requestURL, data, successCallback, beforeSendCallback, requestType,
+    errorCallback) {
   var successHandler = function (data) {
     if (data.error == "session") {
       // We need to relogin.
@@ -49,6 +50,9 @@ function ajaxCall(requestURL, data, successCallback, beforeSendCallback, request
   if (typeof beforeSendCallback !== 'undefined') {
     options.beforeSend = beforeSendCallback;
   }
+  if (typeof errorCallback !== 'undefined') {
+    options.error = errorCallback;
+  }
 
   $.ajax(options);
 }
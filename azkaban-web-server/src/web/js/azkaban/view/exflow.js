@@ -414,7 +414,7 @@ var logModel;
 var flowTriggerModel;
 azkaban.LogModel = Backbone.Model.extend({});
 
-var updateStatus = function (updateTime) {
+var updateStatus = function (updateTime, longPollCallback) {
   var requestURL = contextURL + "/executor";
   var oldData = graphModel.get("data");
   var nodeMap = graphModel.get("nodeMap");
@@ -425,7 +425,7 @@ var updateStatus = function (updateTime) {
 
   var requestData = {
     "execid": execId,
-    "ajax": "fetchexecflowupdate",
+    "ajax": longPollCallback ? "waitexecflowupdate" : "fetchexecflowupdate",
     "lastUpdateTime": updateTime
   };
 
@@ -437,8 +437,16 @@ var updateStatus = function (updateTime) {
       graphModel.set({"update": data});
       graphModel.trigger("change:update");
     }
+    if (longPollCallback) {
+      longPollCallback(data.longPoll);
+    }
   };
-  ajaxCall(requestURL, requestData, successHandler);
+  var errorHandler = function () {
+    if (longPollCallback) {
+      longPollCallback(false);
+    }
+  };
+  ajaxCall(requestURL, requestData, successHandler, undefined, undefined, errorHandler);
 }
 
 function updatePastAttempts(data, update) {
@@ -492,6 +500,11 @@ var updateGraph = function (data, update) {
 }
 
 var updateTime = -1;
+// Delay between two long polls. It doubles while the flow changes faster than it, so that the
+// changes are fetched together, and is reset once the flow was quiet for longer.
+var LONG_POLL_MIN_DELAY_MS = 1000;
+var LONG_POLL_MAX_DELAY_MS = 16 * 1000;
+var longPollDelayMs = LONG_POLL_MIN_DELAY_MS;
 var updaterFunction = function () {
   var oldData = graphModel.get("data");
   var keepRunning =
@@ -500,34 +513,52 @@ var updaterFunction = function () {
       oldData.status != "KILLED";
 
   if (keepRunning) {
-    updateStatus();
+    // The server holds the request until the flow changes. When it can't, the status is polled
+    // at the intervals below.
+    var requestTime = Date.now();
+    updateStatus(undefined, function (longPoll) {
+      if (longPoll) {
+        if (Date.now() - requestTime < longPollDelayMs) {
+          longPollDelayMs = Math.min(longPollDelayMs * 2, LONG_POLL_MAX_DELAY_MS);
+        } else {
+          longPollDelayMs = LONG_POLL_MIN_DELAY_MS;
+        }
+        setTimeout(function () {
+          updaterFunction();
+        }, longPollDelayMs);
+      } else {
+        scheduleUpdate();
+      }
+    });
+  } else {
+    console.log("Flow finished, so no more updates");
+  }
+}
 
-    var data = graphModel.get("data");
-    if (data.status == "UNKNOWN" ||
-        data.status == "WAITING" ||
-        data.status == "PREPARING") {
-      // 2 min updates
-      setTimeout(function () {
-        updaterFunction();
-      }, 2 * 60 * 1000);
-    } else if (data.status == "KILLING") {
-      // 30 s updates - should finish soon now
-      setTimeout(function () {
-        updaterFunction();
-      }, 30 * 1000);
-    } else if (data.status != "SUCCEEDED" && data.status != "FAILED") {
-      // 2 min updates
-      setTimeout(function () {
-        updaterFunction();
-      }, 2 * 60 * 1000);
-    } else {
-      console.log("Flow finished, so no more updates");
-      setTimeout(function () {
-        updateStatus(0);
-      }, 500);
-    }
+var scheduleUpdate = function () {
+  var data = graphModel.get("data");
+  if (data.status == "UNKNOWN" ||
+      data.status == "WAITING" ||
+      data.status == "PREPARING") {
+    // 2 min updates
+    setTimeout(function () {
+      updaterFunction();
+    }, 2 * 60 * 1000);
+  } else if (data.status == "KILLING") {
+    // 30 s updates - should finish soon now
+    setTimeout(function () {
+      updaterFunction();
+    }, 30 * 1000);
+  } else if (data.status != "SUCCEEDED" && data.status != "FAILED") {
+    // 2 min updates
+    setTimeout(function () {
+      updaterFunction();
+    }, 2 * 60 * 1000);
   } else {
     console.log("Flow finished, so no more updates");
+    setTimeout(function () {
+      updateStatus(0);
+    }, 500);
   }
 }
 